@@ -0,0 +1,19 @@
+package com.remondis.limbus.benchmarks;
+
+import com.remondis.limbus.benchmarks.api.BenchmarkService;
+import com.remondis.limbus.engine.LimbusEngineImpl;
+
+/**
+ * The Limbus Engine used by the benchmarks. The package of the {@link BenchmarkService} is accessible for plugins.
+ */
+public class BenchmarkEngine extends LimbusEngineImpl {
+
+  @Override
+  protected String[] getPublicAccessPackages() {
+    return new String[] {
+        BenchmarkService.class.getPackage()
+            .getName()
+    };
+  }
+
+}
@@ -0,0 +1,148 @@
+package com.remondis.limbus.benchmarks;
+
+import com.remondis.limbus.api.Classpath;
+import com.remondis.limbus.benchmarks.api.BenchmarkService;
+import com.remondis.limbus.benchmarks.plugin.BenchmarkPlugin;
+import com.remondis.limbus.engine.LimbusDefaultComponents;
+import com.remondis.limbus.engine.api.LimbusContext;
+import com.remondis.limbus.engine.api.LimbusEngine;
+import com.remondis.limbus.engine.api.LogTarget;
+import com.remondis.limbus.files.InMemoryFilesystemImpl;
+import com.remondis.limbus.files.LimbusFileService;
+import com.remondis.limbus.staging.LimbusStage;
+import com.remondis.limbus.staging.LimbusStaging;
+import com.remondis.limbus.staging.LimbusStagingDeployment;
+
+/**
+ * The fixture of the benchmarks. The {@link BenchmarkStage} starts a Limbus Environment with the default components
+ * using {@link LimbusStaging} and deploys the {@link BenchmarkPlugin} as a {@link LimbusStagingDeployment}. The
+ * environment uses an {@link InMemoryFilesystemImpl} and a {@link NullLogTarget}, so the benchmarks run without
+ * touching the filesystem or the network.
+ *
+ * <p>
+ * Only one {@link BenchmarkStage} can be started at a time per JVM.
+ * </p>
+ */
+public class BenchmarkStage {
+
+  /**
+   * The JVM arguments for the forked benchmark JVMs. The Limbus Engine performs some cleaning/classloader-leak
+   * prevention using reflective access to java.base/java.lang.
+   */
+  public static final String ADD_OPENS = "--add-opens=java.base/java.lang=ALL-UNNAMED";
+
+  /**
+   * The deploy name of the {@link BenchmarkPlugin}.
+   */
+  public static final String DEPLOY_NAME = "benchmark";
+
+  private LimbusStage stage;
+
+  private LimbusEngine engine;
+
+  private Classpath classpath;
+
+  /**
+   * Starts the Limbus Environment.
+   *
+   * @throws Exception
+   *         Thrown on any bootstrapping error.
+   */
+  public void start() throws Exception {
+    LimbusStaging.prepareEnvironment();
+    // @formatter:off
+    this.stage = LimbusStaging
+        .fromDefaultLimbusComponents(new LimbusDefaultComponents())
+        .addComponentConfiguration(LimbusEngine.class, BenchmarkEngine.class)
+        .removePublicComponentConfiguration(LogTarget.class)
+        .addComponentConfiguration(LogTarget.class, NullLogTarget.class)
+        .addPublicComponentMock(LimbusFileService.class, new InMemoryFilesystemImpl())
+        .buildStage();
+    // @formatter:on
+    try {
+      stage.startStage();
+    } catch (Exception e) {
+      LimbusStaging.resetEnvironment();
+      throw e;
+    }
+    this.engine = stage.getComponent(LimbusEngine.class);
+  }
+
+  /**
+   * Starts the Limbus Environment and deploys the {@link BenchmarkPlugin}.
+   *
+   * @throws Exception
+   *         Thrown on any bootstrapping or deployment error.
+   */
+  public void startAndDeploy() throws Exception {
+    start();
+    try {
+      LimbusStagingDeployment deployment = stage.createDeployment(DEPLOY_NAME)
+          .andClasses(BenchmarkPlugin.class);
+      stage.deploy(deployment);
+      this.classpath = engine.getClasspath(DEPLOY_NAME);
+    } catch (Exception e) {
+      stop();
+      throw e;
+    }
+  }
+
+  /**
+   * @return Returns the engine of the running Limbus Environment.
+   */
+  public LimbusEngine getEngine() {
+    return engine;
+  }
+
+  /**
+   * @return Returns the classpath of the {@link BenchmarkPlugin} deployment.
+   */
+  public Classpath getClasspath() {
+    return classpath;
+  }
+
+  /**
+   * @return Returns the {@link LimbusContext} of the {@link BenchmarkPlugin} deployment.
+   * @throws Exception
+   *         Thrown if the plugin is not deployed.
+   */
+  public LimbusContext getContext() throws Exception {
+    return engine.getLimbusContext(classpath);
+  }
+
+  /**
+   * @return Returns the plugin classloader of the {@link BenchmarkPlugin} deployment.
+   * @throws Exception
+   *         Thrown if the plugin is not deployed.
+   */
+  public ClassLoader getPluginClassLoader() throws Exception {
+    return getContext().doContextAction(() -> Thread.currentThread()
+        .getContextClassLoader());
+  }
+
+  /**
+   * @return Returns a proxy of the {@link BenchmarkPlugin} created by the engine.
+   * @throws Exception
+   *         Thrown if the plugin cannot be created.
+   */
+  public BenchmarkService getPlugin() throws Exception {
+    return engine.getPlugin(classpath, BenchmarkPlugin.class.getName(), BenchmarkService.class);
+  }
+
+  /**
+   * Stops the Limbus Environment.
+   */
+  public void stop() {
+    try {
+      if (stage != null) {
+        stage.stopStage();
+      }
+    } finally {
+      stage = null;
+      engine = null;
+      classpath = null;
+      LimbusStaging.resetEnvironment();
+    }
+  }
+
+}
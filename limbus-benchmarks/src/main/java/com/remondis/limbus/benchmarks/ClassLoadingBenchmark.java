@@ -0,0 +1,64 @@
+package com.remondis.limbus.benchmarks;
+
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+
+import com.remondis.limbus.api.LimbusPlugin;
+import com.remondis.limbus.benchmarks.plugin.BenchmarkPlugin;
+
+/**
+ * Measures the class lookup of the plugin classloader. The local class is defined by the plugin classloader, the
+ * parent-delegated class is a class of the public Limbus API that is resolved by the shared classloader.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(value = 1, jvmArgsAppend = BenchmarkStage.ADD_OPENS)
+public class ClassLoadingBenchmark {
+
+  private static final String LOCAL_CLASS = BenchmarkPlugin.class.getName();
+
+  private static final String PARENT_DELEGATED_CLASS = LimbusPlugin.class.getName();
+
+  private BenchmarkStage stage;
+
+  private ClassLoader pluginClassLoader;
+
+  @Setup
+  public void setup() throws Exception {
+    this.stage = new BenchmarkStage();
+    stage.startAndDeploy();
+    this.pluginClassLoader = stage.getPluginClassLoader();
+    // Define the local class before measuring.
+    pluginClassLoader.loadClass(LOCAL_CLASS);
+  }
+
+  @Benchmark
+  public Class<?> loadLocalClass() throws ClassNotFoundException {
+    return pluginClassLoader.loadClass(LOCAL_CLASS);
+  }
+
+  @Benchmark
+  public Class<?> loadParentDelegatedClass() throws ClassNotFoundException {
+    return pluginClassLoader.loadClass(PARENT_DELEGATED_CLASS);
+  }
+
+  @TearDown
+  public void tearDown() {
+    stage.stop();
+  }
+
+}
@@ -0,0 +1,55 @@
+package com.remondis.limbus.benchmarks;
+
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+
+import com.remondis.limbus.engine.api.LimbusContext;
+
+/**
+ * Measures the context switch of
+ * {@link LimbusContext#doContextAction(com.remondis.limbus.engine.api.LimbusContextAction)}
+ * performed for every call into a plugin.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(value = 1, jvmArgsAppend = BenchmarkStage.ADD_OPENS)
+public class ContextActionBenchmark {
+
+  private BenchmarkStage stage;
+
+  private LimbusContext context;
+
+  private int value;
+
+  @Setup
+  public void setup() throws Exception {
+    this.stage = new BenchmarkStage();
+    stage.startAndDeploy();
+    this.context = stage.getContext();
+  }
+
+  @Benchmark
+  public int doContextAction() {
+    return context.doContextAction(() -> value + 1);
+  }
+
+  @TearDown
+  public void tearDown() {
+    stage.stop();
+  }
+
+}
@@ -0,0 +1,63 @@
+package com.remondis.limbus.benchmarks;
+
+import java.net.URL;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import com.remondis.limbus.files.InMemoryFilesystemImpl;
+
+/**
+ * Measures the listing of a folder of the {@link InMemoryFilesystemImpl}.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(value = 1, jvmArgsAppend = BenchmarkStage.ADD_OPENS)
+public class FilesystemListingBenchmark {
+
+  private static final String FOLDER = "deploy";
+
+  @Param({
+      "16", "256"
+  })
+  private int entries;
+
+  private InMemoryFilesystemImpl filesystem;
+
+  @Setup
+  public void setup() throws Exception {
+    this.filesystem = new InMemoryFilesystemImpl();
+    filesystem.initialize();
+    filesystem.createFolder(FOLDER, false);
+    for (int i = 0; i < entries; i++) {
+      filesystem.addContent(filesystem.toPath(FOLDER, "plugin-" + i + ".jar"), new byte[] {
+          (byte) i
+      });
+    }
+  }
+
+  @Benchmark
+  public List<String> getFolderEntries() throws Exception {
+    return filesystem.getFolderEntries(FOLDER);
+  }
+
+  @Benchmark
+  public List<URL> getFolderFiles() throws Exception {
+    return filesystem.getFolderFiles(FOLDER);
+  }
+
+}
@@ -0,0 +1,94 @@
+package com.remondis.limbus.benchmarks;
+
+import java.io.PrintStream;
+import java.nio.charset.StandardCharsets;
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+
+import com.remondis.limbus.engine.logging.AbstractLogTarget;
+
+/**
+ * Measures writes to System.out redirected by the {@link AbstractLogTarget}. Output of a plugin is routed to the
+ * channel of the plugin, output of the host is routed to the default target. The {@link NullLogTarget} discards the
+ * output, so only the log pipeline is measured.
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(value = 1, jvmArgsAppend = BenchmarkStage.ADD_OPENS)
+public class LogTargetBenchmark {
+
+  private static final byte[] LINE = "The quick brown fox jumps over the lazy dog.\n".getBytes(StandardCharsets.UTF_8);
+
+  @State(Scope.Benchmark)
+  public static class Environment {
+
+    private BenchmarkStage stage;
+
+    private ClassLoader pluginClassLoader;
+
+    @Setup
+    public void setup() throws Exception {
+      this.stage = new BenchmarkStage();
+      stage.startAndDeploy();
+      this.pluginClassLoader = stage.getPluginClassLoader();
+    }
+
+    @TearDown
+    public void tearDown() {
+      stage.stop();
+    }
+
+  }
+
+  /**
+   * Sets the context classloader of the benchmark thread. The setup of a thread state is performed by the benchmark
+   * thread.
+   */
+  @State(Scope.Thread)
+  public static class PluginThread {
+
+    private ClassLoader contextClassLoader;
+
+    @Setup
+    public void setup(Environment environment) {
+      Thread thread = Thread.currentThread();
+      this.contextClassLoader = thread.getContextClassLoader();
+      thread.setContextClassLoader(environment.pluginClassLoader);
+    }
+
+    @TearDown
+    public void tearDown() {
+      Thread.currentThread()
+          .setContextClassLoader(contextClassLoader);
+    }
+
+  }
+
+  @Benchmark
+  public void writePluginChannel(Environment environment, PluginThread thread) {
+    write(System.out);
+  }
+
+  @Benchmark
+  public void writeDefaultChannel(Environment environment) {
+    write(System.out);
+  }
+
+  private static void write(PrintStream out) {
+    out.write(LINE, 0, LINE.length);
+  }
+
+}
@@ -0,0 +1,83 @@
+package com.remondis.limbus.benchmarks;
+
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import com.remondis.limbus.events.EventMulticaster;
+import com.remondis.limbus.events.EventMulticasterFactory;
+
+/**
+ * Measures the dispatch of an event to all subscribers of a synchronous {@link EventMulticaster}.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(value = 1, jvmArgsAppend = BenchmarkStage.ADD_OPENS)
+public class MulticastBenchmark {
+
+  /**
+   * The subscriber interface of the benchmark.
+   */
+  public interface Subscriber {
+
+    public void onEvent(int value);
+
+  }
+
+  @Param({
+      "1", "8"
+  })
+  private int subscribers;
+
+  private EventMulticaster<Subscriber> multicaster;
+
+  private int value;
+
+  /**
+   * A subscriber summing up the received values, so the dispatch cannot be eliminated.
+   */
+  public static class SummingSubscriber implements Subscriber {
+
+    private long sum;
+
+    @Override
+    public void onEvent(int value) {
+      sum += value;
+    }
+
+  }
+
+  @Setup
+  public void setup() {
+    this.multicaster = EventMulticasterFactory.create(Subscriber.class);
+    for (int i = 0; i < subscribers; i++) {
+      multicaster.addSubscriber(new SummingSubscriber());
+    }
+  }
+
+  @Benchmark
+  public void multicast() {
+    multicaster.multicast()
+        .onEvent(value);
+  }
+
+  @Benchmark
+  public void multicastSilently() {
+    multicaster.multicastSilently()
+        .onEvent(value);
+  }
+
+}
@@ -0,0 +1,45 @@
+package com.remondis.limbus.benchmarks;
+
+import java.io.OutputStream;
+
+import com.remondis.limbus.engine.logging.AbstractLogTarget;
+import com.remondis.limbus.engine.logging.OutputStreamTargetWriter;
+import com.remondis.limbus.engine.logging.TargetWriter;
+
+/**
+ * A log target discarding all output. This log target runs the whole log pipeline of the {@link AbstractLogTarget}
+ * without the cost of I/O and without flooding the benchmark output.
+ */
+public class NullLogTarget extends AbstractLogTarget<OutputStream> {
+
+  @Override
+  protected OutputStream createStdOutTarget(String deployName) {
+    return OutputStream.nullOutputStream();
+  }
+
+  @Override
+  protected OutputStream createStdErrTarget(String deployName) {
+    return OutputStream.nullOutputStream();
+  }
+
+  @Override
+  protected TargetWriter<OutputStream> getTargetWriter() {
+    return new OutputStreamTargetWriter();
+  }
+
+  @Override
+  protected OutputStream getDefaultTargetStdOut() {
+    return OutputStream.nullOutputStream();
+  }
+
+  @Override
+  protected OutputStream getDefaultTargetStdErr() {
+    return OutputStream.nullOutputStream();
+  }
+
+  @Override
+  protected void destroyTarget(OutputStream target) {
+    // Nothing to close.
+  }
+
+}
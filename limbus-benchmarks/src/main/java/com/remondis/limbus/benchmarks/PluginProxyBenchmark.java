@@ -0,0 +1,69 @@
+package com.remondis.limbus.benchmarks;
+
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+
+import com.remondis.limbus.benchmarks.api.BenchmarkService;
+import com.remondis.limbus.benchmarks.plugin.BenchmarkPlugin;
+import com.remondis.limbus.engine.api.LimbusEngine;
+
+/**
+ * Measures a call of a plugin method through the lifecycle proxy returned by
+ * {@link LimbusEngine#getPlugin(com.remondis.limbus.api.Classpath, String, Class)}. The direct call of the plugin
+ * method is the baseline.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(value = 1, jvmArgsAppend = BenchmarkStage.ADD_OPENS)
+public class PluginProxyBenchmark {
+
+  private BenchmarkStage stage;
+
+  private BenchmarkService proxy;
+
+  private BenchmarkService plugin;
+
+  private int value;
+
+  @Setup
+  public void setup() throws Exception {
+    this.stage = new BenchmarkStage();
+    stage.startAndDeploy();
+    this.proxy = stage.getPlugin();
+    // The baseline is an instance of the same plugin class created without the engine.
+    this.plugin = (BenchmarkService) stage.getPluginClassLoader()
+        .loadClass(BenchmarkPlugin.class.getName())
+        .getConstructor()
+        .newInstance();
+  }
+
+  @Benchmark
+  public int invokeProxy() {
+    return proxy.increment(value);
+  }
+
+  @Benchmark
+  public int invokeDirect() {
+    return plugin.increment(value);
+  }
+
+  @TearDown
+  public void tearDown() {
+    stage.stop();
+  }
+
+}
@@ -0,0 +1,48 @@
+package com.remondis.limbus.benchmarks;
+
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+
+import com.remondis.limbus.system.LimbusSystem;
+
+/**
+ * Measures the startup of a {@link LimbusSystem} with the default components. Every invocation starts a new Limbus
+ * Environment that is stopped afterwards without being measured.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.SingleShotTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 10)
+@Measurement(iterations = 20)
+@Fork(value = 1, jvmArgsAppend = BenchmarkStage.ADD_OPENS)
+public class SystemStartupBenchmark {
+
+  private BenchmarkStage stage;
+
+  @Benchmark
+  public BenchmarkStage startSystem() throws Exception {
+    this.stage = new BenchmarkStage();
+    stage.start();
+    return stage;
+  }
+
+  @TearDown(Level.Iteration)
+  public void stopSystem() {
+    if (stage != null) {
+      stage.stop();
+      stage = null;
+    }
+  }
+
+}
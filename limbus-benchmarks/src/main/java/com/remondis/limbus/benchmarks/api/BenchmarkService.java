@@ -0,0 +1,18 @@
+package com.remondis.limbus.benchmarks.api;
+
+import com.remondis.limbus.api.LimbusPlugin;
+
+/**
+ * The plugin interface used by the benchmarks. This package is a public access package of the
+ * {@link com.remondis.limbus.benchmarks.BenchmarkEngine}, so this interface is shared between the host and the plugin.
+ */
+public interface BenchmarkService extends LimbusPlugin {
+
+  /**
+   * @param value
+   *        The value.
+   * @return Returns the value incremented by one.
+   */
+  public int increment(int value);
+
+}
@@ -0,0 +1,24 @@
+package com.remondis.limbus.benchmarks.plugin;
+
+import com.remondis.limbus.api.Initializable;
+import com.remondis.limbus.benchmarks.api.BenchmarkService;
+
+/**
+ * The plugin deployed by the benchmarks. This class is loaded by the plugin classloader of the deployment.
+ */
+public class BenchmarkPlugin extends Initializable<Exception> implements BenchmarkService {
+
+  @Override
+  public int increment(int value) {
+    return value + 1;
+  }
+
+  @Override
+  protected void performInitialize() throws Exception {
+  }
+
+  @Override
+  protected void performFinish() {
+  }
+
+}
@@ -0,0 +1,41 @@
+package com.remondis.limbus.api.metrics;
+
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * A counter of events. Counters are incremented concurrently without contention and without allocating.
+ */
+public final class Counter implements Metric {
+
+  private final LongAdder count = new LongAdder();
+
+  /**
+   * Increments the counter by one.
+   */
+  public void increment() {
+    count.increment();
+  }
+
+  /**
+   * Increments the counter by the specified amount.
+   *
+   * @param amount
+   *        The amount to add.
+   */
+  public void add(long amount) {
+    count.add(amount);
+  }
+
+  /**
+   * @return Returns the current count.
+   */
+  public long getCount() {
+    return count.sum();
+  }
+
+  @Override
+  public String toString() {
+    return "Counter [count=" + getCount() + "]";
+  }
+
+}
@@ -0,0 +1,15 @@
+package com.remondis.limbus.api.metrics;
+
+/**
+ * A gauge samples a value on demand, for example the size of a queue. Gauges are called by the threads reading the
+ * metrics, so they must be thread safe and should be cheap.
+ */
+@FunctionalInterface
+public interface Gauge extends Metric {
+
+  /**
+   * @return Returns the current value.
+   */
+  public long getValue();
+
+}
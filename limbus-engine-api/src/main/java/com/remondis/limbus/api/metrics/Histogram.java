@@ -0,0 +1,154 @@
+package com.remondis.limbus.api.metrics;
+
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicLongArray;
+
+/**
+ * A histogram of non-negative values with logarithmic buckets. Like an HDR histogram, the buckets are linear for small
+ * values and are subdivided into 32 linear sub-buckets for every power of two above. The relative error of the values
+ * reported is below 1/32 for every value, while the memory footprint is fixed. Values bigger than {@link #MAX_VALUE}
+ * are recorded as {@link #MAX_VALUE}.
+ *
+ * <p>
+ * Values can be recorded concurrently without allocating. Use {@link #copy()} to get a stable copy for reporting. The
+ * copy is not an atomic snapshot: a value recorded while copying may only be reflected in some of the statistics of
+ * the copy, for example in the mean but not in the count.
+ * </p>
+ */
+public final class Histogram implements Metric {
+
+  private static final int SUB_BUCKET_BITS = 6;
+
+  private static final int SUB_BUCKET_COUNT = 1 << SUB_BUCKET_BITS;
+
+  private static final int SUB_BUCKET_HALF_COUNT = SUB_BUCKET_COUNT / 2;
+
+  /**
+   * The maximum value tracked with the relative error of this histogram.
+   */
+  public static final long MAX_VALUE = (1L << 36) - 1;
+
+  private static final int BUCKET_COUNT = indexOf(MAX_VALUE) + 1;
+
+  private final AtomicLongArray counts;
+
+  private final AtomicLong totalCount = new AtomicLong();
+
+  private final AtomicLong sum = new AtomicLong();
+
+  private final AtomicLong max = new AtomicLong();
+
+  public Histogram() {
+    this.counts = new AtomicLongArray(BUCKET_COUNT);
+  }
+
+  private Histogram(Histogram histogram) {
+    this();
+    for (int i = 0; i < BUCKET_COUNT; i++) {
+      long count = histogram.counts.get(i);
+      counts.set(i, count);
+      totalCount.addAndGet(count);
+    }
+    sum.set(histogram.sum.get());
+    max.set(histogram.max.get());
+  }
+
+  /**
+   * Records a value.
+   *
+   * @param value
+   *        The value to record. Negative values are recorded as 0.
+   */
+  public void record(long value) {
+    long v = Math.min(MAX_VALUE, Math.max(0, value));
+    counts.incrementAndGet(indexOf(v));
+    totalCount.incrementAndGet();
+    sum.addAndGet(v);
+    max.accumulateAndGet(v, Math::max);
+  }
+
+  /**
+   * Copies this histogram. Values recorded concurrently may be missing from some of the statistics of the copy.
+   *
+   * @return Returns a copy of this histogram.
+   */
+  public Histogram copy() {
+    return new Histogram(this);
+  }
+
+  /**
+   * @return Returns the number of recorded values.
+   */
+  public long getCount() {
+    return totalCount.get();
+  }
+
+  /**
+   * @return Returns the maximum recorded value or 0 if no value was recorded.
+   */
+  public long getMax() {
+    return max.get();
+  }
+
+  /**
+   * @return Returns the mean of the recorded values or 0 if no value was recorded.
+   */
+  public double getMean() {
+    long count = getCount();
+    if (count == 0) {
+      return 0;
+    }
+    return (double) sum.get() / count;
+  }
+
+  /**
+   * @param percentile
+   *        The percentile between 0 and 100.
+   * @return Returns the value at the specified percentile or 0 if no value was recorded. The value is the highest
+   *         value that is equivalent to the recorded values within the precision of the histogram, but not bigger than
+   *         the maximum value recorded.
+   */
+  public long getValueAtPercentile(double percentile) {
+    if (percentile < 0 || percentile > 100) {
+      throw new IllegalArgumentException("The percentile must be between 0 and 100.");
+    }
+    long count = getCount();
+    if (count == 0) {
+      return 0;
+    }
+    long countAtPercentile = Math.max(1, (long) Math.ceil(percentile / 100d * count));
+    long seen = 0;
+    for (int i = 0; i < BUCKET_COUNT; i++) {
+      seen += counts.get(i);
+      if (seen >= countAtPercentile) {
+        return Math.min(highestValueOf(i), getMax());
+      }
+    }
+    return getMax();
+  }
+
+  /**
+   * @return Returns the index of the bucket holding the specified value.
+   */
+  static int indexOf(long value) {
+    if (value < SUB_BUCKET_COUNT) {
+      return (int) value;
+    }
+    // The shift brings the value into the upper half of the sub-buckets.
+    int shift = (63 - Long.numberOfLeadingZeros(value)) - (SUB_BUCKET_BITS - 1);
+    return (shift + 1) * SUB_BUCKET_HALF_COUNT + (int) ((value >> shift) - SUB_BUCKET_HALF_COUNT);
+  }
+
+  /**
+   * @return Returns the highest value of the bucket with the specified index.
+   */
+  static long highestValueOf(int index) {
+    if (index < SUB_BUCKET_COUNT) {
+      return index;
+    }
+    int shift = index / SUB_BUCKET_HALF_COUNT - 1;
+    long subBucket = index % SUB_BUCKET_HALF_COUNT + SUB_BUCKET_HALF_COUNT;
+    return ((subBucket + 1) << shift) - 1;
+  }
+
+}
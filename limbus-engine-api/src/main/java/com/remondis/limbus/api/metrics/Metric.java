@@ -0,0 +1,15 @@
+package com.remondis.limbus.api.metrics;
+
+/**
+ * The common type of all metrics managed by a {@link MetricRegistry}. The Limbus Engine provides the following
+ * metrics:
+ * <ul>
+ * <li>{@link Counter}: A monotonic count of events.</li>
+ * <li>{@link Gauge}: A value sampled on demand.</li>
+ * <li>{@link Histogram}: The distribution of recorded values.</li>
+ * <li>{@link Timer}: The distribution of durations in nanoseconds.</li>
+ * </ul>
+ */
+public interface Metric {
+
+}
@@ -0,0 +1,230 @@
+package com.remondis.limbus.api.metrics;
+
+import java.util.Collections;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.SortedMap;
+import java.util.TreeMap;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.function.Supplier;
+
+import com.remondis.limbus.api.IllegalTypeException;
+
+/**
+ * The registry of named {@link Metric}s. Metrics are created or registered once and are then updated directly by
+ * the instrumented code, so the registry is not involved when values are recorded.
+ *
+ * <p>
+ * Metric names are dot-separated, for example <tt>limbus.engine.deploy</tt>. Use {@link #name(String, String...)} to
+ * build names. The metrics of the Limbus Engine are prefixed with <tt>limbus.</tt>.
+ * </p>
+ *
+ * <p>
+ * This class is thread safe.
+ * </p>
+ */
+public final class MetricRegistry {
+
+  private final ConcurrentHashMap<String, Metric> metrics = new ConcurrentHashMap<>();
+
+  private final List<MetricRegistryListener> listeners = new CopyOnWriteArrayList<>();
+
+  /**
+   * Returns the {@link Counter} with the specified name. The counter is created if it does not exist.
+   *
+   * @param name
+   *        The name of the metric.
+   * @return Returns the counter.
+   * @throws IllegalTypeException
+   *         Thrown if a metric of another type is registered with this name.
+   */
+  public Counter counter(String name) {
+    return getOrAdd(name, Counter.class, Counter::new);
+  }
+
+  /**
+   * Returns the {@link Timer} with the specified name. The timer is created if it does not exist.
+   *
+   * @param name
+   *        The name of the metric.
+   * @return Returns the timer.
+   * @throws IllegalTypeException
+   *         Thrown if a metric of another type is registered with this name.
+   */
+  public Timer timer(String name) {
+    return getOrAdd(name, Timer.class, Timer::new);
+  }
+
+  /**
+   * Returns the {@link Histogram} with the specified name. The histogram is created if it does not exist.
+   *
+   * @param name
+   *        The name of the metric.
+   * @return Returns the histogram.
+   * @throws IllegalTypeException
+   *         Thrown if a metric of another type is registered with this name.
+   */
+  public Histogram histogram(String name) {
+    return getOrAdd(name, Histogram.class, Histogram::new);
+  }
+
+  private <M extends Metric> M getOrAdd(String name, Class<M> type, Supplier<M> factory) {
+    Objects.requireNonNull(name, "name must not be null!");
+    Metric metric = metrics.get(name);
+    if (metric == null) {
+      M created = factory.get();
+      metric = metrics.putIfAbsent(name, created);
+      if (metric == null) {
+        notifyAdded(name, created);
+        return created;
+      }
+    }
+    if (type.isInstance(metric)) {
+      return type.cast(metric);
+    } else {
+      throw new IllegalTypeException(String.format("The metric %s is a %s, not a %s.", name, metric.getClass()
+          .getSimpleName(), type.getSimpleName()));
+    }
+  }
+
+  /**
+   * Registers a metric. A metric registered with the same name before is replaced.
+   *
+   * @param name
+   *        The name of the metric.
+   * @param metric
+   *        The metric, for example a {@link Gauge}.
+   * @return Returns the registered metric.
+   */
+  public <M extends Metric> M register(String name, M metric) {
+    Objects.requireNonNull(name, "name must not be null!");
+    Objects.requireNonNull(metric, "metric must not be null!");
+    Metric replaced = metrics.put(name, metric);
+    if (replaced != null) {
+      notifyRemoved(name, replaced);
+    }
+    notifyAdded(name, metric);
+    return metric;
+  }
+
+  /**
+   * Removes the metric with the specified name.
+   *
+   * @param name
+   *        The name of the metric.
+   * @return Returns <code>true</code> if the metric was removed, otherwise <code>false</code> is returned.
+   */
+  public boolean remove(String name) {
+    Objects.requireNonNull(name, "name must not be null!");
+    Metric removed = metrics.remove(name);
+    if (removed == null) {
+      return false;
+    } else {
+      notifyRemoved(name, removed);
+      return true;
+    }
+  }
+
+  /**
+   * Removes the metric with the specified name if it is the specified metric. Use this method to remove a metric that
+   * may have been replaced by another component in the meantime.
+   *
+   * @param name
+   *        The name of the metric.
+   * @param metric
+   *        The metric to remove.
+   * @return Returns <code>true</code> if the metric was removed, otherwise <code>false</code> is returned.
+   */
+  public boolean remove(String name, Metric metric) {
+    Objects.requireNonNull(name, "name must not be null!");
+    if (metrics.remove(name, metric)) {
+      notifyRemoved(name, metric);
+      return true;
+    } else {
+      return false;
+    }
+  }
+
+  /**
+   * @param name
+   *        The name of the metric.
+   * @return Returns the metric with the specified name or <code>null</code> if it does not exist.
+   */
+  public Metric getMetric(String name) {
+    return metrics.get(name);
+  }
+
+  /**
+   * @return Returns a snapshot of all metrics sorted by name.
+   */
+  public SortedMap<String, Metric> getMetrics() {
+    return Collections.unmodifiableSortedMap(new TreeMap<>(metrics));
+  }
+
+  /**
+   * Adds a listener. The listener is notified about the metrics registered so far, too.
+   *
+   * @param listener
+   *        The listener.
+   */
+  public void addListener(MetricRegistryListener listener) {
+    Objects.requireNonNull(listener, "listener must not be null!");
+    listeners.add(listener);
+    for (Map.Entry<String, Metric> entry : metrics.entrySet()) {
+      listener.metricAdded(entry.getKey(), entry.getValue());
+    }
+  }
+
+  /**
+   * Removes a listener.
+   *
+   * @param listener
+   *        The listener.
+   */
+  public void removeListener(MetricRegistryListener listener) {
+    listeners.remove(listener);
+  }
+
+  private void notifyAdded(String name, Metric metric) {
+    for (MetricRegistryListener listener : listeners) {
+      listener.metricAdded(name, metric);
+    }
+  }
+
+  private void notifyRemoved(String name, Metric metric) {
+    for (MetricRegistryListener listener : listeners) {
+      listener.metricRemoved(name, metric);
+    }
+  }
+
+  /**
+   * Builds a metric name by joining the specified parts with dots. <code>null</code> or empty parts are skipped.
+   *
+   * @param name
+   *        The first part of the name.
+   * @param names
+   *        The remaining parts of the name.
+   * @return Returns the metric name.
+   */
+  public static String name(String name, String... names) {
+    StringBuilder builder = new StringBuilder();
+    append(builder, name);
+    for (String part : names) {
+      append(builder, part);
+    }
+    return builder.toString();
+  }
+
+  private static void append(StringBuilder builder, String part) {
+    if (part == null || part.isEmpty()) {
+      return;
+    }
+    if (builder.length() > 0) {
+      builder.append('.');
+    }
+    builder.append(part);
+  }
+
+}
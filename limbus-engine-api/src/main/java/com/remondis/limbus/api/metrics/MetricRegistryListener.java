@@ -0,0 +1,31 @@
+package com.remondis.limbus.api.metrics;
+
+/**
+ * A listener notified about metrics added to or removed from a {@link MetricRegistry}. Exporters use this listener to
+ * publish the metrics, for example as JMX MBeans.
+ */
+public interface MetricRegistryListener {
+
+  /**
+   * Called after a metric was added to the registry.
+   *
+   * @param name
+   *        The name of the metric.
+   * @param metric
+   *        The metric.
+   */
+  public default void metricAdded(String name, Metric metric) {
+  }
+
+  /**
+   * Called after a metric was removed from the registry.
+   *
+   * @param name
+   *        The name of the metric.
+   * @param metric
+   *        The metric.
+   */
+  public default void metricRemoved(String name, Metric metric) {
+  }
+
+}
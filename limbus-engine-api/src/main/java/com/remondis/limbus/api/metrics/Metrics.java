@@ -0,0 +1,27 @@
+package com.remondis.limbus.api.metrics;
+
+/**
+ * The Limbus Monitoring Facade provides the {@link MetricRegistry} of this JVM. The Limbus Engine records its metrics
+ * to this registry and passes it to the
+ * <tt>com.remondis.limbus.activators.monitoring.MonitoringActivator</tt>, which exports the metrics.
+ *
+ * <p>
+ * Plugins may register their own metrics, too. Metrics referencing objects of a plugin must be removed by the plugin
+ * when it is finished, otherwise the plugin classloader cannot be garbage collected.
+ * </p>
+ */
+public final class Metrics {
+
+  private static final MetricRegistry REGISTRY = new MetricRegistry();
+
+  private Metrics() {
+  }
+
+  /**
+   * @return Returns the {@link MetricRegistry} of this JVM.
+   */
+  public static MetricRegistry getRegistry() {
+    return REGISTRY;
+  }
+
+}
@@ -0,0 +1,76 @@
+package com.remondis.limbus.api.metrics;
+
+import java.util.Objects;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * A timer records the distribution of durations in nanoseconds using a {@link Histogram}. Durations bigger than
+ * {@link Histogram#MAX_VALUE} nanoseconds (about 68 seconds) are recorded as {@link Histogram#MAX_VALUE}.
+ *
+ * <p>
+ * To avoid allocations on hot paths, durations are measured by the caller:
+ * </p>
+ *
+ * <pre>
+ * long start = System.nanoTime();
+ * ...
+ * timer.recordSince(start);
+ * </pre>
+ */
+public final class Timer implements Metric {
+
+  private final Histogram durations = new Histogram();
+
+  /**
+   * Records a duration.
+   *
+   * @param duration
+   *        The duration.
+   * @param unit
+   *        The time unit of the duration.
+   */
+  public void record(long duration, TimeUnit unit) {
+    Objects.requireNonNull(unit, "unit must not be null!");
+    durations.record(unit.toNanos(duration));
+  }
+
+  /**
+   * Records a duration in nanoseconds.
+   *
+   * @param nanos
+   *        The duration in nanoseconds.
+   */
+  public void recordNanos(long nanos) {
+    durations.record(nanos);
+  }
+
+  /**
+   * Records the time passed since the specified start.
+   *
+   * @param startNanos
+   *        The start as returned by {@link System#nanoTime()}.
+   */
+  public void recordSince(long startNanos) {
+    durations.record(System.nanoTime() - startNanos);
+  }
+
+  /**
+   * @return Returns the number of recorded durations.
+   */
+  public long getCount() {
+    return durations.getCount();
+  }
+
+  /**
+   * @return Returns a snapshot of the recorded durations in nanoseconds.
+   */
+  public Histogram getSnapshot() {
+    return durations.copy();
+  }
+
+  @Override
+  public String toString() {
+    return "Timer [count=" + getCount() + "]";
+  }
+
+}
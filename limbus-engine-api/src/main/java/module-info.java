@@ -1,3 +1,4 @@
 module com.remondis.limbus.api {
   exports com.remondis.limbus.api;
-}
\ No newline at end of file
+  exports com.remondis.limbus.api.metrics;
+}
@@ -0,0 +1,45 @@
+package com.remondis.limbus.api.metrics;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import org.junit.jupiter.api.Test;
+
+public class HistogramTest {
+
+  @Test
+  public void shouldReportPercentilesWithinPrecision() {
+    Histogram histogram = new Histogram();
+    assertEquals(0, histogram.getValueAtPercentile(99));
+    for (long value = 1; value <= 100_000; value++) {
+      histogram.record(value);
+    }
+    assertEquals(100_000, histogram.getCount());
+    assertEquals(100_000, histogram.getMax());
+    assertEquals(50_000.5, histogram.getMean(), 0.001);
+    assertWithinPrecision(50_000, histogram.getValueAtPercentile(50));
+    assertWithinPrecision(99_000, histogram.getValueAtPercentile(99));
+    assertEquals(100_000, histogram.getValueAtPercentile(100));
+
+    Histogram copy = histogram.copy();
+    histogram.record(Long.MAX_VALUE);
+    assertEquals(100_000, copy.getCount());
+    assertEquals(Histogram.MAX_VALUE, histogram.getMax());
+  }
+
+  @Test
+  public void shouldMapValuesToBuckets() {
+    for (long value = 0; value < 1_000_000; value++) {
+      int index = Histogram.indexOf(value);
+      assertTrue(value <= Histogram.highestValueOf(index));
+      if (index > 0) {
+        assertTrue(value > Histogram.highestValueOf(index - 1));
+      }
+    }
+  }
+
+  private static void assertWithinPrecision(long expected, long actual) {
+    assertTrue(Math.abs(expected - actual) <= expected / 32, expected + " != " + actual);
+  }
+
+}
@@ -0,0 +1,66 @@
+package com.remondis.limbus.api.metrics;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertSame;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.util.LinkedList;
+import java.util.List;
+
+import org.junit.jupiter.api.Test;
+
+import com.remondis.limbus.api.IllegalTypeException;
+
+public class MetricRegistryTest {
+
+  @Test
+  public void shouldCreateMetricsOnce() {
+    MetricRegistry registry = new MetricRegistry();
+    Counter counter = registry.counter("a.counter");
+    counter.add(2);
+    assertSame(counter, registry.counter("a.counter"));
+    assertEquals(2, registry.counter("a.counter")
+        .getCount());
+    assertSame(registry.timer("a.timer"), registry.timer("a.timer"));
+    assertThrows(IllegalTypeException.class, () -> registry.timer("a.counter"));
+  }
+
+  @Test
+  public void shouldNotifyListeners() {
+    MetricRegistry registry = new MetricRegistry();
+    Counter counter = registry.counter("a.counter");
+    List<String> events = new LinkedList<>();
+    registry.addListener(new MetricRegistryListener() {
+
+      @Override
+      public void metricAdded(String name, Metric metric) {
+        events.add("added " + name);
+      }
+
+      @Override
+      public void metricRemoved(String name, Metric metric) {
+        events.add("removed " + name);
+      }
+    });
+    Gauge gauge = () -> 42;
+    registry.register("a.gauge", gauge);
+    // A replaced metric must not be removed by its former owner.
+    registry.register("a.counter", new Counter());
+    assertFalse(registry.remove("a.counter", counter));
+    assertTrue(registry.remove("a.gauge"));
+    assertNull(registry.getMetric("a.gauge"));
+    assertEquals(1, registry.getMetrics()
+        .size());
+    assertEquals(List.of("added a.counter", "added a.gauge", "removed a.counter", "added a.counter", "removed a.gauge"),
+        events);
+  }
+
+  @Test
+  public void shouldJoinNames() {
+    assertEquals("limbus.deployment.name.calls", MetricRegistry.name("limbus.deployment", "name", null, "", "calls"));
+  }
+
+}
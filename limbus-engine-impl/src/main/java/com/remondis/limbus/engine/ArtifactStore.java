@@ -0,0 +1,283 @@
+package com.remondis.limbus.engine;
+
+import static java.nio.file.StandardCopyOption.ATOMIC_MOVE;
+import static java.nio.file.StandardCopyOption.REPLACE_EXISTING;
+
+import java.io.File;
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.file.DirectoryStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.attribute.BasicFileAttributes;
+import java.security.NoSuchAlgorithmException;
+import java.util.HashMap;
+import java.util.LinkedList;
+import java.util.List;
+import java.util.Map;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import com.remondis.limbus.utils.Hash;
+import com.remondis.limbus.utils.Lang;
+
+/**
+ * This is a content-addressed store for the artifact files of deployments. Every artifact is stored once under its
+ * SHA-1 hash in the store folder within the work directory. Deployments reference the stored artifacts using hard
+ * links, so deployments sharing an artifact do not duplicate the file on disk. If the filesystem does not support hard
+ * links, the artifact is copied into the deployment instead.
+ *
+ * <p>
+ * The store counts the references of every artifact. If the last deployment referencing an artifact is released, the
+ * artifact is deleted from the store. The references are restored from the deployments in the work directory when the
+ * store is opened.
+ * </p>
+ *
+ * <p>
+ * This class is thread-safe.
+ * </p>
+ */
+final class ArtifactStore {
+
+  private static final Logger log = LoggerFactory.getLogger(ArtifactStore.class);
+
+  /**
+   * The name of the store folder within the work directory.
+   */
+  static final String STORE_FOLDER = ".artifacts";
+
+  private static final String TEMP_PREFIX = ".tmp-";
+
+  private final Path storeDirectory;
+
+  /**
+   * Maps the hash of a stored artifact to the number of references.
+   */
+  private final Map<String, Integer> references = new HashMap<>();
+
+  /**
+   * Maps the deploy names to the hashes of the referenced artifacts.
+   */
+  private final Map<String, List<String>> deployments = new HashMap<>();
+
+  private ArtifactStore(Path storeDirectory) {
+    this.storeDirectory = storeDirectory;
+  }
+
+  /**
+   * Opens the artifact store in the specified work directory. The references of the deployments found in the work
+   * directory are restored. Artifacts that are not referenced are deleted.
+   *
+   * @param workDirectory
+   *        The work directory containing a folder for every deployment.
+   * @return Returns the artifact store.
+   * @throws IOException
+   *         Thrown if the store folder cannot be created or read.
+   */
+  static ArtifactStore open(File workDirectory) throws IOException {
+    Lang.denyNull("workDirectory", workDirectory);
+    Path storeDirectory = workDirectory.toPath()
+        .resolve(STORE_FOLDER);
+    Files.createDirectories(storeDirectory);
+    ArtifactStore store = new ArtifactStore(storeDirectory);
+    store.restoreReferences(workDirectory.toPath());
+    return store;
+  }
+
+  /**
+   * Adds an artifact to a deployment. If the artifact is not stored yet, it is added to the store. The target file is
+   * created as a link to the stored artifact.
+   *
+   * @param deployName
+   *        The deploy name of the deployment referencing the artifact.
+   * @param artifact
+   *        The artifact file to add.
+   * @param target
+   *        The file to create in the deployment.
+   * @throws IOException
+   *         Thrown if the artifact cannot be stored or the target cannot be created.
+   */
+  void link(String deployName, File artifact, File target) throws IOException {
+    Lang.denyNull("deployName", deployName);
+    Lang.denyNull("artifact", artifact);
+    Lang.denyNull("target", target);
+    String hash = hash(artifact.toPath());
+    Path entry = storeDirectory.resolve(hash);
+
+    // Copy new artifacts outside the lock, so concurrent deployments only wait for the bookkeeping.
+    Path temp = null;
+    if (!Files.exists(entry)) {
+      temp = Files.createTempFile(storeDirectory, TEMP_PREFIX, null);
+      Files.copy(artifact.toPath(), temp, REPLACE_EXISTING);
+    }
+
+    synchronized (this) {
+      if (Files.exists(entry)) {
+        if (temp != null) {
+          Files.delete(temp);
+        }
+      } else {
+        // The artifact may have been deleted by a concurrent release since the check above.
+        if (temp == null) {
+          temp = Files.createTempFile(storeDirectory, TEMP_PREFIX, null);
+          Files.copy(artifact.toPath(), temp, REPLACE_EXISTING);
+        }
+        Files.move(temp, entry, ATOMIC_MOVE);
+      }
+      // A file left by a previous deployment is replaced. Its reference is released with the deployment.
+      Files.deleteIfExists(target.toPath());
+      if (createLink(target.toPath(), entry)) {
+        references.merge(hash, 1, Integer::sum);
+        deployments.computeIfAbsent(deployName, name -> new LinkedList<>())
+            .add(hash);
+      } else {
+        // The deployment holds a copy, so the stored artifact is only kept if referenced otherwise.
+        deleteIfUnreferenced(hash);
+      }
+    }
+  }
+
+  /**
+   * Releases all artifacts referenced by the specified deployment. Artifacts that are no longer referenced are deleted
+   * from the store. Releasing a deployment that does not reference any artifacts does nothing.
+   *
+   * @param deployName
+   *        The deploy name of the deployment.
+   */
+  synchronized void release(String deployName) {
+    Lang.denyNull("deployName", deployName);
+    List<String> hashes = deployments.remove(deployName);
+    if (hashes == null) {
+      return;
+    }
+    for (String hash : hashes) {
+      Integer count = references.computeIfPresent(hash, (key, value) -> value > 1 ? value - 1 : null);
+      if (count == null) {
+        deleteIfUnreferenced(hash);
+      }
+    }
+  }
+
+  /**
+   * @param hash
+   *        The hash of an artifact.
+   * @return Returns the number of deployments referencing the artifact.
+   */
+  synchronized int getReferences(String hash) {
+    return references.getOrDefault(hash, 0);
+  }
+
+  /**
+   * @return Returns the number of artifacts in the store.
+   */
+  synchronized int size() throws IOException {
+    int size = 0;
+    try (DirectoryStream<Path> entries = Files.newDirectoryStream(storeDirectory)) {
+      for (Path entry : entries) {
+        if (isEntry(entry)) {
+          size++;
+        }
+      }
+    }
+    return size;
+  }
+
+  /**
+   * Computes the hash used to address an artifact in the store.
+   *
+   * @param file
+   *        The artifact file.
+   * @return Returns the hexadecimal SHA-1 hash of the file content.
+   * @throws IOException
+   *         Thrown if the file cannot be read.
+   */
+  static String hash(Path file) throws IOException {
+    try (InputStream input = Files.newInputStream(file)) {
+      return Hash.toHexString(Hash.toSHA(input));
+    } catch (NoSuchAlgorithmException e) {
+      throw new IOException("Cannot hash artifact file - SHA-1 is not available.", e);
+    }
+  }
+
+  private boolean createLink(Path target, Path entry) throws IOException {
+    try {
+      Files.createLink(target, entry);
+      return true;
+    } catch (UnsupportedOperationException | IOException e) {
+      // Hard links are not supported by all filesystems or across devices.
+      log.debug("Cannot link artifact {} - copying the artifact.", target, e);
+      Files.copy(entry, target, REPLACE_EXISTING);
+      return false;
+    }
+  }
+
+  private void deleteIfUnreferenced(String hash) {
+    if (!references.containsKey(hash)) {
+      try {
+        Files.deleteIfExists(storeDirectory.resolve(hash));
+      } catch (IOException e) {
+        log.warn("Cannot delete unreferenced artifact {} from the artifact store.", hash, e);
+      }
+    }
+  }
+
+  private void restoreReferences(Path workDirectory) throws IOException {
+    // Map the stored artifacts by their file keys. A hard link shares the file key with the stored artifact.
+    Map<Object, String> entriesByFileKey = new HashMap<>();
+    try (DirectoryStream<Path> entries = Files.newDirectoryStream(storeDirectory)) {
+      for (Path entry : entries) {
+        if (isEntry(entry)) {
+          Object fileKey = getFileKey(entry);
+          if (fileKey != null) {
+            entriesByFileKey.put(fileKey, entry.getFileName()
+                .toString());
+          }
+        } else {
+          Files.deleteIfExists(entry);
+        }
+      }
+    }
+
+    if (!entriesByFileKey.isEmpty()) {
+      try (DirectoryStream<Path> deploymentFolders = Files.newDirectoryStream(workDirectory, Files::isDirectory)) {
+        for (Path deploymentFolder : deploymentFolders) {
+          String deployName = deploymentFolder.getFileName()
+              .toString();
+          if (STORE_FOLDER.equals(deployName)) {
+            continue;
+          }
+          try (DirectoryStream<Path> files = Files.newDirectoryStream(deploymentFolder, Files::isRegularFile)) {
+            for (Path file : files) {
+              String hash = entriesByFileKey.get(getFileKey(file));
+              if (hash != null) {
+                references.merge(hash, 1, Integer::sum);
+                deployments.computeIfAbsent(deployName, name -> new LinkedList<>())
+                    .add(hash);
+              }
+            }
+          }
+        }
+      }
+    }
+
+    // Delete the artifacts that are no longer referenced.
+    try (DirectoryStream<Path> entries = Files.newDirectoryStream(storeDirectory)) {
+      for (Path entry : entries) {
+        deleteIfUnreferenced(entry.getFileName()
+            .toString());
+      }
+    }
+  }
+
+  private static boolean isEntry(Path entry) {
+    return !entry.getFileName()
+        .toString()
+        .startsWith(TEMP_PREFIX);
+  }
+
+  private static Object getFileKey(Path file) throws IOException {
+    return Files.readAttributes(file, BasicFileAttributes.class)
+        .fileKey();
+  }
+}
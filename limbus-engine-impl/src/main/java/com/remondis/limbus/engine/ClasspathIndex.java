@@ -0,0 +1,172 @@
+package com.remondis.limbus.engine;
+
+import java.io.File;
+import java.io.IOException;
+import java.net.URISyntaxException;
+import java.net.URL;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+import java.util.jar.Attributes;
+import java.util.jar.JarFile;
+import java.util.jar.JarInputStream;
+import java.util.jar.Manifest;
+import java.util.stream.Stream;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import com.remondis.limbus.api.LimbusClasspathException;
+import com.remondis.limbus.utils.Lang;
+
+/**
+ * The classpath index holds the names of all classes and resources contained in the URLs of a classpath. The index is
+ * built once when a {@link PluginClassLoader} is created and enables the classloader to decide whether a request can
+ * be served locally or must be delegated to the parent classloader without searching the URLs and without catching
+ * {@link ClassNotFoundException}s.
+ *
+ * <p>
+ * If one of the URLs cannot be scanned, the index is not available and the classloader falls back to searching the
+ * URLs on every request.
+ * </p>
+ */
+final class ClasspathIndex {
+
+  private static final Logger log = LoggerFactory.getLogger(ClasspathIndex.class);
+
+  private static final String MULTI_RELEASE_PREFIX = "META-INF/versions/";
+
+  /**
+   * The index used if the classpath cannot be indexed.
+   */
+  static final ClasspathIndex UNAVAILABLE = new ClasspathIndex(null, null);
+
+  private final Set<String> classNames;
+
+  private final Set<String> resourceNames;
+
+  private ClasspathIndex(Set<String> classNames, Set<String> resourceNames) {
+    this.classNames = classNames;
+    this.resourceNames = resourceNames;
+  }
+
+  /**
+   * Creates the index for the specified URLs. Jar files are scanned using {@link LimbusUtil#getEntryNames(URL)},
+   * directories on the local filesystem are walked.
+   *
+   * @param urls
+   *        The URLs of the classpath.
+   * @return Returns the index or {@link #UNAVAILABLE} if one of the URLs cannot be scanned.
+   */
+  static ClasspathIndex create(URL... urls) {
+    Lang.denyNull("urls", urls);
+    Set<String> resourceNames = new HashSet<>();
+    for (URL url : urls) {
+      try {
+        File directory = getLocalDirectory(url);
+        if (directory == null) {
+          List<String> entryNames = LimbusUtil.getEntryNames(url);
+          if (entryNames.contains(JarFile.MANIFEST_NAME) && hasManifestClasspath(url)) {
+            // The classloader also searches the jars referenced by the manifest, those are not indexed.
+            log.debug("The classpath URL {} references other jars - classpath index is not available.", url);
+            return UNAVAILABLE;
+          }
+          resourceNames.addAll(entryNames);
+        } else {
+          addDirectoryEntries(directory.toPath(), resourceNames);
+        }
+      } catch (LimbusClasspathException | IOException e) {
+        log.debug("Cannot index the classpath URL {} - classpath index is not available.", url, e);
+        return UNAVAILABLE;
+      }
+    }
+
+    Set<String> classNames = new HashSet<>();
+    Set<String> versionedNames = new HashSet<>();
+    for (String resourceName : resourceNames) {
+      String name = resourceName;
+      // Classes and resources of multi-release jars are served from the versioned directories, too.
+      if (name.startsWith(MULTI_RELEASE_PREFIX)) {
+        int versionEnd = name.indexOf('/', MULTI_RELEASE_PREFIX.length());
+        if (versionEnd > 0) {
+          name = name.substring(versionEnd + 1);
+          versionedNames.add(name);
+        }
+      }
+      if (LimbusUtil.isClassEntry(name)) {
+        classNames.add(LimbusUtil.toClassName(name));
+      }
+    }
+    resourceNames.addAll(versionedNames);
+    // Directory requests may omit the trailing slash.
+    Set<String> directoryNames = new HashSet<>();
+    for (String resourceName : resourceNames) {
+      if (resourceName.endsWith("/")) {
+        directoryNames.add(resourceName.substring(0, resourceName.length() - 1));
+      }
+    }
+    resourceNames.addAll(directoryNames);
+    return new ClasspathIndex(classNames, resourceNames);
+  }
+
+  /**
+   * @return Returns <code>true</code> if the index is available, <code>false</code> if the classpath could not be
+   *         indexed and every request must be searched in the URLs.
+   */
+  boolean isAvailable() {
+    return classNames != null;
+  }
+
+  /**
+   * @return Returns <code>true</code> if the class may be found in the URLs of the classpath. Returns
+   *         <code>false</code> only if the index is available and the class is not contained.
+   */
+  boolean mayContainClass(String className) {
+    return !isAvailable() || classNames.contains(className);
+  }
+
+  /**
+   * @return Returns <code>true</code> if the resource may be found in the URLs of the classpath. Returns
+   *         <code>false</code> only if the index is available and the resource is not contained.
+   */
+  boolean mayContainResource(String resourceName) {
+    return !isAvailable() || resourceName.isEmpty() || resourceNames.contains(resourceName);
+  }
+
+  private static boolean hasManifestClasspath(URL url) throws IOException {
+    try (JarInputStream jarInput = new JarInputStream(url.openStream())) {
+      Manifest manifest = jarInput.getManifest();
+      return manifest != null && manifest.getMainAttributes()
+          .containsKey(Attributes.Name.CLASS_PATH);
+    }
+  }
+
+  private static File getLocalDirectory(URL url) {
+    if (!"file".equals(url.getProtocol())) {
+      return null;
+    }
+    try {
+      File file = new File(url.toURI());
+      return file.isDirectory() ? file : null;
+    } catch (URISyntaxException | IllegalArgumentException e) {
+      return null;
+    }
+  }
+
+  private static void addDirectoryEntries(Path directory, Set<String> resourceNames) throws IOException {
+    try (Stream<Path> paths = Files.walk(directory)) {
+      paths.filter(path -> !path.equals(directory))
+          .forEach(path -> {
+            String name = directory.relativize(path)
+                .toString()
+                .replace(File.separatorChar, '/');
+            if (Files.isDirectory(path)) {
+              name += "/";
+            }
+            resourceNames.add(name);
+          });
+    }
+  }
+}
@@ -0,0 +1,473 @@
+package com.remondis.limbus.engine;
+
+import static java.nio.file.StandardWatchEventKinds.ENTRY_CREATE;
+import static java.nio.file.StandardWatchEventKinds.ENTRY_DELETE;
+import static java.nio.file.StandardWatchEventKinds.ENTRY_MODIFY;
+import static java.nio.file.StandardWatchEventKinds.OVERFLOW;
+
+import java.io.IOException;
+import java.nio.file.ClosedWatchServiceException;
+import java.nio.file.DirectoryStream;
+import java.nio.file.FileSystems;
+import java.nio.file.Files;
+import java.nio.file.NoSuchFileException;
+import java.nio.file.Path;
+import java.nio.file.WatchEvent;
+import java.nio.file.WatchKey;
+import java.nio.file.WatchService;
+import java.nio.file.attribute.BasicFileAttributes;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.Iterator;
+import java.util.Map;
+import java.util.Map.Entry;
+import java.util.Objects;
+import java.util.Set;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.TimeUnit;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import com.remondis.limbus.utils.Lang;
+
+/**
+ * This class watches the hot deploy folder for ZIP files that are added, modified or removed. The events of the
+ * {@link WatchService} are not processed immediately:
+ * <ul>
+ * <li>The events are coalesced per file. A file is processed once when it did not receive any events for a quiet
+ * period.</li>
+ * <li>A file is only deployed if it is stable, which means that its size and modification time did not change during
+ * the quiet period. This way files that are still being copied are not deployed.</li>
+ * <li>If the {@link WatchService} lost events ({@link java.nio.file.StandardWatchEventKinds#OVERFLOW}), the folder is
+ * rescanned and compared to the files known to be deployed.</li>
+ * </ul>
+ * The resulting deploy and undeploy requests are put into a bounded queue that is processed by a separate worker
+ * thread. A file that is already queued is not queued again, so a burst of changes to the same file results in a single
+ * deployment. If the queue is full, the watcher waits for the worker - lost events of the {@link WatchService} are
+ * recovered by the rescan. A file is only known to be deployed after the listener deployed it successfully, so a file
+ * that failed to deploy is deployed again when it changes or when the folder is rescanned.
+ */
+final class DeployFolderWatcher {
+
+  private static final Logger log = LoggerFactory.getLogger(DeployFolderWatcher.class);
+
+  private static final String WATCHER_THREAD_NAME = "HotDeploy Listener";
+
+  private static final String WORKER_THREAD_NAME = "HotDeploy Worker";
+
+  private static final String ZIP_EXTENSION = ".zip";
+
+  /**
+   * The minimum interval in milliseconds the pending files are checked.
+   */
+  private static final long MIN_POLL_INTERVAL = 10;
+
+  /**
+   * The time in milliseconds to wait for the threads to terminate on stop.
+   */
+  private static final long STOP_TIMEOUT = TimeUnit.SECONDS.toMillis(10);
+
+  /**
+   * The listener performs the (un)deployments requested by the watcher. The methods are called by the worker thread
+   * only.
+   */
+  interface Listener {
+
+    /**
+     * Called if a ZIP file was added or modified and is stable.
+     *
+     * @param zipFile
+     *        The ZIP file.
+     * @throws Exception
+     *         Thrown if the ZIP file cannot be deployed.
+     */
+    void deploy(Path zipFile) throws Exception;
+
+    /**
+     * Called if a ZIP file was removed.
+     *
+     * @param zipFile
+     *        The removed ZIP file.
+     * @throws Exception
+     *         Thrown if the deployment of the ZIP file cannot be undeployed.
+     */
+    void undeploy(Path zipFile) throws Exception;
+  }
+
+  private enum Action {
+    DEPLOY,
+    UNDEPLOY;
+  }
+
+  private final Path folder;
+
+  private final long quietPeriod;
+
+  private final Listener listener;
+
+  /**
+   * Holds the files to (un)deploy in the order of their requests.
+   */
+  private final BlockingQueue<Path> queue;
+
+  /**
+   * Holds the latest request for the files in the queue.
+   */
+  private final Map<Path, Request> queuedRequests = new ConcurrentHashMap<>();
+
+  /**
+   * Holds the files with events that are not yet stable. Accessed by the watcher thread only.
+   */
+  private final Map<Path, PendingFile> pendingFiles = new HashMap<>();
+
+  /**
+   * Holds the state of the files that were deployed successfully. Updated by the worker thread.
+   */
+  private final Map<Path, FileState> knownFiles = new ConcurrentHashMap<>();
+
+  private WatchService watchService;
+
+  private Thread watcherThread;
+
+  private Thread workerThread;
+
+  /**
+   * @param folder
+   *        The folder to watch.
+   * @param quietPeriod
+   *        The time in milliseconds a file must not change before it is processed.
+   * @param queueCapacity
+   *        The maximum number of files waiting to be (un)deployed.
+   * @param listener
+   *        The listener performing the (un)deployments.
+   */
+  DeployFolderWatcher(Path folder, long quietPeriod, int queueCapacity, Listener listener) {
+    Lang.denyNull("folder", folder);
+    Lang.denyNull("listener", listener);
+    if (quietPeriod < 0) {
+      throw new IllegalArgumentException("The quiet period must not be negative.");
+    }
+    if (queueCapacity < 1) {
+      throw new IllegalArgumentException("The queue capacity must be at least 1.");
+    }
+    this.folder = folder.toAbsolutePath()
+        .normalize();
+    this.quietPeriod = quietPeriod;
+    this.queue = new ArrayBlockingQueue<>(queueCapacity);
+    this.listener = listener;
+  }
+
+  /**
+   * Starts watching the folder. The ZIP files currently present in the folder are assumed to be deployed already.
+   *
+   * @throws IOException
+   *         Thrown if the folder cannot be watched.
+   */
+  synchronized void start() throws IOException {
+    if (watcherThread != null) {
+      throw new IllegalStateException("The deploy folder watcher was already started.");
+    }
+    this.watchService = FileSystems.getDefault()
+        .newWatchService();
+    folder.register(watchService, ENTRY_CREATE, ENTRY_MODIFY, ENTRY_DELETE);
+    knownFiles.putAll(scan());
+
+    this.workerThread = new Thread(this::processQueue, WORKER_THREAD_NAME);
+    workerThread.setDaemon(true);
+    this.watcherThread = new Thread(this::watch, WATCHER_THREAD_NAME);
+    watcherThread.setDaemon(true);
+    workerThread.start();
+    watcherThread.start();
+  }
+
+  /**
+   * Stops watching the folder. Queued requests are discarded. This method waits for a running (un)deployment to finish.
+   */
+  synchronized void stop() {
+    if (watchService != null) {
+      try {
+        watchService.close();
+      } catch (IOException e) {
+        // Nothing to do here
+      }
+      watchService = null;
+    }
+    if (watcherThread != null) {
+      watcherThread.interrupt();
+    }
+    if (workerThread != null) {
+      workerThread.interrupt();
+    }
+    join(watcherThread);
+    join(workerThread);
+    watcherThread = null;
+    workerThread = null;
+    queue.clear();
+    queuedRequests.clear();
+  }
+
+  private static void join(Thread thread) {
+    if (thread == null || thread == Thread.currentThread()) {
+      return;
+    }
+    try {
+      thread.join(STOP_TIMEOUT);
+      if (thread.isAlive()) {
+        log.warn("The thread {} did not terminate within {}ms.", thread.getName(), STOP_TIMEOUT);
+      }
+    } catch (InterruptedException e) {
+      Thread.currentThread()
+          .interrupt();
+    }
+  }
+
+  private void watch() {
+    WatchService watchService = this.watchService;
+    boolean rescan = false;
+    while (!Thread.currentThread()
+        .isInterrupted()) {
+      WatchKey key;
+      try {
+        if (pendingFiles.isEmpty()) {
+          key = watchService.take();
+        } else {
+          key = watchService.poll(Math.max(MIN_POLL_INTERVAL, quietPeriod / 4), TimeUnit.MILLISECONDS);
+        }
+      } catch (InterruptedException | ClosedWatchServiceException e) {
+        // This can happen any time on engine shutdown.
+        return;
+      }
+
+      if (key != null) {
+        for (WatchEvent<?> event : key.pollEvents()) {
+          if (event.kind() == OVERFLOW) {
+            rescan = true;
+          } else {
+            Path file = folder.resolve((Path) event.context());
+            if (isZipFile(file)) {
+              addPending(file);
+            } else if (event.kind() == ENTRY_CREATE) {
+              log.warn("A non-ZIP file was detected in the hot deploy directory - ignoring {}", file);
+            }
+          }
+        }
+        if (!key.reset()) {
+          log.error("The hot deploy directory {} is no longer accessible - hot deploy stopped.", folder);
+          return;
+        }
+      }
+
+      if (rescan) {
+        log.warn("Events of the hot deploy directory {} were lost - rescanning the directory.", folder);
+        rescan = !rescan();
+      }
+
+      try {
+        processPending(System.currentTimeMillis());
+      } catch (InterruptedException e) {
+        return;
+      }
+    }
+  }
+
+  /**
+   * Adds all files that differ from the known files as pending.
+   *
+   * @return Returns <code>true</code> if the rescan was successful, <code>false</code> otherwise.
+   */
+  private boolean rescan() {
+    try {
+      Map<Path, FileState> files = scan();
+      Set<Path> changed = new HashSet<>(knownFiles.keySet());
+      changed.addAll(files.keySet());
+      for (Path file : changed) {
+        if (!Objects.equals(files.get(file), knownFiles.get(file))) {
+          addPending(file);
+        }
+      }
+      return true;
+    } catch (IOException e) {
+      log.error("Cannot rescan the hot deploy directory {}.", folder, e);
+      return false;
+    }
+  }
+
+  private void addPending(Path file) {
+    PendingFile pending = pendingFiles.computeIfAbsent(file, key -> new PendingFile());
+    pending.lastChange = System.currentTimeMillis();
+    pending.state = FileState.of(file);
+  }
+
+  /**
+   * Queues the pending files that did not change during the quiet period.
+   */
+  private void processPending(long now) throws InterruptedException {
+    Iterator<Entry<Path, PendingFile>> it = pendingFiles.entrySet()
+        .iterator();
+    while (it.hasNext()) {
+      Entry<Path, PendingFile> entry = it.next();
+      Path file = entry.getKey();
+      PendingFile pending = entry.getValue();
+      if (now - pending.lastChange < quietPeriod) {
+        continue;
+      }
+      FileState state = FileState.of(file);
+      if (!Objects.equals(state, pending.state)) {
+        // The file is still being written.
+        pending.state = state;
+        pending.lastChange = now;
+        continue;
+      }
+      it.remove();
+      if (state == null) {
+        if (knownFiles.containsKey(file)) {
+          enqueue(file, new Request(Action.UNDEPLOY, null));
+        } else {
+          // A file removed before its first deployment is skipped by the worker.
+          queuedRequests.remove(file);
+        }
+      } else if (!state.equals(knownFiles.get(file))) {
+        enqueue(file, new Request(Action.DEPLOY, state));
+      }
+    }
+  }
+
+  private void enqueue(Path file, Request request) throws InterruptedException {
+    // A file already waiting in the queue is not queued twice, only its request is updated.
+    if (queuedRequests.put(file, request) == null) {
+      queue.put(file);
+    }
+  }
+
+  private void processQueue() {
+    while (!Thread.currentThread()
+        .isInterrupted()) {
+      Path file;
+      try {
+        file = queue.take();
+      } catch (InterruptedException e) {
+        return;
+      }
+      Request request = queuedRequests.remove(file);
+      if (request == null) {
+        continue;
+      }
+      try {
+        if (request.action == Action.DEPLOY) {
+          listener.deploy(file);
+          knownFiles.put(file, request.state);
+        } else {
+          listener.undeploy(file);
+          knownFiles.remove(file);
+        }
+      } catch (Exception e) {
+        log.error("Error while processing hot {} of {}.", request.action == Action.DEPLOY ? "deploy" : "undeploy", file,
+            e);
+      }
+    }
+  }
+
+  private Map<Path, FileState> scan() throws IOException {
+    Map<Path, FileState> files = new HashMap<>();
+    try (DirectoryStream<Path> stream = Files.newDirectoryStream(folder, "*" + ZIP_EXTENSION)) {
+      for (Path file : stream) {
+        FileState state = FileState.of(file);
+        if (state != null) {
+          files.put(file, state);
+        }
+      }
+    }
+    return files;
+  }
+
+  private static boolean isZipFile(Path file) {
+    return file.getFileName()
+        .toString()
+        .endsWith(ZIP_EXTENSION);
+  }
+
+  /**
+   * A request to (un)deploy a file.
+   */
+  private static final class Request {
+
+    private final Action action;
+
+    /**
+     * The state of the file to deploy or <code>null</code> if the file is undeployed.
+     */
+    private final FileState state;
+
+    private Request(Action action, FileState state) {
+      this.action = action;
+      this.state = state;
+    }
+  }
+
+  private static final class PendingFile {
+
+    /**
+     * The time of the last change detected.
+     */
+    private long lastChange;
+
+    /**
+     * The state of the file at the last change or <code>null</code> if the file did not exist.
+     */
+    private FileState state;
+  }
+
+  /**
+   * The size and modification time of a file.
+   */
+  private static final class FileState {
+
+    private final long size;
+
+    private final long lastModified;
+
+    private FileState(long size, long lastModified) {
+      this.size = size;
+      this.lastModified = lastModified;
+    }
+
+    /**
+     * @return Returns the state of the file or <code>null</code> if the file does not exist.
+     */
+    private static FileState of(Path file) {
+      try {
+        BasicFileAttributes attributes = Files.readAttributes(file, BasicFileAttributes.class);
+        if (!attributes.isRegularFile()) {
+          return null;
+        }
+        return new FileState(attributes.size(), attributes.lastModifiedTime()
+            .toMillis());
+      } catch (NoSuchFileException e) {
+        return null;
+      } catch (IOException e) {
+        log.debug("Cannot read the attributes of {}.", file, e);
+        return null;
+      }
+    }
+
+    @Override
+    public int hashCode() {
+      return Objects.hash(size, lastModified);
+    }
+
+    @Override
+    public boolean equals(Object obj) {
+      if (this == obj) {
+        return true;
+      }
+      if (obj == null || getClass() != obj.getClass()) {
+        return false;
+      }
+      FileState other = (FileState) obj;
+      return size == other.size && lastModified == other.lastModified;
+    }
+  }
+}
@@ -5,33 +5,31 @@ import static com.remondis.limbus.utils.Files.createIfMissingDirectory;
 import static com.remondis.limbus.utils.Files.getCurrentDirectory;
 import static com.remondis.limbus.utils.Files.getOrFailDirectory;
 import static com.remondis.limbus.utils.Files.isAccessibleDirectory;
-import static java.nio.file.StandardWatchEventKinds.ENTRY_CREATE;
-import static java.nio.file.StandardWatchEventKinds.ENTRY_DELETE;
-import static java.nio.file.StandardWatchEventKinds.OVERFLOW;
 
 import java.io.File;
 import java.io.FileFilter;
-import java.io.FileInputStream;
-import java.io.FileOutputStream;
-import java.nio.file.FileSystems;
+import java.nio.file.Files;
 import java.nio.file.Path;
 import java.nio.file.Paths;
-import java.nio.file.WatchEvent;
-import java.nio.file.WatchKey;
-import java.nio.file.WatchService;
 import java.security.Permission;
 import java.util.LinkedList;
 import java.util.List;
+import java.util.Map;
 import java.util.Set;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.atomic.AtomicInteger;
 
 import org.apache.commons.io.FileUtils;
-import org.apache.commons.io.IOUtils;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
 import com.remondis.limbus.api.Classpath;
 import com.remondis.limbus.api.Initializable;
 import com.remondis.limbus.api.LimbusException;
+import com.remondis.limbus.engine.DeploymentManifest.Change;
 import com.remondis.limbus.engine.api.DeployService;
 import com.remondis.limbus.engine.api.LimbusEngine;
 import com.remondis.limbus.engine.api.maven.MavenArtifact;
@@ -40,7 +38,8 @@ import com.remondis.limbus.engine.api.security.LimbusSecurity;
 import com.remondis.limbus.files.LimbusFileService;
 import com.remondis.limbus.properties.LimbusProperties;
 import com.remondis.limbus.system.api.LimbusComponent;
-import com.remondis.limbus.utils.Zip;
+import com.remondis.limbus.utils.archive.Archive;
+import com.remondis.limbus.utils.archive.ExtractionResult;
 
 /**
  * This class provides additional deploy features for a {@link LimbusEngine}. There are a few scenarios in deploying
@@ -84,7 +83,7 @@ import com.remondis.limbus.utils.Zip;
  */
 public class DeployServiceImpl extends Initializable<LimbusException> implements DeployService {
 
-  private static final String HOT_DEPLOY_THREAD_NAME = "HotDeploy Listener";
+  private static final String DEPLOY_THREAD_NAME = "Limbus Deploy";
 
   private static final Logger log = LoggerFactory.getLogger(DeployService.class);
 
@@ -100,10 +99,12 @@ public class DeployServiceImpl extends Initializable<LimbusException> implements
   @LimbusComponent
   protected MavenArtifactService artifacts;
 
-  private Thread directoryWatcher;
-  private WatchService watcher;
-  private WatchKey key;
-  private Path dir;
+  private DeployFolderWatcher deployFolderWatcher;
+
+  /**
+   * Holds the content-addressed store for the artifacts of Maven deployments.
+   */
+  private ArtifactStore artifactStore;
 
   /**
    * Holds the limbus properties for the deploy service.
@@ -128,6 +129,37 @@ public class DeployServiceImpl extends Initializable<LimbusException> implements
     return this.properties.getProperty("work-folder");
   }
 
+  /**
+   * Reads the maximum number of deployments performed in parallel when deploying the deploy folder on startup. A value
+   * less than 1 selects the number of available processors.
+   */
+  private int deployParallelism() {
+    checkState();
+    int parallelism = this.properties.getInt("deploy-parallelism");
+    if (parallelism < 1) {
+      return Runtime.getRuntime()
+          .availableProcessors();
+    } else {
+      return parallelism;
+    }
+  }
+
+  /**
+   * Reads the time in milliseconds a ZIP file in the hot deploy folder must not change before it is deployed.
+   */
+  private long hotDeployQuietPeriod() {
+    checkState();
+    return this.properties.getInt("hot-deploy-quiet-period");
+  }
+
+  /**
+   * Reads the maximum number of hot deploy requests waiting to be processed.
+   */
+  private int hotDeployQueueSize() {
+    checkState();
+    return this.properties.getInt("hot-deploy-queue-size");
+  }
+
   /**
    * @return Returns <code>true</code> if the work folder cleaning feature is enabled, <code>false</code> otherwise.
    */
@@ -159,7 +191,10 @@ public class DeployServiceImpl extends Initializable<LimbusException> implements
       cleanWorkDirectory();
 
       // Make sure work folder is available
-      getCreateOrFailWorkDirectory();
+      File workDirectory = getCreateOrFailWorkDirectory();
+
+      // Open the artifact store and restore the references of the deployments left in the work folder
+      this.artifactStore = ArtifactStore.open(workDirectory);
 
       // Make sure deploy folder is available
       getCreateOrFailDeployDirectory();
@@ -195,17 +230,7 @@ public class DeployServiceImpl extends Initializable<LimbusException> implements
         }
       });
 
-      List<Exception> exceptions = new LinkedList<>();
-
-      for (File toDeploy : toDeploys) {
-        try {
-          // TODO - schuettec - 14.10.2016 : Only default sandbox permissions are granted for plugins deployed by the
-          // filesystem.
-          deployZipFile(toDeploy, limbusSecurity.getSandboxDefaultPermissions());
-        } catch (LimbusException e) {
-          exceptions.add(e);
-        }
-      }
+      List<Exception> exceptions = deployZipFiles(toDeploys);
 
       if (!exceptions.isEmpty()) {
         String deployErrorMessage = "Multiple errors encountered while deploying the artifacts from deploy directory!";
@@ -223,92 +248,197 @@ public class DeployServiceImpl extends Initializable<LimbusException> implements
     }
   }
 
+  /**
+   * Unpacks and deploys the specified ZIP files. The deployments are performed in parallel using a bounded thread pool.
+   *
+   * @param toDeploys
+   *        The ZIP files to deploy.
+   * @return Returns the exceptions of the failed deployments in the order of the ZIP files.
+   */
+  private List<Exception> deployZipFiles(File[] toDeploys) {
+    List<Exception> exceptions = new LinkedList<>();
+    int threads = Math.min(deployParallelism(), toDeploys.length);
+    if (threads <= 1) {
+      for (File toDeploy : toDeploys) {
+        LimbusException exception = deployZipFileWithSandboxPermissions(toDeploy);
+        if (exception != null) {
+          exceptions.add(exception);
+        }
+      }
+      return exceptions;
+    }
+
+    ExecutorService executor = createDeployExecutor(threads);
+    try {
+      List<Future<LimbusException>> results = new LinkedList<>();
+      for (File toDeploy : toDeploys) {
+        results.add(executor.submit(() -> deployZipFileWithSandboxPermissions(toDeploy)));
+      }
+      for (Future<LimbusException> result : results) {
+        try {
+          LimbusException exception = result.get();
+          if (exception != null) {
+            exceptions.add(exception);
+          }
+        } catch (ExecutionException e) {
+          exceptions.add(new LimbusException("Unexpected error while deploying from filesystem.", e.getCause()));
+        }
+      }
+    } catch (InterruptedException e) {
+      Thread.currentThread()
+          .interrupt();
+      exceptions.add(new LimbusException("Interrupted while deploying from filesystem.", e));
+    } finally {
+      executor.shutdownNow();
+    }
+    return exceptions;
+  }
+
+  private LimbusException deployZipFileWithSandboxPermissions(File toDeploy) {
+    try {
+      // TODO - schuettec - 14.10.2016 : Only default sandbox permissions are granted for plugins deployed by the
+      // filesystem.
+      deployZipFile(toDeploy, limbusSecurity.getSandboxDefaultPermissions());
+      return null;
+    } catch (LimbusException e) {
+      return e;
+    }
+  }
+
+  private ExecutorService createDeployExecutor(int threads) {
+    // Plugins may rely on the context classloader of the thread initializing the engine.
+    ClassLoader contextClassLoader = Thread.currentThread()
+        .getContextClassLoader();
+    AtomicInteger threadNumber = new AtomicInteger();
+    return Executors.newFixedThreadPool(threads, runnable -> {
+      Thread thread = new Thread(runnable, DEPLOY_THREAD_NAME + "-" + threadNumber.incrementAndGet());
+      thread.setDaemon(true);
+      thread.setContextClassLoader(contextClassLoader);
+      return thread;
+    });
+  }
+
   private void startFileDeployWatchService() throws LimbusException {
     if (isHotDeployFolderActive()) {
       try {
-        this.dir = Paths.get(".", deployFolder())
+        Path dir = Paths.get(".", deployFolder())
             .toAbsolutePath()
             .normalize();
         log.info("Hot deploy detection started on folder {}", dir.toString());
-        this.watcher = FileSystems.getDefault()
-            .newWatchService();
-        this.key = dir.register(watcher, ENTRY_CREATE, ENTRY_DELETE);
-
-        this.directoryWatcher = new Thread(new Runnable() {
-
-          @Override
-          public void run() {
-            while (!Thread.interrupted()) {
-
-              // wait for key to be signalled
-              WatchKey key;
-              try {
-                key = watcher.take();
-              } catch (Exception x) {
-                // This can happen any time on engine shutdown.
-                return;
-              }
-
-              for (WatchEvent<?> event : key.pollEvents()) {
-                WatchEvent.Kind<?> kind = event.kind();
-
-                // TBD - provide example of how OVERFLOW event is handled
-                if (kind == OVERFLOW) {
-                  continue;
+        this.deployFolderWatcher = new DeployFolderWatcher(dir, hotDeployQuietPeriod(), hotDeployQueueSize(),
+            new DeployFolderWatcher.Listener() {
+
+              @Override
+              public void deploy(Path zipFile) throws LimbusException {
+                File zipDeployment = zipFile.toFile();
+                String deployName = toDeployName(zipDeployment.getName());
+                try {
+                  // TODO - schuettec - 14.10.2016 : Only default sandbox permissions are granted for plugins
+                  // deployed
+                  // by the directory deploy.
+                  hotDeployZipFile(zipDeployment, limbusSecurity.getSandboxDefaultPermissions());
+                } catch (LimbusException e) {
+                  // The watcher retries the deployment when the file changes.
+                  throw new LimbusException(String.format("Error while deploying a ZIP bundle from filesystem: %s (%s)",
+                      deployName, zipDeployment.getAbsolutePath()), e);
                 }
+              }
 
-                // Context for directory entry event is the file name of entry
-                @SuppressWarnings("unchecked")
-                WatchEvent<Path> ev = (WatchEvent<Path>) event;
-                Path name = ev.context();
-                Path child = dir.resolve(name);
-
-                // reset key and remove from set if directory no longer accessible
-                key.reset();
-
-                // Create the plugin classpath
-                File zipDeployment = child.toFile();
-
-                // Check deployment format
-                if (zipDeployment.getName()
-                    .endsWith(".zip")) {
-                  String deployName = toDeployName(zipDeployment.getName());
-                  // Try to unpack the ZIP file to work directory.
-                  if (kind == ENTRY_CREATE) {
-                    try {
-                      // Undeploy the classpath
-                      // TODO - schuettec - 14.10.2016 : Only default sandbox permissions are granted for plugins
-                      // deployed
-                      // by the directory deploy.
-                      deployZipFile(zipDeployment, limbusSecurity.getSandboxDefaultPermissions());
-                    } catch (LimbusException e) {
-                      log.error(String.format("Error while deploying a ZIP bundle from filesystem: %s (%s)", deployName,
-                          zipDeployment.getAbsolutePath()));
-                    }
-                  } else if (kind == ENTRY_DELETE) {
-                    // Undeploy the classpath
-                    try {
-                      undeployFromFilesystem(deployName);
-                    } catch (LimbusException e) {
-                      log.error("Error while undeploying plugin from container: {} ({})", deployName,
-                          zipDeployment.getAbsolutePath());
-                    }
-                  }
-                } else {
-                  log.warn("A non-ZIP file was detected in the hot deploy directory - ignoring {}",
-                      zipDeployment.getAbsolutePath());
+              @Override
+              public void undeploy(Path zipFile) throws LimbusException {
+                File zipDeployment = zipFile.toFile();
+                String deployName = toDeployName(zipDeployment.getName());
+                try {
+                  undeployFromFilesystem(deployName);
+                } catch (LimbusException e) {
+                  throw new LimbusException(String.format("Error while undeploying plugin from container: %s (%s)",
+                      deployName, zipDeployment.getAbsolutePath()), e);
                 }
               }
-            }
-          }
-        }, HOT_DEPLOY_THREAD_NAME);
-        directoryWatcher.start();
+            });
+        deployFolderWatcher.start();
       } catch (Exception e) {
         throw new LimbusException("Cannot start listener on hot deploy directory.", e);
       }
     }
   }
 
+  /**
+   * Deploys a ZIP file from the hot deploy folder. If the ZIP file is already deployed, the new version is compared to
+   * the {@link DeploymentManifest} of the deployment:
+   * <ul>
+   * <li>If nothing changed, the deployment is kept.</li>
+   * <li>If only resources changed, the changed files are replaced in the plugin folder without redeploying.</li>
+   * <li>Otherwise the deployment is undeployed and the new version is deployed.</li>
+   * </ul>
+   *
+   * @param zipDeployment
+   *        The ZIP file.
+   * @param permissions
+   *        The permissions to be granted for classes of this classpath.
+   * @throws LimbusException
+   *         Thrown if the ZIP file cannot be read or deployed. In this case the current deployment is kept if the new
+   *         version could not be read.
+   */
+  private void hotDeployZipFile(File zipDeployment, Set<Permission> permissions) throws LimbusException {
+    checkState();
+    String deployName = toDeployName(zipDeployment.getName());
+    if (!hasPlugin(deployName)) {
+      deployZipFile(zipDeployment, permissions);
+      return;
+    }
+
+    try (Archive archive = Archive.open(zipDeployment)) {
+      File pluginDirectory = getOrFailPluginDirectory(deployName);
+      DeploymentManifest manifest = readManifest(deployName);
+      Map<String, String> digests = archive.hash();
+      Change change = manifest == null ? Change.CLASSPATH : manifest.compare(digests, pluginDirectory);
+      if (change == Change.NONE) {
+        log.info("The ZIP bundle {} did not change - keeping the deployment {}.", zipDeployment.getAbsolutePath(),
+            deployName);
+        return;
+      } else if (change == Change.RESOURCES) {
+        // Drop the manifest while the files are replaced. If the update fails, the next hot deploy redeploys fully.
+        Files.deleteIfExists(DeploymentManifest.getManifestFile(getWorkDirectoryUnchecked(), deployName)
+            .toPath());
+        ExtractionResult result = archive.update(pluginDirectory, manifest.getDigests());
+        writeManifest(deployName, digests);
+        log.info("Replaced {} resources of the deployment {} without redeploy.", result.getWritten()
+            .size(), deployName);
+        return;
+      }
+    } catch (Exception e) {
+      throw new LimbusException(
+          String.format("Cannot read ZIP plugin bundle %s - keeping the current deployment of %s.",
+              zipDeployment.getAbsolutePath(), deployName),
+          e);
+    }
+
+    // The classpath changed, perform a full redeploy after the archive was closed.
+    log.info("The classpath of the deployment {} changed - redeploying.", deployName);
+    undeployFromFilesystem(deployName);
+    deployZipFile(zipDeployment, permissions);
+  }
+
+  private DeploymentManifest readManifest(String deployName) {
+    File manifestFile = DeploymentManifest.getManifestFile(getWorkDirectoryUnchecked(), deployName);
+    try {
+      return DeploymentManifest.read(manifestFile);
+    } catch (Exception e) {
+      // A corrupted manifest leads to a full redeploy.
+      log.warn("Cannot read the deployment manifest {}.", manifestFile.getAbsolutePath(), e);
+      return null;
+    }
+  }
+
+  private void writeManifest(String deployName, Map<String, String> digests) throws Exception {
+    File pluginDirectory = getOrFailPluginDirectory(deployName);
+    Classpath classpath = Classpath.create(deployName)
+        .addAllFilesInDirectory(pluginDirectory);
+    DeploymentManifest.create(digests, classpath, pluginDirectory)
+        .write(DeploymentManifest.getManifestFile(getOrFailWorkDirectory(), deployName));
+  }
+
   private void undeployFromFilesystem(String deployName) throws LimbusException {
     checkState();
     if (hasPlugin(deployName)) {
@@ -366,13 +496,11 @@ public class DeployServiceImpl extends Initializable<LimbusException> implements
       List<MavenArtifact> mavenArtifacts = artifacts.resolveArtifactAndTransitiveDependencies(groupId, artifactId,
           extension, version);
 
+      // Deployments sharing an artifact reference the same file in the artifact store.
       for (MavenArtifact artifact : mavenArtifacts) {
         File artifactFile = artifact.getFile();
         File pluginArtifact = new File(pluginDirectory, artifactFile.getName());
-        try (FileInputStream fin = new FileInputStream(artifactFile);
-            FileOutputStream fout = new FileOutputStream(pluginArtifact);) {
-          IOUtils.copy(fin, fout);
-        }
+        artifactStore.link(deployName, artifactFile, pluginArtifact);
       }
 
       // Trigger deploy process
@@ -444,9 +572,11 @@ public class DeployServiceImpl extends Initializable<LimbusException> implements
       throw new LimbusException(String.format("The plugin '%s' is already deployed.", deployName));
     }
 
-    try {
+    try (Archive archive = Archive.open(zipDeployment)) {
       File deployDirectory = getCreateOrFailPluginDirectory(deployName);
-      Zip.unpack(zipDeployment, deployDirectory);
+      archive.extract(deployDirectory);
+      // The hashes are computed while extracting.
+      writeManifest(deployName, archive.hash());
     } catch (Exception e) {
       throw new LimbusException(String.format("Cannot unpack ZIP plugin bundle %s", zipDeployment.getAbsolutePath()),
           e);
@@ -494,39 +624,22 @@ public class DeployServiceImpl extends Initializable<LimbusException> implements
         File pluginDirectory = getPluginDirectoryUnchecked(deployName);
         FileUtils.deleteDirectory(pluginDirectory);
       }
+      Files.deleteIfExists(DeploymentManifest.getManifestFile(getWorkDirectoryUnchecked(), deployName)
+          .toPath());
     } catch (Exception e1) {
       log.warn("Could not delete plugin classpath files from the container. Check the plugin implementation!", e1);
+    } finally {
+      if (artifactStore != null) {
+        artifactStore.release(deployName);
+      }
     }
   }
 
   @Override
   protected void performFinish() {
-    if (directoryWatcher != null) {
-      try {
-        directoryWatcher.interrupt();
-      } catch (Exception e) {
-        // Nothing to do here
-      }
-      directoryWatcher = null;
-    }
-
-    if (key != null) {
-      try {
-        key.cancel();
-      } catch (Exception e) {
-        // Nothing to do here
-      }
-      key = null;
-    }
-
-    // Stop directory watcher
-    if (watcher != null) {
-      try {
-        watcher.close();
-      } catch (Exception e) {
-        // Nothing to do here
-      }
-      watcher = null;
+    if (deployFolderWatcher != null) {
+      deployFolderWatcher.stop();
+      deployFolderWatcher = null;
     }
 
     // buschmann - 03.05.2017 : The Deploy Service is responsible for remove plugins deployed by this service. This
@@ -544,6 +657,7 @@ public class DeployServiceImpl extends Initializable<LimbusException> implements
     // Deregister as a deployment listener. This must happen after undeploy of deployed components.
     container.removeDeploymentListener(this);
 
+    this.artifactStore = null;
     this.properties = null;
   }
 
@@ -631,7 +745,8 @@ public class DeployServiceImpl extends Initializable<LimbusException> implements
       File workDirectory = getOrFailWorkDirectory();
       File[] listFiles = workDirectory.listFiles();
       for (File file : listFiles) {
-        if (isAccessibleDirectory(file)) {
+        // The artifact store is not a deployment.
+        if (isAccessibleDirectory(file) && !ArtifactStore.STORE_FOLDER.equals(file.getName())) {
           deployNames.add(file.getName());
         }
       }
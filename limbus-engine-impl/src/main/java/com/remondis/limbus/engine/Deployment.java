@@ -47,18 +47,30 @@ class Deployment extends Initializable<LimbusClasspathException> {
 
   private ConcurrentHashMap<String, LimbusPlugin> pluginRegistry;
 
+  // This map holds the only strong references to the dispatch tables of the plugin classes.
+  // The dispatch tables are dropped together with the plugin classloader on finish.
+  private ConcurrentHashMap<Class<?>, PluginDispatchTable> dispatchTables;
+
+  private PluginProxyCache proxyCache;
+
   private EventMulticaster<LimbusPlugin> lifecycleMulticaster;
 
   private LimbusContextInternal limbusContext;
 
   private Classpath classpath;
 
+  private DeploymentMetrics metrics;
+
   Deployment(Classpath classpath, PluginClassLoader classloader) {
     Lang.denyNull("Classpath", classpath);
     Lang.denyNull("Classloader", classloader);
 
     this.classpath = classpath;
+    this.metrics = new DeploymentMetrics(classpath);
+    classloader.setMetrics(metrics.getClassHits(), metrics.getClassMisses());
     this.pluginRegistry = new ConcurrentHashMap<String, LimbusPlugin>();
+    this.dispatchTables = new ConcurrentHashMap<Class<?>, PluginDispatchTable>();
+    this.proxyCache = new PluginProxyCache();
     this.limbusContext = new LimbusContextInternal(classpath, classloader);
     this.lifecycleMulticaster = EventMulticasterFactory.create(LimbusPlugin.class);
     this.strongReferences = new LinkedList<>();
@@ -146,7 +158,8 @@ class Deployment extends Initializable<LimbusClasspathException> {
       Class<?>[] interfaces = new Class<?>[supportedIntefaces.length + 1];
       interfaces[0] = pluginInterface;
       System.arraycopy(supportedIntefaces, 0, interfaces, 1, supportedIntefaces.length);
-      return (S) Proxy.newProxyInstance(toDefineIn, interfaces, invocationHandler);
+      // The proxy instances are cached per plugin and set of interfaces.
+      return (S) proxyCache.getProxy(classname, toDefineIn, interfaces, invocationHandler);
     } catch (Exception | LinkageError e) {
       // schuettec - 27.01.2017 : Wrap the classpath exception into a LimbusException. It is indeed worth to throw a
       // classpath exception here, but this would change the minor version and breaks backwards compatibility.
@@ -245,7 +258,11 @@ class Deployment extends Initializable<LimbusClasspathException> {
   private <T extends LimbusPlugin> T createInitializableProxy(Class<T> pluginInterface, T pluginObject,
       LimbusLifecycleHook<T> lifecycleHook) {
     // schuettec - 27.01.2017 : Let the proxy be defined by the Limbus Engine's classloader.
-    LifecycleProxyHandler<T> handler = new LifecycleProxyHandler<T>(createWeakContext(), pluginObject, lifecycleHook);
+    // The dispatch table is resolved once per plugin class.
+    PluginDispatchTable dispatchTable = dispatchTables.computeIfAbsent(pluginObject.getClass(),
+        pluginClass -> PluginDispatchTable.create(pluginInterface, pluginClass, metrics));
+    LifecycleProxyHandler<T> handler = new LifecycleProxyHandler<T>(createWeakContext(), pluginObject, lifecycleHook,
+        dispatchTable);
     return (T) Proxy.newProxyInstance(Deployment.class.getClassLoader(), new Class<?>[] {
         pluginInterface
     }, handler);
@@ -344,6 +361,19 @@ class Deployment extends Initializable<LimbusClasspathException> {
   public void performInitialize() throws LimbusClasspathException {
   }
 
+  /**
+   * Releases all cached plugin proxies that reference the specified classloader of another deployment.
+   *
+   * @param classloader
+   *        The classloader of a deployment that was undeployed.
+   */
+  void releaseProxies(ClassLoader classloader) {
+    PluginProxyCache cache = this.proxyCache;
+    if (cache != null) {
+      cache.release(classloader);
+    }
+  }
+
   boolean hasPlugins() {
     return !pluginRegistry.isEmpty();
   }
@@ -364,10 +394,24 @@ class Deployment extends Initializable<LimbusClasspathException> {
     } catch (Throwable e) {
       log.error("Error while finishing deployment.", e);
     } finally {
+      // Release the cached proxies
+      this.proxyCache.clear();
+      this.proxyCache = null;
+
       // Remove from registry
       this.pluginRegistry.clear();
       this.pluginRegistry = null;
 
+      // Drop the dispatch tables referencing the plugin classes
+      for (PluginDispatchTable dispatchTable : dispatchTables.values()) {
+        dispatchTable.clear();
+      }
+      this.dispatchTables.clear();
+      this.dispatchTables = null;
+
+      // Remove the metrics of this deployment
+      metrics.remove();
+
       // Clear subscriber references
       lifecycleMulticaster.clear();
       lifecycleMulticaster = null;
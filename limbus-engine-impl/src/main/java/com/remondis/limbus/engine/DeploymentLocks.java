@@ -0,0 +1,259 @@
+package com.remondis.limbus.engine;
+
+import java.util.HashSet;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.locks.ReentrantLock;
+
+import com.remondis.limbus.api.Classpath;
+import com.remondis.limbus.utils.Lang;
+
+/**
+ * This class provides the striped locks used to synchronize (un)deployments. A deployment is identified by its
+ * classpath and, if present, by its deploy name. Operations on the same classpath or on the same deploy name are
+ * serialized while operations on unrelated deployments may run in parallel.
+ *
+ * <p>
+ * Both stripes of a deployment are always acquired in ascending order, so locking two deployments in parallel cannot
+ * deadlock. The locks are reentrant to support redeployments and listeners that operate on the same deployment.
+ * </p>
+ *
+ * <p>
+ * A thread that already holds the locks of a deployment (for example a deployment listener that deploys another
+ * classpath) waits for the locks of the other deployment like any other operation. While waiting it periodically
+ * checks whether the owners of the locks wait for the current thread in turn. If threads wait for each other, only
+ * the thread with the highest id gives up: A nested operation is rejected with an {@link IllegalStateException}, a
+ * top-level operation releases its first stripe and starts over.
+ * </p>
+ */
+final class DeploymentLocks {
+
+  private static final int DEFAULT_STRIPES = 64;
+
+  private static final long DEFAULT_DEADLOCK_CHECK_MILLIS = 100;
+
+  private final Stripe[] stripes;
+
+  private final int mask;
+
+  private final long deadlockCheckNanos;
+
+  /**
+   * The stripe each thread holding other stripes is waiting for.
+   */
+  private final Map<Thread, Stripe> waits = new ConcurrentHashMap<>();
+
+  DeploymentLocks() {
+    this(DEFAULT_STRIPES);
+  }
+
+  /**
+   * @param stripes
+   *        The number of stripes. Rounded up to the next power of two.
+   */
+  DeploymentLocks(int stripes) {
+    this(stripes, DEFAULT_DEADLOCK_CHECK_MILLIS, TimeUnit.MILLISECONDS);
+  }
+
+  /**
+   * @param stripes
+   *        The number of stripes. Rounded up to the next power of two.
+   * @param deadlockCheckInterval
+   *        The interval in which a thread holding stripes checks for a deadlock while waiting for another stripe.
+   * @param deadlockCheckIntervalUnit
+   *        The time unit of the interval.
+   */
+  DeploymentLocks(int stripes, long deadlockCheckInterval, TimeUnit deadlockCheckIntervalUnit) {
+    Lang.denyNull("deadlockCheckIntervalUnit", deadlockCheckIntervalUnit);
+    this.deadlockCheckNanos = deadlockCheckIntervalUnit.toNanos(deadlockCheckInterval);
+    if (stripes < 1) {
+      throw new IllegalArgumentException("The number of lock stripes must be at least 1.");
+    }
+    int size = stripes == 1 ? 1 : Integer.highestOneBit(stripes - 1) << 1;
+    this.stripes = new Stripe[size];
+    this.mask = size - 1;
+    for (int i = 0; i < size; i++) {
+      this.stripes[i] = new Stripe();
+    }
+  }
+
+  /**
+   * Acquires the locks for the specified classpath.
+   *
+   * @param classpath
+   *        The classpath to lock.
+   * @throws IllegalStateException
+   *         Thrown if the current thread already holds the locks of another deployment and waiting for the locks of
+   *         the specified classpath would deadlock.
+   */
+  void lock(Classpath classpath) {
+    int first = getFirstStripe(classpath);
+    int second = getSecondStripe(classpath);
+    if (holdsAnyStripe()) {
+      lockNested(classpath, first, second);
+    } else {
+      lockTopLevel(first, second);
+    }
+  }
+
+  private void lockTopLevel(int first, int second) {
+    while (true) {
+      stripes[first].lock();
+      if (second == first || awaitStripe(stripes[second])) {
+        return;
+      }
+      // The owner of the second stripe waits for the first one. Wait for it without holding a stripe and start over.
+      stripes[first].unlock();
+      stripes[second].lock();
+      stripes[second].unlock();
+    }
+  }
+
+  private void lockNested(Classpath classpath, int first, int second) {
+    if (!awaitStripe(stripes[first])) {
+      throw newNestedLockException(classpath);
+    }
+    if (second != first && !awaitStripe(stripes[second])) {
+      stripes[first].unlock();
+      throw newNestedLockException(classpath);
+    }
+  }
+
+  /**
+   * Waits for the specified stripe while the current thread may hold other stripes.
+   *
+   * @return Returns <code>true</code> if the stripe was locked, <code>false</code> if the current thread has to give
+   *         up, because waiting would deadlock.
+   */
+  private boolean awaitStripe(Stripe stripe) {
+    if (stripe.tryLock()) {
+      return true;
+    }
+    Thread current = Thread.currentThread();
+    boolean interrupted = false;
+    waits.put(current, stripe);
+    try {
+      while (true) {
+        try {
+          if (stripe.tryLock(deadlockCheckNanos, TimeUnit.NANOSECONDS)) {
+            return true;
+          }
+        } catch (InterruptedException e) {
+          interrupted = true;
+        }
+        if (isDeadlockVictim(current, stripe)) {
+          return false;
+        }
+      }
+    } finally {
+      waits.remove(current);
+      if (interrupted) {
+        current.interrupt();
+      }
+    }
+  }
+
+  /**
+   * Follows the owner of the stripe, the stripe this owner waits for and so on. If this leads back to the current
+   * thread, the threads wait for each other. Only the thread with the highest id gives up, so the others can proceed.
+   */
+  private boolean isDeadlockVictim(Thread current, Stripe stripe) {
+    long highestId = current.getId();
+    Set<Thread> visited = new HashSet<>();
+    Thread owner = stripe.getOwner();
+    while (owner != null && visited.add(owner)) {
+      if (owner == current) {
+        return highestId == current.getId();
+      }
+      highestId = Math.max(highestId, owner.getId());
+      Stripe awaited = waits.get(owner);
+      owner = awaited == null ? null : awaited.getOwner();
+    }
+    return false;
+  }
+
+  private boolean holdsAnyStripe() {
+    for (Stripe stripe : stripes) {
+      if (stripe.isHeldByCurrentThread()) {
+        return true;
+      }
+    }
+    return false;
+  }
+
+  private IllegalStateException newNestedLockException(Classpath classpath) {
+    return new IllegalStateException(String.format(
+        "Cannot lock the classpath %s within the (un)deployment of another "
+            + "classpath - waiting for it would deadlock with another thread.",
+        classpath.hasDeployName() ? classpath.getDeployName() : "<anonymous>"));
+  }
+
+  /**
+   * Releases the locks for the specified classpath.
+   *
+   * @param classpath
+   *        The classpath to unlock.
+   */
+  void unlock(Classpath classpath) {
+    int first = getFirstStripe(classpath);
+    int second = getSecondStripe(classpath);
+    if (second != first) {
+      stripes[second].unlock();
+    }
+    stripes[first].unlock();
+  }
+
+  /**
+   * @param classpath
+   *        The classpath.
+   * @return Returns the stripes locked for the specified classpath in ascending order.
+   */
+  int[] getStripes(Classpath classpath) {
+    return new int[] {
+        getFirstStripe(classpath), getSecondStripe(classpath)
+    };
+  }
+
+  private int getFirstStripe(Classpath classpath) {
+    return Math.min(getClasspathStripe(classpath), getDeployNameStripe(classpath));
+  }
+
+  private int getSecondStripe(Classpath classpath) {
+    return Math.max(getClasspathStripe(classpath), getDeployNameStripe(classpath));
+  }
+
+  private int getClasspathStripe(Classpath classpath) {
+    Lang.denyNull("classpath", classpath);
+    return toStripe(classpath.hashCode());
+  }
+
+  private int getDeployNameStripe(Classpath classpath) {
+    if (classpath.hasDeployName()) {
+      return toStripe(classpath.getDeployName()
+          .hashCode());
+    } else {
+      return getClasspathStripe(classpath);
+    }
+  }
+
+  private int toStripe(int hashCode) {
+    // Spread the higher bits, because only the lower bits select the stripe.
+    int h = hashCode ^ (hashCode >>> 16);
+    return h & mask;
+  }
+
+  /**
+   * A reentrant lock that exposes its owner to detect deadlocks.
+   */
+  private static final class Stripe extends ReentrantLock {
+
+    private static final long serialVersionUID = 1L;
+
+    @Override
+    protected Thread getOwner() {
+      return super.getOwner();
+    }
+  }
+}
@@ -0,0 +1,255 @@
+package com.remondis.limbus.engine;
+
+import static java.nio.file.StandardCopyOption.ATOMIC_MOVE;
+import static java.nio.file.StandardCopyOption.REPLACE_EXISTING;
+
+import java.io.File;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.net.URISyntaxException;
+import java.net.URL;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.Map.Entry;
+import java.util.Properties;
+import java.util.Set;
+import java.util.TreeSet;
+
+import com.remondis.limbus.api.Classpath;
+import com.remondis.limbus.utils.Lang;
+
+/**
+ * The deployment manifest describes a ZIP deployment unpacked to the work directory. It records the SHA-1 hash of every
+ * file entry of the deployed ZIP file and the composition of the {@link Classpath} created for the deployment. The
+ * manifest is stored as <tt>&lt;deployName&gt;.manifest</tt> next to the plugin folder in the work directory.
+ *
+ * <p>
+ * On hot deploy the manifest is compared with the new version of the ZIP file to decide whether the deployment has to
+ * be redeployed, see {@link #compare(Map, File)}.
+ * </p>
+ */
+final class DeploymentManifest {
+
+  /**
+   * The changes between a deployment and a new version of its ZIP file.
+   */
+  enum Change {
+    /**
+     * The content did not change.
+     */
+    NONE,
+    /**
+     * Only resources changed that are read from the plugin folder on demand. The changed files can be replaced without
+     * redeploying the classpath.
+     */
+    RESOURCES,
+    /**
+     * The classpath changed, so the deployment must be redeployed.
+     */
+    CLASSPATH;
+  }
+
+  static final String FILE_EXTENSION = ".manifest";
+
+  private static final String ENTRY_PREFIX = "entry.";
+
+  private static final String CLASSPATH_PREFIX = "classpath.";
+
+  private static final String CLASS_FILE_EXTENSION = ".class";
+
+  private static final String SEPARATOR = "/";
+
+  /**
+   * Maps the entry names to the hexadecimal SHA-1 hash of the entry content.
+   */
+  private final Map<String, String> digests;
+
+  /**
+   * The names of the files and folders in the plugin folder that make up the classpath.
+   */
+  private final Set<String> classpath;
+
+  private DeploymentManifest(Map<String, String> digests, Set<String> classpath) {
+    this.digests = Collections.unmodifiableMap(digests);
+    this.classpath = Collections.unmodifiableSet(classpath);
+  }
+
+  /**
+   * Creates a manifest for a deployment.
+   *
+   * @param digests
+   *        The hashes of the file entries of the deployed ZIP file.
+   * @param classpath
+   *        The classpath created for the deployment.
+   * @param pluginDirectory
+   *        The plugin folder containing the classpath files.
+   * @return Returns the manifest.
+   */
+  static DeploymentManifest create(Map<String, String> digests, Classpath classpath, File pluginDirectory) {
+    Lang.denyNull("digests", digests);
+    Lang.denyNull("classpath", classpath);
+    Lang.denyNull("pluginDirectory", pluginDirectory);
+    Path root = pluginDirectory.toPath()
+        .toAbsolutePath()
+        .normalize();
+    Set<String> names = new TreeSet<>();
+    for (URL url : classpath.getClasspath()) {
+      try {
+        Path path = Paths.get(url.toURI())
+            .toAbsolutePath()
+            .normalize();
+        names.add(toName(root.relativize(path)));
+      } catch (URISyntaxException | RuntimeException e) {
+        // The URL is not part of the plugin folder.
+        names.add(url.toString());
+      }
+    }
+    return new DeploymentManifest(new HashMap<>(digests), names);
+  }
+
+  /**
+   * @param workDirectory
+   *        The work directory.
+   * @param deployName
+   *        The deploy name.
+   * @return Returns the manifest file of the specified deployment.
+   */
+  static File getManifestFile(File workDirectory, String deployName) {
+    return new File(workDirectory, deployName + FILE_EXTENSION);
+  }
+
+  /**
+   * Reads a manifest.
+   *
+   * @param manifestFile
+   *        The manifest file.
+   * @return Returns the manifest or <code>null</code> if the manifest file does not exist.
+   * @throws IOException
+   *         Thrown if the manifest file cannot be read.
+   */
+  static DeploymentManifest read(File manifestFile) throws IOException {
+    if (!manifestFile.isFile()) {
+      return null;
+    }
+    Properties properties = new Properties();
+    try (InputStream input = Files.newInputStream(manifestFile.toPath())) {
+      properties.load(input);
+    }
+    Map<String, String> digests = new HashMap<>();
+    Set<String> classpath = new TreeSet<>();
+    for (String key : properties.stringPropertyNames()) {
+      if (key.startsWith(ENTRY_PREFIX)) {
+        digests.put(key.substring(ENTRY_PREFIX.length()), properties.getProperty(key));
+      } else if (key.startsWith(CLASSPATH_PREFIX)) {
+        classpath.add(properties.getProperty(key));
+      }
+    }
+    return new DeploymentManifest(digests, classpath);
+  }
+
+  /**
+   * Writes this manifest. The file is replaced atomically, so a manifest is never read partially.
+   *
+   * @param manifestFile
+   *        The manifest file.
+   * @throws IOException
+   *         Thrown if the manifest cannot be written.
+   */
+  void write(File manifestFile) throws IOException {
+    Properties properties = new Properties();
+    for (Entry<String, String> digest : digests.entrySet()) {
+      properties.setProperty(ENTRY_PREFIX + digest.getKey(), digest.getValue());
+    }
+    int index = 0;
+    for (String name : classpath) {
+      properties.setProperty(CLASSPATH_PREFIX + index++, name);
+    }
+    Path target = manifestFile.toPath();
+    Path temp = Files.createTempFile(target.toAbsolutePath()
+        .getParent(), manifestFile.getName(), null);
+    try {
+      try (OutputStream output = Files.newOutputStream(temp)) {
+        properties.store(output, "Limbus deployment manifest");
+      }
+      Files.move(temp, target, REPLACE_EXISTING, ATOMIC_MOVE);
+    } finally {
+      Files.deleteIfExists(temp);
+    }
+  }
+
+  /**
+   * @return Returns the hashes of the file entries of the deployed ZIP file.
+   */
+  Map<String, String> getDigests() {
+    return digests;
+  }
+
+  /**
+   * @return Returns the names of the files and folders in the plugin folder that make up the classpath.
+   */
+  Set<String> getClasspath() {
+    return classpath;
+  }
+
+  /**
+   * Compares this manifest with a new version of the deployed ZIP file.
+   *
+   * <p>
+   * The top level entries of the ZIP file are the classpath of the deployment. Classes and resources in JAR files are
+   * cached by the classloader, so any change to a top level file, added or removed entries or changed class files
+   * require a redeploy. Only if the content of existing resources in subfolders changed, the resources can be replaced
+   * in place.
+   * </p>
+   *
+   * @param newDigests
+   *        The hashes of the file entries of the new ZIP file.
+   * @param pluginDirectory
+   *        The plugin folder of the deployment.
+   * @return Returns the change.
+   */
+  Change compare(Map<String, String> newDigests, File pluginDirectory) {
+    Lang.denyNull("newDigests", newDigests);
+    Lang.denyNull("pluginDirectory", pluginDirectory);
+    // The plugin folder must still match the recorded classpath.
+    String[] files = pluginDirectory.list();
+    if (files == null || !classpath.equals(new TreeSet<>(Arrays.asList(files)))) {
+      return Change.CLASSPATH;
+    }
+    if (!digests.keySet()
+        .equals(newDigests.keySet())) {
+      return Change.CLASSPATH;
+    }
+    Change change = Change.NONE;
+    for (Entry<String, String> digest : newDigests.entrySet()) {
+      String name = digest.getKey();
+      if (!digest.getValue()
+          .equals(digests.get(name))) {
+        if (isResource(name)) {
+          change = Change.RESOURCES;
+        } else {
+          return Change.CLASSPATH;
+        }
+      }
+    }
+    return change;
+  }
+
+  /**
+   * @return Returns <code>true</code> if the entry is read from the plugin folder on demand.
+   */
+  private static boolean isResource(String name) {
+    return name.contains(SEPARATOR) && !name.endsWith(CLASS_FILE_EXTENSION);
+  }
+
+  private static String toName(Path relativePath) {
+    return relativePath.toString()
+        .replace(File.separatorChar, '/');
+  }
+
+}
@@ -0,0 +1,115 @@
+package com.remondis.limbus.engine;
+
+import java.lang.reflect.Method;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+import com.remondis.limbus.api.Classpath;
+import com.remondis.limbus.api.metrics.Counter;
+import com.remondis.limbus.api.metrics.Metric;
+import com.remondis.limbus.api.metrics.MetricRegistry;
+import com.remondis.limbus.api.metrics.Metrics;
+import com.remondis.limbus.api.metrics.Timer;
+
+/**
+ * The metrics of a {@link Deployment}. The metrics are registered as <tt>limbus.deployment.&lt;deploy name&gt;</tt>
+ * and are removed when the deployment is finished. The metrics of classpaths deployed without a deploy name are
+ * recorded but not registered.
+ */
+final class DeploymentMetrics {
+
+  private final String prefix;
+
+  /**
+   * Holds the metrics registered by this deployment, so that they can be removed on finish.
+   */
+  private final Map<String, Metric> registered = new ConcurrentHashMap<>();
+
+  private final Counter classHits;
+
+  private final Counter classMisses;
+
+  /**
+   * Creates metrics that are recorded but not registered.
+   */
+  DeploymentMetrics() {
+    this(null);
+  }
+
+  /**
+   * Creates the metrics for the specified classpath.
+   *
+   * @param classpath
+   *        (Optional) The classpath of the deployment. If <code>null</code> or if the classpath has no deploy name,
+   *        the metrics are not registered.
+   */
+  DeploymentMetrics(Classpath classpath) {
+    if (classpath != null && classpath.hasDeployName()) {
+      this.prefix = MetricRegistry.name("limbus.deployment", classpath.getDeployName());
+    } else {
+      this.prefix = null;
+    }
+    this.classHits = register("classes.hits", new Counter());
+    this.classMisses = register("classes.misses", new Counter());
+  }
+
+  /**
+   * @return Returns the counter of class requests served by classes already loaded by the plugin classloader.
+   */
+  Counter getClassHits() {
+    return classHits;
+  }
+
+  /**
+   * @return Returns the counter of class requests that had to be loaded or delegated by the plugin classloader.
+   */
+  Counter getClassMisses() {
+    return classMisses;
+  }
+
+  /**
+   * Returns the timer of calls to the specified plugin interface method. Overloaded methods share the same timer.
+   *
+   * @param interfaceMethod
+   *        The method of the plugin interface.
+   * @return Returns the timer.
+   */
+  Timer getCallTimer(Method interfaceMethod) {
+    String name = MetricRegistry.name("calls", interfaceMethod.getDeclaringClass()
+        .getName(), interfaceMethod.getName());
+    return register(name, new Timer());
+  }
+
+  /**
+   * Registers the metric if this deployment has a deploy name. If a metric was registered with this name before, the
+   * registered metric is returned.
+   */
+  @SuppressWarnings("unchecked")
+  private <M extends Metric> M register(String name, M metric) {
+    if (prefix == null) {
+      return metric;
+    }
+    Metric existing = registered.putIfAbsent(name, metric);
+    if (existing != null) {
+      return (M) existing;
+    }
+    Metrics.getRegistry()
+        .register(MetricRegistry.name(prefix, name), metric);
+    return metric;
+  }
+
+  /**
+   * Removes all registered metrics of the deployment.
+   */
+  void remove() {
+    if (prefix == null) {
+      return;
+    }
+    MetricRegistry registry = Metrics.getRegistry();
+    for (Map.Entry<String, Metric> entry : registered.entrySet()) {
+      registry.remove(MetricRegistry.name(prefix, entry.getKey()), entry.getValue());
+    }
+    registered.clear();
+  }
+
+}
@@ -5,12 +5,11 @@ import static com.remondis.limbus.utils.ReflectionUtil.fieldInjectValue;
 import java.lang.ref.WeakReference;
 import java.lang.reflect.Field;
 import java.lang.reflect.InvocationHandler;
-import java.lang.reflect.InvocationTargetException;
 import java.lang.reflect.Method;
 import java.util.Arrays;
 
-import com.remondis.limbus.api.IInitializable;
 import com.remondis.limbus.api.LimbusPlugin;
+import com.remondis.limbus.engine.PluginDispatchTable.MethodDispatch;
 import com.remondis.limbus.engine.api.Interception;
 import com.remondis.limbus.engine.api.LimbusContextAction;
 import com.remondis.limbus.engine.api.LimbusLifecycleHook;
@@ -43,6 +42,14 @@ public class LifecycleProxyHandler<P extends LimbusPlugin> implements Invocation
   // objects from the plugin's classpath or context.
   protected LimbusLifecycleHook<P> lifecycleHook;
 
+  // Do not hold a strong reference to the dispatch table, because it references the plugin
+  // class. The only strong reference is held by the deployment, so the table is dropped on undeploy.
+  protected WeakReference<PluginDispatchTable> dispatchTableRef;
+
+  // The dispatch table of a handler created without the table of a deployment. Created once, so it must be held
+  // strongly.
+  private PluginDispatchTable localDispatchTable;
+
   /**
    * Constructs a proxy for the specified plugin object that intercepts the plugin's lifecycle methods.
    *
@@ -56,10 +63,35 @@ public class LifecycleProxyHandler<P extends LimbusPlugin> implements Invocation
    *        was requested to initialize without any lifecycle hook.
    */
   public LifecycleProxyHandler(LimbusContextPublic context, P pluginObject, LimbusLifecycleHook<P> lifecycleHook) {
+    this(context, pluginObject, lifecycleHook, null);
+  }
+
+  /**
+   * Constructs a proxy for the specified plugin object that intercepts the plugin's lifecycle methods.
+   *
+   * @param context
+   *        The <b>public</b> Limbus context is required to not hold a strong reference to the Limbus context. Used to
+   *        perform plugin operations in a {@link LimbusContextAction}.
+   * @param pluginObject
+   *        The object to intercept, <b>may not be null</b>.
+   * @param lifecycleHook
+   *        (Optional) The lifecycle hook may be <code>null</code>. This parameter is <code>null</code> if the plugin
+   *        was requested to initialize without any lifecycle hook.
+   * @param dispatchTable
+   *        (Optional) The dispatch table of the plugin class. The table is only weakly referenced. If
+   *        <code>null</code> a dispatch table is created for this handler.
+   */
+  LifecycleProxyHandler(LimbusContextPublic context, P pluginObject, LimbusLifecycleHook<P> lifecycleHook,
+      PluginDispatchTable dispatchTable) {
     Lang.denyNull("plugin object", pluginObject);
     this.context = context;
     this.pluginRef = new WeakReference<>(pluginObject);
     this.lifecycleHook = lifecycleHook;
+    if (dispatchTable != null) {
+      this.dispatchTableRef = new WeakReference<>(dispatchTable);
+    } else {
+      this.localDispatchTable = PluginDispatchTable.create(LimbusPlugin.class, pluginObject.getClass());
+    }
   }
 
   /**
@@ -77,47 +109,45 @@ public class LifecycleProxyHandler<P extends LimbusPlugin> implements Invocation
   @Override
   public Object invoke(Object proxy, Method method, Object[] args) throws Throwable {
     P plugin = getPluginObjectOrFail();
+    MethodDispatch dispatch = getDispatchTableOrFail().get(method);
 
+    long start = System.nanoTime();
+    try {
+      return invoke(proxy, method, args, plugin, dispatch);
+    } finally {
+      dispatch.getCalls()
+          .recordSince(start);
+    }
+  }
+
+  private Object invoke(Object proxy, Method method, Object[] args, P plugin, MethodDispatch dispatch)
+      throws Throwable {
     // schuettec - 30.01.2017 : Perform all calls on the plugin object within a context action!
     return context.doContextAction(new LimbusContextAction<Object, Throwable>() {
       @Override
       public Object doAction() throws Throwable {
-        if (isInitializeMethod(method)) {
-          preInitializeOnDemand(plugin);
-        } else if (isFinishMethod(method)) {
-          postFinishOnDemand(plugin);
+        switch (dispatch.getLifecycle()) {
+          case INITIALIZE:
+            preInitializeOnDemand(plugin);
+            break;
+          case FINISH:
+            postFinishOnDemand(plugin);
+            break;
+          default:
+            break;
         }
 
-        try {
-          Method pluginMethod = getPluginMethod(method, plugin);
+        if (hasLifecycleHook()) {
           Interception interception = new Interception() {
-
             @Override
             public Object proceed() throws Throwable {
-              if (args == null) {
-                return pluginMethod.invoke(plugin);
-              } else {
-                return pluginMethod.invoke(plugin, args);
-              }
+              return dispatch.invoke(plugin, args);
             }
           };
-          if (hasLifecycleHook()) {
-            return lifecycleHook.withinContextInvocation(context.getClasspath(), plugin, proxy, method, args,
-                interception);
-          } else {
-            return interception.proceed();
-          }
-
-        } catch (InvocationTargetException e) {
-          // schuettec - 31.01.2017 : Skip InvocationTargetException and throw the cause only if it exists
-          Throwable cause = e.getCause();
-          if (cause == null) {
-            throw e;
-          } else {
-            throw cause;
-          }
-        } catch (Exception e) {
-          throw e;
+          return lifecycleHook.withinContextInvocation(context.getClasspath(), plugin, proxy, method, args,
+              interception);
+        } else {
+          return dispatch.invoke(plugin, args);
         }
       }
 
@@ -125,23 +155,20 @@ public class LifecycleProxyHandler<P extends LimbusPlugin> implements Invocation
 
   }
 
-  private Method getPluginMethod(Method method, P plugin) {
-    // schuettec - 31.01.2017 : We have to find the corresponding method ourselves because abstract classes in the
-    // inheritance hierarchy cannot be called.
-    Class<? extends LimbusPlugin> pluginClass = plugin.getClass();
-    try {
-      Method pluginMethod = pluginClass.getMethod(method.getName(), method.getParameterTypes());
-      return pluginMethod;
-    } catch (NoSuchMethodException e) {
-      // schuettec - 31.01.2017 : CONVENTION: A plugin must implement all methods from its plugin interface
-      // (technically this is ensured by the compiler).
-      throw new LimbusConventionError(
-          String.format("The plugin implementation %s does not implement the method %s from it's plugin interface %s.",
-              pluginClass.getName(), method.toGenericString(), method.getDeclaringClass()
-                  .getName()));
-    } catch (SecurityException e) {
-      throw e;
+  /**
+   * @return Returns the dispatch table of the plugin class.
+   * @throws PluginUndeployedException
+   *         Thrown if the dispatch table was dropped because the deployment was undeployed.
+   */
+  private PluginDispatchTable getDispatchTableOrFail() {
+    if (localDispatchTable != null) {
+      return localDispatchTable;
     }
+    PluginDispatchTable table = dispatchTableRef.get();
+    if (table == null) {
+      throw new PluginUndeployedException("The requested plugin was undeployed.");
+    }
+    return table;
   }
 
   @SuppressWarnings({
@@ -195,33 +222,6 @@ public class LifecycleProxyHandler<P extends LimbusPlugin> implements Invocation
     return lifecycleHook != null;
   }
 
-  private boolean isInitializeMethod(Method method) {
-    // schuettec - 30.01.2017 : CONVENTION The constraint here is that IInitializable defines the initialize() method.
-    return isMethodOfIInitializable("initialize", method);
-  }
-
-  private boolean isFinishMethod(Method method) {
-    // schuettec - 30.01.2017 : CONVENTION The constraint here is that IInitializable defines the finish() method.
-    return isMethodOfIInitializable("finish", method);
-  }
-
-  private boolean isMethodOfIInitializable(String methodName, Method method) throws LimbusConventionError {
-    try {
-      Method finishOrig = IInitializable.class.getMethod(methodName);
-      // TODO - schuettec - 27.01.2017 : Check if the following method compare works. It is okay to assume that the
-      // plugin interface and the IInitializable were loaded by the same classloader, since those classes have to be
-      // present in the engine's classloader per convention.
-      return finishOrig.equals(method);
-    } catch (NoSuchMethodException e) {
-      // schuettec - 30.01.2017 : CONVENTION The constraint here is that a LimbusPlugin will extend IInitializable. The
-      // LimbusPlugin instance is therefore expected to implement the specified method.
-      throw new LimbusConventionError(
-          "The type com.remondis.limbus.IInitializable was expected to declare the method 'finish()'.");
-    } catch (SecurityException e) {
-      throw e;
-    }
-  }
-
   P getPluginObjectOrFail() {
     P p = pluginRef.get();
     if (p == null) {
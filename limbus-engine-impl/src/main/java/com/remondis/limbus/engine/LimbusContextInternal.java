@@ -1,16 +1,12 @@
 package com.remondis.limbus.engine;
 
-import static com.remondis.limbus.engine.LimbusUtil.getCurrentThreadLocals;
-
 import java.lang.ref.WeakReference;
-import java.security.AccessController;
-import java.security.PrivilegedAction;
-import java.util.HashSet;
 import java.util.Set;
-import java.util.concurrent.atomic.AtomicReference;
 
 import com.remondis.limbus.api.Classpath;
 import com.remondis.limbus.api.LimbusPlugin;
+import com.remondis.limbus.api.metrics.Metrics;
+import com.remondis.limbus.api.metrics.Timer;
 import com.remondis.limbus.engine.api.LimbusContext;
 import com.remondis.limbus.engine.api.LimbusContextAction;
 import com.remondis.limbus.engine.api.PluginUndeployedException;
@@ -21,16 +17,23 @@ import com.remondis.limbus.utils.Lang;
  * available. The interfaces are only used to provide an internal an external interface for accessing a Limbus
  * context.
  *
+ * <p>
+ * The time needed to switch into and out of the plugin context is recorded by the timer <tt>limbus.context.switch</tt>.
+ * The time spent in the context action itself is not included.
+ * </p>
+ *
  * @author schuettec
  *
  */
 public final class LimbusContextInternal implements LimbusContext {
 
+  private static final Timer CONTEXT_SWITCH = Metrics.getRegistry()
+      .timer("limbus.context.switch");
+
   private PluginClassLoader classloader;
   private Classpath classpath;
 
-  @SuppressWarnings("rawtypes")
-  private Set<ThreadLocal> threadLocalsSet;
+  private ThreadContextSwitch contextSwitch;
 
   /**
    * Constructs an empty limbus context.
@@ -38,7 +41,7 @@ public final class LimbusContextInternal implements LimbusContext {
   LimbusContextInternal(Classpath classpath, PluginClassLoader classloader) {
     this.classpath = classpath;
     this.classloader = classloader;
-    threadLocalsSet = new HashSet<>();
+    this.contextSwitch = new ThreadContextSwitch(classloader);
   }
 
   PluginClassLoader getClassloader() {
@@ -47,73 +50,39 @@ public final class LimbusContextInternal implements LimbusContext {
 
   @SuppressWarnings("rawtypes")
   Set<ThreadLocal> getThreadLocalsSet() {
-    return threadLocalsSet;
+    return contextSwitch.getThreadLocals();
   }
 
   void setThreadLocalsSet(@SuppressWarnings("rawtypes") Set<ThreadLocal> threadLocalsSet) {
-    this.threadLocalsSet = threadLocalsSet;
+    contextSwitch.setThreadLocals(threadLocalsSet);
   }
 
   @Override
-  @SuppressWarnings("rawtypes")
   public <R, E extends Throwable> R doContextAction(LimbusContextAction<R, E> callable) throws E {
-    AtomicReference<ClassLoader> contextClassLoaderBefore = new AtomicReference<>();
-    AtomicReference<Set<ThreadLocal>> beforeActionSnapshot = new AtomicReference<>();
-    AccessController.doPrivileged(new PrivilegedAction<Void>() {
-
-      @Override
-      public Void run() {
-
-        Lang.denyNull("Context action", callable);
-
-        // Safe the current context classloader
-        contextClassLoaderBefore.set(Thread.currentThread()
-            .getContextClassLoader());
-
-        // Take the thread local before snaphsot.
-        beforeActionSnapshot.set(getCurrentThreadLocals());
-
-        // Add the plugin's thread locals recorded before
-        LimbusUtil.addThreadLocals(getThreadLocalsSet());
-
-        // Set the plugin context
-        Thread.currentThread()
-            .setContextClassLoader(getClassloader());
-        return null;
-      }
-    });
+    Lang.denyNull("Context action", callable);
 
+    // Switch to the plugin context: Safe the context classloader, take the thread local snapshot and add the plugin's
+    // thread locals recorded before.
+    long enterStart = System.nanoTime();
+    ThreadContextSwitch.Frame frame = contextSwitch.enter();
+    long enterNanos = System.nanoTime() - enterStart;
     try {
       // Perform the actual action
       R retVal = callable.doAction();
       // Return the actual compuation.
       return retVal;
     } finally {
-      AccessController.doPrivileged(new PrivilegedAction<Void>() {
-
-        @Override
-        public Void run() {
-          // Restore the old context classloader
-          Thread.currentThread()
-              .setContextClassLoader(contextClassLoaderBefore.get());
-
-          // Take the thread local after snaphsot.
-          Set<ThreadLocal> afterActionSnapshot = getCurrentThreadLocals();
-          // Do the combi-action of removing all added thread locals and store the added ones to the plugin's thread
-          // local
-          // management.
-          LimbusUtil.storeThreadLocalsInDeployContext(beforeActionSnapshot.get(), afterActionSnapshot,
-              LimbusContextInternal.this);
-          return null;
-        }
-      });
+      long exitStart = System.nanoTime();
+      // Restore the old context classloader and remove the thread locals added by the context action. The added ones
+      // are stored to the plugin's thread local management.
+      contextSwitch.exit(frame);
+      CONTEXT_SWITCH.recordNanos(enterNanos + System.nanoTime() - exitStart);
     }
   }
 
   void finish() {
     // Clear thread locals
-    threadLocalsSet.clear();
-    threadLocalsSet = null;
+    contextSwitch.clear();
 
     // Close the open URLs of the classpath
     this.classloader.close();
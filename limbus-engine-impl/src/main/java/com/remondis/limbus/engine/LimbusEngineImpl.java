@@ -20,7 +20,6 @@ import java.util.Map;
 import java.util.Properties;
 import java.util.Set;
 import java.util.concurrent.ConcurrentHashMap;
-import java.util.concurrent.locks.ReentrantLock;
 
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
@@ -29,6 +28,8 @@ import com.remondis.limbus.api.Classpath;
 import com.remondis.limbus.api.Initializable;
 import com.remondis.limbus.api.LimbusException;
 import com.remondis.limbus.api.LimbusPlugin;
+import com.remondis.limbus.api.metrics.Metrics;
+import com.remondis.limbus.api.metrics.Timer;
 import com.remondis.limbus.engine.api.DeploymentListener;
 import com.remondis.limbus.engine.api.InvocationResult;
 import com.remondis.limbus.engine.api.LimbusContext;
@@ -50,6 +51,11 @@ import com.remondis.limbus.utils.Lang;
  * The Limbus Engine manages the lifecycle of plugins and provides a class loader hierarchy to isolate plugins
  * with the use of a shared class loader. Plugins can be added and removed during runtime.
  *
+ * <p>
+ * The durations of deployments and undeployments are recorded by the timers <tt>limbus.engine.deploy</tt> and
+ * <tt>limbus.engine.undeploy</tt>.
+ * </p>
+ *
  * @author schuettec
  *
  */
@@ -59,6 +65,12 @@ public abstract class LimbusEngineImpl extends Initializable<Exception> implemen
 
   private static final String UNKNOWN = "unknown";
 
+  private static final Timer DEPLOY = Metrics.getRegistry()
+      .timer("limbus.engine.deploy");
+
+  private static final Timer UNDEPLOY = Metrics.getRegistry()
+      .timer("limbus.engine.undeploy");
+
   public String GROUP_ID = null;
   public String ARTIFACT_ID = null;
   public String VERSION = null;
@@ -82,9 +94,10 @@ public abstract class LimbusEngineImpl extends Initializable<Exception> implemen
   private Map<String, Classpath> deploynames;
 
   /**
-   * This lock is used for synchronization of deployments.
+   * These locks are used for synchronization of deployments. Deployments of different classpaths with different deploy
+   * names are performed in parallel.
    */
-  private ReentrantLock deploymentsLock = new ReentrantLock();
+  private DeploymentLocks deploymentLocks = new DeploymentLocks();
 
   /**
    * Holds the Limbus reference observer that tries to detect the point in time where a classloader is garbage
@@ -370,6 +383,12 @@ public abstract class LimbusEngineImpl extends Initializable<Exception> implemen
 
     } finally {
 
+      // Release the plugin proxies of other deployments that reference the classloader. Deployments added concurrently
+      // may be missed, but the proxy caches only reference the classloader weakly.
+      for (Deployment other : deploymentMap.values()) {
+        other.releaseProxies(classloader);
+      }
+
       // Close logTarget for plugin
       Classpath classpath = deployment.getClasspath();
       if (classpath.hasDeployName()) {
@@ -461,11 +480,11 @@ public abstract class LimbusEngineImpl extends Initializable<Exception> implemen
   @Override
   public void deployPlugin(Classpath classpath, Set<Permission> permissions) throws LimbusException {
     checkState();
-    deploymentsLock.lock();
+    deploymentLocks.lock(classpath);
     try {
       _deployPlugin(classpath, permissions);
     } finally {
-      deploymentsLock.unlock();
+      deploymentLocks.unlock(classpath);
     }
   }
 
@@ -474,6 +493,7 @@ public abstract class LimbusEngineImpl extends Initializable<Exception> implemen
       return;
     }
 
+    long start = System.nanoTime();
     log.info("Deploy process started for plugin classpath.");
     LimbusUtil.logClasspath("plugin", classpath, log);
     LimbusUtil.logPermissions("plugin", permissions, log);
@@ -481,6 +501,7 @@ public abstract class LimbusEngineImpl extends Initializable<Exception> implemen
     PluginClassLoader pluginClassLoader = new PluginClassLoader(filesystem, sharedClassLoader,
         classpath.getClasspath());
     pluginClassLoader.setPermissions(permissions);
+    pluginClassLoader.setDeployName(classpath.getDeployName());
 
     Deployment deployment = new Deployment(classpath, pluginClassLoader);
     deploymentMap.put(classpath, deployment);
@@ -488,6 +509,7 @@ public abstract class LimbusEngineImpl extends Initializable<Exception> implemen
     _deployClasspath(deployment);
 
     log.info("Deploy process finished successfully.");
+    DEPLOY.recordSince(start);
 
     if (classpath.hasDeployName()) {
       deploynames.put(classpath.getDeployName(), classpath);
@@ -501,12 +523,12 @@ public abstract class LimbusEngineImpl extends Initializable<Exception> implemen
   @Override
   public void undeployPlugin(Classpath classpath) throws UndeployVetoException {
     checkState();
-    deploymentsLock.lock();
+    deploymentLocks.lock(classpath);
 
     try {
       _undeployPlugin(classpath);
     } finally {
-      deploymentsLock.unlock();
+      deploymentLocks.unlock(classpath);
     }
   }
 
@@ -524,6 +546,7 @@ public abstract class LimbusEngineImpl extends Initializable<Exception> implemen
 
     // schuettec - 16.05.2017 : Only perform the undeploy if the operation was not vetoed.
     if (undeployVeto.isConfirmed()) {
+      long start = System.nanoTime();
       try {
         Deployment deployment = deploymentMap.get(classpath);
         deploymentMap.remove(classpath);
@@ -540,6 +563,7 @@ public abstract class LimbusEngineImpl extends Initializable<Exception> implemen
         LimbusUtil.logClasspath("plugin", classpath, log);
         _undeployClasspath(deployment);
         log.info("Undeploy process finished successfully.");
+        UNDEPLOY.recordSince(start);
       } finally {
         // Notify deployment subscribers finishing undeploy
         deploymentListeners.multicastSilently()
@@ -554,13 +578,13 @@ public abstract class LimbusEngineImpl extends Initializable<Exception> implemen
   @Override
   public void redeployPlugin(Classpath classpath, Set<Permission> permissions)
       throws LimbusException, UndeployVetoException {
-    deploymentsLock.lock();
+    deploymentLocks.lock(classpath);
 
     try {
       _undeployPlugin(classpath);
       _deployPlugin(classpath, permissions);
     } finally {
-      deploymentsLock.unlock();
+      deploymentLocks.unlock(classpath);
     }
   }
 
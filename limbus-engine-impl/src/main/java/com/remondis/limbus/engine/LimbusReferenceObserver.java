@@ -1,8 +1,8 @@
 package com.remondis.limbus.engine;
 
 import java.lang.ref.ReferenceQueue;
-import java.util.LinkedList;
-import java.util.List;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
 import java.util.concurrent.TimeUnit;
 
 import org.slf4j.Logger;
@@ -21,7 +21,7 @@ class LimbusReferenceObserver<T> extends Initializable<RuntimeException> {
 
   private static final Logger log = LoggerFactory.getLogger(LimbusReferenceObserver.class);
 
-  private List<ObservedPhantomReference<T>> references;
+  private Set<ObservedPhantomReference<T>> references;
   private ReferenceQueue<T> queue;
   private Thread referenceObserver;
 
@@ -42,7 +42,8 @@ class LimbusReferenceObserver<T> extends Initializable<RuntimeException> {
   @Override
   protected void performInitialize() throws RuntimeException {
     this.queue = new ReferenceQueue<T>();
-    this.references = new LinkedList<ObservedPhantomReference<T>>();
+    // References are added by concurrent (un)deployments.
+    this.references = ConcurrentHashMap.newKeySet();
     this.referenceObserver = new Thread("Limbus Reference Observer") {
       @SuppressWarnings("unchecked")
       @Override
@@ -77,44 +77,20 @@ public final class LimbusUtil {
   static Set<ThreadLocal> getCurrentThreadLocals() {
     Set<ThreadLocal> threadLocalsSet = new HashSet<>();
 
-    try {
-      // Get a reference to the thread locals table of the current thread
-      Thread thread = Thread.currentThread();
-      Field threadLocalsField = Thread.class.getDeclaredField("threadLocals");
-      threadLocalsField.setAccessible(true);
-      Object threadLocalTable = threadLocalsField.get(thread);
-
-      if (threadLocalTable != null) {
-        // Get a reference to the array holding the thread local variables inside the
-        // ThreadLocalMap of the current thread
-        Class threadLocalMapClass = Class.forName("java.lang.ThreadLocal$ThreadLocalMap");
-        Field tableField = threadLocalMapClass.getDeclaredField("table");
-        tableField.setAccessible(true);
-        Object table = tableField.get(threadLocalTable);
-        if (table != null) {
-          for (int i = 0; i < Array.getLength(table); i++) {
-            // Each entry in the table array of ThreadLocalMap is an Entry object
-            // representing the thread local reference and its value
-            Object entry = Array.get(table, i);
-            if (entry != null) {
-              // ThreadLocal threadLocal = (ThreadLocal) referentField.get(entry);
-              ThreadLocal threadLocal = (ThreadLocal) ((WeakReference) entry).get();
-              // schuettec - 01.02.2017 : Reference value may be null here.
-              if (threadLocal != null) {
-                threadLocalsSet.add(threadLocal);
-              }
-            }
-          }
+    // Get a reference to the array holding the thread local variables inside the ThreadLocalMap of the current thread
+    Object[] table = ThreadContextSwitch.currentTable(Thread.currentThread());
+    if (table != null) {
+      for (int i = 0; i < table.length; i++) {
+        // Each entry in the table array of ThreadLocalMap is an Entry object
+        // representing the thread local reference and its value
+        // schuettec - 01.02.2017 : Reference value may be null here.
+        ThreadLocal threadLocal = ThreadContextSwitch.referent(table[i]);
+        if (threadLocal != null) {
+          threadLocalsSet.add(threadLocal);
         }
       }
-
-      return threadLocalsSet;
-
-    } catch (Exception e) {
-      // TODO - Buschmann - 10.10.2016 : Analyse if this can happen
-      throw new IllegalStateException("Cannot lookup thread locals.", e);
     }
-
+    return threadLocalsSet;
   }
 
   @SuppressWarnings({
@@ -210,23 +186,37 @@ public final class LimbusUtil {
   }
 
   static List<String> getClassNames(URL url) throws LimbusClasspathException {
+    List<String> classNames = new ArrayList<String>();
+    for (String entryName : getEntryNames(url)) {
+      if (isClassEntry(entryName)) {
+        // This entry represents a class. Now, what class does it represent?
+        classNames.add(toClassName(entryName));
+      }
+    }
+    return classNames;
+  }
+
+  /**
+   * Scans the contents of the specified jar URL.
+   *
+   * @param url
+   *        The URL of a jar file.
+   * @return Returns the names of all entries including directory entries.
+   * @throws LimbusClasspathException
+   *         Thrown if the contents cannot be scanned.
+   */
+  static List<String> getEntryNames(URL url) throws LimbusClasspathException {
     Lang.denyNull("URL", url);
     ZipInputStream inputStream = null;
     try {
-      List<String> classNames = new ArrayList<String>();
+      List<String> entryNames = new ArrayList<String>();
       URLConnection connection = url.openConnection();
       inputStream = new ZipInputStream(connection.getInputStream());
       for (ZipEntry entry = inputStream.getNextEntry(); entry != null; entry = inputStream.getNextEntry()) {
-        if (!entry.isDirectory() && entry.getName()
-            .endsWith(".class")) {
-          // This ZipEntry represents a class. Now, what class does it represent?
-          String className = entry.getName()
-              .replace('/', '.'); // including ".class"
-          classNames.add(className.substring(0, className.length() - ".class".length()));
-        }
+        entryNames.add(entry.getName());
         inputStream.closeEntry();
       }
-      return classNames;
+      return entryNames;
     } catch (Exception e) {
       throw new LimbusClasspathException("Cannot scan the contents of " + url.toString(), e);
     } finally {
@@ -234,6 +224,21 @@ public final class LimbusUtil {
     }
   }
 
+  /**
+   * @return Returns <code>true</code> if the specified entry name denotes a class file.
+   */
+  static boolean isClassEntry(String entryName) {
+    return !entryName.endsWith("/") && entryName.endsWith(".class");
+  }
+
+  /**
+   * @return Returns the binary class name of the specified class file entry name.
+   */
+  static String toClassName(String entryName) {
+    String className = entryName.replace('/', '.'); // including ".class"
+    return className.substring(0, className.length() - ".class".length());
+  }
+
   public static void logPermissions(String classpathName, Set<Permission> permissions, Logger log) {
     Lang.denyNull("classpath name", classpathName);
     Lang.denyNull("permissions", permissions);
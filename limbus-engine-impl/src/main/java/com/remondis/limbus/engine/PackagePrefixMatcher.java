@@ -0,0 +1,137 @@
+package com.remondis.limbus.engine;
+
+import java.util.Arrays;
+import java.util.List;
+import java.util.Map.Entry;
+import java.util.TreeMap;
+
+import com.remondis.limbus.utils.Lang;
+
+/**
+ * This matcher decides whether a class name or a resource path belongs to one of a set of allowed package prefixes. The
+ * prefixes are compiled once into an immutable character trie, so that a query walks the name once and does not
+ * allocate.
+ *
+ * <p>
+ * A prefix <tt>com.example</tt> matches the class names starting with <tt>com.example.</tt> and the resource paths
+ * starting with <tt>com/example/</tt>.
+ * </p>
+ */
+final class PackagePrefixMatcher {
+
+  private static final char PACKAGE_SEPARATOR = '.';
+
+  private static final char RESOURCE_SEPARATOR = '/';
+
+  private final Node root;
+
+  private PackagePrefixMatcher(Node root) {
+    this.root = root;
+  }
+
+  /**
+   * Compiles the specified package prefixes.
+   *
+   * @param packagePrefixes
+   *        The allowed package prefixes.
+   * @return Returns the matcher.
+   */
+  static PackagePrefixMatcher compile(List<String> packagePrefixes) {
+    Lang.denyNull("packagePrefixes", packagePrefixes);
+    NodeBuilder root = new NodeBuilder();
+    for (String prefix : packagePrefixes) {
+      Lang.denyNull("packagePrefix", prefix);
+      NodeBuilder node = root;
+      for (int i = 0; i < prefix.length(); i++) {
+        node = node.child(prefix.charAt(i));
+      }
+      node.child(PACKAGE_SEPARATOR).terminal = true;
+    }
+    return new PackagePrefixMatcher(root.build());
+  }
+
+  /**
+   * @param className
+   *        The fully qualified class name.
+   * @return Returns <code>true</code> if the class is in one of the allowed packages, otherwise <code>false</code>.
+   */
+  boolean matchesClass(String className) {
+    return matches(className, false);
+  }
+
+  /**
+   * @param resourcePath
+   *        The resource path.
+   * @return Returns <code>true</code> if the resource is in one of the allowed packages, otherwise <code>false</code>.
+   */
+  boolean matchesResource(String resourcePath) {
+    return matches(resourcePath, true);
+  }
+
+  private boolean matches(String name, boolean resource) {
+    Node node = root;
+    for (int i = 0; i < name.length(); i++) {
+      char c = name.charAt(i);
+      if (resource) {
+        // Resource paths use slashes where the package prefixes use dots.
+        if (c == PACKAGE_SEPARATOR) {
+          return false;
+        } else if (c == RESOURCE_SEPARATOR) {
+          c = PACKAGE_SEPARATOR;
+        }
+      }
+      node = node.child(c);
+      if (node == null) {
+        return false;
+      }
+      if (node.terminal) {
+        return true;
+      }
+    }
+    return false;
+  }
+
+  private static final class Node {
+
+    private final char[] keys;
+
+    private final Node[] children;
+
+    private final boolean terminal;
+
+    private Node(char[] keys, Node[] children, boolean terminal) {
+      this.keys = keys;
+      this.children = children;
+      this.terminal = terminal;
+    }
+
+    private Node child(char c) {
+      int index = Arrays.binarySearch(keys, c);
+      return (index < 0) ? null : children[index];
+    }
+  }
+
+  private static final class NodeBuilder {
+
+    private final TreeMap<Character, NodeBuilder> children = new TreeMap<>();
+
+    private boolean terminal;
+
+    private NodeBuilder child(char c) {
+      return children.computeIfAbsent(c, key -> new NodeBuilder());
+    }
+
+    private Node build() {
+      char[] keys = new char[children.size()];
+      Node[] nodes = new Node[children.size()];
+      int i = 0;
+      for (Entry<Character, NodeBuilder> entry : children.entrySet()) {
+        keys[i] = entry.getKey();
+        nodes[i] = entry.getValue()
+            .build();
+        i++;
+      }
+      return new Node(keys, nodes, terminal);
+    }
+  }
+}
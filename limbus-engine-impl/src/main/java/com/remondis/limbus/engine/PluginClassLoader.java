@@ -22,13 +22,16 @@ import java.util.List;
 import java.util.NoSuchElementException;
 import java.util.Set;
 import java.util.Vector;
+import java.util.concurrent.ConcurrentHashMap;
 import java.util.concurrent.ConcurrentLinkedQueue;
 
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
+import com.remondis.limbus.api.metrics.Counter;
 import com.remondis.limbus.files.LimbusFileService;
 import com.remondis.limbus.properties.LimbusProperties;
+import com.remondis.limbus.properties.PropertyBinding;
 import com.remondis.limbus.utils.Lang;
 
 /**
@@ -45,6 +48,14 @@ public class PluginClassLoader extends URLClassLoader {
 
   private LimbusProperties properties;
 
+  /**
+   * The configuration values that control the cleaning on close().
+   */
+  private PropertyBinding<Boolean> trackStreams;
+  private PropertyBinding<Boolean> closeTrackedStreams;
+  private PropertyBinding<Boolean> stopStartedThreads;
+  private PropertyBinding<Boolean> nullOutStaticFields;
+
   private LimbusFileService filesystem;
 
   /**
@@ -78,6 +89,34 @@ public class PluginClassLoader extends URLClassLoader {
    */
   private Set<Permission> codeSourcePermissions = new HashSet<Permission>();
 
+  /**
+   * Holds the precomputed permissions granted for classes in the classpath of this classloader.
+   */
+  private volatile PluginPermissions pluginPermissions = PluginPermissions.NONE;
+
+  /**
+   * Holds the index of the classes and resources of this classpath.
+   */
+  private ClasspathIndex index = ClasspathIndex.UNAVAILABLE;
+
+  /**
+   * Holds the deploy name of the plugin or <code>null</code> if the plugin was deployed without a name.
+   */
+  private volatile String deployName;
+
+  /**
+   * Holds the names of classes that neither this classloader nor the parent classloader can resolve.
+   */
+  private Set<String> unresolvableClasses = ConcurrentHashMap.newKeySet();
+
+  private int unresolvableClassesMaxSize;
+
+  /**
+   * Counts the class requests served by already loaded classes and the requests that had to load or delegate.
+   */
+  private volatile Counter classHits = new Counter();
+  private volatile Counter classMisses = new Counter();
+
   /**
    * Creates a {@link PluginClassLoader} with the specified URLs to add to its repository. Requests that cannot be
    * serverd by this class loader are delegated to the specified parent.
@@ -123,6 +162,16 @@ public class PluginClassLoader extends URLClassLoader {
       throw new RuntimeException("Cannot get properties for plugin classloader.", e);
     }
 
+    // Index the classes and resources of this classpath, so that requests can be routed without searching the URLs.
+    if (properties.getBoolean("classIndex")) {
+      this.index = ClasspathIndex.create(urls);
+    }
+    this.unresolvableClassesMaxSize = properties.getInt("unresolvableClasses.maxSize");
+    this.trackStreams = properties.bindBoolean("trackStreams");
+    this.closeTrackedStreams = properties.bindBoolean("closeTrackedStreams");
+    this.stopStartedThreads = properties.bindBoolean("stopStartedThreads");
+    this.nullOutStaticFields = properties.bindBoolean("nullOutStaticFields");
+
     // Collect the set of permissions required to access every code source within this classpath
     for (URL url : urls) {
       try {
@@ -136,25 +185,26 @@ public class PluginClassLoader extends URLClassLoader {
             String.format("Cannot request required permissions to connect to the URL %s", url.toString()), e);
       }
     }
+    this.pluginPermissions = new PluginPermissions(getPermissions());
   }
 
   public void getProtectionDomain() {
   }
 
   private boolean trackStreams() {
-    return properties.getBoolean("trackStreams");
+    return trackStreams.get();
   }
 
   private boolean closeTrackedStreams() {
-    return properties.getBoolean("closeTrackedStreams");
+    return closeTrackedStreams.get();
   }
 
   private boolean stopStartedThreads() {
-    return properties.getBoolean("stopStartedThreads");
+    return stopStartedThreads.get();
   }
 
   private boolean nullOutStaticFields() {
-    return properties.getBoolean("nullOutStaticFields");
+    return nullOutStaticFields.get();
   }
 
   /**
@@ -170,6 +220,35 @@ public class PluginClassLoader extends URLClassLoader {
   public void setPermissions(Set<Permission> permissions) {
     this.permissions = new HashSet<Permission>();
     this.permissions.addAll(permissions);
+    PluginPermissions previous = this.pluginPermissions;
+    this.pluginPermissions = new PluginPermissions(getPermissions());
+    previous.invalidate();
+  }
+
+  /**
+   * @return Returns the deploy name of the plugin loaded by this classloader or <code>null</code> if the plugin was
+   *         deployed without a deploy name.
+   */
+  public String getDeployName() {
+    return deployName;
+  }
+
+  void setDeployName(String deployName) {
+    this.deployName = deployName;
+  }
+
+  /**
+   * Sets the counters of class requests. Called by the {@link Deployment} to record the requests in its
+   * {@link DeploymentMetrics}.
+   *
+   * @param classHits
+   *        The counter of requests served by classes already loaded by this classloader.
+   * @param classMisses
+   *        The counter of requests that had to load the class or delegate to the parent.
+   */
+  void setMetrics(Counter classHits, Counter classMisses) {
+    this.classHits = Lang.denyNull("classHits", classHits);
+    this.classMisses = Lang.denyNull("classMisses", classMisses);
   }
 
   public void deactivateCleaning() {
@@ -186,16 +265,20 @@ public class PluginClassLoader extends URLClassLoader {
 
   public Set<Permission> getPermissions() {
     HashSet<Permission> permissions = new HashSet<>(this.permissions);
-
-    for (Permission p : permissions) {
-      permissions.add(p);
-    }
     for (Permission p : codeSourcePermissions) {
       permissions.add(p);
     }
     return permissions;
   }
 
+  /**
+   * @return Returns the precomputed permissions granted for classes in the classpath of this classloader. The
+   *         permissions are computed when they are set and cleared when this classloader is closed.
+   */
+  public PluginPermissions getPluginPermissions() {
+    return pluginPermissions;
+  }
+
   /**
    * Adds the permissions that were set on this classloader to the specified collection.
    *
@@ -216,7 +299,7 @@ public class PluginClassLoader extends URLClassLoader {
     URL url = null;
 
     // Child first lookup
-    url = findResource(name);
+    url = findLocalResource(name);
     if (log.isTraceEnabled()) {
       if (url == null) {
         log.trace("Plugin is delegating to parent for recource: {}", name);
@@ -267,7 +350,7 @@ public class PluginClassLoader extends URLClassLoader {
     @SuppressWarnings("rawtypes")
     Enumeration[] tmp = new Enumeration[2];
 
-    tmp[0] = findResources(name);
+    tmp[0] = findLocalResources(name);
     if (tmp[0] == null) {
       if (log.isTraceEnabled()) {
         log.trace("Delegating to shared classloader: {}", name);
@@ -293,17 +376,21 @@ public class PluginClassLoader extends URLClassLoader {
       // First, check if the class has already been loaded
       Class<?> c = findLoadedClass(name);
       if (c == null) {
-        // If not loaded, then invoke findClass to search for that class in this repository first.
-        try {
-          c = findClass(name);
-        } catch (ClassNotFoundException e) {
-          // ClassNotFoundException thrown if class not found by this classloader
-          // Then delegate to parent
+        classMisses.increment();
+        // Check the negative cache only for classes not loaded yet: Code generators probe a class name before they
+        // define the class with this classloader.
+        denyUnresolvableClass(name);
+        // If not loaded, then search for that class in this repository first.
+        c = findLocalClass(name);
+        if (c == null) {
+          // The class was not found by this classloader, then delegate to parent
           if (log.isTraceEnabled()) {
             log.trace("Delegating to shared classloader: {}", name);
           }
-          c = parentLoadClass(parent, name, resolve);
+          c = parentLoadClassOrRemember(parent, name, resolve);
         }
+      } else {
+        classHits.increment();
       }
 
       if (resolve) {
@@ -313,6 +400,94 @@ public class PluginClassLoader extends URLClassLoader {
     }
   }
 
+  /**
+   * Searches the class in the repository of this classloader. If the classpath index is available, the repository is
+   * only searched if the index contains the class.
+   *
+   * @param name
+   *        The class name.
+   * @return Returns the class or <code>null</code> if the class is not found in the repository of this classloader.
+   */
+  protected Class<?> findLocalClass(String name) {
+    if (!index.mayContainClass(name)) {
+      return null;
+    }
+    try {
+      return findClass(name);
+    } catch (ClassNotFoundException e) {
+      // ClassNotFoundException thrown if class not found by this classloader
+      return null;
+    }
+  }
+
+  /**
+   * Searches the resource in the repository of this classloader. If the classpath index is available, the repository
+   * is only searched if the index contains the resource.
+   *
+   * @param name
+   *        The resource name.
+   * @return Returns the URL of the resource or <code>null</code> if the resource is not found.
+   */
+  protected URL findLocalResource(String name) {
+    if (!index.mayContainResource(name)) {
+      return null;
+    }
+    return findResource(name);
+  }
+
+  /**
+   * Searches the resources in the repository of this classloader. If the classpath index is available, the repository
+   * is only searched if the index contains the resource.
+   *
+   * @param name
+   *        The resource name.
+   * @return Returns the enumeration of the resource URLs or <code>null</code> if the index does not contain the
+   *         resource.
+   * @throws IOException
+   *         Thrown on any I/O error.
+   */
+  protected Enumeration<URL> findLocalResources(String name) throws IOException {
+    if (!index.mayContainResource(name)) {
+      return null;
+    }
+    return findResources(name);
+  }
+
+  /**
+   * Throws a {@link ClassNotFoundException} if the class was recorded to be unresolvable before.
+   *
+   * @param name
+   *        The class name.
+   * @throws ClassNotFoundException
+   *         Thrown if the class was recorded to be unresolvable.
+   */
+  protected void denyUnresolvableClass(String name) throws ClassNotFoundException {
+    if (unresolvableClasses.contains(name)) {
+      throw new ClassNotFoundException(String.format("Class %s cannot be found.", name));
+    }
+  }
+
+  /**
+   * Delegates the class loading to the specified parent. If the parent cannot resolve the class and the class is not
+   * contained in this classpath, the class is recorded to be unresolvable.
+   */
+  protected Class<?> parentLoadClassOrRemember(ClassLoader parent, String name, boolean resolve)
+      throws ClassNotFoundException {
+    try {
+      return parentLoadClass(parent, name, resolve);
+    } catch (ClassNotFoundException e) {
+      if (index.isAvailable() && !index.mayContainClass(name)) {
+        // The negative cache is bounded. It is cleared if it exceeds the maximum size, because
+        // plugins may request classes by generated names.
+        if (unresolvableClasses.size() >= unresolvableClassesMaxSize) {
+          unresolvableClasses.clear();
+        }
+        unresolvableClasses.add(name);
+      }
+      throw e;
+    }
+  }
+
   @Override
   public void close() {
 
@@ -360,6 +535,12 @@ public class PluginClassLoader extends URLClassLoader {
           closeAllRequestedStreamsOnDemand();
 
           permissions = null;
+          pluginPermissions.invalidate();
+          pluginPermissions = PluginPermissions.NONE;
+
+          // Forget the classpath index
+          index = ClasspathIndex.UNAVAILABLE;
+          unresolvableClasses.clear();
 
           // Forget the parent classloader
           parent = null;
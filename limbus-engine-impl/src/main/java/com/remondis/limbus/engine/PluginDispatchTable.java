@@ -0,0 +1,258 @@
+package com.remondis.limbus.engine;
+
+import java.lang.invoke.MethodHandle;
+import java.lang.invoke.MethodHandles;
+import java.lang.invoke.MethodType;
+import java.lang.reflect.InvocationTargetException;
+import java.lang.reflect.Method;
+import java.lang.reflect.Modifier;
+import java.util.concurrent.ConcurrentHashMap;
+
+import com.remondis.limbus.api.IInitializable;
+import com.remondis.limbus.api.LimbusPlugin;
+import com.remondis.limbus.api.metrics.Timer;
+import com.remondis.limbus.utils.Lang;
+
+/**
+ * The dispatch table of a plugin class maps the methods of a plugin interface to the implementing methods of the plugin
+ * class. The table is resolved once when the plugin proxy is created and is used by the {@link LifecycleProxyHandler}
+ * to dispatch calls using pre-bound {@link MethodHandle}s instead of reflective method lookups and calls. Every
+ * dispatch holds the {@link Timer} recording the calls of the method in the {@link DeploymentMetrics}.
+ *
+ * <p>
+ * <b>The dispatch table holds strong references to the plugin class. Therefore it must only be strongly referenced by
+ * the {@link Deployment} it belongs to. The table is dropped when the deployment is finished, so that the
+ * {@link PluginClassLoader} can be garbage collected.</b>
+ * </p>
+ */
+final class PluginDispatchTable {
+
+  private static final Object[] NO_ARGS = new Object[0];
+
+  /**
+   * The type of the spread method handles: The plugin object followed by the argument array.
+   */
+  private static final MethodType DISPATCH_TYPE = MethodType.methodType(Object.class, Object.class, Object[].class);
+
+  // schuettec - 30.01.2017 : CONVENTION The constraint here is that IInitializable defines the initialize() and
+  // finish() method.
+  private static final Method INITIALIZE_METHOD = getMethodOfIInitializable("initialize");
+  private static final Method FINISH_METHOD = getMethodOfIInitializable("finish");
+
+  /**
+   * The lifecycle classification of a plugin interface method.
+   */
+  enum Lifecycle {
+    INITIALIZE,
+    FINISH,
+    NONE;
+  }
+
+  private final Class<?> pluginClass;
+
+  private final ConcurrentHashMap<Method, MethodDispatch> dispatches;
+
+  private final DeploymentMetrics metrics;
+
+  private PluginDispatchTable(Class<?> pluginClass, DeploymentMetrics metrics) {
+    this.pluginClass = pluginClass;
+    this.dispatches = new ConcurrentHashMap<>();
+    this.metrics = metrics;
+  }
+
+  /**
+   * Creates the dispatch table for the specified plugin class and resolves all methods of the specified plugin
+   * interface.
+   *
+   * @param pluginInterface
+   *        The plugin interface.
+   * @param pluginClass
+   *        The plugin implementation class.
+   * @return Returns the dispatch table. The calls are recorded by timers that are not registered.
+   */
+  static PluginDispatchTable create(Class<?> pluginInterface, Class<?> pluginClass) {
+    return create(pluginInterface, pluginClass, new DeploymentMetrics());
+  }
+
+  /**
+   * Creates the dispatch table for the specified plugin class and resolves all methods of the specified plugin
+   * interface.
+   *
+   * @param pluginInterface
+   *        The plugin interface.
+   * @param pluginClass
+   *        The plugin implementation class.
+   * @param metrics
+   *        The metrics of the deployment providing the timers of the plugin calls.
+   * @return Returns the dispatch table.
+   */
+  static PluginDispatchTable create(Class<?> pluginInterface, Class<?> pluginClass, DeploymentMetrics metrics) {
+    Lang.denyNull("pluginInterface", pluginInterface);
+    Lang.denyNull("pluginClass", pluginClass);
+    Lang.denyNull("metrics", metrics);
+    PluginDispatchTable table = new PluginDispatchTable(pluginClass, metrics);
+    for (Method method : pluginInterface.getMethods()) {
+      if (Modifier.isStatic(method.getModifiers())) {
+        continue;
+      }
+      try {
+        table.dispatches.put(method, table.resolve(method));
+      } catch (LimbusConventionError e) {
+        // Keep this silent here, the convention error is thrown when the method is called.
+      }
+    }
+    return table;
+  }
+
+  /**
+   * Returns the dispatch for the specified interface method. Methods of interfaces that were not resolved on creation
+   * are resolved on demand.
+   *
+   * @param interfaceMethod
+   *        The method of an interface the plugin implements.
+   * @return Returns the dispatch for the method.
+   * @throws LimbusConventionError
+   *         Thrown if the plugin class does not implement the method.
+   */
+  MethodDispatch get(Method interfaceMethod) throws LimbusConventionError {
+    MethodDispatch dispatch = dispatches.get(interfaceMethod);
+    if (dispatch == null) {
+      dispatch = dispatches.computeIfAbsent(interfaceMethod, this::resolve);
+    }
+    return dispatch;
+  }
+
+  /**
+   * Drops all resolved dispatches.
+   */
+  void clear() {
+    dispatches.clear();
+  }
+
+  private MethodDispatch resolve(Method interfaceMethod) throws LimbusConventionError {
+    Method pluginMethod = getPluginMethod(interfaceMethod);
+    return new MethodDispatch(pluginMethod, createMethodHandle(pluginMethod), getLifecycle(interfaceMethod),
+        metrics.getCallTimer(interfaceMethod));
+  }
+
+  private Method getPluginMethod(Method method) {
+    // schuettec - 31.01.2017 : We have to find the corresponding method ourselves because abstract classes in the
+    // inheritance hierarchy cannot be called.
+    try {
+      return pluginClass.getMethod(method.getName(), method.getParameterTypes());
+    } catch (NoSuchMethodException e) {
+      // schuettec - 31.01.2017 : CONVENTION: A plugin must implement all methods from its plugin interface
+      // (technically this is ensured by the compiler).
+      throw new LimbusConventionError(
+          String.format("The plugin implementation %s does not implement the method %s from it's plugin interface %s.",
+              pluginClass.getName(), method.toGenericString(), method.getDeclaringClass()
+                  .getName()));
+    }
+  }
+
+  /**
+   * @return Returns the method handle of type {@link #DISPATCH_TYPE} or <code>null</code> if the method is not
+   *         accessible using a method handle. In this case the method is called reflectively.
+   */
+  private static MethodHandle createMethodHandle(Method pluginMethod) {
+    try {
+      MethodHandle handle = MethodHandles.publicLookup()
+          .unreflect(pluginMethod);
+      return handle.asSpreader(Object[].class, pluginMethod.getParameterCount())
+          .asType(DISPATCH_TYPE);
+    } catch (IllegalAccessException e) {
+      return null;
+    }
+  }
+
+  private static Lifecycle getLifecycle(Method method) {
+    // TODO - schuettec - 27.01.2017 : Check if the following method compare works. It is okay to assume that the
+    // plugin interface and the IInitializable were loaded by the same classloader, since those classes have to be
+    // present in the engine's classloader per convention.
+    if (INITIALIZE_METHOD.equals(method)) {
+      return Lifecycle.INITIALIZE;
+    } else if (FINISH_METHOD.equals(method)) {
+      return Lifecycle.FINISH;
+    } else {
+      return Lifecycle.NONE;
+    }
+  }
+
+  private static Method getMethodOfIInitializable(String methodName) throws LimbusConventionError {
+    try {
+      return IInitializable.class.getMethod(methodName);
+    } catch (NoSuchMethodException e) {
+      // schuettec - 30.01.2017 : CONVENTION The constraint here is that a LimbusPlugin will extend IInitializable. The
+      // LimbusPlugin instance is therefore expected to implement the specified method.
+      throw new LimbusConventionError(String.format(
+          "The type com.remondis.limbus.IInitializable was expected to declare the method '%s()'.", methodName));
+    }
+  }
+
+  /**
+   * A resolved plugin method.
+   */
+  static final class MethodDispatch {
+
+    private final Method pluginMethod;
+
+    private final MethodHandle handle;
+
+    private final Lifecycle lifecycle;
+
+    private final Timer calls;
+
+    private MethodDispatch(Method pluginMethod, MethodHandle handle, Lifecycle lifecycle, Timer calls) {
+      this.pluginMethod = pluginMethod;
+      this.handle = handle;
+      this.lifecycle = lifecycle;
+      this.calls = calls;
+    }
+
+    Lifecycle getLifecycle() {
+      return lifecycle;
+    }
+
+    /**
+     * @return Returns the timer recording the calls of this method including the context switch.
+     */
+    Timer getCalls() {
+      return calls;
+    }
+
+    /**
+     * Calls the plugin method on the specified plugin object. Exceptions thrown by the plugin method are thrown
+     * directly.
+     *
+     * @param plugin
+     *        The plugin object.
+     * @param args
+     *        The arguments, may be <code>null</code>.
+     * @return Returns the return value of the plugin method or <code>null</code> for <code>void</code> methods.
+     * @throws Throwable
+     *         Thrown by the plugin method.
+     */
+    Object invoke(LimbusPlugin plugin, Object[] args) throws Throwable {
+      Object[] arguments = (args == null) ? NO_ARGS : args;
+      if (handle == null) {
+        return invokeReflectively(plugin, arguments);
+      } else {
+        return (Object) handle.invokeExact((Object) plugin, arguments);
+      }
+    }
+
+    private Object invokeReflectively(LimbusPlugin plugin, Object[] arguments) throws Throwable {
+      try {
+        return pluginMethod.invoke(plugin, arguments);
+      } catch (InvocationTargetException e) {
+        // schuettec - 31.01.2017 : Skip InvocationTargetException and throw the cause only if it exists
+        Throwable cause = e.getCause();
+        if (cause == null) {
+          throw e;
+        } else {
+          throw cause;
+        }
+      }
+    }
+  }
+}
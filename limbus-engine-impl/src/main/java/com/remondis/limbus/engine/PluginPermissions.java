@@ -0,0 +1,106 @@
+package com.remondis.limbus.engine;
+
+import java.io.FilePermission;
+import java.lang.reflect.ReflectPermission;
+import java.net.NetPermission;
+import java.net.SocketPermission;
+import java.security.Permission;
+import java.security.PermissionCollection;
+import java.security.Permissions;
+import java.security.SecurityPermission;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.HashSet;
+import java.util.Map;
+import java.util.PropertyPermission;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * The permissions granted to the classes of a {@link PluginClassLoader}. The permissions are precomputed into a
+ * read-only {@link PermissionCollection} when they are set on deploy.
+ *
+ * <p>
+ * The decisions of {@link #implies(Permission)} are cached for permission types with value based equality that are
+ * known to be immutable. Evaluating these permissions, especially {@link SocketPermission}s that may require name
+ * resolution, is expensive for plugins doing heavy I/O. Permissions of other types are evaluated on every request.
+ * </p>
+ *
+ * <p>
+ * All protection domains of a plugin classloader are granted the same permissions, so a decision per
+ * (protection domain, permission) is a decision per (classloader, permission).
+ * </p>
+ */
+public final class PluginPermissions {
+
+  /**
+   * The permissions granting nothing. Used for classloaders that were closed.
+   */
+  static final PluginPermissions NONE = new PluginPermissions(Collections.emptySet());
+
+  /**
+   * The decision cache is bounded. It is cleared if it exceeds the maximum size, because permissions may be requested
+   * for generated file names.
+   */
+  private static final int MAX_CACHED_DECISIONS = 4096;
+
+  /**
+   * The permission types whose decisions are cached.
+   */
+  private static final Set<Class<?>> CACHEABLE_TYPES = new HashSet<>(
+      Arrays.asList(FilePermission.class, SocketPermission.class, PropertyPermission.class, RuntimePermission.class,
+          NetPermission.class, ReflectPermission.class, SecurityPermission.class));
+
+  private final PermissionCollection permissions;
+
+  private final Map<Permission, Boolean> decisions = new ConcurrentHashMap<>();
+
+  /**
+   * @param permissions
+   *        The permissions to grant.
+   */
+  PluginPermissions(Collection<Permission> permissions) {
+    Permissions collection = new Permissions();
+    for (Permission p : permissions) {
+      collection.add(p);
+    }
+    collection.setReadOnly();
+    this.permissions = collection;
+  }
+
+  /**
+   * @return Returns the read-only {@link PermissionCollection} of the granted permissions.
+   */
+  public PermissionCollection getPermissionCollection() {
+    return permissions;
+  }
+
+  /**
+   * @param permission
+   *        The requested permission.
+   * @return Returns <code>true</code> if the permission is granted, otherwise <code>false</code> is returned.
+   */
+  public boolean implies(Permission permission) {
+    if (!CACHEABLE_TYPES.contains(permission.getClass())) {
+      return permissions.implies(permission);
+    }
+    Boolean decision = decisions.get(permission);
+    if (decision == null) {
+      decision = permissions.implies(permission);
+      if (decisions.size() >= MAX_CACHED_DECISIONS) {
+        decisions.clear();
+      }
+      decisions.put(permission, decision);
+    }
+    return decision;
+  }
+
+  /**
+   * Clears the cached decisions.
+   */
+  void invalidate() {
+    decisions.clear();
+  }
+
+}
@@ -0,0 +1,159 @@
+package com.remondis.limbus.engine;
+
+import java.lang.ref.WeakReference;
+import java.lang.reflect.InvocationHandler;
+import java.lang.reflect.Proxy;
+import java.util.ArrayList;
+import java.util.Iterator;
+import java.util.List;
+import java.util.concurrent.ConcurrentHashMap;
+
+import com.remondis.limbus.utils.Lang;
+
+/**
+ * This cache holds the plugin proxies created for the supported interfaces of a plugin. A proxy is created once per
+ * plugin, set of interfaces and the classloader the proxy is defined in. Subsequent requests return the same proxy
+ * instance as long as the proxy is in use.
+ *
+ * <p>
+ * <b>The cache is held by the {@link Deployment} and is cleared when the deployment is finished. Proxies may be defined
+ * in classloaders of other deployments or may implement interfaces of other deployments. The proxies, the classloaders
+ * and the interfaces are only referenced weakly, because a proxy class is defined in the classloader and would keep
+ * the other deployment from being garbage collected. The proxies referencing another deployment are released using
+ * {@link #release(ClassLoader)} when the other deployment is undeployed.</b>
+ * </p>
+ */
+final class PluginProxyCache {
+
+  /**
+   * Maps the classnames of the plugins to the proxies created for the plugin.
+   */
+  private ConcurrentHashMap<String, List<CachedProxy>> proxies;
+
+  PluginProxyCache() {
+    this.proxies = new ConcurrentHashMap<>();
+  }
+
+  /**
+   * Returns the cached proxy for the specified plugin and interfaces or creates a new one.
+   *
+   * @param classname
+   *        The classname of the plugin. The classname is the identifying element of a plugin instance within a
+   *        deployment.
+   * @param toDefineIn
+   *        The classloader to define the proxy in.
+   * @param interfaces
+   *        The interfaces the proxy implements.
+   * @param handler
+   *        The invocation handler of the plugin.
+   * @return Returns the proxy instance.
+   */
+  Object getProxy(String classname, ClassLoader toDefineIn, Class<?>[] interfaces, InvocationHandler handler) {
+    Lang.denyNull("classname", classname);
+    Lang.denyNull("interfaces", interfaces);
+    Lang.denyNull("handler", handler);
+    List<CachedProxy> cached = proxies.get(classname);
+    if (cached == null) {
+      cached = proxies.computeIfAbsent(classname, name -> new ArrayList<>(1));
+    }
+    synchronized (cached) {
+      Iterator<CachedProxy> it = cached.iterator();
+      while (it.hasNext()) {
+        CachedProxy entry = it.next();
+        Object proxy = entry.get();
+        if (proxy == null) {
+          it.remove();
+        } else if (entry.matches(toDefineIn, interfaces, handler)) {
+          return proxy;
+        }
+      }
+      Object proxy = Proxy.newProxyInstance(toDefineIn, interfaces, handler);
+      cached.add(new CachedProxy(proxy, toDefineIn, interfaces, handler));
+      return proxy;
+    }
+  }
+
+  /**
+   * Releases all proxies that are defined in the specified classloader or implement an interface loaded by the
+   * specified classloader.
+   *
+   * @param classloader
+   *        The classloader of a deployment that is undeployed.
+   */
+  void release(ClassLoader classloader) {
+    for (List<CachedProxy> cached : proxies.values()) {
+      synchronized (cached) {
+        cached.removeIf(entry -> entry.get() == null || entry.references(classloader));
+      }
+    }
+  }
+
+  /**
+   * @return Returns the number of cached proxies that are still in use.
+   */
+  int size() {
+    int size = 0;
+    for (List<CachedProxy> cached : proxies.values()) {
+      synchronized (cached) {
+        for (CachedProxy entry : cached) {
+          if (entry.get() != null) {
+            size++;
+          }
+        }
+      }
+    }
+    return size;
+  }
+
+  /**
+   * Releases all proxies.
+   */
+  void clear() {
+    proxies.clear();
+  }
+
+  private static final class CachedProxy extends WeakReference<Object> {
+
+    private final WeakReference<ClassLoader> toDefineIn;
+
+    private final WeakReference<?>[] interfaces;
+
+    private final InvocationHandler handler;
+
+    private CachedProxy(Object proxy, ClassLoader toDefineIn, Class<?>[] interfaces, InvocationHandler handler) {
+      super(proxy);
+      this.toDefineIn = new WeakReference<>(toDefineIn);
+      this.interfaces = new WeakReference<?>[interfaces.length];
+      for (int i = 0; i < interfaces.length; i++) {
+        this.interfaces[i] = new WeakReference<>(interfaces[i]);
+      }
+      this.handler = handler;
+    }
+
+    private boolean matches(ClassLoader toDefineIn, Class<?>[] interfaces, InvocationHandler handler) {
+      if (this.toDefineIn.get() != toDefineIn || this.handler != handler
+          || this.interfaces.length != interfaces.length) {
+        return false;
+      }
+      for (int i = 0; i < interfaces.length; i++) {
+        if (this.interfaces[i].get() != interfaces[i]) {
+          return false;
+        }
+      }
+      return true;
+    }
+
+    private boolean references(ClassLoader classloader) {
+      if (toDefineIn.get() == classloader) {
+        return true;
+      }
+      for (WeakReference<?> i : interfaces) {
+        Class<?> type = (Class<?>) i.get();
+        if (type != null && type.getClassLoader() == classloader) {
+          return true;
+        }
+      }
+      return false;
+    }
+  }
+}
@@ -30,6 +30,21 @@ public class SharedClassLoader extends PluginClassLoader {
 
   protected final List<String> allowedPackagePrefixes;
 
+  /**
+   * The allowed package prefixes compiled once for the requests.
+   */
+  private PackagePrefixMatcher allowedPackages;
+
+  /**
+   * The parent classloader used for requests of the allowed packages.
+   */
+  private ClassLoader allowedParent;
+
+  /**
+   * The parent classloader used for all other requests.
+   */
+  private ClassLoader platformParent;
+
   public SharedClassLoader(LimbusFileService filesystem, ClassLoader parent, List<String> accessiblePackages,
       Set<URL> urls) {
     super(filesystem, parent, urls);
@@ -37,6 +52,7 @@ public class SharedClassLoader extends PluginClassLoader {
     Lang.denyNull("urls", urls);
     deactivateCleaning();
     allowedPackagePrefixes = new ArrayList<String>(accessiblePackages);
+    initializeParents();
   }
 
   public SharedClassLoader(LimbusFileService filesystem, ClassLoader parent, List<String> accessiblePackages,
@@ -46,7 +62,7 @@ public class SharedClassLoader extends PluginClassLoader {
     Lang.denyNull("urls", urls);
     deactivateCleaning();
     allowedPackagePrefixes = new ArrayList<String>(accessiblePackages);
-
+    initializeParents();
   }
 
   public SharedClassLoader(LimbusFileService filesystem, ClassLoader parent, List<String> accessiblePackages,
@@ -56,6 +72,7 @@ public class SharedClassLoader extends PluginClassLoader {
     Lang.denyNull("urls", urls);
     deactivateCleaning();
     allowedPackagePrefixes = new ArrayList<String>(accessiblePackages);
+    initializeParents();
   }
 
   @Override
@@ -64,7 +81,7 @@ public class SharedClassLoader extends PluginClassLoader {
     URL url = null;
 
     // Child first lookup
-    url = findResource(name);
+    url = findLocalResource(name);
     if (log.isTraceEnabled()) {
       if (url == null) {
         log.trace("Plugin is delegating to parent for recource: {}", name);
@@ -88,6 +105,20 @@ public class SharedClassLoader extends PluginClassLoader {
     return url;
   }
 
+  private void initializeParents() {
+    this.allowedPackages = PackagePrefixMatcher.compile(allowedPackagePrefixes);
+    // The parents never change, so the privileged lookup is only done once.
+    AccessController.doPrivileged(new PrivilegedAction<Void>() {
+      @Override
+      public Void run() {
+        allowedParent = getParent();
+        platformParent = ClassLoader.getSystemClassLoader()
+            .getParent();
+        return null;
+      }
+    });
+  }
+
   /**
    * Select the parent classloader to process the request. This method can decide to skip the AppClassLoader to avoid,
    * that a plugin can access classes from the classpath of the engine. Only the package prefixes configured in this
@@ -98,25 +129,8 @@ public class SharedClassLoader extends PluginClassLoader {
    * @return
    */
   private ClassLoader getParentForRequest(String name, boolean resource) {
-    return AccessController.doPrivileged(new PrivilegedAction<ClassLoader>() {
-      @Override
-      public ClassLoader run() {
-
-        for (String allowed : allowedPackagePrefixes) {
-          if (resource) {
-            allowed = allowed.replace(".", "/");
-            allowed += "/";
-          } else {
-            allowed += ".";
-          }
-          if (name.startsWith(allowed)) {
-            return getParent();
-          }
-        }
-        return ClassLoader.getSystemClassLoader()
-            .getParent();
-      }
-    });
+    boolean allowed = resource ? allowedPackages.matchesResource(name) : allowedPackages.matchesClass(name);
+    return allowed ? allowedParent : platformParent;
   }
 
   @SuppressWarnings({
@@ -131,7 +145,7 @@ public class SharedClassLoader extends PluginClassLoader {
     @SuppressWarnings("rawtypes")
     Enumeration[] tmp = new Enumeration[2];
 
-    tmp[0] = findResources(name);
+    tmp[0] = findLocalResources(name);
     if (tmp[0] == null) {
       if (log.isTraceEnabled()) {
         log.trace("Delegating to shared classloader: {}", name);
@@ -159,17 +173,18 @@ public class SharedClassLoader extends PluginClassLoader {
       // First, check if the class has already been loaded
       Class<?> c = findLoadedClass(name);
       if (c == null) {
-        // If not loaded, then invoke findClass to search for that class in this repository first.
-        try {
-          c = findClass(name);
-        } catch (ClassNotFoundException e) {
-          // ClassNotFoundException thrown if class not found by this classloader
-          // Then delegate to parent
+        // Check the negative cache only for classes not loaded yet: Code generators probe a class name before they
+        // define the class with this classloader.
+        denyUnresolvableClass(name);
+        // If not loaded, then search for that class in this repository first.
+        c = findLocalClass(name);
+        if (c == null) {
+          // The class was not found by this classloader, then delegate to parent
           if (log.isTraceEnabled()) {
             log.trace("Delegating to shared classloader: {}", name);
           }
           ClassLoader parent = getParentForRequest(name, false);
-          c = parentLoadClass(parent, name, false);
+          c = parentLoadClassOrRemember(parent, name, false);
         }
       }
 
@@ -0,0 +1,434 @@
+package com.remondis.limbus.engine;
+
+import java.lang.ref.Reference;
+import java.lang.reflect.Field;
+import java.security.AccessController;
+import java.security.PrivilegedAction;
+import java.util.Arrays;
+import java.util.HashSet;
+import java.util.Set;
+
+/**
+ * This is the precomputed per-deployment context descriptor used by {@link LimbusContextInternal} to switch the current
+ * thread into the context of a deployment and back. The switch sets the plugin classloader as context classloader and
+ * isolates the {@link ThreadLocal}s the plugin code adds to the current thread.
+ *
+ * <p>
+ * The semantics are the same as {@link LimbusUtil#storeThreadLocalsInDeployContext(Set, Set, LimbusContextInternal)}
+ * provides: All {@link ThreadLocal}s added by a context action are removed from the thread after the action and are
+ * remembered for this deployment. Those {@link ThreadLocal}s are re-added on the next context action. The
+ * {@link ThreadLocal}s present before the action are restored afterwards.
+ * </p>
+ *
+ * <p>
+ * In contrast to {@link LimbusUtil#getCurrentThreadLocals()} no sets are created for the snapshots. The reflective
+ * accessors are resolved once and the snapshot of the thread local table is copied into a buffer that is reused per
+ * thread and nesting level. If the table did not change during the action, the switch back is a plain comparison of the
+ * table slots. Only if the table changed, the delta is computed.
+ * </p>
+ */
+@SuppressWarnings("rawtypes")
+final class ThreadContextSwitch {
+
+  private static final ThreadLocal[] NO_THREAD_LOCALS = new ThreadLocal[0];
+
+  private static final Field THREAD_LOCALS_FIELD;
+
+  private static final Field TABLE_FIELD;
+
+  private static final Throwable ACCESS_ERROR;
+
+  static {
+    Field[] fields = new Field[2];
+    Throwable error = AccessController.doPrivileged(new PrivilegedAction<Throwable>() {
+      @Override
+      public Throwable run() {
+        try {
+          Field threadLocalsField = Thread.class.getDeclaredField("threadLocals");
+          threadLocalsField.setAccessible(true);
+          Class<?> threadLocalMapClass = Class.forName("java.lang.ThreadLocal$ThreadLocalMap");
+          Field tableField = threadLocalMapClass.getDeclaredField("table");
+          tableField.setAccessible(true);
+          fields[0] = threadLocalsField;
+          fields[1] = tableField;
+          return null;
+        } catch (Throwable e) {
+          return e;
+        }
+      }
+    });
+    THREAD_LOCALS_FIELD = fields[0];
+    TABLE_FIELD = fields[1];
+    ACCESS_ERROR = error;
+  }
+
+  /**
+   * Holds the per thread stack of reusable frames. Nested context actions (a plugin calling another plugin) use the
+   * next frame of the stack.
+   */
+  private static final ThreadLocal<FrameStack> FRAMES = ThreadLocal.withInitial(FrameStack::new);
+
+  private ClassLoader classloader;
+
+  /**
+   * Holds the {@link ThreadLocal}s the plugin code added during the last context action.
+   */
+  private volatile ThreadLocal[] threadLocals = NO_THREAD_LOCALS;
+
+  ThreadContextSwitch(ClassLoader classloader) {
+    this.classloader = classloader;
+  }
+
+  /**
+   * Switches the current thread into the context of the deployment. If the switch fails, the current thread is left in
+   * the state before this call and no frame must be passed to {@link #exit(Frame)}.
+   *
+   * @return Returns the frame that must be passed to {@link #exit(Frame)} after the context action.
+   */
+  Frame enter() {
+    FrameStack stack = FRAMES.get();
+    Thread thread = Thread.currentThread();
+    Frame frame = stack.push();
+    boolean captured = false;
+    try {
+      frame.contextClassLoaderBefore = thread.getContextClassLoader();
+      // Take the thread local before snapshot.
+      frame.capture(currentTable(thread));
+      captured = true;
+      // Add the plugin's thread locals recorded before. This may run the initial value of a thread local.
+      addThreadLocals(threadLocals);
+      // Set the plugin context
+      setContextClassLoader(thread, classloader);
+      return frame;
+    } catch (RuntimeException | Error e) {
+      try {
+        if (captured) {
+          // Remove the thread locals added so far without recording them for this deployment.
+          Object[] table = currentTable(thread);
+          if (!frame.isUnchanged(table)) {
+            restoreThreadLocals(frame, table, false);
+          }
+        }
+      } catch (RuntimeException | Error suppressed) {
+        e.addSuppressed(suppressed);
+      } finally {
+        // The frame must not keep the thread local values and the nesting level must not grow.
+        frame.clear();
+        stack.pop();
+      }
+      throw e;
+    }
+  }
+
+  /**
+   * Switches the current thread back to the state before {@link #enter()} was called.
+   *
+   * @param frame
+   *        The frame returned by {@link #enter()}.
+   */
+  void exit(Frame frame) {
+    Thread thread = Thread.currentThread();
+    try {
+      // Restore the old context classloader
+      setContextClassLoader(thread, frame.contextClassLoaderBefore);
+      Object[] table = currentTable(thread);
+      if (!frame.isUnchanged(table)) {
+        restoreThreadLocals(frame, table, true);
+      }
+    } finally {
+      frame.clear();
+      frame.stack.pop();
+    }
+  }
+
+  /**
+   * Removes the {@link ThreadLocal}s added after taking the before snapshot and stores them for this deployment if
+   * requested. The {@link ThreadLocal}s of the before snapshot are restored if the context action removed some of them.
+   */
+  private void restoreThreadLocals(Frame frame, Object[] table, boolean record) {
+    FrameStack stack = frame.stack;
+    int added = 0;
+    int retained = 0;
+    if (table != null) {
+      for (int i = 0; i < table.length; i++) {
+        ThreadLocal threadLocal = referent(table[i]);
+        if (threadLocal != null) {
+          if (frame.contains(i, threadLocal)) {
+            retained++;
+          } else {
+            added = stack.addDelta(added, threadLocal);
+          }
+        }
+      }
+    }
+    try {
+      // Remove the thread locals from current thread because they were added by the context action. This is done
+      // after scanning the table because removing entries reorganizes the table.
+      for (int i = 0; i < added; i++) {
+        ((ThreadLocal) stack.delta[i]).remove();
+      }
+      // Store the ThreadLocals added from the context action in this context
+      if (record) {
+        storeDelta(stack.delta, added);
+      }
+    } finally {
+      Arrays.fill(stack.delta, 0, added, null);
+    }
+    // Restore the ThreadLocals to the state before a context action was executed
+    if (retained < frame.live) {
+      frame.restoreMissing();
+    }
+  }
+
+  private void storeDelta(Object[] delta, int length) {
+    ThreadLocal[] current = threadLocals;
+    if (current.length == length && containsAll(current, delta, length)) {
+      return;
+    }
+    if (length == 0) {
+      threadLocals = NO_THREAD_LOCALS;
+    } else {
+      ThreadLocal[] newThreadLocals = new ThreadLocal[length];
+      System.arraycopy(delta, 0, newThreadLocals, 0, length);
+      threadLocals = newThreadLocals;
+    }
+  }
+
+  private static boolean containsAll(ThreadLocal[] current, Object[] delta, int length) {
+    for (int i = 0; i < length; i++) {
+      if (!contains(current, delta[i])) {
+        return false;
+      }
+    }
+    return true;
+  }
+
+  private static boolean contains(ThreadLocal[] threadLocals, Object threadLocal) {
+    for (ThreadLocal t : threadLocals) {
+      if (t == threadLocal) {
+        return true;
+      }
+    }
+    return false;
+  }
+
+  @SuppressWarnings("unchecked")
+  private static void addThreadLocals(ThreadLocal[] threadLocals) {
+    for (ThreadLocal threadLocal : threadLocals) {
+      // Stores a new thread local in the current thread
+      threadLocal.set(threadLocal.get());
+    }
+  }
+
+  /**
+   * @return Returns the number of context actions the current thread is currently performing.
+   */
+  static int getNestingLevel() {
+    return FRAMES.get().depth;
+  }
+
+  Set<ThreadLocal> getThreadLocals() {
+    return new HashSet<>(Arrays.asList(threadLocals));
+  }
+
+  void setThreadLocals(Set<ThreadLocal> threadLocals) {
+    this.threadLocals = threadLocals.toArray(new ThreadLocal[threadLocals.size()]);
+  }
+
+  /**
+   * Forgets the recorded {@link ThreadLocal}s and the classloader.
+   */
+  void clear() {
+    this.threadLocals = NO_THREAD_LOCALS;
+    this.classloader = null;
+  }
+
+  private static void setContextClassLoader(Thread thread, ClassLoader classLoader) {
+    if (System.getSecurityManager() == null) {
+      thread.setContextClassLoader(classLoader);
+    } else {
+      AccessController.doPrivileged(new PrivilegedAction<Void>() {
+        @Override
+        public Void run() {
+          thread.setContextClassLoader(classLoader);
+          return null;
+        }
+      });
+    }
+  }
+
+  /**
+   * @return Returns the table of the thread local map of the specified thread or <code>null</code> if the thread does
+   *         not have thread locals.
+   */
+  static Object[] currentTable(Thread thread) {
+    if (ACCESS_ERROR != null) {
+      throw new IllegalStateException("Cannot lookup thread locals.", ACCESS_ERROR);
+    }
+    try {
+      Object threadLocalMap = THREAD_LOCALS_FIELD.get(thread);
+      if (threadLocalMap == null) {
+        return null;
+      }
+      return (Object[]) TABLE_FIELD.get(threadLocalMap);
+    } catch (IllegalAccessException e) {
+      throw new IllegalStateException("Cannot lookup thread locals.", e);
+    }
+  }
+
+  /**
+   * @return Returns the {@link ThreadLocal} of the specified table entry or <code>null</code> if the slot is empty or
+   *         the entry is stale.
+   */
+  static ThreadLocal referent(Object entry) {
+    if (entry == null) {
+      return null;
+    }
+    // Each entry in the table array of ThreadLocalMap is a weak reference to the thread local.
+    return (ThreadLocal) ((Reference) entry).get();
+  }
+
+  /**
+   * A frame holds the state of the thread before switching into a deployment context. Frames are reused per thread
+   * and nesting level and must be cleared after use, because the table entries strongly reference the values of the
+   * thread locals.
+   */
+  static final class Frame {
+
+    private final FrameStack stack;
+
+    private ClassLoader contextClassLoaderBefore;
+
+    private Object[] tableBefore;
+
+    private Object[] entries = new Object[16];
+
+    /**
+     * Holds the thread locals of the captured entries. The referents are captured separately because removing a thread
+     * local clears the entry.
+     */
+    private ThreadLocal[] referents = new ThreadLocal[16];
+
+    private int length;
+
+    private int live;
+
+    private Frame(FrameStack stack) {
+      this.stack = stack;
+    }
+
+    private void capture(Object[] table) {
+      this.tableBefore = table;
+      this.live = 0;
+      if (table == null) {
+        this.length = 0;
+        return;
+      }
+      if (entries.length < table.length) {
+        entries = new Object[table.length];
+        referents = new ThreadLocal[table.length];
+      }
+      for (int i = 0; i < table.length; i++) {
+        Object entry = table[i];
+        ThreadLocal threadLocal = referent(entry);
+        entries[i] = entry;
+        referents[i] = threadLocal;
+        if (threadLocal != null) {
+          live++;
+        }
+      }
+      this.length = table.length;
+    }
+
+    /**
+     * @return Returns <code>true</code> if the specified table is the same table holding the same entries like the
+     *         table captured before.
+     */
+    private boolean isUnchanged(Object[] table) {
+      if (table != tableBefore) {
+        return false;
+      }
+      if (table == null) {
+        return true;
+      }
+      for (int i = 0; i < length; i++) {
+        if (table[i] != entries[i]) {
+          return false;
+        }
+      }
+      return true;
+    }
+
+    /**
+     * @return Returns <code>true</code> if the specified {@link ThreadLocal} was present before. The slot the entry is
+     *         found in the current table is checked first.
+     */
+    private boolean contains(int slot, ThreadLocal threadLocal) {
+      if (slot < length && referents[slot] == threadLocal) {
+        return true;
+      }
+      for (int i = 0; i < length; i++) {
+        if (referents[i] == threadLocal) {
+          return true;
+        }
+      }
+      return false;
+    }
+
+    @SuppressWarnings("unchecked")
+    private void restoreMissing() {
+      for (int i = 0; i < length; i++) {
+        ThreadLocal threadLocal = referents[i];
+        if (threadLocal != null) {
+          threadLocal.set(threadLocal.get());
+        }
+      }
+    }
+
+    private void clear() {
+      Arrays.fill(entries, 0, length, null);
+      Arrays.fill(referents, 0, length, null);
+      this.tableBefore = null;
+      this.contextClassLoaderBefore = null;
+      this.length = 0;
+      this.live = 0;
+    }
+  }
+
+  /**
+   * The stack of reusable frames of a thread.
+   */
+  private static final class FrameStack {
+
+    private Frame[] frames = new Frame[4];
+
+    private int depth;
+
+    private Object[] delta = new Object[16];
+
+    private Frame push() {
+      if (depth == frames.length) {
+        frames = Arrays.copyOf(frames, depth * 2);
+      }
+      Frame frame = frames[depth];
+      if (frame == null) {
+        frame = new Frame(this);
+        frames[depth] = frame;
+      }
+      depth++;
+      return frame;
+    }
+
+    private void pop() {
+      depth--;
+    }
+
+    private int addDelta(int index, ThreadLocal threadLocal) {
+      if (index == delta.length) {
+        delta = Arrays.copyOf(delta, index * 2);
+      }
+      delta[index] = threadLocal;
+      return index + 1;
+    }
+  }
+}
@@ -2,20 +2,39 @@ package com.remondis.limbus.engine.logging;
 
 import java.io.ByteArrayOutputStream;
 import java.io.OutputStream;
+import java.util.Map;
 import java.util.NoSuchElementException;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.TimeUnit;
 
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
 import com.remondis.limbus.api.Initializable;
+import com.remondis.limbus.api.metrics.Counter;
+import com.remondis.limbus.api.metrics.MetricRegistry;
+import com.remondis.limbus.api.metrics.Metrics;
 import com.remondis.limbus.engine.api.LogTarget;
 import com.remondis.limbus.launcher.EngineLauncher;
+import com.remondis.limbus.utils.Lang;
 
 /**
  * This is an abstract implementation of a {@link LogTarget} used by the Limbus Engine to separate logging output of
  * plugins and write it separately to any registered destination. This abstract implementation provides the general
  * lifecycle management and the call mapping.
  *
+ * <p>
+ * The output is written to the targets asynchronously using an {@link AsyncTargetWriter}, so that plugins producing a
+ * lot of output do not wait for I/O. Subclasses can configure the log pipeline using
+ * {@link #configurePipeline(int, long, TimeUnit, OverflowPolicy)} before this log target is initialized.
+ * </p>
+ *
+ * <p>
+ * The bytes written to a channel are counted by the metrics <tt>limbus.deployment.&lt;deploy
+ * name&gt;.log.stdout.bytes</tt> and <tt>limbus.deployment.&lt;deploy name&gt;.log.stderr.bytes</tt> while the
+ * channel is open. The bytes written to the default targets are counted by <tt>limbus.log.default.stdout.bytes</tt>
+ * and <tt>limbus.log.default.stderr.bytes</tt>.
+ * </p>
  *
  * @param <T>
  *        The type of the underlying write target.
@@ -27,6 +46,21 @@ public abstract class AbstractLogTarget<T> extends Initializable<Exception> impl
 
   private static final Logger log = LoggerFactory.getLogger(AbstractLogTarget.class);
 
+  private static final int DEFAULT_PIPELINE_CAPACITY = 1024;
+
+  private static final long DEFAULT_FLUSH_INTERVAL = 50;
+
+  private static final TimeUnit DEFAULT_FLUSH_INTERVAL_UNIT = TimeUnit.MILLISECONDS;
+
+  private static final OverflowPolicy DEFAULT_OVERFLOW_POLICY = OverflowPolicy.BLOCK;
+
+  private int pipelineCapacity = DEFAULT_PIPELINE_CAPACITY;
+  private long flushInterval = DEFAULT_FLUSH_INTERVAL;
+  private TimeUnit flushIntervalUnit = DEFAULT_FLUSH_INTERVAL_UNIT;
+  private OverflowPolicy overflowPolicy = DEFAULT_OVERFLOW_POLICY;
+
+  private AsyncTargetWriter<T> pipeline;
+
   protected RoutedOutputStream<Integer, T> routerStdOut;
   protected RoutedOutputStream<Integer, T> routerStdErr;
 
@@ -36,6 +70,17 @@ public abstract class AbstractLogTarget<T> extends Initializable<Exception> impl
   private MaintenanceFilterStream filterStdOut;
   private MaintenanceFilterStream filterStdErr;
 
+  private ChannelCountingStream countingStdOut;
+  private ChannelCountingStream countingStdErr;
+
+  private Counter defaultBytesStdOut;
+  private Counter defaultBytesStdErr;
+
+  /**
+   * Holds the deploy names of the open channels to remove the metrics on close.
+   */
+  private final Map<Integer, String> channelNames = new ConcurrentHashMap<>();
+
   @Override
   public void openChannel(ClassLoader classLoader, String deployName) {
     checkState();
@@ -48,6 +93,27 @@ public abstract class AbstractLogTarget<T> extends Initializable<Exception> impl
       T target = createStdErrTarget(deployName);
       this.routerStdErr.addTarget(classLoaderHashCode, target);
     }
+    channelNames.put(classLoaderHashCode, deployName);
+    addChannelCounter(countingStdOut, classLoaderHashCode, getChannelMetricName(deployName, "stdout"));
+    addChannelCounter(countingStdErr, classLoaderHashCode, getChannelMetricName(deployName, "stderr"));
+  }
+
+  private static String getChannelMetricName(String deployName, String channel) {
+    return MetricRegistry.name("limbus.deployment", deployName, "log", channel, "bytes");
+  }
+
+  private static void addChannelCounter(ChannelCountingStream stream, int classLoaderHashCode, String name) {
+    Counter counter = Metrics.getRegistry()
+        .register(name, new Counter());
+    stream.addCounter(classLoaderHashCode, counter);
+  }
+
+  private static void removeChannelCounter(ChannelCountingStream stream, int classLoaderHashCode, String name) {
+    Counter counter = stream.removeCounter(classLoaderHashCode);
+    if (counter != null) {
+      Metrics.getRegistry()
+          .remove(name, counter);
+    }
   }
 
   @Override
@@ -104,6 +170,11 @@ public abstract class AbstractLogTarget<T> extends Initializable<Exception> impl
     int classLoaderHashCode = ContextClassloaderSelector.getClassLoaderHashCode(classLoader);
     closeChannel(routerStdOut, classLoaderHashCode);
     closeChannel(routerStdErr, classLoaderHashCode);
+    String deployName = channelNames.remove(classLoaderHashCode);
+    if (deployName != null) {
+      removeChannelCounter(countingStdOut, classLoaderHashCode, getChannelMetricName(deployName, "stdout"));
+      removeChannelCounter(countingStdErr, classLoaderHashCode, getChannelMetricName(deployName, "stderr"));
+    }
   }
 
   /**
@@ -148,20 +219,52 @@ public abstract class AbstractLogTarget<T> extends Initializable<Exception> impl
   protected abstract T getDefaultTargetStdOut();
 
   private void closeChannel(RoutedOutputStream<Integer, T> routedOutput, int contextHashCode) {
-    T target = routedOutput.getTarget(contextHashCode);
-    destroyTarget(target);
-    routedOutput.removeTarget(contextHashCode);
+    T target = routedOutput.removeTarget(contextHashCode);
+    if (target != null) {
+      // Write the pending output of the channel before the target is destroyed.
+      pipeline.destroy(target, this::destroyTarget);
+    }
+  }
+
+  /**
+   * Configures the log pipeline. This method must be called before this log target is initialized.
+   *
+   * @param capacity
+   *        The maximum number of output records waiting to be written to the targets.
+   * @param flushInterval
+   *        The maximum time output waits before it is written to the targets.
+   * @param flushIntervalUnit
+   *        The time unit of the flush interval.
+   * @param overflowPolicy
+   *        The policy to apply if plugins produce more output than the pipeline can hold.
+   */
+  protected void configurePipeline(int capacity, long flushInterval, TimeUnit flushIntervalUnit,
+      OverflowPolicy overflowPolicy) {
+    Lang.denyNull("flushIntervalUnit", flushIntervalUnit);
+    Lang.denyNull("overflowPolicy", overflowPolicy);
+    this.pipelineCapacity = capacity;
+    this.flushInterval = flushInterval;
+    this.flushIntervalUnit = flushIntervalUnit;
+    this.overflowPolicy = overflowPolicy;
   }
 
   @Override
   protected void performInitialize() throws Exception {
-    this.routerStdOut = new RoutedOutputStream<Integer, T>(new ContextClassloaderSelector<T>(), getTargetWriter(),
+    this.pipeline = new AsyncTargetWriter<T>(getTargetWriter(), pipelineCapacity, flushInterval, flushIntervalUnit,
+        overflowPolicy);
+    this.routerStdOut = new RoutedOutputStream<Integer, T>(new ContextClassloaderSelector<T>(), pipeline,
         getDefaultTargetStdOut());
-    this.routerStdErr = new RoutedOutputStream<Integer, T>(new ContextClassloaderSelector<T>(), getTargetWriter(),
+    this.routerStdErr = new RoutedOutputStream<Integer, T>(new ContextClassloaderSelector<T>(), pipeline,
         getDefaultTargetStdErr());
 
-    this.recorderStdOut = new ThreadSensitiveRecorderStream(routerStdOut);
-    this.recorderStdErr = new ThreadSensitiveRecorderStream(routerStdErr);
+    MetricRegistry registry = Metrics.getRegistry();
+    this.defaultBytesStdOut = registry.register("limbus.log.default.stdout.bytes", new Counter());
+    this.defaultBytesStdErr = registry.register("limbus.log.default.stderr.bytes", new Counter());
+    this.countingStdOut = new ChannelCountingStream(routerStdOut, defaultBytesStdOut);
+    this.countingStdErr = new ChannelCountingStream(routerStdErr, defaultBytesStdErr);
+
+    this.recorderStdOut = new ThreadSensitiveRecorderStream(countingStdOut);
+    this.recorderStdErr = new ThreadSensitiveRecorderStream(countingStdErr);
 
     // TODO - schuettec - 21.10.2016 : This is not a good but working solution. Selecting targets with more than one
     // condition is not possible for the moment. Selecting target writers is not possible too. To redirect the
@@ -188,6 +291,23 @@ public abstract class AbstractLogTarget<T> extends Initializable<Exception> impl
     closeAndClear(filterStdOut);
     closeAndClear(filterStdErr);
 
+    // Stop the log pipeline after the targets were closed.
+    if (pipeline != null) {
+      pipeline.shutdown();
+      pipeline = null;
+    }
+
+    // Remove the metrics of the channels
+    for (Map.Entry<Integer, String> channel : channelNames.entrySet()) {
+      removeChannelCounter(countingStdOut, channel.getKey(), getChannelMetricName(channel.getValue(), "stdout"));
+      removeChannelCounter(countingStdErr, channel.getKey(), getChannelMetricName(channel.getValue(), "stderr"));
+    }
+    channelNames.clear();
+    MetricRegistry registry = Metrics.getRegistry();
+    if (defaultBytesStdOut != null) {
+      registry.remove("limbus.log.default.stdout.bytes", defaultBytesStdOut);
+      registry.remove("limbus.log.default.stderr.bytes", defaultBytesStdErr);
+    }
   }
 
   private void closeAndClear(OutputStream output) {
@@ -0,0 +1,444 @@
+package com.remondis.limbus.engine.logging;
+
+import java.util.IdentityHashMap;
+import java.util.Map;
+import java.util.Queue;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.FutureTask;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.locks.LockSupport;
+import java.util.function.Consumer;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import com.remondis.limbus.utils.Lang;
+import com.remondis.limbus.utils.RingBuffer;
+
+/**
+ * This {@link TargetWriter} decouples the threads producing output from the I/O of the write targets. The
+ * {@link RoutedOutputStream} selects the write target in the producing thread, so the output is still routed by the
+ * context classloader of the plugin. The output is then published as a record to a bounded lock-free ring buffer. A
+ * single consumer thread drains the ring buffer and writes consecutive records of the same target as one batch to the
+ * underlying {@link TargetWriter}. The write targets are flushed after every batch.
+ *
+ * <p>
+ * The consumer thread wakes up every flush interval, on explicit flush requests and if the ring buffer is half full.
+ * The behaviour of a full ring buffer is defined by the {@link OverflowPolicy}.
+ * </p>
+ *
+ * <p>
+ * {@link #flush(Object)} only requests the consumer thread to write the pending output and does not wait for the I/O,
+ * because it is called for every line written to an auto-flushing stream. Use {@link #drain()} to wait for the output.
+ * Write targets are closed by the consumer thread after the output published before was written, so a target is never
+ * closed while the consumer writes to it.
+ * </p>
+ *
+ * <p>
+ * After {@link #shutdown()} the output is written synchronously. Output that cannot be written to a target is lost,
+ * like output written to a failing <code>System.out</code>. The first failure is logged, further failures are only
+ * counted.
+ * </p>
+ *
+ * <p>
+ * <b>Output produced by the consumer thread itself (for example log output of a failing write target) is written
+ * synchronously to avoid that the consumer waits for itself.</b>
+ * </p>
+ *
+ * @param <T>
+ *        The type of the underlying write target.
+ */
+public class AsyncTargetWriter<T> implements TargetWriter<T> {
+
+  private static final Logger log = LoggerFactory.getLogger(AsyncTargetWriter.class);
+
+  private static final String CONSUMER_THREAD_NAME = "Limbus Log Pipeline";
+
+  /**
+   * The time a producer waits for free capacity before retrying if the {@link OverflowPolicy#BLOCK} is active.
+   */
+  private static final long BLOCK_PARK_NANOS = TimeUnit.MICROSECONDS.toNanos(50);
+
+  private final TargetWriter<T> delegate;
+
+  private final RingBuffer<LogRecord<T>> ringBuffer;
+
+  private final OverflowPolicy overflowPolicy;
+
+  private final long flushIntervalNanos;
+
+  private final int wakeUpThreshold;
+
+  private final AtomicLong discardedRecords = new AtomicLong();
+
+  private final AtomicLong failedWrites = new AtomicLong();
+
+  /**
+   * Holds the operations to be performed by the consumer thread after the pending output was written.
+   */
+  private final Queue<FutureTask<?>> tasks = new ConcurrentLinkedQueue<>();
+
+  private final Thread consumer;
+
+  /**
+   * The number of records written to the targets so far.
+   */
+  private volatile long writtenSequence;
+
+  /**
+   * True if a failure was logged. Only accessed by the consumer thread.
+   */
+  private boolean failureReported;
+
+  /**
+   * Holds the current batch. Only accessed by the consumer thread.
+   */
+  private byte[] batch = new byte[4096];
+
+  /**
+   * Holds the targets written since the last flush. Only accessed by the consumer thread.
+   */
+  private final Map<T, Boolean> dirtyTargets = new IdentityHashMap<>();
+
+  /**
+   * Creates and starts an {@link AsyncTargetWriter}.
+   *
+   * @param delegate
+   *        The target writer performing the I/O.
+   * @param capacity
+   *        The maximum number of records waiting to be written.
+   * @param flushInterval
+   *        The maximum time output waits before it is written to the targets.
+   * @param flushIntervalUnit
+   *        The time unit of the flush interval.
+   * @param overflowPolicy
+   *        The policy to apply if the capacity is exceeded.
+   */
+  public AsyncTargetWriter(TargetWriter<T> delegate, int capacity, long flushInterval, TimeUnit flushIntervalUnit,
+      OverflowPolicy overflowPolicy) {
+    Lang.denyNull("delegate", delegate);
+    Lang.denyNull("flushIntervalUnit", flushIntervalUnit);
+    Lang.denyNull("overflowPolicy", overflowPolicy);
+    this.delegate = delegate;
+    this.ringBuffer = new RingBuffer<>(capacity, LogRecord::new);
+    this.overflowPolicy = overflowPolicy;
+    this.flushIntervalNanos = flushIntervalUnit.toNanos(flushInterval);
+    this.wakeUpThreshold = ringBuffer.capacity() / 2;
+    this.consumer = new Thread(this::consume, CONSUMER_THREAD_NAME);
+    this.consumer.setDaemon(true);
+    // The consumer thread must not keep a plugin classloader.
+    this.consumer.setContextClassLoader(AsyncTargetWriter.class.getClassLoader());
+    this.consumer.start();
+  }
+
+  @Override
+  public void writeTo(int b, T target) throws TargetWriteException {
+    if (Thread.currentThread() == consumer) {
+      delegate.writeTo(b, target);
+      return;
+    }
+    while (!offer(target, b)) {
+      if (ringBuffer.isClosed()) {
+        writeSynchronously();
+        delegate.writeTo(b, target);
+        return;
+      }
+      if (!awaitCapacity()) {
+        return;
+      }
+    }
+    wakeUpOnDemand();
+  }
+
+  @Override
+  public void writeTo(byte[] b, int off, int len, T target) throws TargetWriteException {
+    if (len == 0) {
+      return;
+    }
+    if (Thread.currentThread() == consumer) {
+      delegate.writeTo(b, off, len, target);
+      return;
+    }
+    while (!offer(target, b, off, len)) {
+      if (ringBuffer.isClosed()) {
+        writeSynchronously();
+        delegate.writeTo(b, off, len, target);
+        return;
+      }
+      if (!awaitCapacity()) {
+        return;
+      }
+    }
+    wakeUpOnDemand();
+  }
+
+  /**
+   * Publishes a record.
+   *
+   * @return Returns <code>true</code> if the record was published, <code>false</code> if the ring buffer is full or
+   *         closed.
+   */
+  private boolean offer(T target, byte[] b, int off, int len) {
+    long sequence = ringBuffer.claim();
+    if (sequence == RingBuffer.NO_SEQUENCE) {
+      return false;
+    }
+    try {
+      ringBuffer.get(sequence)
+          .set(target, b, off, len);
+    } finally {
+      // A claimed sequence must always be published, otherwise the consumer waits for it forever.
+      ringBuffer.publish(sequence);
+    }
+    return true;
+  }
+
+  /**
+   * Publishes a record holding a single byte.
+   *
+   * @return Returns <code>true</code> if the record was published, <code>false</code> if the ring buffer is full or
+   *         closed.
+   */
+  private boolean offer(T target, int b) {
+    long sequence = ringBuffer.claim();
+    if (sequence == RingBuffer.NO_SEQUENCE) {
+      return false;
+    }
+    ringBuffer.get(sequence)
+        .set(target, b);
+    ringBuffer.publish(sequence);
+    return true;
+  }
+
+  /**
+   * Applies the {@link OverflowPolicy} if the ring buffer is full.
+   *
+   * @return Returns <code>true</code> if the producer should retry to publish the record, <code>false</code> if the
+   *         record was discarded.
+   */
+  private boolean awaitCapacity() {
+    LockSupport.unpark(consumer);
+    if (overflowPolicy == OverflowPolicy.DISCARD) {
+      discardedRecords.incrementAndGet();
+      return false;
+    }
+    LockSupport.parkNanos(BLOCK_PARK_NANOS);
+    return true;
+  }
+
+  /**
+   * Waits until the output published before shutdown was written, so that synchronous writes do not overtake it.
+   */
+  private void writeSynchronously() {
+    if (consumer.isAlive()) {
+      drain();
+    }
+  }
+
+  private void wakeUpOnDemand() {
+    if (ringBuffer.size() >= wakeUpThreshold) {
+      LockSupport.unpark(consumer);
+    }
+  }
+
+  /**
+   * Requests the consumer thread to write the pending output. This method does not wait for the I/O.
+   */
+  @Override
+  public void flush(T target) throws TargetWriteException {
+    LockSupport.unpark(consumer);
+  }
+
+  /**
+   * Waits until the pending output was written and closes the target.
+   */
+  @Override
+  public void close(T target) throws TargetWriteException {
+    try {
+      runOnConsumer(new FutureTask<>(() -> {
+        delegate.close(target);
+        return null;
+      }));
+    } catch (ExecutionException e) {
+      if (e.getCause() instanceof TargetWriteException) {
+        throw (TargetWriteException) e.getCause();
+      } else {
+        throw new TargetWriteException("Cannot close the write target.", e.getCause());
+      }
+    }
+  }
+
+  /**
+   * Waits until the pending output was written and destroys the target. Use this method to release a target that is
+   * not closed by the underlying {@link TargetWriter}.
+   *
+   * @param target
+   *        The target to destroy.
+   * @param destroyer
+   *        Destroys the target.
+   */
+  public void destroy(T target, Consumer<T> destroyer) {
+    Lang.denyNull("destroyer", destroyer);
+    try {
+      runOnConsumer(new FutureTask<>(() -> destroyer.accept(target), null));
+    } catch (ExecutionException e) {
+      log.warn("Cannot destroy the write target.", e.getCause());
+    }
+  }
+
+  /**
+   * Runs the task on the consumer thread after the output published before this call was written. If the consumer
+   * thread was stopped the task runs on the current thread.
+   */
+  private void runOnConsumer(FutureTask<?> task) throws ExecutionException {
+    if (Thread.currentThread() == consumer) {
+      task.run();
+    } else {
+      drain();
+      tasks.add(task);
+      while (!task.isDone()) {
+        if (consumer.isAlive()) {
+          LockSupport.unpark(consumer);
+          LockSupport.parkNanos(BLOCK_PARK_NANOS);
+        } else {
+          runTasks();
+        }
+      }
+    }
+    try {
+      task.get();
+    } catch (InterruptedException e) {
+      // Not reached, the task is done.
+      Thread.currentThread()
+          .interrupt();
+    }
+  }
+
+  private void runTasks() {
+    FutureTask<?> task = tasks.poll();
+    while (task != null) {
+      task.run();
+      task = tasks.poll();
+    }
+  }
+
+  /**
+   * Waits until the output published before this call was written to the targets.
+   */
+  public void drain() {
+    if (Thread.currentThread() == consumer) {
+      return;
+    }
+    long published = ringBuffer.getPublishedSequence();
+    while (consumer.isAlive() && writtenSequence < published) {
+      LockSupport.unpark(consumer);
+      LockSupport.parkNanos(BLOCK_PARK_NANOS);
+    }
+  }
+
+  /**
+   * Writes the pending output and stops the consumer thread. Output produced after shutdown is written synchronously.
+   */
+  public void shutdown() {
+    ringBuffer.close();
+    LockSupport.unpark(consumer);
+    try {
+      consumer.join();
+    } catch (InterruptedException e) {
+      Thread.currentThread()
+          .interrupt();
+    }
+  }
+
+  /**
+   * @return Returns the number of records discarded due to {@link OverflowPolicy#DISCARD}.
+   */
+  public long getDiscardedRecords() {
+    return discardedRecords.get();
+  }
+
+  /**
+   * @return Returns the number of writes and flushes that failed.
+   */
+  public long getFailedWrites() {
+    return failedWrites.get();
+  }
+
+  private void consume() {
+    while (!ringBuffer.isClosed()) {
+      drainRingBuffer();
+      runTasks();
+      LockSupport.parkNanos(this, flushIntervalNanos);
+    }
+    // Write the output published until shutdown. Producers that claimed a sequence before shutdown are about to publish
+    // it.
+    drainRingBuffer();
+    while (!ringBuffer.isDrained()) {
+      Thread.onSpinWait();
+      drainRingBuffer();
+    }
+    runTasks();
+  }
+
+  private void drainRingBuffer() {
+    LogRecord<T> record = ringBuffer.peek();
+    while (record != null) {
+      T target = record.getTarget();
+      int length = 0;
+      // Batch consecutive records of the same target
+      do {
+        length = appendToBatch(length, record);
+        record.clear();
+        ringBuffer.release();
+        record = ringBuffer.peek();
+      } while (record != null && record.getTarget() == target);
+      // A record is empty if copying the data into the record failed.
+      if (length > 0) {
+        writeBatch(target, length);
+      }
+    }
+    flushDirtyTargets();
+    writtenSequence = ringBuffer.getConsumedSequence();
+  }
+
+  private int appendToBatch(int offset, LogRecord<T> record) {
+    int length = record.getLength();
+    if (batch.length < offset + length) {
+      byte[] newBatch = new byte[Math.max(offset + length, batch.length * 2)];
+      System.arraycopy(batch, 0, newBatch, 0, offset);
+      batch = newBatch;
+    }
+    System.arraycopy(record.getData(), 0, batch, offset, length);
+    return offset + length;
+  }
+
+  private void writeBatch(T target, int length) {
+    try {
+      delegate.writeTo(batch, 0, length, target);
+      dirtyTargets.put(target, Boolean.TRUE);
+    } catch (Exception e) {
+      reportFailure("Cannot write output to the write target - the output is lost.", e);
+    }
+  }
+
+  private void flushDirtyTargets() {
+    for (T target : dirtyTargets.keySet()) {
+      try {
+        delegate.flush(target);
+      } catch (Exception e) {
+        reportFailure("Cannot flush the write target - the output may be lost.", e);
+      }
+    }
+    dirtyTargets.clear();
+  }
+
+  private void reportFailure(String message, Exception e) {
+    failedWrites.incrementAndGet();
+    if (!failureReported) {
+      failureReported = true;
+      log.warn(message + " Further failures of the log pipeline are only counted.", e);
+    }
+  }
+}
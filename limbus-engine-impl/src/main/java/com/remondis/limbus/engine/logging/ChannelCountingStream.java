@@ -0,0 +1,87 @@
+package com.remondis.limbus.engine.logging;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+import com.remondis.limbus.api.metrics.Counter;
+import com.remondis.limbus.utils.Lang;
+
+/**
+ * This {@link OutputStream} counts the bytes written per channel before they are passed to the delegate. The channel
+ * is selected by the context classloader of the current thread like the {@link ContextClassloaderSelector} does. Bytes
+ * written by threads that cannot be mapped to a channel are counted by the default counter.
+ */
+final class ChannelCountingStream extends OutputStream {
+
+  private final OutputStream delegate;
+
+  private final Counter defaultCounter;
+
+  private final Map<Integer, Counter> counters = new ConcurrentHashMap<>();
+
+  /**
+   * @param delegate
+   *        The stream to write to.
+   * @param defaultCounter
+   *        The counter of bytes that cannot be mapped to a channel.
+   */
+  ChannelCountingStream(OutputStream delegate, Counter defaultCounter) {
+    Lang.denyNull("delegate", delegate);
+    Lang.denyNull("defaultCounter", defaultCounter);
+    this.delegate = delegate;
+    this.defaultCounter = defaultCounter;
+  }
+
+  /**
+   * Adds the counter of a channel.
+   *
+   * @param classLoaderHashCode
+   *        The identity hash code of the classloader of the channel.
+   * @param counter
+   *        The counter.
+   */
+  void addCounter(int classLoaderHashCode, Counter counter) {
+    counters.put(classLoaderHashCode, counter);
+  }
+
+  /**
+   * Removes the counter of a channel.
+   *
+   * @param classLoaderHashCode
+   *        The identity hash code of the classloader of the channel.
+   * @return Returns the removed counter or <code>null</code> if there was no counter for this channel.
+   */
+  Counter removeCounter(int classLoaderHashCode) {
+    return counters.remove(classLoaderHashCode);
+  }
+
+  private Counter getCounter() {
+    Counter counter = counters.get(ContextClassloaderSelector.getCurrentClassLoaderHashCode());
+    return (counter == null) ? defaultCounter : counter;
+  }
+
+  @Override
+  public void write(int b) throws IOException {
+    getCounter().increment();
+    delegate.write(b);
+  }
+
+  @Override
+  public void write(byte[] b, int off, int len) throws IOException {
+    getCounter().add(len);
+    delegate.write(b, off, len);
+  }
+
+  @Override
+  public void flush() throws IOException {
+    delegate.flush();
+  }
+
+  @Override
+  public void close() throws IOException {
+    delegate.close();
+  }
+
+}
@@ -1,13 +1,11 @@
 package com.remondis.limbus.engine.logging;
 
 import java.io.OutputStream;
+import java.util.concurrent.TimeUnit;
 
-import org.slf4j.Logger;
-import org.slf4j.LoggerFactory;
-
-import com.remondis.limbus.files.FileAccessException;
 import com.remondis.limbus.files.LimbusFileService;
 import com.remondis.limbus.launcher.EngineLauncher;
+import com.remondis.limbus.properties.LimbusProperties;
 import com.remondis.limbus.system.api.LimbusComponent;
 import com.remondis.limbus.utils.Lang;
 
@@ -17,17 +15,41 @@ public class FileSystemLogTarget extends AbstractLogTarget<OutputStream> {
 
   private static final String DEFAULT_TARGET_FILE = "default";
 
-  private static final Logger log = LoggerFactory.getLogger(FileSystemLogTarget.class);
+  private static final String PIPELINE_CAPACITY = "pipeline.capacity";
+  private static final String PIPELINE_FLUSH_INTERVAL = "pipeline.flushInterval.value";
+  private static final String PIPELINE_FLUSH_INTERVAL_UNIT = "pipeline.flushInterval.timeUnit";
+  private static final String PIPELINE_OVERFLOW_POLICY = "pipeline.overflowPolicy";
+  private static final String FILE_BUFFER_SIZE = "file.bufferSize";
+  private static final String FILE_MAX_SIZE = "file.maxSize";
+  private static final String FILE_COMPRESS = "file.compress";
+  private static final String FILE_MAX_RETIRED = "file.maxRetired";
 
   @LimbusComponent
   LimbusFileService fileService;
 
+  private int bufferSize;
+
+  private long maxFileSize;
+
+  private boolean compress;
+
+  private int maxRetiredFiles;
+
   @Override
   protected void performInitialize() throws Exception {
 
     // Create log folder
     fileService.createFolder(LimbusFileService.LOGGING_DIRECTORY, false);
 
+    LimbusProperties properties = new LimbusProperties(fileService, FileSystemLogTarget.class, true, false);
+    configurePipeline(properties.getInt(PIPELINE_CAPACITY), properties.getLong(PIPELINE_FLUSH_INTERVAL),
+        properties.getEnum(PIPELINE_FLUSH_INTERVAL_UNIT, TimeUnit.class),
+        properties.getEnum(PIPELINE_OVERFLOW_POLICY, OverflowPolicy.class));
+    this.bufferSize = properties.getInt(FILE_BUFFER_SIZE);
+    this.maxFileSize = properties.getLong(FILE_MAX_SIZE);
+    this.compress = properties.getBoolean(FILE_COMPRESS);
+    this.maxRetiredFiles = properties.getInt(FILE_MAX_RETIRED);
+
     // Do this at the end, we do not want to initialize the log target if we fail in creating the file system log
     // environment.
     super.performInitialize();
@@ -40,24 +62,21 @@ public class FileSystemLogTarget extends AbstractLogTarget<OutputStream> {
 
   @Override
   protected OutputStream createStdOutTarget(String deployName) {
-    try {
-      return new RolloverFileOutputStream(fileService, deployName, true);
-    } catch (FileAccessException e) {
-      log.error(String.format("Cannot create logging target for deploy name '%s'. Redirecting output to System.out.",
-          deployName), e);
-      return EngineLauncher.getOriginalSystemOut();
-    }
+    return createTarget(deployName, EngineLauncher.getOriginalSystemOut());
   }
 
   @Override
   protected OutputStream createStdErrTarget(String deployName) {
-    try {
-      return new RolloverFileOutputStream(fileService, deployName + ERROR_SUFFIX, true);
-    } catch (FileAccessException e) {
-      log.error(String.format("Cannot create logging target for deploy name '%s'. Redirecting output to System.out.",
-          deployName), e);
-      return EngineLauncher.getOriginalSystemOut();
-    }
+    return createTarget(deployName + ERROR_SUFFIX, EngineLauncher.getOriginalSystemErr());
+  }
+
+  private OutputStream createTarget(String filename, OutputStream fallback) {
+    RollingFileOutputStream target = new RollingFileOutputStream(fileService, filename, true, bufferSize, maxFileSize,
+        compress);
+    // The log file is opened on the first write. If it cannot be opened the output is redirected to the console.
+    target.setFallback(fallback);
+    target.setMaxRetiredFiles(maxRetiredFiles);
+    return target;
   }
 
   @Override
@@ -77,7 +96,7 @@ public class FileSystemLogTarget extends AbstractLogTarget<OutputStream> {
 
   @Override
   protected OutputStream getDefaultTargetStdErr() {
-    return createStdOutTarget(DEFAULT_TARGET_FILE + ERROR_SUFFIX);
+    return createStdErrTarget(DEFAULT_TARGET_FILE);
   }
 
 }
@@ -0,0 +1,63 @@
+package com.remondis.limbus.engine.logging;
+
+/**
+ * A record of output published to the ring buffer of the {@link AsyncTargetWriter}. The records are preallocated by
+ * the ring buffer. The data of the output is copied into a buffer owned by the record, that is reused for subsequent
+ * output. Publishing output does not allocate as long as the output fits into the buffer.
+ *
+ * @param <T>
+ *        The type of the write targets.
+ */
+final class LogRecord<T> {
+
+  /**
+   * The initial size of the record buffers.
+   */
+  private static final int INITIAL_SIZE = 128;
+
+  /**
+   * Record buffers that grew larger than this size are not retained after the record was consumed.
+   */
+  private static final int MAX_RETAINED_SIZE = 8192;
+
+  private T target;
+
+  private byte[] data = new byte[INITIAL_SIZE];
+
+  private int length;
+
+  void set(T target, byte[] b, int off, int len) {
+    if (data.length < len) {
+      data = new byte[Math.max(len, data.length * 2)];
+    }
+    System.arraycopy(b, off, data, 0, len);
+    this.target = target;
+    this.length = len;
+  }
+
+  void set(T target, int b) {
+    data[0] = (byte) b;
+    this.target = target;
+    this.length = 1;
+  }
+
+  void clear() {
+    this.target = null;
+    this.length = 0;
+    if (data.length > MAX_RETAINED_SIZE) {
+      data = new byte[INITIAL_SIZE];
+    }
+  }
+
+  T getTarget() {
+    return target;
+  }
+
+  byte[] getData() {
+    return data;
+  }
+
+  int getLength() {
+    return length;
+  }
+}
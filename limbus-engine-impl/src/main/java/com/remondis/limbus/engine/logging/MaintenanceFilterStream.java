@@ -3,7 +3,8 @@ package com.remondis.limbus.engine.logging;
 import java.io.IOException;
 import java.io.OutputStream;
 import java.util.Arrays;
-import java.util.List;
+import java.util.HashSet;
+import java.util.Set;
 
 import com.remondis.limbus.engine.maintenance.LimbusMaintenanceConsoleImpl;
 import com.remondis.limbus.launcher.EngineLauncher;
@@ -24,7 +25,8 @@ public class MaintenanceFilterStream extends OutputStream {
       "LanternaGUI", "SIGWINCH handler"
   };
 
-  private static final List<String> ALLOWED_THREAD_NAMES = Arrays.asList(MAINTENANCE_CONSOLE_THREAD_NAMES);
+  private static final Set<String> ALLOWED_THREAD_NAMES = new HashSet<>(
+      Arrays.asList(MAINTENANCE_CONSOLE_THREAD_NAMES));
 
   private OutputStream delegate;
 
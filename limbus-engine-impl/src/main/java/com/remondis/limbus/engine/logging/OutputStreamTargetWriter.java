@@ -3,13 +3,16 @@ package com.remondis.limbus.engine.logging;
 import java.io.IOException;
 import java.io.OutputStream;
 
+/**
+ * This {@link TargetWriter} writes to {@link OutputStream}s. The writes are not flushed, the target is flushed on
+ * {@link #flush(OutputStream)}, so that the caller decides how many writes are batched.
+ */
 public class OutputStreamTargetWriter implements TargetWriter<OutputStream> {
 
   @Override
   public void writeTo(byte[] b, int off, int len, OutputStream target) throws TargetWriteException {
     try {
       target.write(b, off, len);
-      target.flush();
     } catch (IOException e) {
       throw new TargetWriteException("Cannot write to target");
     }
@@ -19,7 +22,6 @@ public class OutputStreamTargetWriter implements TargetWriter<OutputStream> {
   public void writeTo(int b, OutputStream target) throws TargetWriteException {
     try {
       target.write(b);
-      target.flush();
     } catch (IOException e) {
       throw new TargetWriteException("Cannot write to target");
     }
@@ -0,0 +1,16 @@
+package com.remondis.limbus.engine.logging;
+
+/**
+ * Defines the behaviour of the {@link AsyncTargetWriter} if a plugin produces output faster than the output can be
+ * written to the write targets and the log pipeline is full.
+ */
+public enum OverflowPolicy {
+  /**
+   * The producing thread waits until the log pipeline has free capacity. No output is lost.
+   */
+  BLOCK,
+  /**
+   * The output is discarded if the log pipeline is full. The producing thread never waits for I/O.
+   */
+  DISCARD;
+}
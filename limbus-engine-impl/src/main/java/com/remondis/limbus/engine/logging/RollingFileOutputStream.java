@@ -0,0 +1,520 @@
+package com.remondis.limbus.engine.logging;
+
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.nio.ByteBuffer;
+import java.nio.channels.Channels;
+import java.nio.channels.FileChannel;
+import java.nio.channels.WritableByteChannel;
+import java.time.Instant;
+import java.time.ZoneId;
+import java.time.ZonedDateTime;
+import java.time.format.DateTimeFormatter;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Locale;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.regex.Pattern;
+import java.util.zip.GZIPOutputStream;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import com.remondis.limbus.files.FileAccessException;
+import com.remondis.limbus.files.LimbusFileService;
+import com.remondis.limbus.utils.Lang;
+
+/**
+ * This output stream writes to a log file in the logging directory of the {@link LimbusFileService}. The output is
+ * buffered and written to the file using a {@link FileChannel} if the file service stores the file on
+ * disk, otherwise the output is written through to the stream of the file service.
+ *
+ * <p>
+ * The log file is rotated
+ * <ul>
+ * <li>at midnight: If the filename includes the string "yyyy_mm_dd", it is replaced with the actual date, otherwise the
+ * current log file is retired.</li>
+ * <li>if the log file exceeds the maximum file size: The current log file is retired.</li>
+ * </ul>
+ * The rotation is checked when output is written, so no timer is involved. Retired log files are renamed using the
+ * time of the rotation and are compressed in the background if compression is enabled. If a maximum number of retired
+ * log files was set using {@link #setMaxRetiredFiles(int)}, the oldest retired log files are deleted in the background
+ * after a rotation.
+ * </p>
+ *
+ * <p>
+ * The log file is opened when output is written for the first time, so log targets that never produce output do not
+ * hold a file. If the log file cannot be opened, an error is logged once. The output is then redirected to the
+ * fallback stream if one was set using {@link #setFallback(OutputStream)}, otherwise the write fails. Redirected output
+ * is written to the log file again if it can be opened when the log file would have been rotated next.
+ * </p>
+ */
+public class RollingFileOutputStream extends OutputStream {
+
+  private static final Logger log = LoggerFactory.getLogger(RollingFileOutputStream.class);
+
+  private static final String LOGGING_EXTENSION = "out";
+
+  private static final String COMPRESSED_EXTENSION = "gz";
+
+  static final String YYYY_MM_DD = "yyyy_mm_dd";
+
+  private static final DateTimeFormatter FILE_DATE_FORMAT = DateTimeFormatter.ofPattern("yyyy_MM_dd");
+
+  private static final DateTimeFormatter FILE_BACKUP_FORMAT = DateTimeFormatter.ofPattern("yyyy_MM_dd_HHmmssSSS");
+
+  /**
+   * The executor compressing and deleting retired log files. The thread terminates if there is nothing to do.
+   */
+  private static final ThreadPoolExecutor compressor;
+
+  static {
+    compressor = new ThreadPoolExecutor(1, 1, 30, TimeUnit.SECONDS, new LinkedBlockingQueue<>(), runnable -> {
+      Thread thread = new Thread(runnable, "Limbus Log Compressor");
+      thread.setDaemon(true);
+      thread.setContextClassLoader(RollingFileOutputStream.class.getClassLoader());
+      return thread;
+    });
+    compressor.allowCoreThreadTimeOut(true);
+  }
+
+  private final LimbusFileService fileService;
+
+  private final String filenamePattern;
+
+  private final ZoneId zone;
+
+  private final long maxFileSize;
+
+  private final boolean compress;
+
+  private final ByteBuffer buffer;
+
+  /**
+   * Matches the names of the log files retired by this stream.
+   */
+  private final Pattern retiredFilePattern;
+
+  private int maxRetiredFiles;
+
+  private boolean append;
+
+  private WritableByteChannel channel;
+
+  private String filename;
+
+  private long fileSize;
+
+  private long nextMidnight;
+
+  private boolean closed;
+
+  private OutputStream fallback;
+
+  /**
+   * True if the log file could not be opened and the output is redirected to the fallback stream.
+   */
+  private boolean redirected;
+
+  private boolean openFailureReported;
+
+  /**
+   * @param fileService
+   *        The file service.
+   * @param filename
+   *        The filename may include the string "yyyy_mm_dd", which is replaced with the actual date when creating and
+   *        rotating the file.
+   * @param append
+   *        If true, an existing file will be appended to, otherwise an existing file is retired.
+   * @param bufferSize
+   *        The size of the write buffer in bytes.
+   * @param maxFileSize
+   *        The size in bytes a log file is rotated at. A value less than or equal to 0 disables the rotation by size.
+   * @param compress
+   *        If true, retired log files are compressed.
+   */
+  public RollingFileOutputStream(LimbusFileService fileService, String filename, boolean append, int bufferSize,
+      long maxFileSize, boolean compress) {
+    this(fileService, filename, append, bufferSize, maxFileSize, compress, ZoneId.systemDefault());
+  }
+
+  /**
+   * @param fileService
+   *        The file service.
+   * @param filename
+   *        The filename may include the string "yyyy_mm_dd", which is replaced with the actual date when creating and
+   *        rotating the file.
+   * @param append
+   *        If true, an existing file will be appended to, otherwise an existing file is retired.
+   * @param bufferSize
+   *        The size of the write buffer in bytes.
+   * @param maxFileSize
+   *        The size in bytes a log file is rotated at. A value less than or equal to 0 disables the rotation by size.
+   * @param compress
+   *        If true, retired log files are compressed.
+   * @param zone
+   *        The timezone used to determine midnight.
+   */
+  public RollingFileOutputStream(LimbusFileService fileService, String filename, boolean append, int bufferSize,
+      long maxFileSize, boolean compress, ZoneId zone) {
+    Lang.denyNull("fileService", fileService);
+    Lang.denyNull("filename", filename);
+    Lang.denyNull("zone", zone);
+    if (filename.trim()
+        .isEmpty()) {
+      throw new IllegalArgumentException("Invalid filename");
+    }
+    if (bufferSize <= 0) {
+      throw new IllegalArgumentException("The buffer size must be greater than 0.");
+    }
+    this.fileService = fileService;
+    this.filenamePattern = filename.trim();
+    this.append = append;
+    this.buffer = ByteBuffer.allocate(bufferSize);
+    this.maxFileSize = maxFileSize;
+    this.compress = compress;
+    this.zone = zone;
+    this.filename = getFilename(ZonedDateTime.now(zone));
+    this.retiredFilePattern = getRetiredFilePattern();
+  }
+
+  /**
+   * Sets the stream the output is redirected to if the log file cannot be opened. The fallback stream is not closed by
+   * this stream.
+   *
+   * @param fallback
+   *        The fallback stream or <code>null</code> to fail writes if the log file cannot be opened.
+   */
+  public synchronized void setFallback(OutputStream fallback) {
+    this.fallback = fallback;
+  }
+
+  /**
+   * Sets the number of retired log files to keep. The oldest retired log files are deleted after a rotation.
+   *
+   * @param maxRetiredFiles
+   *        The number of retired log files to keep. A value less than or equal to 0 keeps all retired log files.
+   */
+  public synchronized void setMaxRetiredFiles(int maxRetiredFiles) {
+    this.maxRetiredFiles = maxRetiredFiles;
+  }
+
+  /**
+   * @return Returns the path of the current log file.
+   */
+  public synchronized String getCurrentFilename() {
+    return getLogFilepath(filename);
+  }
+
+  @Override
+  public synchronized void write(int b) throws IOException {
+    denyClosed();
+    if (!rotateOnDemand(1)) {
+      fallback.write(b);
+      return;
+    }
+    if (!buffer.hasRemaining()) {
+      flushBuffer();
+    }
+    buffer.put((byte) b);
+    fileSize++;
+  }
+
+  @Override
+  public synchronized void write(byte[] b, int off, int len) throws IOException {
+    denyClosed();
+    if (!rotateOnDemand(len)) {
+      fallback.write(b, off, len);
+      return;
+    }
+    if (len > buffer.remaining()) {
+      flushBuffer();
+      if (len > buffer.capacity()) {
+        // Large writes skip the buffer.
+        writeFully(ByteBuffer.wrap(b, off, len));
+        fileSize += len;
+        return;
+      }
+    }
+    buffer.put(b, off, len);
+    fileSize += len;
+  }
+
+  @Override
+  public synchronized void flush() throws IOException {
+    if (redirected) {
+      fallback.flush();
+    } else if (!closed) {
+      flushBuffer();
+    }
+  }
+
+  @Override
+  public synchronized void close() throws IOException {
+    if (closed) {
+      return;
+    }
+    try {
+      flushBuffer();
+    } finally {
+      closed = true;
+      closeChannel();
+    }
+  }
+
+  private void denyClosed() throws IOException {
+    if (closed) {
+      throw new IOException("The log file output stream was closed.");
+    }
+  }
+
+  /**
+   * @return Returns <code>true</code> if the output is written to the log file, <code>false</code> if the output is
+   *         redirected to the fallback stream.
+   */
+  private boolean rotateOnDemand(int len) throws IOException {
+    long now = System.currentTimeMillis();
+    if (redirected) {
+      return reopenOnDemand(now, len);
+    } else if (channel == null) {
+      return openOrRedirect(now);
+    } else if (now >= nextMidnight) {
+      return rotate(now, true);
+    } else if (maxFileSize > 0 && fileSize > 0 && fileSize + len > maxFileSize) {
+      return rotate(now, false);
+    }
+    return true;
+  }
+
+  private boolean rotate(long now, boolean midnight) throws IOException {
+    flushBuffer();
+    closeChannel();
+    String oldFilename = filename;
+    filename = getFilename(ZonedDateTime.ofInstant(Instant.ofEpochMilli(now), zone));
+    if (!midnight || oldFilename.equals(filename)) {
+      // The filename does not change so the current log file is retired.
+      retire(oldFilename, now);
+    } else if (compress) {
+      compressInBackground(getLogFilepath(oldFilename));
+    }
+    deleteRetiredFilesInBackground();
+    append = false;
+    return openOrRedirect(now);
+  }
+
+  /**
+   * Tries to open the log file again when it would have been rotated, while the output is redirected to the fallback
+   * stream.
+   *
+   * @return Returns <code>true</code> if the output is written to the log file again, <code>false</code> if the output
+   *         is still redirected to the fallback stream.
+   */
+  private boolean reopenOnDemand(long now, int len) throws IOException {
+    if (now < nextMidnight && (maxFileSize <= 0 || fileSize + len <= maxFileSize)) {
+      fileSize += len;
+      return false;
+    }
+    redirected = false;
+    filename = getFilename(ZonedDateTime.ofInstant(Instant.ofEpochMilli(now), zone));
+    if (!openOrRedirect(now)) {
+      return false;
+    }
+    log.info("Opened log file {}. Output is no longer redirected to the fallback stream.", getLogFilepath(filename));
+    return true;
+  }
+
+  private boolean openOrRedirect(long now) throws IOException {
+    try {
+      open(now);
+      return true;
+    } catch (IOException e) {
+      if (fallback != null) {
+        log.error(String.format("Cannot open log file %s. Redirecting output to the fallback stream.",
+            getLogFilepath(filename)), e);
+        redirected = true;
+        // Count the redirected output to retry when the log file would have been rotated.
+        this.fileSize = 0;
+        this.nextMidnight = nextMidnight(ZonedDateTime.ofInstant(Instant.ofEpochMilli(now), zone)).toInstant()
+            .toEpochMilli();
+        return false;
+      }
+      if (!openFailureReported) {
+        openFailureReported = true;
+        log.error(String.format("Cannot open log file %s. Output is lost until the log file can be opened.",
+            getLogFilepath(filename)), e);
+      }
+      throw e;
+    }
+  }
+
+  private void open(long now) throws IOException {
+    String filepath = getLogFilepath(filename);
+    try {
+      if (!append && fileService.hasFile(filepath)) {
+        retire(filename, now);
+        deleteRetiredFilesInBackground();
+      }
+      OutputStream output = fileService.createFile(filepath, append);
+      if (output instanceof FileOutputStream) {
+        FileChannel fileChannel = ((FileOutputStream) output).getChannel();
+        this.channel = fileChannel;
+        this.fileSize = append ? fileChannel.size() : 0;
+      } else {
+        // The size of an appended file is unknown, so the first rotation by size may be late.
+        this.channel = Channels.newChannel(output);
+        this.fileSize = 0;
+      }
+    } catch (FileAccessException e) {
+      throw new IOException(String.format("Cannot open log file %s.", filepath), e);
+    }
+    this.nextMidnight = nextMidnight(ZonedDateTime.ofInstant(Instant.ofEpochMilli(now), zone)).toInstant()
+        .toEpochMilli();
+  }
+
+  private void retire(String filename, long now) throws IOException {
+    String backupFilename = getLogFile(filename) + "."
+        + FILE_BACKUP_FORMAT.format(ZonedDateTime.ofInstant(Instant.ofEpochMilli(now), zone));
+    try {
+      fileService.renameFile(getLogFilepath(filename), backupFilename);
+    } catch (FileAccessException e) {
+      throw new IOException(String.format("Cannot retire log file %s.", filename), e);
+    }
+    if (compress) {
+      compressInBackground(fileService.toPath(LimbusFileService.LOGGING_DIRECTORY, backupFilename));
+    }
+  }
+
+  private void compressInBackground(String filepath) {
+    compressor.execute(() -> {
+      String compressedFilepath = filepath + "." + COMPRESSED_EXTENSION;
+      try (InputStream input = fileService.getFileAsStream(filepath);
+          OutputStream output = new GZIPOutputStream(fileService.createFile(compressedFilepath, false))) {
+        input.transferTo(output);
+      } catch (Exception e) {
+        log.warn(String.format("Cannot compress retired log file %s.", filepath), e);
+        return;
+      }
+      try {
+        fileService.deleteFile(filepath);
+      } catch (Exception e) {
+        log.warn(String.format("Cannot delete compressed log file %s.", filepath), e);
+      }
+    });
+  }
+
+  private void deleteRetiredFilesInBackground() {
+    if (maxRetiredFiles <= 0) {
+      return;
+    }
+    int maxFiles = maxRetiredFiles;
+    String currentFile = getLogFile(filename);
+    // Runs after the compression of the retired log files queued before.
+    compressor.execute(() -> {
+      try {
+        List<String> retiredFiles = new ArrayList<>();
+        for (String entry : fileService.getFolderEntries(LimbusFileService.LOGGING_DIRECTORY)) {
+          if (!entry.equals(currentFile) && retiredFilePattern.matcher(entry)
+              .matches()) {
+            retiredFiles.add(entry);
+          }
+        }
+        retiredFiles.sort((a, b) -> getRetirementOrder(a).compareTo(getRetirementOrder(b)));
+        for (int i = 0; i < retiredFiles.size() - maxFiles; i++) {
+          fileService.deleteFile(fileService.toPath(LimbusFileService.LOGGING_DIRECTORY, retiredFiles.get(i)));
+        }
+      } catch (Exception e) {
+        log.warn("Cannot delete retired log files.", e);
+      }
+    });
+  }
+
+  /**
+   * @return Returns a key that sorts the retired log files by the time of their retirement.
+   */
+  private static String getRetirementOrder(String retiredFile) {
+    String name = retiredFile;
+    if (name.endsWith("." + COMPRESSED_EXTENSION)) {
+      name = name.substring(0, name.length() - COMPRESSED_EXTENSION.length() - 1);
+    }
+    if (name.endsWith("." + LOGGING_EXTENSION)) {
+      // A dated log file retired at midnight is the last log file of that day.
+      name = name + ".~";
+    }
+    return name;
+  }
+
+  private void flushBuffer() throws IOException {
+    if (buffer.position() > 0) {
+      buffer.flip();
+      try {
+        writeFully(buffer);
+      } finally {
+        buffer.clear();
+      }
+    }
+  }
+
+  private void writeFully(ByteBuffer data) throws IOException {
+    while (data.hasRemaining()) {
+      channel.write(data);
+    }
+  }
+
+  private void closeChannel() throws IOException {
+    if (channel != null) {
+      try {
+        channel.close();
+      } finally {
+        channel = null;
+      }
+    }
+  }
+
+  private String getFilename(ZonedDateTime now) {
+    int i = filenamePattern.toLowerCase(Locale.ENGLISH)
+        .indexOf(YYYY_MM_DD);
+    if (i >= 0) {
+      return filenamePattern.substring(0, i) + FILE_DATE_FORMAT.format(now)
+          + filenamePattern.substring(i + YYYY_MM_DD.length());
+    } else {
+      return filenamePattern;
+    }
+  }
+
+  private Pattern getRetiredFilePattern() {
+    String logExtension = Pattern.quote("." + LOGGING_EXTENSION);
+    int i = filenamePattern.toLowerCase(Locale.ENGLISH)
+        .indexOf(YYYY_MM_DD);
+    if (i >= 0) {
+      return Pattern.compile(Pattern.quote(filenamePattern.substring(0, i)) + "\\d{4}_\\d{2}_\\d{2}"
+          + Pattern.quote(filenamePattern.substring(i + YYYY_MM_DD.length())) + logExtension + "(\\..+)?");
+    } else {
+      return Pattern.compile(Pattern.quote(filenamePattern) + logExtension + "\\..+");
+    }
+  }
+
+  private String getLogFile(String filename) {
+    return filename + "." + LOGGING_EXTENSION;
+  }
+
+  private String getLogFilepath(String filename) {
+    return fileService.toPath(LimbusFileService.LOGGING_DIRECTORY, getLogFile(filename));
+  }
+
+  /**
+   * Get the next "start of day" for the provided date.
+   *
+   * @param dateTime
+   *        the date to calculate from
+   * @return the start of the next day
+   */
+  static ZonedDateTime nextMidnight(ZonedDateTime dateTime) {
+    return dateTime.toLocalDate()
+        .plusDays(1)
+        .atStartOfDay(dateTime.getZone());
+  }
+}
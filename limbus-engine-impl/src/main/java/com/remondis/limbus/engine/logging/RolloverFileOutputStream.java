@@ -51,7 +51,11 @@ import com.remondis.limbus.utils.Lang;
  * <p>
  * Old files are retained for a number of days before being deleted.
  * </p>
+ *
+ * @deprecated Use {@link RollingFileOutputStream} which is buffered and does not require a global timer for the
+ *             rollover.
  */
+@Deprecated
 public class RolloverFileOutputStream extends FilterOutputStream {
 
   private static final Logger log = LoggerFactory.getLogger(RolloverFileOutputStream.class);
@@ -33,6 +33,11 @@ public class RoutedOutputStream<ID, T> extends OutputStream {
   protected Map<ID, T> targets;
   protected T defaultTarget;
 
+  /**
+   * The read-only view of the targets passed to the selector.
+   */
+  private Map<ID, T> readOnlyTargets;
+
   private TargetSelector<ID, T> selector;
   private TargetWriter<T> writer;
 
@@ -67,16 +72,23 @@ public class RoutedOutputStream<ID, T> extends OutputStream {
     this.selector = selector;
     this.writer = writer;
     this.targets = new ConcurrentHashMap<>();
+    this.readOnlyTargets = Collections.unmodifiableMap(targets);
     this.defaultTarget = defaultTarget;
   }
 
-  public void removeTarget(ID id) {
-    this.targets.remove(id);
+  /**
+   * Removes a target by id.
+   *
+   * @param id
+   *        The id
+   * @return Returns the removed target or <code>null</code>, if it does not exist.
+   */
+  public T removeTarget(ID id) {
+    return this.targets.remove(id);
   }
 
   private T selectTarget() {
-    Map<ID, T> readOnlyCopy = Collections.unmodifiableMap(targets);
-    T target = selector.selectTarget(readOnlyCopy);
+    T target = selector.selectTarget(readOnlyTargets);
     if (target == null) {
       target = defaultTarget;
     }
@@ -158,6 +170,7 @@ public class RoutedOutputStream<ID, T> extends OutputStream {
       defaultTarget = null;
       selector = null;
       targets = null;
+      readOnlyTargets = null;
       writer = null;
     }
 
@@ -20,11 +20,6 @@ import com.remondis.limbus.utils.Lang;
  */
 public class ThreadSensitiveRecorderStream extends OutputStream {
 
-  @FunctionalInterface
-  interface SubscriberOperation {
-    public void operation(OutputStream target) throws IOException;
-  }
-
   private Map<ClassloaderThreadID, ByteArrayOutputStream> recordSubscriber;
 
   private OutputStream delegate;
@@ -38,49 +33,58 @@ public class ThreadSensitiveRecorderStream extends OutputStream {
   @Override
   public void write(int b) throws IOException {
     delegate.write(b);
-    delegateOnDemand((o) -> {
-      o.write(b);
-    });
+    OutputStream subscriber = getSubscriberOnDemand();
+    if (subscriber != null) {
+      subscriber.write(b);
+    }
   }
 
   @Override
   public void write(byte[] b) throws IOException {
     delegate.write(b);
-    delegateOnDemand((o) -> {
-      o.write(b);
-    });
+    OutputStream subscriber = getSubscriberOnDemand();
+    if (subscriber != null) {
+      subscriber.write(b);
+    }
   }
 
   @Override
   public void write(byte[] b, int off, int len) throws IOException {
     delegate.write(b, off, len);
-    delegateOnDemand((o) -> {
-      o.write(b, off, len);
-    });
+    OutputStream subscriber = getSubscriberOnDemand();
+    if (subscriber != null) {
+      subscriber.write(b, off, len);
+    }
   }
 
   @Override
   public void flush() throws IOException {
     delegate.flush();
-    delegateOnDemand((o) -> {
-      o.flush();
-    });
+    OutputStream subscriber = getSubscriberOnDemand();
+    if (subscriber != null) {
+      subscriber.flush();
+    }
   }
 
   @Override
   public void close() throws IOException {
     delegate.close();
-    delegateOnDemand((o) -> {
-      o.close();
-    });
+    OutputStream subscriber = getSubscriberOnDemand();
+    if (subscriber != null) {
+      subscriber.close();
+    }
   }
 
-  private void delegateOnDemand(SubscriberOperation consumer) throws IOException {
-    ClassloaderThreadID subscriberID = getSubscriberID();
-    if (recordSubscriber.containsKey(subscriberID)) {
-      OutputStream outputStream = recordSubscriber.get(subscriberID);
-      consumer.operation(outputStream);
+  /**
+   * @return Returns the recording subscriber of the current thread and context classloader or <code>null</code> if
+   *         the output is not recorded.
+   */
+  private OutputStream getSubscriberOnDemand() {
+    // Most of the time there is no recording, so skip creating the subscriber id.
+    if (recordSubscriber.isEmpty()) {
+      return null;
     }
+    return recordSubscriber.get(getSubscriberID());
   }
 
   private ClassloaderThreadID getSubscriberID() {
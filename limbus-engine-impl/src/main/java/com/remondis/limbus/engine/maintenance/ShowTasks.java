@@ -11,6 +11,7 @@ import com.googlecode.lanterna.gui2.LinearLayout;
 import com.googlecode.lanterna.gui2.Panel;
 import com.googlecode.lanterna.gui2.table.Table;
 import com.googlecode.lanterna.gui2.table.TableModel;
+import com.remondis.limbus.api.metrics.Histogram;
 import com.remondis.limbus.system.api.LimbusComponent;
 import com.remondis.limbus.tasks.TaskInfo;
 import com.remondis.limbus.tasks.TaskScheduler;
@@ -39,14 +40,18 @@ public class ShowTasks extends AbstractLimbusItem {
   public Container getComponent(final LimbusMaintenanceConsole console) {
     Panel main = new Panel(new LinearLayout(Direction.VERTICAL));
 
-    Table<String> versions = new Table<String>("Last result", "Task name", "Period", "Rejected?");
+    Table<String> versions = new Table<String>("Last result", "Task name", "Period", "Rejected?", "Runs", "Failures",
+        "Backoffs", "Runtime p50/p99/max", "Lag p50/p99/max");
     TableModel<String> tableModel = versions.getTableModel();
 
     List<TaskInfo> info = scheduler.getSchedulerInfo();
     for (TaskInfo i : info) {
       String lastSuccess = i.isLastSuccess() ? "SUCCESS" : "FAILURE";
-      String waitTime = String.format("%dsec.", TimeUnit.MILLISECONDS.toSeconds(i.getCurrentWaitTime()));
-      tableModel.addRow(lastSuccess, i.getTaskName(), waitTime, i.isRejected() ? "yes" : "no");
+      String waitTime = i.getCurrentWaitTime() < 1000 ? String.format("%dms", i.getCurrentWaitTime())
+          : String.format("%dsec.", TimeUnit.MILLISECONDS.toSeconds(i.getCurrentWaitTime()));
+      tableModel.addRow(lastSuccess, i.getTaskName(), waitTime, i.isRejected() ? "yes" : "no",
+          String.valueOf(i.getExecutions()), String.valueOf(i.getFailures()), String.valueOf(i.getBackoffs()),
+          formatHistogram(i.getRuntimes()), formatHistogram(i.getLags()));
 
     }
     versions.addTo(main);
@@ -62,4 +67,16 @@ public class ShowTasks extends AbstractLimbusItem {
 
   }
 
+  /**
+   * Formats the median, the 99th percentile and the maximum of a histogram holding microseconds.
+   */
+  private static String formatHistogram(Histogram histogram) {
+    return String.format("%s/%s/%s", formatMicros(histogram.getValueAtPercentile(50)),
+        formatMicros(histogram.getValueAtPercentile(99)), formatMicros(histogram.getMax()));
+  }
+
+  private static String formatMicros(long micros) {
+    return String.format("%.1fms", micros / 1000d);
+  }
+
 }
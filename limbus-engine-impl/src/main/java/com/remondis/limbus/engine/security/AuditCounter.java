@@ -0,0 +1,70 @@
+package com.remondis.limbus.engine.security;
+
+import java.security.Permission;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Counts the access decisions recorded by the {@link SecurityAudit} for a deployment and a permission type.
+ */
+public final class AuditCounter {
+
+  private final String deployName;
+
+  private final Class<? extends Permission> permissionType;
+
+  private final LongAdder granted = new LongAdder();
+
+  private final LongAdder denied = new LongAdder();
+
+  AuditCounter(String deployName, Class<? extends Permission> permissionType) {
+    this.deployName = deployName;
+    this.permissionType = permissionType;
+  }
+
+  /**
+   * Counts a decision.
+   *
+   * @return Returns the number of decisions of the specified kind including this one. The result is approximate if
+   *         decisions are counted concurrently.
+   */
+  long increment(AuditDecision decision) {
+    LongAdder adder = decision == AuditDecision.GRANTED ? granted : denied;
+    adder.increment();
+    return adder.sum();
+  }
+
+  /**
+   * @return Returns the deploy name of the plugin or <code>null</code> for requests not made by a named plugin.
+   */
+  public String getDeployName() {
+    return deployName;
+  }
+
+  /**
+   * @return Returns the permission type.
+   */
+  public Class<? extends Permission> getPermissionType() {
+    return permissionType;
+  }
+
+  /**
+   * @return Returns the number of recorded granted requests.
+   */
+  public long getGranted() {
+    return granted.sum();
+  }
+
+  /**
+   * @return Returns the number of recorded denied requests.
+   */
+  public long getDenied() {
+    return denied.sum();
+  }
+
+  @Override
+  public String toString() {
+    return "AuditCounter [deployName=" + deployName + ", permissionType=" + permissionType.getName() + ", granted="
+        + getGranted() + ", denied=" + getDenied() + "]";
+  }
+
+}
@@ -0,0 +1,15 @@
+package com.remondis.limbus.engine.security;
+
+/**
+ * The decision of a permission request recorded by the {@link SecurityAudit}.
+ */
+public enum AuditDecision {
+  /**
+   * The permission was granted.
+   */
+  GRANTED,
+  /**
+   * The permission was denied.
+   */
+  DENIED;
+}
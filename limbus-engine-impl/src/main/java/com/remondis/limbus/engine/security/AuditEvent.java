@@ -0,0 +1,116 @@
+package com.remondis.limbus.engine.security;
+
+import java.security.Permission;
+import java.time.Instant;
+import java.time.format.DateTimeFormatter;
+
+/**
+ * An access decision recorded by the {@link SecurityAudit}.
+ */
+public final class AuditEvent {
+
+  private final long timestamp;
+
+  private final String threadName;
+
+  private final String deployName;
+
+  private final String codeSource;
+
+  private final Permission permission;
+
+  private final AuditDecision decision;
+
+  private final String stackTrace;
+
+  AuditEvent(long timestamp, String threadName, String deployName, String codeSource, Permission permission,
+      AuditDecision decision, String stackTrace) {
+    this.timestamp = timestamp;
+    this.threadName = threadName;
+    this.deployName = deployName;
+    this.codeSource = codeSource;
+    this.permission = permission;
+    this.decision = decision;
+    this.stackTrace = stackTrace;
+  }
+
+  /**
+   * @return Returns the time of the request in milliseconds since the epoch.
+   */
+  public long getTimestamp() {
+    return timestamp;
+  }
+
+  /**
+   * @return Returns the name of the requesting thread.
+   */
+  public String getThreadName() {
+    return threadName;
+  }
+
+  /**
+   * @return Returns the deploy name of the requesting plugin or <code>null</code> if the request was not made by a
+   *         named plugin.
+   */
+  public String getDeployName() {
+    return deployName;
+  }
+
+  /**
+   * @return Returns the code source location of the requesting plugin class or <code>null</code> if the request was
+   *         not made by a plugin.
+   */
+  public String getCodeSource() {
+    return codeSource;
+  }
+
+  /**
+   * @return Returns the requested permission.
+   */
+  public Permission getPermission() {
+    return permission;
+  }
+
+  /**
+   * @return Returns the decision.
+   */
+  public AuditDecision getDecision() {
+    return decision;
+  }
+
+  /**
+   * @return Returns the sampled stack trace of the request or <code>null</code> if the stack trace was not sampled.
+   */
+  public String getStackTrace() {
+    return stackTrace;
+  }
+
+  /**
+   * Appends this event as a line of the audit trail. A sampled stack trace is appended as indented lines.
+   */
+  void appendTo(StringBuilder b) {
+    DateTimeFormatter.ISO_INSTANT.formatTo(Instant.ofEpochMilli(timestamp), b);
+    b.append(' ')
+        .append(decision)
+        .append(" deployment=")
+        .append(deployName == null ? "-" : deployName)
+        .append(" thread=")
+        .append(threadName)
+        .append(" codeSource=")
+        .append(codeSource == null ? "-" : codeSource)
+        .append(" permission=")
+        .append(permission)
+        .append('\n');
+    if (stackTrace != null) {
+      b.append(stackTrace);
+    }
+  }
+
+  @Override
+  public String toString() {
+    StringBuilder b = new StringBuilder();
+    appendTo(b);
+    return b.toString();
+  }
+
+}
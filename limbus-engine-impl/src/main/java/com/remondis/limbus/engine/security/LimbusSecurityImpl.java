@@ -43,6 +43,11 @@ public class LimbusSecurityImpl extends Initializable<Exception> implements Limb
    */
   private Policy systemPolicy = null;
 
+  /**
+   * Holds the security manager installed by {@link #installSecurity()}.
+   */
+  private LimbusSecurityManager securityManager = null;
+
   /**
    * Holds the set of default sandbox permissions. The permission file for the sandbox default permissions is read from
    * the classpath.
@@ -68,7 +73,8 @@ public class LimbusSecurityImpl extends Initializable<Exception> implements Limb
 
     LimbusSecurityPolicy limbusPolicy = new LimbusSecurityPolicy();
     Policy.setPolicy(limbusPolicy);
-    System.setSecurityManager(new LimbusSecurityManager(filesystem));
+    securityManager = new LimbusSecurityManager(filesystem);
+    System.setSecurityManager(securityManager);
 
   }
 
@@ -138,6 +144,19 @@ public class LimbusSecurityImpl extends Initializable<Exception> implements Limb
   public final void deinstallSecurity() {
     System.setSecurityManager(systemSecurityManager);
     Policy.setPolicy(systemPolicy);
+    if (securityManager != null) {
+      securityManager.shutdown();
+      securityManager = null;
+    }
+  }
+
+  /**
+   * @return Returns the {@link SecurityAudit} recording the access decisions of the sandbox or <code>null</code> if
+   *         the security is not installed.
+   */
+  public SecurityAudit getAudit() {
+    LimbusSecurityManager securityManager = this.securityManager;
+    return securityManager == null ? null : securityManager.getAudit();
   }
 
   @Override
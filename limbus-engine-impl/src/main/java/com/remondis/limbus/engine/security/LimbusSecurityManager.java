@@ -1,19 +1,23 @@
 package com.remondis.limbus.engine.security;
 
 import java.security.AccessController;
+import java.security.CodeSource;
 import java.security.Permission;
 import java.security.PrivilegedAction;
 import java.security.ProtectionDomain;
 import java.util.regex.Matcher;
 import java.util.regex.Pattern;
 
+import com.remondis.limbus.engine.PluginClassLoader;
 import com.remondis.limbus.files.LimbusFileService;
 import com.remondis.limbus.properties.LimbusProperties;
+import com.remondis.limbus.properties.PropertyBinding;
 import com.remondis.limbus.utils.Lang;
 
 /**
  * This is an implementation of the {@link SecurityManager} to provide a better logging to detect required permissions.
- * This implementation can be configured to log permissions requests and their results.
+ * This implementation can be configured to log permissions requests and their results. The logged requests are
+ * recorded asynchronously by the {@link SecurityAudit}, so the requesting thread does not wait for I/O.
  *
  *
  * <p>
@@ -35,9 +39,27 @@ public class LimbusSecurityManager extends SecurityManager {
   private LimbusProperties properties;
 
   /**
-   * Holds the context classloader type filter.
+   * The configuration values read on every permission check. They are updated when the configuration file changes.
    */
-  private Pattern filterPattern;
+  private PropertyBinding<Boolean> logRequests;
+  private PropertyBinding<Boolean> dumpDenyThreadStack;
+  private PropertyBinding<Boolean> dumpRequestThreadStack;
+  private PropertyBinding<Boolean> logDeny;
+
+  /**
+   * Holds the context classloader type filter or <code>null</code> if no filter is configured.
+   */
+  private volatile Pattern filterPattern;
+
+  /**
+   * Records the logged permission requests and denied permissions.
+   */
+  private SecurityAudit audit;
+
+  /**
+   * Marks threads that are currently recording an audit event.
+   */
+  private final ThreadLocal<Boolean> auditing = ThreadLocal.withInitial(() -> Boolean.FALSE);
 
   public LimbusSecurityManager(LimbusFileService filesystem) {
     Lang.denyNull("filesystem", filesystem);
@@ -47,13 +69,27 @@ public class LimbusSecurityManager extends SecurityManager {
       throw new LimbusSecurityException(
           "Cannot initialize Limbus Security Manager due to missing default configuration.");
     }
-    init();
+    init(filesystem);
   }
 
-  private void init() {
-    if (logRequests() && hasContextClassLoaderFilter()) {
-      filterPattern = Pattern.compile(contextClassLoaderFilter());
-    }
+  private void init(LimbusFileService filesystem) {
+    this.logRequests = properties.bindBoolean("logRequests");
+    this.dumpDenyThreadStack = properties.bindBoolean("dumpDenyThreadStack");
+    this.dumpRequestThreadStack = properties.bindBoolean("dumpRequestThreadStack");
+    this.logDeny = properties.bindBoolean("logDeny");
+    this.audit = new SecurityAudit(filesystem, properties.getProperty("audit.file"),
+        properties.getInt("audit.capacity"), properties.getLong("audit.flushInterval"),
+        properties.getLong("audit.maxFileSize"), properties.getBoolean("audit.compress"));
+    applyConfiguration();
+    properties.addListener(changed -> applyConfiguration());
+    // The logging of permission requests can be switched without a restart.
+    properties.watch();
+  }
+
+  private void applyConfiguration() {
+    audit.setStackSampleInterval(properties.getInt("audit.stackSampleInterval"));
+    String filter = properties.getProperty("contextClassLoaderFilter");
+    this.filterPattern = filter == null ? null : Pattern.compile(filter);
   }
 
   @Override
@@ -77,40 +113,77 @@ public class LimbusSecurityManager extends SecurityManager {
       String request = getRequest();
       boolean handleRequest = handleRequest(request);
       if (handleRequest) {
-        // schuettec - 06.02.2017 : ISSUE #69 : We have no other chance to reach the plugin's output here than using
-        // System.out because we do not have a reference to the plugin's custom logger.
-        System.out.printf("Permission granted %s.", perm.toString());
-        if (dumpRequestThreadStack()) {
-          dumpStackTrace();
-        }
+        audit(AuditDecision.GRANTED, perm, dumpRequestThreadStack());
       }
     }
   }
 
   private void logSecurityException(Permission perm, SecurityException e) throws SecurityException {
     if (logDeny()) {
-      // schuettec - 06.02.2017 : ISSUE #69 : We have no other chance to reach the plugin's output here than using
-      // System.out because we do not have a reference to the plugin's custom logger.
-      System.out.println("Permission was not granted: " + perm.toString());
-      if (dumpDenyThreadStack()) {
-        dumpStackTrace();
-      }
+      audit(AuditDecision.DENIED, perm, dumpDenyThreadStack());
     }
     throw e;
   }
 
-  private void dumpStackTrace() {
-    AccessController.doPrivileged(new PrivilegedAction<Void>() {
-      @Override
-      public Void run() {
-        StackTraceElement[] stackTraceElements = Thread.getAllStackTraces()
-            .get(Thread.currentThread());
-        String stackTraceAsString = Lang.stackTraceAsString(stackTraceElements);
-        System.out.println("Logging stacktrace of the request:");
-        System.out.println(stackTraceAsString);
-        return null;
-      }
-    });
+  /**
+   * Records the decision in the {@link SecurityAudit}. The plugin making the request is determined by the first class
+   * on the call stack that was loaded by a {@link PluginClassLoader}.
+   */
+  private void audit(final AuditDecision decision, final Permission perm, final boolean sampleStack) {
+    // Determining the requesting plugin may require permissions itself. Those requests are not recorded.
+    if (auditing.get()) {
+      return;
+    }
+    auditing.set(Boolean.TRUE);
+    try {
+      final Class<?>[] classContext = getClassContext();
+      AccessController.doPrivileged(new PrivilegedAction<Void>() {
+        @Override
+        public Void run() {
+          String deployName = null;
+          String codeSource = null;
+          for (Class<?> c : classContext) {
+            ClassLoader classLoader = c.getClassLoader();
+            if (classLoader instanceof PluginClassLoader) {
+              deployName = ((PluginClassLoader) classLoader).getDeployName();
+              codeSource = getCodeSource(c);
+              break;
+            }
+          }
+          audit.record(decision, perm, deployName, codeSource, sampleStack);
+          return null;
+        }
+      });
+    } finally {
+      auditing.set(Boolean.FALSE);
+    }
+  }
+
+  private static String getCodeSource(Class<?> c) {
+    CodeSource codeSource = c.getProtectionDomain()
+        .getCodeSource();
+    if (codeSource == null || codeSource.getLocation() == null) {
+      return null;
+    } else {
+      return codeSource.getLocation()
+          .toString();
+    }
+  }
+
+  /**
+   * @return Returns the {@link SecurityAudit} recording the access decisions.
+   */
+  public SecurityAudit getAudit() {
+    return audit;
+  }
+
+  /**
+   * Stops watching the configuration and shuts down the {@link SecurityAudit}. Called when the security manager is
+   * deinstalled.
+   */
+  public void shutdown() {
+    properties.unwatch();
+    audit.shutdown();
   }
 
   /**
@@ -138,40 +211,29 @@ public class LimbusSecurityManager extends SecurityManager {
       return true;
     }
     boolean handleRequest = true;
-    if (hasContextClassLoaderFilter()) {
+    // The configuration key 'contextClassLoaderFilter' specifies a regexp which is used to filter the thread context
+    // classloaders. Only matching context classloaders are logged on permission request.
+    Pattern filterPattern = this.filterPattern;
+    if (filterPattern != null) {
       Matcher m = filterPattern.matcher(request);
       handleRequest = m.matches();
     }
     return handleRequest;
   }
 
-  private boolean hasContextClassLoaderFilter() {
-    return contextClassLoaderFilter() != null;
-  }
-
-  /**
-   * The configuration key 'contextClassLoaderFilter' specifies a regexp which is used to filter the thread context
-   * classloaders. Only matching context classloaders are logged on permission request.
-   *
-   * @return Returns the configuration value for key 'contextClassLoaderFilter'
-   */
-  private String contextClassLoaderFilter() {
-    return properties.getProperty("contextClassLoaderFilter");
-  }
-
   private boolean logRequests() {
-    return properties.getBoolean("logRequests");
+    return logRequests.get();
   }
 
   private boolean dumpDenyThreadStack() {
-    return properties.getBoolean("dumpDenyThreadStack");
+    return dumpDenyThreadStack.get();
   }
 
   private boolean dumpRequestThreadStack() {
-    return properties.getBoolean("dumpRequestThreadStack");
+    return dumpRequestThreadStack.get();
   }
 
   private boolean logDeny() {
-    return properties.getBoolean("logDeny");
+    return logDeny.get();
   }
 }
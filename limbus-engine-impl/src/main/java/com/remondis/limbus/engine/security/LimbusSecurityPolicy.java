@@ -6,9 +6,9 @@ import java.security.PermissionCollection;
 import java.security.Permissions;
 import java.security.Policy;
 import java.security.ProtectionDomain;
-import java.util.Set;
 
 import com.remondis.limbus.engine.PluginClassLoader;
+import com.remondis.limbus.engine.PluginPermissions;
 
 /**
  * This is the Limbus security policy implementation that manages the sets of permissions granted for different
@@ -29,18 +29,28 @@ class LimbusSecurityPolicy extends Policy {
     }
   }
 
+  /**
+   * Overridden to evaluate the permissions of plugins using the precomputed {@link PluginPermissions} of their
+   * classloader. The default implementation looks up the permissions of every protection domain in a map guarded by a
+   * global lock.
+   */
+  @Override
+  public boolean implies(ProtectionDomain domain, Permission permission) {
+    if (isPlugin(domain)) {
+      return getPluginPermissions(domain).implies(permission);
+    } else {
+      // The application is granted all permissions.
+      return true;
+    }
+  }
+
   private boolean isPlugin(ProtectionDomain domain) {
     return domain.getClassLoader() instanceof PluginClassLoader;
   }
 
-  private Permissions getDefaultPermissions(ProtectionDomain domain) {
+  private PluginPermissions getPluginPermissions(ProtectionDomain domain) {
     PluginClassLoader classloader = (PluginClassLoader) domain.getClassLoader();
-    Set<Permission> permissions = classloader.getPermissions();
-    Permissions permissionCollection = new Permissions();
-    for (Permission p : permissions) {
-      permissionCollection.add(p);
-    }
-    return permissionCollection;
+    return classloader.getPluginPermissions();
   }
 
   private PermissionCollection pluginPermissions(ProtectionDomain domain) {
@@ -48,7 +58,8 @@ class LimbusSecurityPolicy extends Policy {
     // conjunction with ClassLoader.defineClass() where the default protection domain grants no permissions at all. This
     // default protected domain will be overridden by the permissions returned here so the set of permissions applies
     // right on defineClass().
-    return getDefaultPermissions(domain);
+    // The permissions are precomputed when they are set on the classloader and returned read-only.
+    return getPluginPermissions(domain).getPermissionCollection();
   }
 
   private PermissionCollection applicationPermissions() {
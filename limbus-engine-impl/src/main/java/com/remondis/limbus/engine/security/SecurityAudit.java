@@ -0,0 +1,300 @@
+package com.remondis.limbus.engine.security;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.nio.charset.StandardCharsets;
+import java.security.Permission;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.concurrent.locks.LockSupport;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import com.remondis.limbus.engine.logging.RollingFileOutputStream;
+import com.remondis.limbus.files.LimbusFileService;
+import com.remondis.limbus.utils.Lang;
+import com.remondis.limbus.utils.RingBuffer;
+
+/**
+ * The security audit records the access decisions of the sandbox as {@link AuditEvent}s. The requesting thread only
+ * counts the decision and publishes the event to a bounded lock-free ring buffer, so it never waits for I/O. A single
+ * writer thread drains the ring buffer into a rolling audit file in the logging directory of the
+ * {@link LimbusFileService}. Events are discarded if the ring buffer is full, but they are still counted.
+ *
+ * <p>
+ * The decisions are counted per deployment and permission type and can be queried using {@link #getCounters()}.
+ * </p>
+ *
+ * <p>
+ * Stack traces are expensive to capture, so only every n-th decision per deployment, permission type and decision gets
+ * a stack trace. The first decision is always sampled.
+ * </p>
+ *
+ * <p>
+ * <b>Permission requests of the writer thread are not recorded, because writing the audit file requires permissions
+ * itself.</b>
+ * </p>
+ */
+public class SecurityAudit {
+
+  private static final Logger log = LoggerFactory.getLogger(SecurityAudit.class);
+
+  private static final String WRITER_THREAD_NAME = "Limbus Security Audit";
+
+  /**
+   * The time a thread waits before checking again whether the writer caught up.
+   */
+  private static final long DRAIN_PARK_NANOS = TimeUnit.MICROSECONDS.toNanos(50);
+
+  /**
+   * The key of the counters of requests not made by a named plugin. Deploy names are never empty.
+   */
+  private static final String NO_DEPLOY_NAME = "";
+
+  private final RingBuffer<AuditEntry> ringBuffer;
+
+  private final OutputStream output;
+
+  private final long flushIntervalNanos;
+
+  private final int wakeUpThreshold;
+
+  private final Map<String, Map<Class<? extends Permission>, AuditCounter>> counters = new ConcurrentHashMap<>();
+
+  private final LongAdder discardedEvents = new LongAdder();
+
+  private final Thread writer;
+
+  private volatile int stackSampleInterval = 1;
+
+  /**
+   * The number of events written to the audit file so far.
+   */
+  private volatile long writtenSequence;
+
+  /**
+   * Holds the lines written by the writer thread. Only accessed by the writer thread.
+   */
+  private final StringBuilder lines = new StringBuilder();
+
+  /**
+   * Creates and starts a {@link SecurityAudit}.
+   *
+   * @param fileService
+   *        The file service.
+   * @param filename
+   *        The filename of the audit file. The filename may include the string "yyyy_mm_dd", which is replaced with the
+   *        actual date.
+   * @param capacity
+   *        The maximum number of events waiting to be written.
+   * @param flushInterval
+   *        The maximum time in milliseconds events wait before they are written to the audit file.
+   * @param maxFileSize
+   *        The size in bytes the audit file is rotated at. A value less than or equal to 0 disables the rotation by
+   *        size.
+   * @param compress
+   *        If true, retired audit files are compressed.
+   */
+  public SecurityAudit(LimbusFileService fileService, String filename, int capacity, long flushInterval,
+      long maxFileSize, boolean compress) {
+    Lang.denyNull("fileService", fileService);
+    Lang.denyNull("filename", filename);
+    try {
+      fileService.createFolder(LimbusFileService.LOGGING_DIRECTORY, false);
+    } catch (Exception e) {
+      log.warn("Cannot create the logging directory for the security audit file.", e);
+    }
+    this.output = new RollingFileOutputStream(fileService, filename, true, 8192, maxFileSize, compress);
+    this.ringBuffer = new RingBuffer<>(capacity, AuditEntry::new);
+    this.flushIntervalNanos = TimeUnit.MILLISECONDS.toNanos(flushInterval);
+    this.wakeUpThreshold = ringBuffer.capacity() / 2;
+    this.writer = new Thread(this::write, WRITER_THREAD_NAME);
+    this.writer.setDaemon(true);
+    // The writer thread must not keep a plugin classloader.
+    this.writer.setContextClassLoader(SecurityAudit.class.getClassLoader());
+    this.writer.start();
+  }
+
+  /**
+   * Records an access decision.
+   *
+   * @param decision
+   *        The decision.
+   * @param permission
+   *        The requested permission.
+   * @param deployName
+   *        The deploy name of the requesting plugin or <code>null</code>.
+   * @param codeSource
+   *        The code source location of the requesting class or <code>null</code>.
+   * @param sampleStack
+   *        If <code>true</code> the stack trace of the current thread is sampled.
+   */
+  public void record(AuditDecision decision, Permission permission, String deployName, String codeSource,
+      boolean sampleStack) {
+    Thread thread = Thread.currentThread();
+    if (thread == writer) {
+      return;
+    }
+    long count = getCounter(deployName, permission.getClass()).increment(decision);
+    String stackTrace = null;
+    if (sampleStack && (count - 1) % stackSampleInterval == 0) {
+      stackTrace = Lang.stackTraceAsString(new Throwable().getStackTrace());
+    }
+    AuditEvent event = new AuditEvent(System.currentTimeMillis(), thread.getName(), deployName, codeSource, permission,
+        decision, stackTrace);
+    long sequence = ringBuffer.claim();
+    if (sequence == RingBuffer.NO_SEQUENCE) {
+      // The audit is full or was shut down.
+      discardedEvents.increment();
+      return;
+    }
+    ringBuffer.get(sequence).event = event;
+    ringBuffer.publish(sequence);
+    if (ringBuffer.size() >= wakeUpThreshold) {
+      LockSupport.unpark(writer);
+    }
+  }
+
+  private AuditCounter getCounter(String deployName, Class<? extends Permission> permissionType) {
+    String key = deployName == null ? NO_DEPLOY_NAME : deployName;
+    Map<Class<? extends Permission>, AuditCounter> deploymentCounters = counters.get(key);
+    if (deploymentCounters == null) {
+      deploymentCounters = counters.computeIfAbsent(key, k -> new ConcurrentHashMap<>());
+    }
+    AuditCounter counter = deploymentCounters.get(permissionType);
+    if (counter == null) {
+      counter = deploymentCounters.computeIfAbsent(permissionType, type -> new AuditCounter(deployName, type));
+    }
+    return counter;
+  }
+
+  /**
+   * @return Returns the counters of all deployments and permission types recorded so far.
+   */
+  public List<AuditCounter> getCounters() {
+    List<AuditCounter> list = new ArrayList<>();
+    for (Map<Class<? extends Permission>, AuditCounter> deploymentCounters : counters.values()) {
+      list.addAll(deploymentCounters.values());
+    }
+    return Collections.unmodifiableList(list);
+  }
+
+  /**
+   * @param deployName
+   *        The deploy name of the plugin or <code>null</code> for requests not made by a named plugin.
+   * @return Returns the counters of the permission types recorded so far for the specified deployment.
+   */
+  public List<AuditCounter> getCounters(String deployName) {
+    Map<Class<? extends Permission>, AuditCounter> deploymentCounters = counters
+        .get(deployName == null ? NO_DEPLOY_NAME : deployName);
+    if (deploymentCounters == null) {
+      return Collections.emptyList();
+    } else {
+      return Collections.unmodifiableList(new ArrayList<>(deploymentCounters.values()));
+    }
+  }
+
+  /**
+   * @return Returns the number of events that were counted but not written, because the audit was full.
+   */
+  public long getDiscardedEvents() {
+    return discardedEvents.sum();
+  }
+
+  /**
+   * Sets the stack sampling interval.
+   *
+   * @param stackSampleInterval
+   *        Every n-th decision per deployment, permission type and decision is recorded with a stack trace. Must be
+   *        greater than 0.
+   */
+  public void setStackSampleInterval(int stackSampleInterval) {
+    if (stackSampleInterval < 1) {
+      throw new IllegalArgumentException("The stack sample interval must be greater than 0.");
+    }
+    this.stackSampleInterval = stackSampleInterval;
+  }
+
+  /**
+   * Waits until the events recorded before this call were written to the audit file.
+   */
+  public void drain() {
+    if (Thread.currentThread() == writer) {
+      return;
+    }
+    long published = ringBuffer.getPublishedSequence();
+    while (writer.isAlive() && writtenSequence < published) {
+      LockSupport.unpark(writer);
+      LockSupport.parkNanos(DRAIN_PARK_NANOS);
+    }
+  }
+
+  /**
+   * Writes the pending events, stops the writer thread and closes the audit file. Events recorded after shutdown are
+   * only counted.
+   */
+  public void shutdown() {
+    ringBuffer.close();
+    LockSupport.unpark(writer);
+    try {
+      writer.join();
+    } catch (InterruptedException e) {
+      Thread.currentThread()
+          .interrupt();
+    }
+  }
+
+  private void write() {
+    while (!ringBuffer.isClosed()) {
+      drainRingBuffer();
+      LockSupport.parkNanos(this, flushIntervalNanos);
+    }
+    // Write the events recorded until shutdown. Threads that claimed a sequence before shutdown are about to publish
+    // it.
+    drainRingBuffer();
+    while (!ringBuffer.isDrained()) {
+      Thread.onSpinWait();
+      drainRingBuffer();
+    }
+    Lang.closeQuietly(output);
+  }
+
+  private void drainRingBuffer() {
+    AuditEntry entry = ringBuffer.peek();
+    if (entry == null) {
+      return;
+    }
+    while (entry != null) {
+      entry.event.appendTo(lines);
+      entry.event = null;
+      ringBuffer.release();
+      entry = ringBuffer.peek();
+    }
+    try {
+      output.write(lines.toString()
+          .getBytes(StandardCharsets.UTF_8));
+      output.flush();
+    } catch (IOException e) {
+      log.warn("Cannot write to the security audit file - audit events are lost.", e);
+    } finally {
+      lines.setLength(0);
+      writtenSequence = ringBuffer.getConsumedSequence();
+    }
+  }
+
+  /**
+   * An element of the ring buffer holding an event.
+   */
+  private static final class AuditEntry {
+
+    private AuditEvent event;
+
+  }
+
+}
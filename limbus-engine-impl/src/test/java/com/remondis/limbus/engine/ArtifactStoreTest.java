@@ -0,0 +1,77 @@
+package com.remondis.limbus.engine;
+
+import static org.junit.jupiter.api.Assertions.assertArrayEquals;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+import java.io.File;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+public class ArtifactStoreTest {
+
+  @TempDir
+  public Path directory;
+
+  @Test
+  public void shouldStoreSharedArtifactOnce() throws Exception {
+    Path work = Files.createDirectories(directory.resolve("work"));
+    File artifact = createArtifact("guava.jar", "guava");
+    String hash = ArtifactStore.hash(artifact.toPath());
+
+    ArtifactStore store = ArtifactStore.open(work.toFile());
+    File first = deploy(store, work, "pluginA", artifact);
+    File second = deploy(store, work, "pluginB", artifact);
+
+    assertEquals(1, store.size());
+    assertEquals(2, store.getReferences(hash));
+    assertArrayEquals(Files.readAllBytes(artifact.toPath()), Files.readAllBytes(first.toPath()));
+    assertArrayEquals(Files.readAllBytes(artifact.toPath()), Files.readAllBytes(second.toPath()));
+
+    Files.delete(first.toPath());
+    store.release("pluginA");
+    assertEquals(1, store.size());
+    assertEquals(1, store.getReferences(hash));
+
+    Files.delete(second.toPath());
+    store.release("pluginB");
+    assertEquals(0, store.size());
+    assertEquals(0, store.getReferences(hash));
+  }
+
+  @Test
+  public void shouldRestoreReferencesOnOpen() throws Exception {
+    Path work = Files.createDirectories(directory.resolve("work"));
+    File artifact = createArtifact("guava.jar", "guava");
+    File unused = createArtifact("unused.jar", "unused");
+    String hash = ArtifactStore.hash(artifact.toPath());
+
+    ArtifactStore store = ArtifactStore.open(work.toFile());
+    deploy(store, work, "pluginA", artifact);
+    File removed = deploy(store, work, "pluginB", unused);
+    Files.delete(removed.toPath());
+
+    // The deployment of pluginB was deleted without releasing it, e.g. by a crash.
+    ArtifactStore reopened = ArtifactStore.open(work.toFile());
+    assertEquals(1, reopened.size());
+    assertEquals(1, reopened.getReferences(hash));
+  }
+
+  private File createArtifact(String name, String content) throws Exception {
+    Path artifact = directory.resolve(name);
+    Files.write(artifact, content.getBytes(StandardCharsets.UTF_8));
+    return artifact.toFile();
+  }
+
+  private File deploy(ArtifactStore store, Path work, String deployName, File artifact) throws Exception {
+    Path pluginDirectory = Files.createDirectories(work.resolve(deployName));
+    File target = pluginDirectory.resolve(artifact.getName())
+        .toFile();
+    store.link(deployName, artifact, target);
+    return target;
+  }
+
+}
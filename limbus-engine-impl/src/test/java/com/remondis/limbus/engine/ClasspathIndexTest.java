@@ -0,0 +1,44 @@
+package com.remondis.limbus.engine;
+
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.io.File;
+import java.net.URL;
+import java.nio.file.Files;
+import java.nio.file.Path;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+public class ClasspathIndexTest {
+
+  @TempDir
+  public Path directory;
+
+  @Test
+  public void shouldIndexDirectory() throws Exception {
+    Path packageDirectory = Files.createDirectories(directory.resolve("com/example"));
+    Files.createFile(packageDirectory.resolve("Plugin.class"));
+    Files.createFile(packageDirectory.resolve("plugin.properties"));
+
+    ClasspathIndex index = ClasspathIndex.create(directory.toUri()
+        .toURL());
+    assertTrue(index.isAvailable());
+    assertTrue(index.mayContainClass("com.example.Plugin"));
+    assertFalse(index.mayContainClass("com.example.Other"));
+    assertTrue(index.mayContainResource("com/example/plugin.properties"));
+    assertTrue(index.mayContainResource("com/example/"));
+    assertTrue(index.mayContainResource("com/example"));
+    assertFalse(index.mayContainResource("com/example/other.properties"));
+  }
+
+  @Test
+  public void shouldBeUnavailableForMissingJar() throws Exception {
+    URL missing = new File(directory.toFile(), "missing.jar").toURI()
+        .toURL();
+    ClasspathIndex index = ClasspathIndex.create(missing);
+    assertFalse(index.isAvailable());
+    assertTrue(index.mayContainClass("com.example.Plugin"));
+  }
+}
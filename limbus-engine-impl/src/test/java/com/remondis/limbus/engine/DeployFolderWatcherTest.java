@@ -0,0 +1,120 @@
+package com.remondis.limbus.engine;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertNull;
+
+import java.io.OutputStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+public class DeployFolderWatcherTest {
+
+  private static final long QUIET_PERIOD = 200;
+
+  @TempDir
+  public Path directory;
+
+  @Test
+  public void shouldCoalesceEventsOfFilesBeingWritten() throws Exception {
+    Files.write(directory.resolve("existing.zip"), new byte[] {
+        1
+    });
+
+    BlockingQueue<String> requests = new LinkedBlockingQueue<>();
+    DeployFolderWatcher watcher = new DeployFolderWatcher(directory, QUIET_PERIOD, 4,
+        new DeployFolderWatcher.Listener() {
+
+          @Override
+          public void deploy(Path zipFile) {
+            requests.add("deploy " + zipFile.getFileName());
+          }
+
+          @Override
+          public void undeploy(Path zipFile) {
+            requests.add("undeploy " + zipFile.getFileName());
+          }
+        });
+    watcher.start();
+    try {
+      // Write the file slowly, so the watcher receives multiple events
+      Path plugin = directory.resolve("plugin.zip");
+      try (OutputStream output = Files.newOutputStream(plugin)) {
+        for (int i = 0; i < 5; i++) {
+          output.write(new byte[1024]);
+          output.flush();
+          Thread.sleep(QUIET_PERIOD / 4);
+        }
+      }
+      Files.write(directory.resolve("readme.txt"), new byte[] {
+          1
+      });
+
+      assertEquals("deploy plugin.zip", requests.poll(10, TimeUnit.SECONDS));
+      assertNull(requests.poll(QUIET_PERIOD * 3, TimeUnit.MILLISECONDS));
+
+      Files.delete(plugin);
+      assertEquals("undeploy plugin.zip", requests.poll(10, TimeUnit.SECONDS));
+      assertNull(requests.poll(QUIET_PERIOD * 3, TimeUnit.MILLISECONDS));
+    } finally {
+      watcher.stop();
+    }
+  }
+
+  @Test
+  public void shouldOnlyKnowSuccessfulDeployments() throws Exception {
+    BlockingQueue<String> requests = new LinkedBlockingQueue<>();
+    AtomicBoolean fail = new AtomicBoolean(true);
+    DeployFolderWatcher watcher = new DeployFolderWatcher(directory, QUIET_PERIOD, 4,
+        new DeployFolderWatcher.Listener() {
+
+          @Override
+          public void deploy(Path zipFile) throws Exception {
+            requests.add("deploy " + zipFile.getFileName());
+            if (fail.get()) {
+              throw new Exception("Deployment failed.");
+            }
+          }
+
+          @Override
+          public void undeploy(Path zipFile) {
+            requests.add("undeploy " + zipFile.getFileName());
+          }
+        });
+    watcher.start();
+    try {
+      Path plugin = directory.resolve("plugin.zip");
+      Files.write(plugin, new byte[] {
+          1
+      });
+      assertEquals("deploy plugin.zip", requests.poll(10, TimeUnit.SECONDS));
+
+      // The failed deployment is not undeployed.
+      Files.delete(plugin);
+      assertNull(requests.poll(QUIET_PERIOD * 3, TimeUnit.MILLISECONDS));
+
+      fail.set(false);
+      Files.write(plugin, new byte[] {
+          1
+      });
+      assertEquals("deploy plugin.zip", requests.poll(10, TimeUnit.SECONDS));
+      Files.delete(plugin);
+      assertEquals("undeploy plugin.zip", requests.poll(10, TimeUnit.SECONDS));
+    } finally {
+      watcher.stop();
+    }
+    for (Thread thread : Thread.getAllStackTraces()
+        .keySet()) {
+      assertFalse(thread.getName()
+          .startsWith("HotDeploy"));
+    }
+  }
+
+}
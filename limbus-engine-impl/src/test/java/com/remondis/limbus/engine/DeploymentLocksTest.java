@@ -0,0 +1,165 @@
+package com.remondis.limbus.engine;
+
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.net.URL;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+import org.junit.jupiter.api.Test;
+
+import com.remondis.limbus.api.Classpath;
+
+public class DeploymentLocksTest {
+
+  private final DeploymentLocks locks = new DeploymentLocks(8, 100, TimeUnit.MILLISECONDS);
+
+  @Test
+  public void shouldNotBlockUnrelatedDeployments() throws Exception {
+    Classpath classpath = createClasspath("pluginA");
+    Classpath other = findClasspathOnOtherStripes(classpath);
+    locks.lock(classpath);
+    try {
+      assertTrue(lockInOtherThread(other).await(5, TimeUnit.SECONDS));
+    } finally {
+      locks.unlock(classpath);
+    }
+  }
+
+  @Test
+  public void shouldSerializeDeploymentsWithSameDeployName() throws Exception {
+    Classpath classpath = Classpath.create("plugin")
+        .add(new URL("file:/work/plugin/v1.jar"));
+    Classpath sameName = Classpath.create("plugin")
+        .add(new URL("file:/work/plugin/v2.jar"));
+    CountDownLatch locked;
+    locks.lock(classpath);
+    try {
+      locked = lockInOtherThread(sameName);
+      assertFalse(locked.await(200, TimeUnit.MILLISECONDS));
+    } finally {
+      locks.unlock(classpath);
+    }
+    assertTrue(locked.await(5, TimeUnit.SECONDS));
+  }
+
+  @Test
+  public void shouldWaitForNestedLockHeldByOtherThread() throws Exception {
+    Classpath classpath = createClasspath("pluginA");
+    Classpath other = findClasspathOnOtherStripes(classpath);
+    CountDownLatch locked = new CountDownLatch(1);
+    CountDownLatch release = new CountDownLatch(1);
+    Thread thread = new Thread(() -> {
+      locks.lock(other);
+      try {
+        locked.countDown();
+        release.await();
+        Thread.sleep(200);
+      } catch (InterruptedException e) {
+        Thread.currentThread()
+            .interrupt();
+      } finally {
+        locks.unlock(other);
+      }
+    });
+    thread.setDaemon(true);
+    thread.start();
+    assertTrue(locked.await(5, TimeUnit.SECONDS));
+
+    locks.lock(classpath);
+    try {
+      // Nested operations on the same deployment are reentrant.
+      locks.lock(classpath);
+      locks.unlock(classpath);
+      // The other thread does not wait for this deployment, so the nested operation waits for it.
+      release.countDown();
+      locks.lock(other);
+      locks.unlock(other);
+    } finally {
+      locks.unlock(classpath);
+    }
+    thread.join();
+  }
+
+  @Test
+  public void shouldRejectOneOfTheNestedLocksThatWouldDeadlock() throws Exception {
+    Classpath classpath = createClasspath("pluginA");
+    Classpath other = findClasspathOnOtherStripes(classpath);
+    CountDownLatch locked = new CountDownLatch(1);
+    CountDownLatch nested = new CountDownLatch(1);
+    AtomicBoolean otherRejected = new AtomicBoolean();
+    Thread thread = new Thread(() -> {
+      locks.lock(other);
+      try {
+        locked.countDown();
+        nested.await();
+        locks.lock(classpath);
+        locks.unlock(classpath);
+      } catch (IllegalStateException e) {
+        otherRejected.set(true);
+      } catch (InterruptedException e) {
+        Thread.currentThread()
+            .interrupt();
+      } finally {
+        locks.unlock(other);
+      }
+    });
+    thread.setDaemon(true);
+    thread.start();
+    assertTrue(locked.await(5, TimeUnit.SECONDS));
+
+    boolean rejected = false;
+    locks.lock(classpath);
+    try {
+      nested.countDown();
+      locks.lock(other);
+      locks.unlock(other);
+    } catch (IllegalStateException e) {
+      rejected = true;
+    } finally {
+      locks.unlock(classpath);
+    }
+    thread.join(TimeUnit.SECONDS.toMillis(5));
+    assertFalse(thread.isAlive());
+    // Exactly one of the threads gives up, so the other one can proceed.
+    assertTrue(rejected ^ otherRejected.get());
+  }
+
+  private Classpath findClasspathOnOtherStripes(Classpath classpath) throws Exception {
+    int[] stripes = locks.getStripes(classpath);
+    for (int i = 0;; i++) {
+      Classpath candidate = createClasspath("pluginB" + i);
+      int[] candidateStripes = locks.getStripes(candidate);
+      if (!contains(stripes, candidateStripes[0]) && !contains(stripes, candidateStripes[1])) {
+        return candidate;
+      }
+    }
+  }
+
+  private static boolean contains(int[] stripes, int stripe) {
+    return stripes[0] == stripe || stripes[1] == stripe;
+  }
+
+  private static Classpath createClasspath(String deployName) throws Exception {
+    return Classpath.create(deployName)
+        .add(new URL("file:/work/" + deployName + "/plugin.jar"));
+  }
+
+  private CountDownLatch lockInOtherThread(Classpath classpath) {
+    CountDownLatch locked = new CountDownLatch(1);
+    Thread thread = new Thread(() -> {
+      locks.lock(classpath);
+      try {
+        locked.countDown();
+      } finally {
+        locks.unlock(classpath);
+      }
+    });
+    thread.setDaemon(true);
+    thread.start();
+    return locked;
+  }
+
+}
@@ -0,0 +1,91 @@
+package com.remondis.limbus.engine;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNull;
+
+import java.io.File;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.HashMap;
+import java.util.Map;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import com.remondis.limbus.api.Classpath;
+import com.remondis.limbus.engine.DeploymentManifest.Change;
+
+public class DeploymentManifestTest {
+
+  @TempDir
+  public Path directory;
+
+  @Test
+  public void shouldDetectChanges() throws Exception {
+    File pluginDirectory = Files.createDirectories(directory.resolve("plugin"))
+        .toFile();
+    Files.createFile(pluginDirectory.toPath()
+        .resolve("plugin.jar"));
+    Files.createDirectories(pluginDirectory.toPath()
+        .resolve("config"));
+
+    Map<String, String> digests = new HashMap<>();
+    digests.put("plugin.jar", "1");
+    digests.put("config/plugin.properties", "2");
+    digests.put("config/Config.class", "3");
+
+    Classpath classpath = Classpath.create("plugin")
+        .addAllFilesInDirectory(pluginDirectory);
+    DeploymentManifest manifest = DeploymentManifest.create(digests, classpath, pluginDirectory);
+
+    assertEquals(Change.NONE, manifest.compare(digests, pluginDirectory));
+
+    Map<String, String> resourceChanged = new HashMap<>(digests);
+    resourceChanged.put("config/plugin.properties", "changed");
+    assertEquals(Change.RESOURCES, manifest.compare(resourceChanged, pluginDirectory));
+
+    Map<String, String> jarChanged = new HashMap<>(digests);
+    jarChanged.put("plugin.jar", "changed");
+    assertEquals(Change.CLASSPATH, manifest.compare(jarChanged, pluginDirectory));
+
+    Map<String, String> classChanged = new HashMap<>(digests);
+    classChanged.put("config/Config.class", "changed");
+    assertEquals(Change.CLASSPATH, manifest.compare(classChanged, pluginDirectory));
+
+    Map<String, String> entryAdded = new HashMap<>(digests);
+    entryAdded.put("config/other.properties", "4");
+    assertEquals(Change.CLASSPATH, manifest.compare(entryAdded, pluginDirectory));
+
+    // The plugin folder no longer matches the classpath
+    Files.createFile(pluginDirectory.toPath()
+        .resolve("other.jar"));
+    assertEquals(Change.CLASSPATH, manifest.compare(digests, pluginDirectory));
+  }
+
+  @Test
+  public void shouldWriteAndReadManifest() throws Exception {
+    File pluginDirectory = Files.createDirectories(directory.resolve("plugin"))
+        .toFile();
+    Files.createFile(pluginDirectory.toPath()
+        .resolve("plugin.jar"));
+    Map<String, String> digests = new HashMap<>();
+    digests.put("plugin.jar", "1");
+    digests.put("config/name with = and : chars.properties", "2");
+    Classpath classpath = Classpath.create("plugin")
+        .addAllFilesInDirectory(pluginDirectory);
+
+    File manifestFile = DeploymentManifest.getManifestFile(directory.toFile(), "plugin");
+    assertNull(DeploymentManifest.read(manifestFile));
+
+    DeploymentManifest.create(digests, classpath, pluginDirectory)
+        .write(manifestFile);
+    DeploymentManifest manifest = DeploymentManifest.read(manifestFile);
+    assertEquals(digests, manifest.getDigests());
+    assertEquals(1, manifest.getClasspath()
+        .size());
+    assertEquals("plugin.jar", manifest.getClasspath()
+        .iterator()
+        .next());
+  }
+
+}
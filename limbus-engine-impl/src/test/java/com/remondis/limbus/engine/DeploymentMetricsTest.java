@@ -0,0 +1,65 @@
+package com.remondis.limbus.engine;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertSame;
+
+import java.lang.reflect.Method;
+
+import org.junit.jupiter.api.Test;
+
+import com.remondis.limbus.api.Classpath;
+import com.remondis.limbus.api.metrics.MetricRegistry;
+import com.remondis.limbus.api.metrics.Metrics;
+import com.remondis.limbus.api.metrics.Timer;
+
+public class DeploymentMetricsTest {
+
+  private static final String PREFIX = "limbus.deployment.metricsTest";
+
+  @Test
+  public void shouldRegisterAndRemoveMetrics() throws Exception {
+    MetricRegistry registry = Metrics.getRegistry();
+    DeploymentMetrics metrics = new DeploymentMetrics(Classpath.create("metricsTest"));
+    Method method = Runnable.class.getMethod("run");
+    Timer timer = metrics.getCallTimer(method);
+    assertSame(timer, metrics.getCallTimer(method));
+    assertSame(metrics.getClassHits(), registry.getMetric(PREFIX + ".classes.hits"));
+    assertSame(metrics.getClassMisses(), registry.getMetric(PREFIX + ".classes.misses"));
+    assertSame(timer, registry.getMetric(PREFIX + ".calls.java.lang.Runnable.run"));
+
+    metrics.remove();
+    assertEquals(0, registry.getMetrics()
+        .tailMap(PREFIX + ".")
+        .headMap(PREFIX + "/")
+        .size());
+  }
+
+  @Test
+  public void shouldNotRemoveMetricsOfRedeployment() throws Exception {
+    MetricRegistry registry = Metrics.getRegistry();
+    DeploymentMetrics previous = new DeploymentMetrics(Classpath.create("metricsTest"));
+    DeploymentMetrics current = new DeploymentMetrics(Classpath.create("metricsTest"));
+    previous.remove();
+    assertSame(current.getClassHits(), registry.getMetric(PREFIX + ".classes.hits"));
+    current.remove();
+    assertNull(registry.getMetric(PREFIX + ".classes.hits"));
+  }
+
+  @Test
+  public void shouldNotRegisterMetricsWithoutDeployName() throws Exception {
+    int registered = Metrics.getRegistry()
+        .getMetrics()
+        .size();
+    DeploymentMetrics metrics = new DeploymentMetrics(Classpath.create());
+    metrics.getClassHits()
+        .increment();
+    metrics.getCallTimer(Runnable.class.getMethod("run"));
+    assertEquals(registered, Metrics.getRegistry()
+        .getMetrics()
+        .size());
+    assertEquals(1, metrics.getClassHits()
+        .getCount());
+  }
+
+}
@@ -0,0 +1,132 @@
+package com.remondis.limbus.engine;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertSame;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+import java.net.URL;
+import java.util.Arrays;
+import java.util.LinkedHashSet;
+import java.util.Set;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import com.remondis.limbus.api.Classpath;
+import com.remondis.limbus.files.InMemoryFilesystemImpl;
+
+@SuppressWarnings("rawtypes")
+public class LimbusContextInternalTest {
+
+  private static final String INITIAL = "initial";
+
+  private PluginClassLoader classloader;
+
+  private LimbusContextInternal context;
+
+  @BeforeEach
+  public void before() {
+    this.classloader = new PluginClassLoader(new InMemoryFilesystemImpl(),
+        LimbusContextInternalTest.class.getClassLoader(), new URL[0]);
+    classloader.deactivateCleaning();
+    this.context = new LimbusContextInternal(Classpath.create("test"), classloader);
+  }
+
+  @AfterEach
+  public void after() {
+    context.finish();
+  }
+
+  @Test
+  public void shouldSwitchContextClassLoader() {
+    ClassLoader before = Thread.currentThread()
+        .getContextClassLoader();
+    ClassLoader within = context.doContextAction(() -> Thread.currentThread()
+        .getContextClassLoader());
+    assertSame(classloader, within);
+    assertSame(before, Thread.currentThread()
+        .getContextClassLoader());
+  }
+
+  @Test
+  public void shouldRemoveAndRecordThreadLocalsAddedByAction() {
+    ThreadLocal<String> pluginThreadLocal = ThreadLocal.withInitial(() -> INITIAL);
+    context.doContextAction(() -> {
+      pluginThreadLocal.set("value");
+      return null;
+    });
+    assertThat(LimbusUtil.getCurrentThreadLocals()).doesNotContain(pluginThreadLocal);
+    assertThat(context.getThreadLocalsSet()).containsExactly(pluginThreadLocal);
+
+    // The recorded thread locals are added again during the next action.
+    boolean present = context.doContextAction(() -> LimbusUtil.getCurrentThreadLocals()
+        .contains(pluginThreadLocal));
+    assertThat(present).isTrue();
+    assertThat(LimbusUtil.getCurrentThreadLocals()).doesNotContain(pluginThreadLocal);
+  }
+
+  @Test
+  public void shouldKeepThreadLocalsPresentBefore() {
+    ThreadLocal<String> callerThreadLocal = ThreadLocal.withInitial(() -> INITIAL);
+    callerThreadLocal.set("caller");
+    try {
+      context.doContextAction(() -> {
+        callerThreadLocal.remove();
+        return null;
+      });
+      assertThat(LimbusUtil.getCurrentThreadLocals()).contains(callerThreadLocal);
+      assertThat(context.getThreadLocalsSet()).isEmpty();
+    } finally {
+      callerThreadLocal.remove();
+    }
+  }
+
+  @Test
+  public void shouldLeaveThreadUnchangedIfSwitchFails() {
+    ThreadLocal<String> pluginThreadLocal = ThreadLocal.withInitial(() -> INITIAL);
+    ThreadLocal<String> failingThreadLocal = ThreadLocal.withInitial(() -> {
+      throw new IllegalStateException("Plugin code failed.");
+    });
+    Set<ThreadLocal> recorded = new LinkedHashSet<>(Arrays.asList(pluginThreadLocal, failingThreadLocal));
+    context.setThreadLocalsSet(recorded);
+    ClassLoader before = Thread.currentThread()
+        .getContextClassLoader();
+
+    assertThrows(IllegalStateException.class, () -> context.doContextAction(() -> null));
+    assertEquals(0, ThreadContextSwitch.getNestingLevel());
+    assertSame(before, Thread.currentThread()
+        .getContextClassLoader());
+    assertThat(LimbusUtil.getCurrentThreadLocals()).doesNotContain(pluginThreadLocal, failingThreadLocal);
+    assertThat(context.getThreadLocalsSet()).containsExactlyInAnyOrderElementsOf(recorded);
+  }
+
+  @Test
+  public void shouldIsolateNestedActions() {
+    ThreadLocal<String> outer = ThreadLocal.withInitial(() -> INITIAL);
+    ThreadLocal<String> inner = ThreadLocal.withInitial(() -> INITIAL);
+    PluginClassLoader otherClassloader = new PluginClassLoader(new InMemoryFilesystemImpl(),
+        LimbusContextInternalTest.class.getClassLoader(), new URL[0]);
+    otherClassloader.deactivateCleaning();
+    LimbusContextInternal other = new LimbusContextInternal(Classpath.create("other"), otherClassloader);
+    try {
+      context.doContextAction(() -> {
+        outer.set("outer");
+        other.doContextAction(() -> {
+          inner.set("inner");
+          return null;
+        });
+        assertThat(LimbusUtil.getCurrentThreadLocals()).contains(outer)
+            .doesNotContain(inner);
+        assertSame(classloader, Thread.currentThread()
+            .getContextClassLoader());
+        return null;
+      });
+      assertThat(context.getThreadLocalsSet()).containsExactly(outer);
+      assertThat(other.getThreadLocalsSet()).containsExactly(inner);
+    } finally {
+      other.finish();
+    }
+  }
+}
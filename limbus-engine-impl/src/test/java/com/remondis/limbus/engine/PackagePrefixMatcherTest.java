@@ -0,0 +1,33 @@
+package com.remondis.limbus.engine;
+
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.util.Arrays;
+
+import org.junit.jupiter.api.Test;
+
+public class PackagePrefixMatcherTest {
+
+  private PackagePrefixMatcher matcher = PackagePrefixMatcher
+      .compile(Arrays.asList("com.remondis.limbus.api", "org.slf4j"));
+
+  @Test
+  public void shouldMatchClassNames() {
+    assertTrue(matcher.matchesClass("com.remondis.limbus.api.LimbusPlugin"));
+    assertTrue(matcher.matchesClass("org.slf4j.spi.LoggerFactoryBinder"));
+    assertFalse(matcher.matchesClass("com.remondis.limbus.apiextension.Plugin"));
+    assertFalse(matcher.matchesClass("com.remondis.limbus.api"));
+    assertFalse(matcher.matchesClass("com/remondis/limbus/api/LimbusPlugin"));
+    assertFalse(matcher.matchesClass(""));
+  }
+
+  @Test
+  public void shouldMatchResourcePaths() {
+    assertTrue(matcher.matchesResource("com/remondis/limbus/api/LimbusPlugin.class"));
+    assertTrue(matcher.matchesResource("org/slf4j/impl/StaticLoggerBinder.class"));
+    assertFalse(matcher.matchesResource("com/remondis/limbus/apiextension/Plugin.class"));
+    assertFalse(matcher.matchesResource("com.remondis.limbus.api.LimbusPlugin"));
+    assertFalse(matcher.matchesResource("META-INF/MANIFEST.MF"));
+  }
+}
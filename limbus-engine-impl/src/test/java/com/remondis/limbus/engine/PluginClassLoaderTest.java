@@ -0,0 +1,72 @@
+package com.remondis.limbus.engine;
+
+import static org.junit.jupiter.api.Assertions.assertSame;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+import java.io.InputStream;
+import java.net.URL;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import com.remondis.limbus.files.InMemoryFilesystemImpl;
+
+public class PluginClassLoaderTest {
+
+  private static final String GENERATED = Generated.class.getName();
+
+  private GeneratingClassLoader classloader;
+
+  @BeforeEach
+  public void before() {
+    // A parent delegating to the bootstrap classloader cannot see the test classes, so the class is unresolvable before
+    // it is defined.
+    this.classloader = new GeneratingClassLoader(new ClassLoader(null) {
+    });
+    classloader.deactivateCleaning();
+  }
+
+  @AfterEach
+  public void after() {
+    classloader.close();
+  }
+
+  @Test
+  public void shouldLoadClassDefinedAfterProbe() throws Exception {
+    assertThrows(ClassNotFoundException.class, () -> classloader.loadClass(GENERATED));
+    // The class is remembered to be unresolvable now.
+    assertThrows(ClassNotFoundException.class, () -> classloader.loadClass(GENERATED));
+
+    Class<?> defined = classloader.define(GENERATED, getBytecode(Generated.class));
+    assertSame(defined, classloader.loadClass(GENERATED));
+    assertSame(defined, Class.forName(GENERATED, false, classloader));
+  }
+
+  private static byte[] getBytecode(Class<?> type) throws Exception {
+    String resource = type.getName()
+        .replace('.', '/') + ".class";
+    try (InputStream input = PluginClassLoaderTest.class.getClassLoader()
+        .getResourceAsStream(resource)) {
+      return input.readAllBytes();
+    }
+  }
+
+  /**
+   * Defines classes like code generators do.
+   */
+  private static class GeneratingClassLoader extends PluginClassLoader {
+
+    GeneratingClassLoader(ClassLoader parent) {
+      super(new InMemoryFilesystemImpl(), parent, new URL[0]);
+    }
+
+    Class<?> define(String name, byte[] bytecode) {
+      return defineClass(name, bytecode, 0, bytecode.length);
+    }
+  }
+
+  public static class Generated {
+  }
+
+}
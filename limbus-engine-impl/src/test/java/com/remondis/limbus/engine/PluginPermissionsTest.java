@@ -0,0 +1,38 @@
+package com.remondis.limbus.engine;
+
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.io.FilePermission;
+import java.security.Permission;
+import java.util.Arrays;
+import java.util.PropertyPermission;
+
+import org.junit.jupiter.api.Test;
+
+public class PluginPermissionsTest {
+
+  @Test
+  public void shouldGrantPermissions() {
+    PluginPermissions permissions = new PluginPermissions(Arrays
+        .<Permission> asList(new FilePermission("/plugin/-", "read"), new PropertyPermission("plugin.*", "read")));
+
+    assertThrows(SecurityException.class, () -> permissions.getPermissionCollection()
+        .add(new FilePermission("/other", "read")));
+
+    for (int i = 0; i < 2; i++) {
+      // The second iteration uses the cached decisions.
+      assertTrue(permissions.implies(new FilePermission("/plugin/data/file.txt", "read")));
+      assertFalse(permissions.implies(new FilePermission("/plugin/data/file.txt", "write")));
+      assertFalse(permissions.implies(new FilePermission("/other/file.txt", "read")));
+      assertTrue(permissions.implies(new PropertyPermission("plugin.name", "read")));
+      assertFalse(permissions.implies(new RuntimePermission("exitVM")));
+    }
+
+    permissions.invalidate();
+    assertTrue(permissions.implies(new FilePermission("/plugin/data/file.txt", "read")));
+    assertFalse(PluginPermissions.NONE.implies(new FilePermission("/plugin/data/file.txt", "read")));
+  }
+
+}
@@ -0,0 +1,91 @@
+package com.remondis.limbus.engine;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNotSame;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertSame;
+
+import java.lang.ref.WeakReference;
+import java.lang.reflect.InvocationHandler;
+import java.net.URL;
+import java.net.URLClassLoader;
+
+import org.junit.jupiter.api.Test;
+
+public class PluginProxyCacheTest {
+
+  private static final String PLUGIN = "com.example.Plugin";
+
+  private final InvocationHandler handler = (proxy, method, args) -> null;
+
+  private final PluginProxyCache cache = new PluginProxyCache();
+
+  @Test
+  public void shouldReturnCachedProxy() {
+    ClassLoader classloader = PluginProxyCacheTest.class.getClassLoader();
+    Object proxy = cache.getProxy(PLUGIN, classloader, new Class<?>[] {
+        Service.class
+    }, handler);
+    assertSame(proxy, cache.getProxy(PLUGIN, classloader, new Class<?>[] {
+        Service.class
+    }, handler));
+    Object other = cache.getProxy(PLUGIN, classloader, new Class<?>[] {
+        Service.class, OtherService.class
+    }, handler);
+    assertEquals(2, cache.size());
+    assertNotSame(proxy, other);
+  }
+
+  @Test
+  public void shouldReleaseProxiesOfUndeployedClassloader() throws Exception {
+    try (URLClassLoader classloader = newClassLoader()) {
+      Object proxy = cache.getProxy(PLUGIN, classloader, new Class<?>[] {
+          Service.class
+      }, handler);
+      Object hostProxy = cache.getProxy(PLUGIN, PluginProxyCacheTest.class.getClassLoader(), new Class<?>[] {
+          Service.class
+      }, handler);
+
+      cache.release(classloader);
+      assertEquals(1, cache.size());
+      assertNotSame(proxy, cache.getProxy(PLUGIN, classloader, new Class<?>[] {
+          Service.class
+      }, handler));
+      assertSame(hostProxy, cache.getProxy(PLUGIN, PluginProxyCacheTest.class.getClassLoader(), new Class<?>[] {
+          Service.class
+      }, handler));
+    }
+  }
+
+  @Test
+  public void shouldNotRetainOtherClassloader() throws Exception {
+    WeakReference<ClassLoader> reference = defineProxyInOtherClassLoader();
+    for (int i = 0; i < 50 && reference.get() != null; i++) {
+      System.gc();
+      Thread.sleep(20);
+    }
+    assertNull(reference.get());
+    assertEquals(0, cache.size());
+  }
+
+  private WeakReference<ClassLoader> defineProxyInOtherClassLoader() throws Exception {
+    URLClassLoader classloader = newClassLoader();
+    cache.getProxy(PLUGIN, classloader, new Class<?>[] {
+        Service.class
+    }, handler);
+    classloader.close();
+    // The other deployment is not released explicitly.
+    return new WeakReference<>(classloader);
+  }
+
+  private static URLClassLoader newClassLoader() {
+    return new URLClassLoader(new URL[0], PluginProxyCacheTest.class.getClassLoader());
+  }
+
+  public interface Service {
+  }
+
+  public interface OtherService {
+  }
+
+}
@@ -0,0 +1,148 @@
+package com.remondis.limbus.engine.logging;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.nio.charset.StandardCharsets;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import org.junit.jupiter.api.Test;
+
+public class AsyncTargetWriterTest {
+
+  @Test
+  public void shouldWriteRecordsInOrder() throws Exception {
+    ByteArrayOutputStream target1 = new ByteArrayOutputStream();
+    ByteArrayOutputStream target2 = new ByteArrayOutputStream();
+    AsyncTargetWriter<OutputStream> writer = new AsyncTargetWriter<>(new OutputStreamTargetWriter(), 4, 1,
+        TimeUnit.SECONDS, OverflowPolicy.BLOCK);
+    try {
+      for (int i = 0; i < 100; i++) {
+        writer.writeTo(bytes("line" + i + "\n"), 0, bytes("line" + i + "\n").length, target1);
+        writer.writeTo('x', target2);
+      }
+      writer.drain();
+      StringBuilder expected = new StringBuilder();
+      for (int i = 0; i < 100; i++) {
+        expected.append("line" + i + "\n");
+      }
+      assertEquals(expected.toString(), target1.toString(StandardCharsets.UTF_8.name()));
+      assertEquals(100, target2.size());
+    } finally {
+      writer.shutdown();
+    }
+  }
+
+  @Test
+  public void shouldWriteConcurrentProducers() throws Exception {
+    ByteArrayOutputStream target = new ByteArrayOutputStream();
+    AsyncTargetWriter<OutputStream> writer = new AsyncTargetWriter<>(new OutputStreamTargetWriter(), 8, 1,
+        TimeUnit.MILLISECONDS, OverflowPolicy.BLOCK);
+    int producers = 4;
+    int records = 1000;
+    CountDownLatch done = new CountDownLatch(producers);
+    for (int p = 0; p < producers; p++) {
+      new Thread(() -> {
+        byte[] record = bytes("0123456789");
+        try {
+          for (int i = 0; i < records; i++) {
+            writer.writeTo(record, 0, record.length, target);
+          }
+        } catch (TargetWriteException e) {
+          throw new RuntimeException(e);
+        } finally {
+          done.countDown();
+        }
+      }).start();
+    }
+    done.await();
+    writer.shutdown();
+    assertEquals(producers * records * 10, target.size());
+  }
+
+  @Test
+  public void shouldWriteSynchronouslyAfterShutdown() throws Exception {
+    ByteArrayOutputStream target = new ByteArrayOutputStream();
+    AsyncTargetWriter<OutputStream> writer = new AsyncTargetWriter<>(new OutputStreamTargetWriter(), 4, 1,
+        TimeUnit.SECONDS, OverflowPolicy.DISCARD);
+    writer.shutdown();
+    writer.writeTo('x', target);
+    assertEquals(1, target.size());
+  }
+
+  @Test
+  public void shouldNotLoseOutputRacingShutdown() throws Exception {
+    ByteArrayOutputStream target = new ByteArrayOutputStream();
+    AsyncTargetWriter<OutputStream> writer = new AsyncTargetWriter<>(new OutputStreamTargetWriter(), 8, 1,
+        TimeUnit.MILLISECONDS, OverflowPolicy.BLOCK);
+    int producers = 4;
+    int records = 1000;
+    CountDownLatch started = new CountDownLatch(producers);
+    CountDownLatch done = new CountDownLatch(producers);
+    for (int p = 0; p < producers; p++) {
+      new Thread(() -> {
+        try {
+          started.countDown();
+          for (int i = 0; i < records; i++) {
+            writer.writeTo('x', target);
+          }
+        } catch (TargetWriteException e) {
+          throw new RuntimeException(e);
+        } finally {
+          done.countDown();
+        }
+      }).start();
+    }
+    started.await();
+    writer.shutdown();
+    done.await();
+    assertEquals(producers * records, target.size());
+  }
+
+  @Test
+  public void shouldCountFailedWrites() throws Exception {
+    OutputStream failing = new OutputStream() {
+
+      @Override
+      public void write(int b) throws IOException {
+        throw new IOException("Failing target.");
+      }
+    };
+    AsyncTargetWriter<OutputStream> writer = new AsyncTargetWriter<>(new OutputStreamTargetWriter(), 4, 1,
+        TimeUnit.SECONDS, OverflowPolicy.BLOCK);
+    try {
+      writer.writeTo('x', failing);
+      writer.drain();
+      writer.writeTo('x', failing);
+      writer.drain();
+      assertEquals(2, writer.getFailedWrites());
+    } finally {
+      writer.shutdown();
+    }
+  }
+
+  @Test
+  public void shouldDestroyTargetAfterPendingOutput() throws Exception {
+    ByteArrayOutputStream target = new ByteArrayOutputStream();
+    AsyncTargetWriter<OutputStream> writer = new AsyncTargetWriter<>(new OutputStreamTargetWriter(), 4, 1,
+        TimeUnit.SECONDS, OverflowPolicy.BLOCK);
+    try {
+      AtomicInteger sizeOnDestroy = new AtomicInteger();
+      for (int i = 0; i < 10; i++) {
+        writer.writeTo('x', target);
+      }
+      writer.destroy(target, t -> sizeOnDestroy.set(target.size()));
+      assertEquals(10, sizeOnDestroy.get());
+    } finally {
+      writer.shutdown();
+    }
+  }
+
+  private static byte[] bytes(String string) {
+    return string.getBytes(StandardCharsets.UTF_8);
+  }
+}
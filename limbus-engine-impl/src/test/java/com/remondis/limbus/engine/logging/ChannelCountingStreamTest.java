@@ -0,0 +1,47 @@
+package com.remondis.limbus.engine.logging;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertSame;
+
+import java.io.ByteArrayOutputStream;
+import java.net.URL;
+import java.net.URLClassLoader;
+
+import org.junit.jupiter.api.Test;
+
+import com.remondis.limbus.api.metrics.Counter;
+
+public class ChannelCountingStreamTest {
+
+  @Test
+  public void shouldCountBytesPerChannel() throws Exception {
+    ByteArrayOutputStream output = new ByteArrayOutputStream();
+    Counter defaultCounter = new Counter();
+    Counter channelCounter = new Counter();
+    try (URLClassLoader classloader = new URLClassLoader(new URL[0]);
+        ChannelCountingStream stream = new ChannelCountingStream(output, defaultCounter)) {
+      stream.addCounter(System.identityHashCode(classloader), channelCounter);
+      stream.write(new byte[] {
+          1, 2, 3
+      });
+
+      Thread thread = Thread.currentThread();
+      ClassLoader contextClassLoader = thread.getContextClassLoader();
+      thread.setContextClassLoader(classloader);
+      try {
+        stream.write(4);
+        stream.write(new byte[] {
+            5, 6, 7, 8
+        }, 1, 2);
+        assertSame(channelCounter, stream.removeCounter(System.identityHashCode(classloader)));
+        stream.write(9);
+      } finally {
+        thread.setContextClassLoader(contextClassLoader);
+      }
+    }
+    assertEquals(4, defaultCounter.getCount());
+    assertEquals(3, channelCounter.getCount());
+    assertEquals(7, output.size());
+  }
+
+}
@@ -0,0 +1,175 @@
+package com.remondis.limbus.engine.logging;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+import java.io.ByteArrayOutputStream;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.io.PrintStream;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.zip.GZIPInputStream;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import com.remondis.limbus.files.FileAccessException;
+import com.remondis.limbus.files.InMemoryFilesystemImpl;
+import com.remondis.limbus.files.LimbusFileService;
+
+public class RollingFileOutputStreamTest {
+
+  private static final String LINE = "0123456789";
+
+  private InMemoryFilesystemImpl fs;
+
+  @BeforeEach
+  public void before() throws Exception {
+    this.fs = new InMemoryFilesystemImpl();
+    this.fs.initialize();
+    fs.createFolder(LimbusFileService.LOGGING_DIRECTORY, false);
+  }
+
+  @AfterEach
+  public void after() {
+    this.fs.finish();
+  }
+
+  @Test
+  public void shouldWriteBufferedOutput() throws Exception {
+    RollingFileOutputStream out = new RollingFileOutputStream(fs, "test", true, 16, 0, false);
+    String file = out.getCurrentFilename();
+    try (PrintStream ps = new PrintStream(out)) {
+      for (int i = 0; i < 10; i++) {
+        ps.println(LINE);
+      }
+    }
+    assertEquals(10 * (LINE.length() + System.lineSeparator()
+        .length()), fs.getFileContent(file).length);
+  }
+
+  @Test
+  public void shouldRotateBySizeAndCompress() throws Exception {
+    RollingFileOutputStream out = new RollingFileOutputStream(fs, "test", true, 8, 25, true);
+    String file = out.getCurrentFilename();
+    byte[] line = LINE.getBytes(StandardCharsets.UTF_8);
+    out.write(line);
+    out.write(line);
+    // Exceeds the maximum file size and causes a rotation.
+    out.write(line);
+    out.close();
+
+    assertThat(fs.getFileContent(file)).isEqualTo(line);
+
+    String compressed = awaitCompressedFile();
+    try (InputStream input = new GZIPInputStream(fs.getFileAsStream(compressed))) {
+      ByteArrayOutputStream content = new ByteArrayOutputStream();
+      input.transferTo(content);
+      assertEquals(LINE + LINE, content.toString(StandardCharsets.UTF_8.name()));
+    }
+  }
+
+  @Test
+  public void shouldDeleteOldestRetiredFiles() throws Exception {
+    RollingFileOutputStream out = new RollingFileOutputStream(fs, "test", true, 8, 25, false);
+    out.setMaxRetiredFiles(2);
+    String file = out.getCurrentFilename();
+    for (int i = 0; i < 6; i++) {
+      byte[] line = String.format("%010d", i)
+          .getBytes(StandardCharsets.UTF_8);
+      // The first write of every round rotates the log file.
+      out.write(line);
+      out.write(line);
+      // Retired log files are named by the time of the rotation.
+      Thread.sleep(2);
+    }
+    out.close();
+
+    long timeout = System.currentTimeMillis() + 5000;
+    List<String> entries = fs.getFolderEntries(LimbusFileService.LOGGING_DIRECTORY);
+    while (entries.size() > 3 && System.currentTimeMillis() < timeout) {
+      Thread.sleep(10);
+      entries = fs.getFolderEntries(LimbusFileService.LOGGING_DIRECTORY);
+    }
+    assertEquals(3, entries.size());
+    List<String> retained = new ArrayList<>();
+    for (String entry : entries) {
+      String filepath = fs.toPath(LimbusFileService.LOGGING_DIRECTORY, entry);
+      if (!filepath.equals(file)) {
+        retained.add(new String(fs.getFileContent(filepath), StandardCharsets.UTF_8));
+      }
+    }
+    assertThat(retained).containsExactlyInAnyOrder("00000000030000000003", "00000000040000000004");
+  }
+
+  @Test
+  public void shouldWriteToFileAgainWhenRotating() throws Exception {
+    AtomicBoolean failing = new AtomicBoolean(true);
+    InMemoryFilesystemImpl failingFs = new InMemoryFilesystemImpl() {
+
+      @Override
+      public OutputStream createFile(String filePath, boolean append) throws FileAccessException {
+        if (failing.get()) {
+          throw new FileAccessException("Cannot create file.");
+        }
+        return super.createFile(filePath, append);
+      }
+    };
+    failingFs.initialize();
+    try {
+      failingFs.createFolder(LimbusFileService.LOGGING_DIRECTORY, false);
+      RollingFileOutputStream out = new RollingFileOutputStream(failingFs, "test", true, 8, 25, false);
+      ByteArrayOutputStream fallback = new ByteArrayOutputStream();
+      out.setFallback(fallback);
+      byte[] line = LINE.getBytes(StandardCharsets.UTF_8);
+      out.write(line);
+      failing.set(false);
+      out.write(line);
+      out.write(line);
+      // The log file would have been rotated, so opening it is retried.
+      out.write(line);
+      out.close();
+      assertEquals(LINE + LINE + LINE, fallback.toString(StandardCharsets.UTF_8.name()));
+      assertThat(failingFs.getFileContent(out.getCurrentFilename())).isEqualTo(line);
+    } finally {
+      failingFs.finish();
+    }
+  }
+
+  private String awaitCompressedFile() throws Exception {
+    long timeout = System.currentTimeMillis() + 5000;
+    while (System.currentTimeMillis() < timeout) {
+      List<String> entries = fs.getFolderEntries(LimbusFileService.LOGGING_DIRECTORY);
+      for (String entry : entries) {
+        if (entry.endsWith(".gz") && entries.size() == 2) {
+          return fs.toPath(LimbusFileService.LOGGING_DIRECTORY, entry);
+        }
+      }
+      Thread.sleep(10);
+    }
+    throw new AssertionError("The retired log file was not compressed.");
+  }
+
+  @Test
+  public void shouldRedirectToFallbackIfFileCannotBeOpened() throws Exception {
+    InMemoryFilesystemImpl failingFs = new InMemoryFilesystemImpl() {
+
+      @Override
+      public OutputStream createFile(String filePath, boolean append) throws FileAccessException {
+        throw new FileAccessException("Cannot create file.");
+      }
+    };
+    RollingFileOutputStream out = new RollingFileOutputStream(failingFs, "test", true, 16, 0, false);
+    ByteArrayOutputStream fallback = new ByteArrayOutputStream();
+    out.setFallback(fallback);
+    out.write(LINE.getBytes(StandardCharsets.UTF_8));
+    out.write('\n');
+    out.close();
+    assertEquals(LINE + "\n", fallback.toString(StandardCharsets.UTF_8.name()));
+  }
+
+}
@@ -0,0 +1,112 @@
+package com.remondis.limbus.engine.security;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+import java.io.FilePermission;
+import java.nio.charset.StandardCharsets;
+import java.util.List;
+import java.util.PropertyPermission;
+import java.util.concurrent.CountDownLatch;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import com.remondis.limbus.files.InMemoryFilesystemImpl;
+import com.remondis.limbus.files.LimbusFileService;
+
+public class SecurityAuditTest {
+
+  private InMemoryFilesystemImpl fs;
+
+  private SecurityAudit audit;
+
+  @BeforeEach
+  public void before() throws Exception {
+    this.fs = new InMemoryFilesystemImpl();
+    this.fs.initialize();
+    this.audit = new SecurityAudit(fs, "audit", 16, 10, 0, false);
+  }
+
+  @AfterEach
+  public void after() {
+    audit.shutdown();
+    this.fs.finish();
+  }
+
+  @Test
+  public void shouldWriteAndCountDecisions() throws Exception {
+    audit.setStackSampleInterval(2);
+    FilePermission file = new FilePermission("/etc/passwd", "read");
+    for (int i = 0; i < 3; i++) {
+      audit.record(AuditDecision.DENIED, file, "plugin", "file:/plugin.jar", true);
+    }
+    audit.record(AuditDecision.GRANTED, file, "plugin", "file:/plugin.jar", false);
+    audit.record(AuditDecision.GRANTED, new PropertyPermission("user.home", "read"), null, null, false);
+    // The in-memory filesystem stores the file content on close.
+    audit.shutdown();
+
+    List<AuditCounter> counters = audit.getCounters("plugin");
+    assertEquals(1, counters.size());
+    AuditCounter counter = counters.get(0);
+    assertEquals(FilePermission.class, counter.getPermissionType());
+    assertEquals(3, counter.getDenied());
+    assertEquals(1, counter.getGranted());
+    assertEquals(2, audit.getCounters()
+        .size());
+    assertEquals(PropertyPermission.class, audit.getCounters(null)
+        .get(0)
+        .getPermissionType());
+
+    String content = new String(fs.getFileContent(fs.toPath(LimbusFileService.LOGGING_DIRECTORY, "audit.out")),
+        StandardCharsets.UTF_8);
+    assertThat(content).contains("DENIED deployment=plugin")
+        .contains("codeSource=file:/plugin.jar")
+        .contains("GRANTED deployment=- ")
+        .contains("/etc/passwd");
+    // The first and the third denied request are sampled.
+    assertEquals(2, content.split(SecurityAuditTest.class.getName()).length - 1);
+  }
+
+  @Test
+  public void shouldCountDiscardedEvents() throws Exception {
+    audit.shutdown();
+    audit.record(AuditDecision.DENIED, new FilePermission("/tmp", "write"), "plugin", null, false);
+    assertEquals(1, audit.getDiscardedEvents());
+    assertEquals(1, audit.getCounters("plugin")
+        .get(0)
+        .getDenied());
+  }
+
+  @Test
+  public void shouldWriteOrDiscardEventsRacingShutdown() throws Exception {
+    int threads = 4;
+    int events = 500;
+    FilePermission file = new FilePermission("/tmp", "write");
+    // The audit file is created by the first write.
+    audit.record(AuditDecision.DENIED, file, "plugin", null, false);
+    audit.drain();
+    CountDownLatch started = new CountDownLatch(threads);
+    CountDownLatch done = new CountDownLatch(threads);
+    for (int t = 0; t < threads; t++) {
+      new Thread(() -> {
+        started.countDown();
+        for (int i = 0; i < events; i++) {
+          audit.record(AuditDecision.DENIED, file, "plugin", null, false);
+        }
+        done.countDown();
+      }).start();
+    }
+    started.await();
+    audit.shutdown();
+    done.await();
+
+    String content = new String(fs.getFileContent(fs.toPath(LimbusFileService.LOGGING_DIRECTORY, "audit.out")),
+        StandardCharsets.UTF_8);
+    long written = content.split("DENIED deployment=plugin").length - 1;
+    // Every event is either written before shutdown completed or counted as discarded.
+    assertEquals(threads * events + 1, written + audit.getDiscardedEvents());
+  }
+
+}
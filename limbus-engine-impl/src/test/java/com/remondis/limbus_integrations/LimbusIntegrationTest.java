@@ -6,6 +6,10 @@ import static org.junit.jupiter.api.Assertions.assertNotNull;
 import static org.junit.jupiter.api.Assertions.assertTrue;
 import static org.junit.jupiter.api.Assertions.fail;
 
+import java.lang.reflect.Method;
+import java.util.LinkedList;
+import java.util.List;
+
 import org.junit.jupiter.api.AfterAll;
 import org.junit.jupiter.api.AfterEach;
 import org.junit.jupiter.api.BeforeAll;
@@ -18,8 +22,10 @@ import com.remondis.limbus.api.Classpath;
 import com.remondis.limbus.api.LimbusPlugin;
 import com.remondis.limbus.engine.LimbusDefaultComponents;
 import com.remondis.limbus.engine.api.DeploymentListener;
+import com.remondis.limbus.engine.api.Interception;
 import com.remondis.limbus.engine.api.InvocationResult;
 import com.remondis.limbus.engine.api.LimbusEngine;
+import com.remondis.limbus.engine.api.LimbusLifecycleHook;
 import com.remondis.limbus.engine.api.UndeployVetoException;
 import com.remondis.limbus.engine.api.Veto;
 import com.remondis.limbus.files.InMemoryFilesystemImpl;
@@ -115,6 +121,41 @@ public class LimbusIntegrationTest implements DeploymentListener {
     engine.undeployPlugin(classpath);
   }
 
+  @Test
+  public void shouldDispatchPluginProxyCalls() throws Exception {
+    LimbusStagingDeployment deployment = stage.createDeployment(DEPLOY_NAME)
+        .andClasses(TestPlugin.class);
+    stage.deploy(deployment);
+
+    Classpath classpath = engine.getClasspath(DEPLOY_NAME);
+    List<String> calls = new LinkedList<>();
+    LimbusLifecycleHook<LimbusPlugin> lifecycleHook = new LimbusLifecycleHook<LimbusPlugin>() {
+
+      @Override
+      public void preInitialize(LimbusPlugin limbusPlugin) throws Exception {
+        calls.add("preInitialize");
+      }
+
+      @Override
+      public void postFinish(LimbusPlugin limbusPlugin) {
+        calls.add("postFinish");
+      }
+
+      @Override
+      public Object withinContextInvocation(Classpath classpath, Object plugin, Object proxy, Method method,
+          Object[] args, Interception interception) throws Throwable {
+        calls.add(method.getName());
+        return interception.proceed();
+      }
+    };
+    LimbusPlugin plugin = engine.getPlugin(classpath, TestPlugin.class.getName(), LimbusPlugin.class, lifecycleHook);
+    assertThat(plugin.toString()).startsWith(TestPlugin.class.getName());
+    plugin.finish();
+    assertThat(calls).containsExactly("preInitialize", "initialize", "toString", "postFinish", "finish");
+
+    engine.undeployPlugin(classpath);
+  }
+
   @Override
   public void classpathUndeploying(Classpath classpath, Veto veto) {
     if (undeployVeto) {
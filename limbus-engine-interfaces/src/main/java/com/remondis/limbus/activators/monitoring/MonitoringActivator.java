@@ -1,8 +1,12 @@
 package com.remondis.limbus.activators.monitoring;
 
+import com.remondis.limbus.api.metrics.MetricRegistry;
+import com.remondis.limbus.api.metrics.Metrics;
+
 /**
  * This interface defines the Limbus Monitoring Facade activator. It is used to initialize the monitoring with a valid
- * configuration.
+ * configuration. Activators are found using the {@link java.util.ServiceLoader} and receive the {@link MetricRegistry}
+ * the Limbus Engine records its metrics to, so they can export the metrics, for example using JMX or to a file.
  *
  * @author schuettec
  *
@@ -10,9 +14,23 @@ package com.remondis.limbus.activators.monitoring;
 public interface MonitoringActivator {
 
   /**
-   * Initializes the monitoring and if not successfull defaults to a No-Op state.
+   * Initializes the monitoring and if not successfull defaults to a No-Op state. The default implementation calls
+   * {@link #initializeMonitoring()}.
+   *
+   * @param registry
+   *        The registry of the metrics recorded by the Limbus Engine. This is the registry provided by
+   *        {@link Metrics#getRegistry()}.
+   */
+  public default void initializeMonitoring(MetricRegistry registry) {
+    initializeMonitoring();
+  }
+
+  /**
+   * Initializes the monitoring and if not successfull defaults to a No-Op state. Activators exporting the metrics of
+   * the Limbus Engine implement {@link #initializeMonitoring(MetricRegistry)} instead.
    */
-  public void initializeMonitoring();
+  public default void initializeMonitoring() {
+  }
 
   /**
    * Finishes the monitoring and frees all resources.
@@ -5,6 +5,12 @@ import com.remondis.limbus.api.Classpath;
 /**
  * Listener interface to receive deployment events.
  *
+ * <p>
+ * Listeners may deploy or undeploy other classpaths synchronously. Such a nested operation waits for concurrent
+ * operations on the same classpath. It is rejected with an {@link IllegalStateException} if two threads would wait for
+ * each other's deployments.
+ * </p>
+ *
  * @author schuettec
  *
  */
@@ -1,5 +1,7 @@
 package com.remondis.limbus.engine.api.maven;
 
+import java.util.Objects;
+
 /**
  * Simple Java Bean implementation of {@link MavenArtifact}.
  */
@@ -72,6 +74,25 @@ public class MavenCoordinates {
     this.extension = extension;
   }
 
+  @Override
+  public int hashCode() {
+    return Objects.hash(groupId, artifactId, version, classifier, extension);
+  }
+
+  @Override
+  public boolean equals(Object obj) {
+    if (this == obj) {
+      return true;
+    }
+    if (obj == null || getClass() != obj.getClass()) {
+      return false;
+    }
+    MavenCoordinates other = (MavenCoordinates) obj;
+    return Objects.equals(groupId, other.groupId) && Objects.equals(artifactId, other.artifactId)
+        && Objects.equals(version, other.version) && Objects.equals(classifier, other.classifier)
+        && Objects.equals(extension, other.extension);
+  }
+
   @Override
   public String toString() {
     return "Maven artifact: " + groupId + ":" + artifactId + ":" + version + " (extension: " + extension
@@ -18,6 +18,14 @@ public interface AsyncEventMulticaster<I> extends EventMulticaster<I>, AutoClose
    */
   public boolean isClosed();
 
+  /**
+   * @return Returns the number of events published but not yet delivered to all subscribers. Returns <code>0</code> if
+   *         the implementation does not track the queue depth.
+   */
+  public default long getQueueDepth() {
+    return 0;
+  }
+
   /**
    * @return Returns <code>true</code> if this multicaster is open and ready for use, otherwise returns
    *         <code>false</code>.
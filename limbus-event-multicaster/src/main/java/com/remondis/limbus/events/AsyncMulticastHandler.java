@@ -7,14 +7,25 @@ import java.security.AccessController;
 import java.security.PrivilegedAction;
 import java.util.concurrent.ExecutorService;
 import java.util.concurrent.Executors;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.atomic.AtomicLong;
 
 public class AsyncMulticastHandler<I> extends MulticastHandler<I> implements AsyncEventMulticaster<I> {
 
   private ExecutorService executor;
-  private boolean closed = true;
+  private volatile boolean closed = false;
+
+  /**
+   * The number of events submitted to the executor that were not multicasted yet.
+   */
+  private final AtomicLong pending = new AtomicLong();
+
+  private final Class<?> subscriberInterface;
 
   AsyncMulticastHandler(Class subscriberInterface) {
     super(subscriberInterface);
+    this.subscriberInterface = subscriberInterface;
+    QueueDepthGauge.register(subscriberInterface, this);
     this.executor = AccessController.doPrivileged(new PrivilegedAction<ExecutorService>() {
 
       @Override
@@ -35,7 +46,7 @@ public class AsyncMulticastHandler<I> extends MulticastHandler<I> implements Asy
 
           @Override
           public Void run() {
-            executor.submit(new Runnable() {
+            submit(new Runnable() {
 
               @Override
               public void run() {
@@ -69,7 +80,7 @@ public class AsyncMulticastHandler<I> extends MulticastHandler<I> implements Asy
 
           @Override
           public Void run() {
-            executor.submit(new Runnable() {
+            submit(new Runnable() {
 
               @Override
               public void run() {
@@ -94,10 +105,38 @@ public class AsyncMulticastHandler<I> extends MulticastHandler<I> implements Asy
     };
   }
 
+  /**
+   * Submits the multicast of an event to the executor and keeps track of the number of pending events.
+   */
+  private void submit(Runnable multicast) {
+    pending.incrementAndGet();
+    try {
+      executor.submit(new Runnable() {
+
+        @Override
+        public void run() {
+          try {
+            multicast.run();
+          } finally {
+            pending.decrementAndGet();
+          }
+        }
+      });
+    } catch (RejectedExecutionException e) {
+      pending.decrementAndGet();
+      throw e;
+    }
+  }
+
   public boolean isClosed() {
     return closed;
   }
 
+  @Override
+  public long getQueueDepth() {
+    return pending.get();
+  }
+
   @Override
   public void close() throws Exception {
     this.closed = true;
@@ -109,6 +148,7 @@ public class AsyncMulticastHandler<I> extends MulticastHandler<I> implements Asy
         return null;
       }
     });
+    QueueDepthGauge.unregister(subscriberInterface, this);
   }
 
 }
@@ -11,6 +11,11 @@ import com.remondis.limbus.utils.ReflectionUtil;
  */
 public class EventMulticasterFactory {
 
+  /**
+   * The default capacity of ring buffer backed event multicasters.
+   */
+  public static final int DEFAULT_RING_BUFFER_CAPACITY = 1024;
+
   /**
    * Creates an {@link EventMulticaster} for the specified subscriber type. The {@link EventMulticaster} created will
    * forward thrown exceptions from subscribers. <b>Note: An exception aborts the notifaction of further
@@ -49,4 +54,78 @@ public class EventMulticasterFactory {
     return handler;
   }
 
+  /**
+   * Creates an <b>asynchronous</b> {@link EventMulticaster} for the specified subscriber type that publishes the
+   * events into a ring buffer with the default capacity of {@value #DEFAULT_RING_BUFFER_CAPACITY} events. If the ring
+   * buffer is full, publishers wait for the subscribers ({@link OverflowPolicy#BLOCK}). Idle subscribers release their
+   * thread immediately ({@link WaitStrategy#BLOCKING}).
+   *
+   * @param subscriberType
+   *        The subscriber interface.
+   *
+   * @return Returns the {@link EventMulticaster}.
+   * @see #createRingBuffer(Class, int, OverflowPolicy, WaitStrategy, int)
+   */
+  public static <I> AsyncEventMulticaster<I> createRingBuffer(Class<I> subscriberType) {
+    return createRingBuffer(subscriberType, DEFAULT_RING_BUFFER_CAPACITY, OverflowPolicy.BLOCK, WaitStrategy.BLOCKING);
+  }
+
+  /**
+   * Creates an <b>asynchronous</b> {@link EventMulticaster} for the specified subscriber type that publishes the
+   * events into a preallocated ring buffer. The subscribers are notified by at most as many threads as there are
+   * processors, but at least two.
+   *
+   * @param subscriberType
+   *        The subscriber interface.
+   * @param capacity
+   *        The number of events the ring buffer can hold. Rounded up to the next power of two.
+   * @param overflowPolicy
+   *        The policy applied if the ring buffer is full.
+   * @param waitStrategy
+   *        The strategy used by the subscribers to wait for new events.
+   *
+   * @return Returns the {@link EventMulticaster}.
+   * @see #createRingBuffer(Class, int, OverflowPolicy, WaitStrategy, int)
+   */
+  public static <I> AsyncEventMulticaster<I> createRingBuffer(Class<I> subscriberType, int capacity,
+      OverflowPolicy overflowPolicy, WaitStrategy waitStrategy) {
+    int threads = Math.max(2, Runtime.getRuntime()
+        .availableProcessors());
+    return createRingBuffer(subscriberType, capacity, overflowPolicy, waitStrategy, threads);
+  }
+
+  /**
+   * Creates an <b>asynchronous</b> {@link EventMulticaster} for the specified subscriber type that publishes the
+   * events into a preallocated ring buffer.
+   *
+   * <p>
+   * Every subscriber is notified in the order the events were published. The subscribers share a pool of threads that
+   * is bounded by the specified number of threads. A subscriber occupies at most one thread, so a slow subscriber
+   * does not delay the other subscribers as long as threads are left. Exceptions thrown by subscribers are logged and
+   * do not abort the notification of further subscribers. If the slowest subscriber falls behind by the capacity of
+   * the ring buffer, the specified {@link OverflowPolicy} is applied.
+   * </p>
+   *
+   * @param subscriberType
+   *        The subscriber interface.
+   * @param capacity
+   *        The number of events the ring buffer can hold. Rounded up to the next power of two.
+   * @param overflowPolicy
+   *        The policy applied if the ring buffer is full.
+   * @param waitStrategy
+   *        The strategy used by the subscribers to wait for new events.
+   * @param threads
+   *        The maximum number of threads notifying the subscribers. Idle threads terminate.
+   *
+   * @return Returns the {@link EventMulticaster}.
+   */
+  public static <I> AsyncEventMulticaster<I> createRingBuffer(Class<I> subscriberType, int capacity,
+      OverflowPolicy overflowPolicy, WaitStrategy waitStrategy, int threads) {
+    Lang.denyNull("subscriber type", subscriberType);
+    Lang.denyNull("overflow policy", overflowPolicy);
+    Lang.denyNull("wait strategy", waitStrategy);
+    ReflectionUtil.denyNotInterface(subscriberType);
+    return new RingBufferMulticastHandler<I>(subscriberType, capacity, overflowPolicy, waitStrategy, threads);
+  }
+
 }
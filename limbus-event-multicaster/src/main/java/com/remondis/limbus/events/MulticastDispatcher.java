@@ -0,0 +1,136 @@
+package com.remondis.limbus.events;
+
+import java.lang.invoke.MethodHandle;
+import java.lang.invoke.MethodHandles;
+import java.lang.invoke.MethodType;
+import java.lang.reflect.InvocationTargetException;
+import java.lang.reflect.Method;
+import java.lang.reflect.Modifier;
+import java.util.HashMap;
+import java.util.Map;
+
+/**
+ * The dispatcher holds an {@link Invoker} for every method of a subscriber interface. The invokers are compiled once
+ * per subscriber interface to {@link MethodHandle}s that call the subscriber methods directly. This avoids the access
+ * checks and argument checks of {@link Method#invoke(Object, Object...)} on every event.
+ *
+ * <p>
+ * If a subscriber interface is not accessible for method handles, for example because it is not exported by its
+ * module, the invokers fall back to reflection.
+ * </p>
+ */
+final class MulticastDispatcher {
+
+  private static final ClassValue<MulticastDispatcher> DISPATCHERS = new ClassValue<MulticastDispatcher>() {
+
+    @Override
+    protected MulticastDispatcher computeValue(Class<?> subscriberInterface) {
+      return new MulticastDispatcher(subscriberInterface);
+    }
+  };
+
+  /**
+   * An invoker calls a single method of the subscriber interface on a subscriber.
+   */
+  interface Invoker {
+
+    /**
+     * Calls the method on the specified subscriber.
+     *
+     * @param subscriber
+     *        The subscriber.
+     * @param args
+     *        The arguments of the method call as passed to a proxy invocation handler. May be <code>null</code> if the
+     *        method does not declare parameters.
+     * @throws InvocationTargetException
+     *         Thrown if the subscriber method threw an exception. The cause is the exception of the subscriber.
+     * @throws Throwable
+     *         Thrown if the method cannot be called on the subscriber.
+     */
+    void invoke(Object subscriber, Object[] args) throws Throwable;
+  }
+
+  /**
+   * Wraps the exceptions thrown by the subscriber methods, so they can be told apart from dispatch failures.
+   */
+  private static final MethodHandle WRAP_TARGET_EXCEPTION;
+
+  static {
+    try {
+      WRAP_TARGET_EXCEPTION = MethodHandles.lookup()
+          .findStatic(MulticastDispatcher.class, "wrapTargetException",
+              MethodType.methodType(void.class, Throwable.class));
+    } catch (ReflectiveOperationException e) {
+      throw new ExceptionInInitializerError(e);
+    }
+  }
+
+  private final Map<Method, Invoker> invokers;
+
+  private MulticastDispatcher(Class<?> subscriberInterface) {
+    Map<Method, Invoker> invokers = new HashMap<>();
+    for (Method method : subscriberInterface.getMethods()) {
+      if (!Modifier.isStatic(method.getModifiers())) {
+        invokers.put(method, compile(method));
+      }
+    }
+    this.invokers = invokers;
+  }
+
+  /**
+   * @param subscriberInterface
+   *        The subscriber interface.
+   * @return Returns the dispatcher for the specified subscriber interface. The dispatcher is created once per
+   *         interface.
+   */
+  static MulticastDispatcher of(Class<?> subscriberInterface) {
+    return DISPATCHERS.get(subscriberInterface);
+  }
+
+  /**
+   * @param method
+   *        A method of the subscriber interface.
+   * @return Returns the invoker for the specified method.
+   */
+  Invoker getInvoker(Method method) {
+    Invoker invoker = invokers.get(method);
+    if (invoker == null) {
+      // The method was not declared by the subscriber interface.
+      return reflective(method);
+    }
+    return invoker;
+  }
+
+  private static Invoker compile(Method method) {
+    MethodHandle handle;
+    try {
+      handle = MethodHandles.publicLookup()
+          .unreflect(method);
+    } catch (IllegalAccessException e) {
+      return reflective(method);
+    }
+    int parameterCount = method.getParameterCount();
+    // Only exceptions of the subscriber method are wrapped, not the failures of the type adaptation below.
+    MethodType type = handle.type();
+    MethodHandle wrap = WRAP_TARGET_EXCEPTION.asType(MethodType.methodType(type.returnType(), Throwable.class));
+    wrap = MethodHandles.dropArguments(wrap, 1, type.parameterList());
+    MethodHandle guarded = MethodHandles.catchException(handle, Throwable.class, wrap);
+    // Adapt the method handle to (Object subscriber, Object[] args)Object, so it can be invoked exactly.
+    MethodHandle invoker = guarded.asType(MethodType.genericMethodType(parameterCount + 1))
+        .asSpreader(Object[].class, parameterCount);
+    return (subscriber, args) -> {
+      Object ignored = invoker.invokeExact(subscriber, args);
+    };
+  }
+
+  private static Invoker reflective(Method method) {
+    return (subscriber, args) -> {
+      method.invoke(subscriber, args);
+    };
+  }
+
+  private static void wrapTargetException(Throwable e) throws InvocationTargetException {
+    throw new InvocationTargetException(e);
+  }
+
+}
@@ -6,18 +6,19 @@ import java.lang.reflect.Method;
 import java.lang.reflect.Proxy;
 import java.util.Arrays;
 import java.util.HashSet;
-import java.util.Iterator;
+import java.util.Objects;
 import java.util.Set;
-import java.util.concurrent.ConcurrentLinkedQueue;
 
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
+import com.remondis.limbus.events.MulticastDispatcher.Invoker;
 import com.remondis.limbus.utils.ReflectionUtil;
 
 /**
  * Implementation of an {@link EventMulticaster} that uses {@link Proxy}-classes to multicast event calls to
- * subscribers.
+ * subscribers. The subscriber methods are called through a {@link MulticastDispatcher} that is created once per
+ * subscriber interface.
  * <p>
  * <b>Note: The {@link EventMulticaster} can be configured to act in to different ways:
  * <ul>
@@ -36,7 +37,15 @@ class MulticastHandler<I> implements EventMulticaster<I> {
 
   protected static final Logger log = LoggerFactory.getLogger(MulticastHandler.class);
 
-  private ConcurrentLinkedQueue<I> subscribers;
+  private static final Object[] NO_SUBSCRIBERS = new Object[0];
+
+  private final MulticastDispatcher dispatcher;
+
+  /**
+   * The subscribers are held in an immutable array that is replaced on every modification. This way events are
+   * dispatched without locking, while subscribers are modified rarely.
+   */
+  private volatile Object[] subscribers = NO_SUBSCRIBERS;
 
   private I localProxy;
   private I silentLocalProxy;
@@ -46,18 +55,17 @@ class MulticastHandler<I> implements EventMulticaster<I> {
 
       @Override
       public Object invoke(Object proxy, Method method, Object[] args) throws Throwable {
-        Iterator<I> it = subscribers.iterator();
-        while (it.hasNext()) {
-          I subscriber = it.next();
-
+        if (isObjectMethod(method)) {
+          return invokeObjectMethod(proxy, method, args);
+        }
+        Invoker invoker = dispatcher.getInvoker(method);
+        for (Object subscriber : subscribers) {
           try {
-            method.invoke(subscriber, args);
+            invoker.invoke(subscriber, args);
           } catch (InvocationTargetException e) {
             // Skip exceptions thrown from the implementation.
-            // Translate to the cause of the invocation target exception because thats the business logic exception.
-            // Be silent but log exceptions due to implementation faults.
             logInvocationError(subscriber, e.getCause());
-          } catch (Exception e) {
+          } catch (Throwable e) {
             // Be silent but log exceptions due to implementation faults.
             logInvocationError(subscriber, e);
           }
@@ -65,7 +73,7 @@ class MulticastHandler<I> implements EventMulticaster<I> {
         return null;
       }
 
-      protected void logInvocationError(I subscriber, Throwable e) {
+      protected void logInvocationError(Object subscriber, Throwable e) {
         log.debug(String.format("Cannot multicast event to subscriber of type %s", subscriber.getClass()
             .getName()), e);
       }
@@ -77,11 +85,13 @@ class MulticastHandler<I> implements EventMulticaster<I> {
 
       @Override
       public Object invoke(Object proxy, Method method, Object[] args) throws Throwable {
-        Iterator<I> it = subscribers.iterator();
-        while (it.hasNext()) {
-          I subscriber = it.next();
+        if (isObjectMethod(method)) {
+          return invokeObjectMethod(proxy, method, args);
+        }
+        Invoker invoker = dispatcher.getInvoker(method);
+        for (Object subscriber : subscribers) {
           try {
-            method.invoke(subscriber, args);
+            invoker.invoke(subscriber, args);
           } catch (InvocationTargetException e) {
             // Translate to the cause of the invocation target exception because thats the business logic exception.
             throw e.getCause();
@@ -97,9 +107,9 @@ class MulticastHandler<I> implements EventMulticaster<I> {
   }
 
   MulticastHandler(Class<I> subscriberInterface) {
+    this.dispatcher = MulticastDispatcher.of(subscriberInterface);
     this.silentLocalProxy = createMulticasterProxy(subscriberInterface, createSilentInvocationHandler());
     this.localProxy = createMulticasterProxy(subscriberInterface, createExceptionInvocationHandler());
-    this.subscribers = new ConcurrentLinkedQueue<I>();
   }
 
   @Override
@@ -113,23 +123,38 @@ class MulticastHandler<I> implements EventMulticaster<I> {
   }
 
   @Override
-  public void addSubscriber(I subscriber) {
-    subscribers.add(subscriber);
+  public synchronized void addSubscriber(I subscriber) {
+    Object[] current = this.subscribers;
+    Object[] modified = Arrays.copyOf(current, current.length + 1);
+    modified[current.length] = subscriber;
+    this.subscribers = modified;
   }
 
   @Override
-  public void addAllSubscribers(I[] subscribers) {
-    this.subscribers.addAll(Arrays.asList(subscribers));
+  public synchronized void addAllSubscribers(I[] subscribers) {
+    Object[] current = this.subscribers;
+    Object[] modified = Arrays.copyOf(current, current.length + subscribers.length);
+    System.arraycopy(subscribers, 0, modified, current.length, subscribers.length);
+    this.subscribers = modified;
   }
 
   @Override
-  public void removeSubscriber(I subscriber) {
-    subscribers.remove(subscriber);
+  public synchronized void removeSubscriber(I subscriber) {
+    Object[] current = this.subscribers;
+    for (int i = 0; i < current.length; i++) {
+      if (Objects.equals(subscriber, current[i])) {
+        Object[] modified = new Object[current.length - 1];
+        System.arraycopy(current, 0, modified, 0, i);
+        System.arraycopy(current, i + 1, modified, i, current.length - i - 1);
+        this.subscribers = modified;
+        return;
+      }
+    }
   }
 
   @Override
-  public void clear() {
-    subscribers.clear();
+  public synchronized void clear() {
+    this.subscribers = NO_SUBSCRIBERS;
   }
 
   @SuppressWarnings("unchecked")
@@ -143,7 +168,31 @@ class MulticastHandler<I> implements EventMulticaster<I> {
   }
 
   @Override
+  @SuppressWarnings("unchecked")
   public Set<I> getSubscribers() {
-    return new HashSet<I>(subscribers);
+    Set<I> set = new HashSet<I>();
+    for (Object subscriber : subscribers) {
+      set.add((I) subscriber);
+    }
+    return set;
+  }
+
+  static boolean isObjectMethod(Method method) {
+    return method.getDeclaringClass() == Object.class;
+  }
+
+  /**
+   * The methods of {@link Object} called on a multicaster proxy are not multicasted but refer to the proxy itself.
+   */
+  static Object invokeObjectMethod(Object proxy, Method method, Object[] args) {
+    switch (method.getName()) {
+      case "equals":
+        return proxy == args[0];
+      case "hashCode":
+        return System.identityHashCode(proxy);
+      default:
+        return proxy.getClass()
+            .getName() + "@" + Integer.toHexString(System.identityHashCode(proxy));
+    }
   }
 }
@@ -0,0 +1,24 @@
+package com.remondis.limbus.events;
+
+/**
+ * Defines how a ring buffer backed {@link AsyncEventMulticaster} behaves if an event is published while the ring
+ * buffer is full, because at least one subscriber did not yet process the oldest event.
+ */
+public enum OverflowPolicy {
+
+  /**
+   * The publishing thread waits until the slowest subscriber processed the oldest event.
+   */
+  BLOCK,
+
+  /**
+   * The oldest event is dropped for the subscribers that did not yet process it. The publishing thread never waits.
+   */
+  DROP_OLDEST,
+
+  /**
+   * The new event is rejected with a {@link java.util.concurrent.RejectedExecutionException}.
+   */
+  REJECT;
+
+}
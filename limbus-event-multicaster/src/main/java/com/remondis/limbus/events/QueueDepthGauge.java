@@ -0,0 +1,114 @@
+package com.remondis.limbus.events;
+
+import java.lang.ref.WeakReference;
+import java.util.HashMap;
+import java.util.Iterator;
+import java.util.LinkedList;
+import java.util.List;
+import java.util.Map;
+
+import com.remondis.limbus.api.metrics.Gauge;
+import com.remondis.limbus.api.metrics.MetricRegistry;
+import com.remondis.limbus.api.metrics.Metrics;
+
+/**
+ * The {@link Gauge} <tt>limbus.events.&lt;subscriber interface&gt;.queue.depth</tt> sums up the queue depths of all
+ * open {@link AsyncEventMulticaster}s of a subscriber interface. The gauge is registered with the first multicaster
+ * and removed with the last one.
+ *
+ * <p>
+ * <b>The gauge is held by the global {@link MetricRegistry}, so it only references the multicasters weakly. A
+ * multicaster that is not closed must not keep its subscribers or the classloader of the subscriber interface from
+ * being garbage collected.</b>
+ * </p>
+ */
+final class QueueDepthGauge implements Gauge {
+
+  /**
+   * Maps the metric names to the registered gauges. Guards all gauges.
+   */
+  private static final Map<String, QueueDepthGauge> GAUGES = new HashMap<>();
+
+  private final List<WeakReference<AsyncEventMulticaster<?>>> multicasters = new LinkedList<>();
+
+  private QueueDepthGauge() {
+  }
+
+  /**
+   * Adds the queue depth of the specified multicaster to the gauge of its subscriber interface.
+   *
+   * @param subscriberInterface
+   *        The subscriber interface.
+   * @param multicaster
+   *        The multicaster.
+   */
+  static void register(Class<?> subscriberInterface, AsyncEventMulticaster<?> multicaster) {
+    String name = getMetricName(subscriberInterface);
+    synchronized (GAUGES) {
+      QueueDepthGauge gauge = GAUGES.get(name);
+      if (gauge == null) {
+        gauge = new QueueDepthGauge();
+        GAUGES.put(name, gauge);
+        Metrics.getRegistry()
+            .register(name, gauge);
+      }
+      gauge.multicasters.add(new WeakReference<>(multicaster));
+    }
+  }
+
+  /**
+   * Removes the queue depth of the specified multicaster from the gauge of its subscriber interface. The gauge is
+   * removed from the {@link MetricRegistry} if no other multicaster of the subscriber interface is left.
+   *
+   * @param subscriberInterface
+   *        The subscriber interface.
+   * @param multicaster
+   *        The multicaster.
+   */
+  static void unregister(Class<?> subscriberInterface, AsyncEventMulticaster<?> multicaster) {
+    String name = getMetricName(subscriberInterface);
+    synchronized (GAUGES) {
+      QueueDepthGauge gauge = GAUGES.get(name);
+      if (gauge == null) {
+        return;
+      }
+      Iterator<WeakReference<AsyncEventMulticaster<?>>> it = gauge.multicasters.iterator();
+      while (it.hasNext()) {
+        AsyncEventMulticaster<?> registered = it.next()
+            .get();
+        if (registered == null || registered == multicaster) {
+          it.remove();
+        }
+      }
+      if (gauge.multicasters.isEmpty()) {
+        GAUGES.remove(name);
+        Metrics.getRegistry()
+            .remove(name, gauge);
+      }
+    }
+  }
+
+  static String getMetricName(Class<?> subscriberInterface) {
+    return MetricRegistry.name("limbus.events", subscriberInterface.getName(), "queue.depth");
+  }
+
+  @Override
+  public long getValue() {
+    long queueDepth = 0;
+    synchronized (GAUGES) {
+      Iterator<WeakReference<AsyncEventMulticaster<?>>> it = multicasters.iterator();
+      while (it.hasNext()) {
+        AsyncEventMulticaster<?> multicaster = it.next()
+            .get();
+        if (multicaster == null) {
+          // The multicaster was not closed.
+          it.remove();
+        } else {
+          queueDepth += multicaster.getQueueDepth();
+        }
+      }
+    }
+    return queueDepth;
+  }
+
+}
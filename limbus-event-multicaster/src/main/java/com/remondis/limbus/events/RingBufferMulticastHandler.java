@@ -0,0 +1,589 @@
+package com.remondis.limbus.events;
+
+import java.lang.reflect.InvocationHandler;
+import java.lang.reflect.InvocationTargetException;
+import java.lang.reflect.Method;
+import java.lang.reflect.Proxy;
+import java.security.AccessController;
+import java.security.PrivilegedAction;
+import java.util.Arrays;
+import java.util.LinkedHashSet;
+import java.util.Set;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.locks.LockSupport;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import com.remondis.limbus.api.metrics.Gauge;
+import com.remondis.limbus.utils.ReflectionUtil;
+
+/**
+ * Implementation of an {@link AsyncEventMulticaster} that publishes events into a preallocated ring buffer. Every
+ * subscriber follows the ring buffer using its own sequence:
+ * <ul>
+ * <li>Every subscriber receives the events in the order they were published.</li>
+ * <li>Publishers claim the sequence of an event with a compare-and-set, so concurrent publishers do not lock each
+ * other out.</li>
+ * <li>The subscribers are notified by a bounded pool of threads. A subscriber occupies at most one thread at a time,
+ * so a slow subscriber does not delay the notification of other subscribers as long as there are threads left.</li>
+ * <li>A subscriber processes all available events in a batch before it waits for new events, see
+ * {@link WaitStrategy}. If no event arrives, the subscriber releases its thread until the next event is
+ * published.</li>
+ * <li>The ring buffer has a fixed capacity. If the slowest subscriber falls behind by the capacity, the
+ * {@link OverflowPolicy} decides what happens to new events.</li>
+ * </ul>
+ *
+ * <p>
+ * The events are dispatched asynchronously, so exceptions thrown by subscribers cannot be forwarded to the publisher.
+ * Exceptions of events published via {@link #multicast()} are logged as warnings, exceptions of events published via
+ * {@link #multicastSilently()} are logged on debug level. Return values of subscriber methods are ignored.
+ * </p>
+ *
+ * <p>
+ * When closed, new events are rejected while the subscribers are notified about the events already published. Idle
+ * threads terminate after {@value #KEEP_ALIVE_SECONDS} seconds.
+ * </p>
+ *
+ * <p>
+ * The number of events the slowest subscriber has not processed yet is added to the {@link Gauge}
+ * <tt>limbus.events.&lt;subscriber interface&gt;.queue.depth</tt> until the multicaster is closed.
+ * </p>
+ *
+ * @param <I>
+ *        The subscriber interface type.
+ */
+final class RingBufferMulticastHandler<I> implements AsyncEventMulticaster<I> {
+
+  private static final Logger log = LoggerFactory.getLogger(RingBufferMulticastHandler.class);
+
+  private static final String THREAD_NAME = "Limbus Event Multicaster";
+
+  private static final long KEEP_ALIVE_SECONDS = 30;
+
+  /**
+   * The number of busy spins before a waiting subscriber yields.
+   */
+  private static final int SPIN_TRIES = 100;
+
+  /**
+   * The number of yields before a subscriber of the sleeping wait strategy parks.
+   */
+  private static final int YIELD_TRIES = 100;
+
+  /**
+   * The number of parks before a subscriber of the sleeping wait strategy releases its thread.
+   */
+  private static final int PARK_TRIES = 10;
+
+  /**
+   * The number of yields before a subscriber of the yielding wait strategy releases its thread.
+   */
+  private static final int POLL_YIELDS = 1000;
+
+  private static final long PARK_NANOS = TimeUnit.MICROSECONDS.toNanos(100);
+
+  /**
+   * Flags the tail of a closed ring buffer.
+   */
+  private static final long CLOSED = 1L << 62;
+
+  /**
+   * The sequence of a slot while a publisher writes an event into it.
+   */
+  private static final long WRITING = Long.MIN_VALUE;
+
+  private static final Subscription<?>[] NO_SUBSCRIPTIONS = new Subscription<?>[0];
+
+  private final Class<I> subscriberInterface;
+
+  private final MulticastDispatcher dispatcher;
+
+  private final Slot[] slots;
+
+  private final int mask;
+
+  private final OverflowPolicy overflowPolicy;
+
+  private final WaitStrategy waitStrategy;
+
+  /**
+   * The sequence of the next event to publish and the {@link #CLOSED} flag. Publishers claim a sequence by
+   * incrementing the tail.
+   */
+  private final AtomicLong tail = new AtomicLong();
+
+  /**
+   * Serializes the registration of subscribers.
+   */
+  private final Object subscriptionLock = new Object();
+
+  private final ThreadPoolExecutor executor;
+
+  private final ClassLoader contextClassLoader;
+
+  private final AtomicInteger threadNumber = new AtomicInteger();
+
+  /**
+   * The current subscriptions. The array is replaced on every change.
+   */
+  @SuppressWarnings("unchecked")
+  private volatile Subscription<I>[] subscriptions = (Subscription<I>[]) NO_SUBSCRIPTIONS;
+
+  private final I localProxy;
+
+  private final I silentLocalProxy;
+
+  /**
+   * @param subscriberInterface
+   *        The subscriber interface.
+   * @param capacity
+   *        The capacity of the ring buffer. Rounded up to the next power of two.
+   * @param overflowPolicy
+   *        The policy applied if the ring buffer is full.
+   * @param waitStrategy
+   *        The strategy the subscribers use to wait for events.
+   * @param threads
+   *        The maximum number of threads notifying the subscribers.
+   */
+  RingBufferMulticastHandler(Class<I> subscriberInterface, int capacity, OverflowPolicy overflowPolicy,
+      WaitStrategy waitStrategy, int threads) {
+    if (capacity < 1 || capacity > 1 << 30) {
+      throw new IllegalArgumentException("The capacity must be between 1 and 2^30.");
+    }
+    if (threads < 1) {
+      throw new IllegalArgumentException("The number of threads must be greater than 0.");
+    }
+    int size = capacity == 1 ? 1 : Integer.highestOneBit(capacity - 1) << 1;
+    this.subscriberInterface = subscriberInterface;
+    this.dispatcher = MulticastDispatcher.of(subscriberInterface);
+    this.slots = new Slot[size];
+    for (int i = 0; i < size; i++) {
+      slots[i] = new Slot();
+    }
+    this.mask = size - 1;
+    this.overflowPolicy = overflowPolicy;
+    this.waitStrategy = waitStrategy;
+    this.contextClassLoader = Thread.currentThread()
+        .getContextClassLoader();
+    this.executor = new ThreadPoolExecutor(threads, threads, KEEP_ALIVE_SECONDS, TimeUnit.SECONDS,
+        new LinkedBlockingQueue<>(), this::newThread);
+    this.executor.allowCoreThreadTimeOut(true);
+    this.localProxy = createMulticasterProxy(false);
+    this.silentLocalProxy = createMulticasterProxy(true);
+    QueueDepthGauge.register(subscriberInterface, this);
+  }
+
+  @Override
+  public I multicast() {
+    return localProxy;
+  }
+
+  @Override
+  public I multicastSilently() {
+    return silentLocalProxy;
+  }
+
+  @Override
+  public void addSubscriber(I subscriber) {
+    Subscription<I> subscription;
+    synchronized (subscriptionLock) {
+      denyClosed(tail.get());
+      // The subscriber is notified about the events published after this call.
+      subscription = new Subscription<>(this, subscriber, tail.get() & ~CLOSED);
+      Subscription<I>[] current = subscriptions;
+      Subscription<I>[] updated = Arrays.copyOf(current, current.length + 1);
+      updated[current.length] = subscription;
+      this.subscriptions = updated;
+    }
+    // A publisher may have claimed an event before the subscription was visible to it.
+    subscription.schedule();
+  }
+
+  @Override
+  public void addAllSubscribers(I[] subscribers) {
+    for (I subscriber : subscribers) {
+      addSubscriber(subscriber);
+    }
+  }
+
+  @Override
+  public void removeSubscriber(I subscriber) {
+    synchronized (subscriptionLock) {
+      Subscription<I>[] current = subscriptions;
+      for (int i = 0; i < current.length; i++) {
+        if (current[i].subscriber.equals(subscriber)) {
+          current[i].active = false;
+          Subscription<I>[] updated = Arrays.copyOf(current, current.length - 1);
+          System.arraycopy(current, i + 1, updated, i, current.length - i - 1);
+          this.subscriptions = updated;
+          break;
+        }
+      }
+    }
+  }
+
+  @Override
+  public Set<I> getSubscribers() {
+    Set<I> subscribers = new LinkedHashSet<>();
+    for (Subscription<I> subscription : subscriptions) {
+      subscribers.add(subscription.subscriber);
+    }
+    return subscribers;
+  }
+
+  @SuppressWarnings("unchecked")
+  @Override
+  public void clear() {
+    Subscription<I>[] removed;
+    synchronized (subscriptionLock) {
+      removed = subscriptions;
+      this.subscriptions = (Subscription<I>[]) NO_SUBSCRIPTIONS;
+    }
+    for (Subscription<I> subscription : removed) {
+      subscription.active = false;
+    }
+  }
+
+  @Override
+  public boolean isClosed() {
+    return (tail.get() & CLOSED) != 0;
+  }
+
+  @Override
+  public long getQueueDepth() {
+    long next = tail.get() & ~CLOSED;
+    long oldest = next;
+    for (Subscription<I> subscription : subscriptions) {
+      oldest = Math.min(oldest, subscription.sequence.get());
+    }
+    return next - oldest;
+  }
+
+  @Override
+  public void close() {
+    long current = tail.get();
+    while ((current & CLOSED) == 0 && !tail.compareAndSet(current, current | CLOSED)) {
+      current = tail.get();
+    }
+    QueueDepthGauge.unregister(subscriberInterface, this);
+  }
+
+  /**
+   * Publishes an event to the ring buffer.
+   */
+  private void publish(Method method, Object[] args, boolean silent) {
+    long sequence;
+    while ((sequence = claim()) < 0) {
+      // The ring buffer is full - wait for the subscribers.
+      LockSupport.parkNanos(PARK_NANOS);
+      if (Thread.currentThread()
+          .isInterrupted()) {
+        throw new RejectedExecutionException(String.format(
+            "Interrupted while waiting to multicast event to subscribers of type %s.", subscriberInterface.getName()));
+      }
+    }
+    slots[(int) sequence & mask].write(sequence, method, args, silent);
+    for (Subscription<I> subscription : subscriptions) {
+      subscription.schedule();
+    }
+  }
+
+  /**
+   * Claims the sequence of the next event by a compare-and-set on the tail. A failed compare-and-set only means that
+   * another publisher claimed the sequence first.
+   *
+   * @return Returns the claimed sequence or <code>-1</code> if the publisher has to wait for the subscribers.
+   */
+  private long claim() {
+    while (true) {
+      long next = tail.get();
+      denyClosed(next);
+      long wrapPoint = next - slots.length;
+      if (wrapPoint >= 0 && !ensureCapacity(wrapPoint)) {
+        return -1;
+      }
+      if (tail.compareAndSet(next, next + 1)) {
+        return next;
+      }
+    }
+  }
+
+  /**
+   * Checks that all subscribers processed the event with the specified sequence, so its slot can be reused. Applies
+   * the overflow policy otherwise.
+   *
+   * @return Returns <code>true</code> if the slot can be reused, <code>false</code> if the publisher has to wait.
+   */
+  private boolean ensureCapacity(long wrapPoint) {
+    boolean full = false;
+    for (Subscription<I> subscription : subscriptions) {
+      if (subscription.sequence.get() <= wrapPoint) {
+        if (overflowPolicy == OverflowPolicy.DROP_OLDEST) {
+          subscription.skipTo(wrapPoint + 1);
+        } else if (overflowPolicy == OverflowPolicy.REJECT) {
+          throw new RejectedExecutionException(
+              String.format("Cannot multicast event to subscribers of type %s - the ring buffer is full.",
+                  subscriberInterface.getName()));
+        } else if (subscription.thread == Thread.currentThread()) {
+          // The subscriber would wait for itself.
+          throw new RejectedExecutionException(String.format(
+              "Cannot multicast event to subscribers of type %s from a subscriber - the ring buffer is full.",
+              subscriberInterface.getName()));
+        } else {
+          full = true;
+        }
+      }
+    }
+    return !full;
+  }
+
+  /**
+   * Notifies the subscriber about the available events. Called by the executor, never concurrently for the same
+   * subscription. Releases the thread after a full round of the ring buffer, so other subscribers get their turn.
+   */
+  private void process(Subscription<I> subscription) {
+    subscription.thread = Thread.currentThread();
+    try {
+      int processed = 0;
+      int idle = 0;
+      while (subscription.active && processed < slots.length) {
+        long next = subscription.sequence.get();
+        Slot slot = slots[(int) next & mask];
+        if (slot.sequence.get() == next) {
+          Method method = slot.method;
+          Object[] args = slot.args;
+          boolean silent = slot.silent;
+          if (slot.sequence.get() == next && subscription.sequence.compareAndSet(next, next + 1)) {
+            dispatch(subscription.subscriber, method, args, silent);
+            processed++;
+          }
+          // Otherwise the event was dropped and overwritten due to an overflow.
+          idle = 0;
+          continue;
+        }
+        long current = tail.get();
+        if (next < (current & ~CLOSED)) {
+          // The event was claimed, but the publisher has not written it yet.
+          Thread.yield();
+        } else if ((current & CLOSED) != 0) {
+          // All events published before closing were processed.
+          return;
+        } else if (!await(idle++)) {
+          return;
+        }
+      }
+    } finally {
+      subscription.thread = null;
+      subscription.release();
+    }
+  }
+
+  /**
+   * Waits for new events according to the {@link WaitStrategy}.
+   *
+   * @param idle
+   *        The number of unsuccessful polls.
+   * @return Returns <code>true</code> if the subscriber should poll again, <code>false</code> if it should release its
+   *         thread until the next event is published.
+   */
+  private boolean await(int idle) {
+    switch (waitStrategy) {
+      case SLEEPING:
+        if (idle < SPIN_TRIES) {
+          Thread.onSpinWait();
+        } else if (idle < SPIN_TRIES + YIELD_TRIES) {
+          Thread.yield();
+        } else if (idle < SPIN_TRIES + YIELD_TRIES + PARK_TRIES) {
+          LockSupport.parkNanos(PARK_NANOS);
+        } else {
+          return false;
+        }
+        return true;
+      case YIELDING:
+        if (idle < SPIN_TRIES) {
+          Thread.onSpinWait();
+        } else if (idle < SPIN_TRIES + POLL_YIELDS) {
+          Thread.yield();
+        } else {
+          return false;
+        }
+        return true;
+      case BLOCKING:
+      default:
+        return false;
+    }
+  }
+
+  private void dispatch(I subscriber, Method method, Object[] args, boolean silent) {
+    try {
+      dispatcher.getInvoker(method)
+          .invoke(subscriber, args);
+    } catch (InvocationTargetException e) {
+      logInvocationError(subscriber, e.getCause(), silent);
+    } catch (Throwable e) {
+      logInvocationError(subscriber, e, silent);
+    }
+  }
+
+  private void logInvocationError(I subscriber, Throwable e, boolean silent) {
+    String message = String.format("Cannot multicast event to subscriber of type %s", subscriber.getClass()
+        .getName());
+    if (silent) {
+      log.debug(message, e);
+    } else {
+      log.warn(message, e);
+    }
+  }
+
+  private Thread newThread(Runnable runnable) {
+    // Events may be published by plugins running with restricted permissions.
+    return AccessController.doPrivileged(new PrivilegedAction<Thread>() {
+
+      @Override
+      public Thread run() {
+        Thread thread = new Thread(runnable,
+            THREAD_NAME + "-" + subscriberInterface.getSimpleName() + "-" + threadNumber.incrementAndGet());
+        thread.setDaemon(true);
+        // Do not inherit the context class loader of the publisher that happens to start the thread.
+        thread.setContextClassLoader(contextClassLoader);
+        return thread;
+      }
+    });
+  }
+
+  private void denyClosed(long tail) {
+    if ((tail & CLOSED) != 0) {
+      throw new IllegalStateException(
+          String.format("The event multicaster for %s is closed.", subscriberInterface.getName()));
+    }
+  }
+
+  @SuppressWarnings("unchecked")
+  private I createMulticasterProxy(boolean silent) {
+    ClassLoader classLoader = ReflectionUtil.getClassLoader(getClass());
+    InvocationHandler handler = new InvocationHandler() {
+
+      @Override
+      public Object invoke(Object proxy, Method method, Object[] args) throws Throwable {
+        if (MulticastHandler.isObjectMethod(method)) {
+          return MulticastHandler.invokeObjectMethod(proxy, method, args);
+        }
+        publish(method, args, silent);
+        return null;
+      }
+    };
+    return (I) Proxy.newProxyInstance(classLoader, new Class[] {
+        subscriberInterface
+    }, handler);
+  }
+
+  /**
+   * A preallocated entry of the ring buffer. The sequence is written last, so a reader detects an overwrite by reading
+   * the sequence before and after reading the event.
+   */
+  private static final class Slot {
+
+    private final AtomicLong sequence = new AtomicLong(-1);
+
+    private volatile Method method;
+
+    private volatile Object[] args;
+
+    private volatile boolean silent;
+
+    /**
+     * Writes the event with the specified sequence. Publishers reusing this slot for different rounds of the ring
+     * buffer wait for each other.
+     */
+    private void write(long next, Method method, Object[] args, boolean silent) {
+      long current = sequence.get();
+      while (current == WRITING || !sequence.compareAndSet(current, WRITING)) {
+        Thread.onSpinWait();
+        current = sequence.get();
+      }
+      if (current > next) {
+        // A newer event already reused this slot, so every subscriber passed this event.
+        sequence.set(current);
+        return;
+      }
+      this.method = method;
+      this.args = args;
+      this.silent = silent;
+      sequence.set(next);
+    }
+  }
+
+  /**
+   * The subscription of a subscriber to the ring buffer. Scheduled on the executor whenever events are available.
+   */
+  private static final class Subscription<I> implements Runnable {
+
+    private final RingBufferMulticastHandler<I> handler;
+
+    private final I subscriber;
+
+    /**
+     * The sequence of the next event to process.
+     */
+    private final AtomicLong sequence;
+
+    /**
+     * Set while the subscription is queued or processed by the executor.
+     */
+    private final AtomicBoolean scheduled = new AtomicBoolean();
+
+    private volatile boolean active = true;
+
+    /**
+     * The thread currently processing this subscription.
+     */
+    private volatile Thread thread;
+
+    private Subscription(RingBufferMulticastHandler<I> handler, I subscriber, long sequence) {
+      this.handler = handler;
+      this.subscriber = subscriber;
+      this.sequence = new AtomicLong(sequence);
+    }
+
+    @Override
+    public void run() {
+      handler.process(this);
+    }
+
+    private void schedule() {
+      if (active && !scheduled.get() && scheduled.compareAndSet(false, true)) {
+        handler.executor.execute(this);
+      }
+    }
+
+    private void release() {
+      scheduled.set(false);
+      // A publisher may have claimed an event while this subscription was still scheduled.
+      if (active && sequence.get() < (handler.tail.get() & ~CLOSED)) {
+        schedule();
+      }
+    }
+
+    /**
+     * Drops all events before the specified sequence that were not processed yet.
+     */
+    private void skipTo(long next) {
+      long current;
+      while ((current = sequence.get()) < next) {
+        if (sequence.compareAndSet(current, next)) {
+          log.debug("Dropped {} events for subscriber of type {} due to an overflow of the ring buffer.",
+              next - current, subscriber.getClass()
+                  .getName());
+          return;
+        }
+      }
+    }
+  }
+}
@@ -0,0 +1,27 @@
+package com.remondis.limbus.events;
+
+/**
+ * Defines how the subscribers of a ring buffer backed {@link AsyncEventMulticaster} wait for new events before they
+ * release their thread until the next event is published.
+ */
+public enum WaitStrategy {
+
+  /**
+   * The subscribers release their thread as soon as no event is available. Uses the least CPU but adds the latency of
+   * handing the subscriber to a thread for every burst of events.
+   */
+  BLOCKING,
+
+  /**
+   * The subscribers spin, then yield and finally sleep for short periods of time before they release their thread. A
+   * compromise between latency and CPU usage.
+   */
+  SLEEPING,
+
+  /**
+   * The subscribers spin and then yield before they release their thread. Provides low latency but occupies a CPU core
+   * per subscriber for a short time after every burst of events.
+   */
+  YIELDING;
+
+}
@@ -1,6 +1,7 @@
 module com.remondis.limbus.events {
   exports com.remondis.limbus.events;
 
+  requires com.remondis.limbus.api;
   requires com.remondis.limbus.utils;
   requires org.slf4j;
 }
\ No newline at end of file
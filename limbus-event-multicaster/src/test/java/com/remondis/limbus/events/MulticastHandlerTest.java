@@ -1,11 +1,18 @@
 package com.remondis.limbus.events;
 
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertSame;
 import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
 import static org.junit.jupiter.api.Assertions.fail;
 import static org.mockito.Mockito.doThrow;
 import static org.mockito.Mockito.times;
 import static org.mockito.Mockito.verify;
 
+import java.util.Arrays;
+import java.util.LinkedList;
+import java.util.List;
+
 import org.junit.jupiter.api.Test;
 import org.junit.jupiter.api.extension.ExtendWith;
 import org.mockito.Mock;
@@ -143,4 +150,59 @@ public class MulticastHandlerTest {
     verify(anotherSubscriberMock, times(0)).notified();
   }
 
+  @Test
+  public void multicast_errorhandling_02_test() throws Exception {
+    EventMulticaster<SubscriberType> multicaster = EventMulticasterFactory.create(SubscriberType.class);
+    // The exception of the subscriber is thrown as is.
+    multicaster.addSubscriber(subscriberMock);
+    Exception exception = testException();
+    doThrow(exception).when(subscriberMock)
+        .notified();
+    assertSame(exception, assertThrows(Exception.class, () -> multicaster.multicast()
+        .notified()));
+
+    // A subscriber that cannot be called is reported by a wrapping exception.
+    multicaster.clear();
+    addUncheckedSubscriber(multicaster, "not a subscriber");
+    Exception failure = assertThrows(Exception.class, () -> multicaster.multicast()
+        .notified());
+    assertTrue(failure.getMessage()
+        .startsWith("Cannot multicast event to subscriber of type java.lang.String"));
+    assertTrue(failure.getCause() instanceof ClassCastException);
+  }
+
+  @SuppressWarnings({
+      "rawtypes", "unchecked"
+  })
+  private static void addUncheckedSubscriber(EventMulticaster multicaster, Object subscriber) {
+    multicaster.addSubscriber(subscriber);
+  }
+
+  public interface ArgumentSubscriber {
+
+    public void event(int number, String text);
+
+  }
+
+  @Test
+  public void multicast_arguments_01_test() throws Exception {
+    EventMulticaster<ArgumentSubscriber> multicaster = EventMulticasterFactory.create(ArgumentSubscriber.class);
+    List<String> events = new LinkedList<>();
+    multicaster.addSubscriber((number, text) -> {
+      events.add("first " + number + " " + text);
+    });
+    multicaster.addSubscriber((number, text) -> {
+      events.add("second " + number + " " + text);
+    });
+
+    ArgumentSubscriber multicast = multicaster.multicast();
+    multicast.event(1, "event");
+    assertEquals(Arrays.asList("first 1 event", "second 1 event"), events);
+
+    // Methods of Object refer to the proxy and are not multicasted.
+    assertEquals(multicast, multicast);
+    assertEquals(multicast.hashCode(), multicast.hashCode());
+    assertEquals(2, events.size());
+  }
+
 }
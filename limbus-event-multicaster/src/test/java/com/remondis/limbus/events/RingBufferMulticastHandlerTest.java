@@ -0,0 +1,304 @@
+package com.remondis.limbus.events;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertSame;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.lang.ref.WeakReference;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.TimeUnit;
+import java.util.stream.Collectors;
+
+import org.junit.jupiter.api.Test;
+
+import com.remondis.limbus.api.metrics.Gauge;
+import com.remondis.limbus.api.metrics.Metrics;
+
+public class RingBufferMulticastHandlerTest {
+
+  private static final int EVENTS = 1000;
+
+  public interface CountingSubscriber {
+
+    public void event(int value);
+
+  }
+
+  private static class RecordingSubscriber implements CountingSubscriber {
+
+    private final List<Integer> values = new CopyOnWriteArrayList<>();
+
+    private final CountDownLatch blocker;
+
+    private RecordingSubscriber(CountDownLatch blocker) {
+      this.blocker = blocker;
+    }
+
+    @Override
+    public void event(int value) {
+      try {
+        blocker.await();
+      } catch (InterruptedException e) {
+        Thread.currentThread()
+            .interrupt();
+      }
+      values.add(value);
+    }
+
+    private void awaitValues(int count) throws InterruptedException {
+      long deadline = System.currentTimeMillis() + TimeUnit.SECONDS.toMillis(10);
+      while (values.size() < count && System.currentTimeMillis() < deadline) {
+        Thread.sleep(1);
+      }
+    }
+
+    private void assertOrdered() {
+      for (int i = 1; i < values.size(); i++) {
+        assertTrue(values.get(i - 1) < values.get(i));
+      }
+    }
+  }
+
+  @Test
+  public void shouldNotifyAllSubscribersInOrder() throws Exception {
+    for (WaitStrategy waitStrategy : WaitStrategy.values()) {
+      AsyncEventMulticaster<CountingSubscriber> multicaster = EventMulticasterFactory
+          .createRingBuffer(CountingSubscriber.class, 16, OverflowPolicy.BLOCK, waitStrategy);
+      RecordingSubscriber first = new RecordingSubscriber(new CountDownLatch(0));
+      RecordingSubscriber second = new RecordingSubscriber(new CountDownLatch(0));
+      multicaster.addSubscriber(first);
+      multicaster.addSubscriber(second);
+      for (int i = 0; i < EVENTS; i++) {
+        multicaster.multicast()
+            .event(i);
+      }
+      first.awaitValues(EVENTS);
+      second.awaitValues(EVENTS);
+      assertEquals(EVENTS, first.values.size());
+      assertEquals(EVENTS, second.values.size());
+      first.assertOrdered();
+      second.assertOrdered();
+
+      multicaster.close();
+      assertTrue(multicaster.isClosed());
+      assertThrows(IllegalStateException.class, () -> multicaster.multicast()
+          .event(0));
+    }
+  }
+
+  @Test
+  public void shouldNotifySubscribersOfConcurrentPublishers() throws Exception {
+    int publishers = 4;
+    AsyncEventMulticaster<CountingSubscriber> multicaster = EventMulticasterFactory
+        .createRingBuffer(CountingSubscriber.class, 16, OverflowPolicy.BLOCK, WaitStrategy.SLEEPING);
+    RecordingSubscriber subscriber = new RecordingSubscriber(new CountDownLatch(0));
+    multicaster.addSubscriber(subscriber);
+    List<Thread> threads = new ArrayList<>();
+    for (int p = 0; p < publishers; p++) {
+      int publisher = p;
+      Thread thread = new Thread(() -> {
+        for (int i = 0; i < EVENTS; i++) {
+          multicaster.multicast()
+              .event(publisher * EVENTS + i);
+        }
+      });
+      threads.add(thread);
+      thread.start();
+    }
+    for (Thread thread : threads) {
+      thread.join();
+    }
+    subscriber.awaitValues(publishers * EVENTS);
+    assertEquals(publishers * EVENTS, subscriber.values.size());
+    // Every publisher's events are received in the order they were published.
+    for (int p = 0; p < publishers; p++) {
+      int publisher = p;
+      List<Integer> published = subscriber.values.stream()
+          .filter(value -> value / EVENTS == publisher)
+          .collect(Collectors.toList());
+      assertEquals(EVENTS, published.size());
+      for (int i = 0; i < EVENTS; i++) {
+        assertEquals(publisher * EVENTS + i, (int) published.get(i));
+      }
+    }
+    multicaster.close();
+  }
+
+  @Test
+  public void shouldNotifySubscribersWithBoundedThreads() throws Exception {
+    int subscribers = 8;
+    AsyncEventMulticaster<CountingSubscriber> multicaster = EventMulticasterFactory
+        .createRingBuffer(CountingSubscriber.class, 16, OverflowPolicy.BLOCK, WaitStrategy.BLOCKING, 2);
+    Set<Thread> threads = ConcurrentHashMap.newKeySet();
+    CountDownLatch notified = new CountDownLatch(subscribers * EVENTS);
+    for (int i = 0; i < subscribers; i++) {
+      multicaster.addSubscriber(value -> {
+        threads.add(Thread.currentThread());
+        notified.countDown();
+      });
+    }
+    for (int i = 0; i < EVENTS; i++) {
+      multicaster.multicast()
+          .event(i);
+    }
+    assertTrue(notified.await(10, TimeUnit.SECONDS));
+    assertTrue(threads.size() <= 2);
+    multicaster.close();
+  }
+
+  @Test
+  public void shouldNotStallOtherSubscribersWhenDroppingOldest() throws Exception {
+    AsyncEventMulticaster<CountingSubscriber> multicaster = EventMulticasterFactory
+        .createRingBuffer(CountingSubscriber.class, 8, OverflowPolicy.DROP_OLDEST, WaitStrategy.SLEEPING);
+    CountDownLatch release = new CountDownLatch(1);
+    RecordingSubscriber slow = new RecordingSubscriber(release);
+    RecordingSubscriber fast = new RecordingSubscriber(new CountDownLatch(0));
+    multicaster.addSubscriber(slow);
+    multicaster.addSubscriber(fast);
+    for (int i = 0; i < EVENTS; i++) {
+      multicaster.multicastSilently()
+          .event(i);
+      if (i % 4 == 0) {
+        // Give the fast subscriber the chance to keep up.
+        fast.awaitValues(i + 1);
+      }
+    }
+    fast.awaitValues(EVENTS);
+    assertEquals(EVENTS, fast.values.size());
+
+    release.countDown();
+    Thread.sleep(200);
+    assertTrue(slow.values.size() < EVENTS);
+    slow.assertOrdered();
+    multicaster.close();
+  }
+
+  @Test
+  public void shouldRejectEventsIfFull() throws Exception {
+    AsyncEventMulticaster<CountingSubscriber> multicaster = EventMulticasterFactory
+        .createRingBuffer(CountingSubscriber.class, 4, OverflowPolicy.REJECT, WaitStrategy.BLOCKING);
+    CountDownLatch release = new CountDownLatch(1);
+    RecordingSubscriber slow = new RecordingSubscriber(release);
+    multicaster.addSubscriber(slow);
+    try {
+      assertThrows(RejectedExecutionException.class, () -> {
+        for (int i = 0; i < EVENTS; i++) {
+          multicaster.multicast()
+              .event(i);
+        }
+      });
+    } finally {
+      release.countDown();
+      multicaster.close();
+    }
+  }
+
+  @Test
+  public void shouldNotMulticastObjectMethods() throws Exception {
+    AsyncEventMulticaster<CountingSubscriber> multicaster = EventMulticasterFactory
+        .createRingBuffer(CountingSubscriber.class, 4, OverflowPolicy.REJECT, WaitStrategy.BLOCKING);
+    RecordingSubscriber subscriber = new RecordingSubscriber(new CountDownLatch(0));
+    multicaster.addSubscriber(subscriber);
+    try {
+      CountingSubscriber proxy = multicaster.multicast();
+      assertEquals(System.identityHashCode(proxy), proxy.hashCode());
+      assertTrue(proxy.equals(proxy));
+      assertFalse(proxy.equals(multicaster.multicastSilently()));
+      assertTrue(proxy.toString()
+          .contains("@"));
+      assertEquals(0, multicaster.getQueueDepth());
+
+      proxy.event(1);
+      subscriber.awaitValues(1);
+      assertEquals(List.of(1), subscriber.values);
+    } finally {
+      multicaster.close();
+    }
+  }
+
+  @Test
+  public void shouldSumQueueDepthOfMulticasters() throws Exception {
+    String name = QueueDepthGauge.getMetricName(CountingSubscriber.class);
+    CountDownLatch entered = new CountDownLatch(2);
+    CountDownLatch release = new CountDownLatch(1);
+    CountingSubscriber blocking = value -> {
+      entered.countDown();
+      try {
+        release.await();
+      } catch (InterruptedException e) {
+        Thread.currentThread()
+            .interrupt();
+      }
+    };
+    AsyncEventMulticaster<CountingSubscriber> first = EventMulticasterFactory.createRingBuffer(CountingSubscriber.class,
+        8, OverflowPolicy.REJECT, WaitStrategy.BLOCKING);
+    AsyncEventMulticaster<CountingSubscriber> second = EventMulticasterFactory
+        .createRingBuffer(CountingSubscriber.class, 8, OverflowPolicy.REJECT, WaitStrategy.BLOCKING);
+    try {
+      first.addSubscriber(blocking);
+      second.addSubscriber(blocking);
+      for (int i = 0; i < 3; i++) {
+        first.multicast()
+            .event(i);
+        second.multicast()
+            .event(i);
+      }
+      assertTrue(entered.await(10, TimeUnit.SECONDS));
+      // Both subscribers block in the first event, so the queue depths are stable.
+      Gauge gauge = (Gauge) Metrics.getRegistry()
+          .getMetric(name);
+      assertTrue(first.getQueueDepth() > 0);
+      assertEquals(first.getQueueDepth() + second.getQueueDepth(), gauge.getValue());
+
+      first.close();
+      assertSame(gauge, Metrics.getRegistry()
+          .getMetric(name));
+      assertEquals(second.getQueueDepth(), gauge.getValue());
+    } finally {
+      release.countDown();
+      first.close();
+      second.close();
+    }
+    assertNull(Metrics.getRegistry()
+        .getMetric(name));
+  }
+
+  @Test
+  public void shouldNotRetainMulticastersInQueueDepth() throws Exception {
+    String name = QueueDepthGauge.getMetricName(GaugedSubscriber.class);
+    WeakReference<AsyncEventMulticaster<GaugedSubscriber>> reference = createUnclosedMulticaster();
+    Gauge gauge = (Gauge) Metrics.getRegistry()
+        .getMetric(name);
+    for (int i = 0; i < 50 && reference.get() != null; i++) {
+      System.gc();
+      Thread.sleep(20);
+    }
+    assertNull(reference.get());
+    assertEquals(0, gauge.getValue());
+  }
+
+  private WeakReference<AsyncEventMulticaster<GaugedSubscriber>> createUnclosedMulticaster() {
+    AsyncEventMulticaster<GaugedSubscriber> multicaster = EventMulticasterFactory.createAsync(GaugedSubscriber.class);
+    multicaster.addSubscriber(() -> {
+    });
+    multicaster.multicast()
+        .event();
+    return new WeakReference<>(multicaster);
+  }
+
+  public interface GaugedSubscriber {
+
+    public void event();
+
+  }
+
+}
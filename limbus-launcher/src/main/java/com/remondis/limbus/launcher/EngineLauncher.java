@@ -21,6 +21,8 @@ import org.slf4j.LoggerFactory;
 import com.remondis.limbus.activators.logging.LoggingActivator;
 import com.remondis.limbus.activators.logging.LoggingActivatorException;
 import com.remondis.limbus.activators.monitoring.MonitoringActivator;
+import com.remondis.limbus.api.metrics.MetricRegistry;
+import com.remondis.limbus.api.metrics.Metrics;
 import com.remondis.limbus.system.LimbusSystem;
 import com.remondis.limbus.utils.ReflectionUtil;
 
@@ -349,8 +351,9 @@ public class EngineLauncher {
   }
 
   /**
-   * This method tries to initialize the Limbus Monitoring Facade using the registered {@link MonitoringActivator}. If
-   * non is installed the Limbus Monitoring Facade defaults to a no-op.
+   * This method tries to initialize the Limbus Monitoring Facade using the registered {@link MonitoringActivator}. The
+   * activator receives the {@link MetricRegistry} of the engine. If non is installed the metrics are still recorded,
+   * but not exported.
    */
   private static void createMonitoringEnvironment() {
     // Load logging activator
@@ -359,12 +362,12 @@ public class EngineLauncher {
     if (it.hasNext()) {
       MonitoringActivator activator = it.next();
       monitoringActivator = activator;
-      // Initialize logging environment
-      monitoringActivator.initializeMonitoring();
+      // Initialize monitoring environment
+      monitoringActivator.initializeMonitoring(Metrics.getRegistry());
       log.info("Monitoring activator loaded successfully - using {}", monitoringActivator.getClass()
           .getName());
     } else {
-      log.info("No monitoring activator was registered - Limbus Monitoring defaults to no-op.");
+      log.info("No monitoring activator was registered - Limbus Monitoring records metrics without exporting them.");
     }
 
     if (it.hasNext()) {
@@ -0,0 +1,279 @@
+package com.remondis.limbus.maven;
+
+import static com.remondis.limbus.maven.AetherUtil.getConfiguredRemoteRepositories;
+import static com.remondis.limbus.maven.AetherUtil.getEffectiveSettings;
+import static com.remondis.limbus.maven.AetherUtil.getTransitiveCompileDependencies;
+import static com.remondis.limbus.maven.AetherUtil.getUserLocalRepository;
+import static com.remondis.limbus.maven.AetherUtil.getUserMavenConfigurationHome;
+import static com.remondis.limbus.maven.AetherUtil.logRepositories;
+import static com.remondis.limbus.maven.AetherUtil.newRepositorySystem;
+
+import java.io.File;
+import java.util.Collections;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.FutureTask;
+import java.util.concurrent.TimeUnit;
+
+import org.apache.maven.repository.internal.MavenRepositorySystemUtils;
+import org.apache.maven.settings.Settings;
+import org.eclipse.aether.DefaultRepositoryCache;
+import org.eclipse.aether.DefaultRepositorySystemSession;
+import org.eclipse.aether.DefaultSessionData;
+import org.eclipse.aether.RepositorySystem;
+import org.eclipse.aether.RepositorySystemSession;
+import org.eclipse.aether.artifact.Artifact;
+import org.eclipse.aether.artifact.DefaultArtifact;
+import org.eclipse.aether.repository.LocalRepository;
+import org.eclipse.aether.repository.RemoteRepository;
+import org.eclipse.aether.resolution.ArtifactRequest;
+import org.eclipse.aether.resolution.ArtifactResult;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import com.remondis.limbus.engine.api.maven.MavenArtifactService;
+import com.remondis.limbus.engine.api.maven.MavenCoordinates;
+import com.remondis.limbus.utils.Lang;
+
+/**
+ * This class resolves Maven artifacts and their transitive dependencies using a repository system and a session that
+ * are created once and reused for all resolutions. In contrast to
+ * {@link AetherUtil#resolveArtifactAndTransitiveDependencies(String, String, String, String)} the Maven settings are
+ * only read when this resolver is created.
+ *
+ * <p>
+ * The resolved dependency graphs are cached by their {@link MavenCoordinates}. Release versions never change and are
+ * cached for the lifetime of this resolver. Snapshot versions are resolved again after a time to live. Concurrent
+ * requests for the same coordinates are resolved only once.
+ * </p>
+ *
+ * <p>
+ * If the user settings are not available or the settings enable the offline mode, the resolver works offline against
+ * the local repository. A missing settings file is logged as a warning.
+ * </p>
+ *
+ * <p>
+ * This class is thread-safe.
+ * </p>
+ */
+public class AetherResolver {
+
+  private static final Logger log = LoggerFactory.getLogger(AetherResolver.class);
+
+  private static final String SNAPSHOT = "SNAPSHOT";
+
+  /**
+   * The default time a resolved snapshot is cached.
+   */
+  public static final long DEFAULT_SNAPSHOT_TIME_TO_LIVE = TimeUnit.MINUTES.toMillis(5);
+
+  private final RepositorySystem system;
+
+  private final RepositorySystemSession session;
+
+  private final List<RemoteRepository> remotes;
+
+  private final long snapshotTimeToLive;
+
+  private final Map<MavenCoordinates, Resolution> resolutions = new ConcurrentHashMap<>();
+
+  AetherResolver(RepositorySystem system, RepositorySystemSession session, List<RemoteRepository> remotes,
+      long snapshotTimeToLive) {
+    Lang.denyNull("system", system);
+    Lang.denyNull("session", session);
+    Lang.denyNull("remotes", remotes);
+    this.system = system;
+    this.session = session;
+    this.remotes = Collections.unmodifiableList(remotes);
+    this.snapshotTimeToLive = snapshotTimeToLive;
+  }
+
+  /**
+   * Creates a new resolver using the Maven settings and the local repository of the current user.
+   *
+   * @return Returns the resolver.
+   * @throws Exception
+   *         Thrown if the local repository or the settings are not accessible.
+   */
+  public static AetherResolver create() throws Exception {
+    return create(DEFAULT_SNAPSHOT_TIME_TO_LIVE);
+  }
+
+  /**
+   * Creates a new resolver using the Maven settings and the local repository of the current user.
+   *
+   * @param snapshotTimeToLive
+   *        The time in milliseconds a resolved snapshot is cached.
+   * @return Returns the resolver.
+   * @throws Exception
+   *         Thrown if the local repository or the settings are not accessible.
+   */
+  public static AetherResolver create(long snapshotTimeToLive) throws Exception {
+    File settingsFile = new File(getUserMavenConfigurationHome(), "settings.xml");
+    boolean offline;
+    List<RemoteRepository> remotes;
+    if (settingsFile.isFile()) {
+      Settings effectiveSettings = getEffectiveSettings();
+      offline = effectiveSettings.isOffline();
+      remotes = offline ? Collections.emptyList() : getConfiguredRemoteRepositories(effectiveSettings);
+    } else {
+      log.warn("No Maven user settings available at {} - resolving artifacts offline from the local repository.",
+          settingsFile);
+      offline = true;
+      remotes = Collections.emptyList();
+    }
+    logRepositories(remotes);
+
+    RepositorySystem system = newRepositorySystem();
+    RepositorySystemSession session = newSession(system, getUserLocalRepository(), offline);
+    return new AetherResolver(system, session, remotes, snapshotTimeToLive);
+  }
+
+  /**
+   * Creates the read-only session shared by all resolutions.
+   *
+   * @param system
+   *        The repository system.
+   * @param localRepository
+   *        The directory of the local repository.
+   * @param offline
+   *        <code>true</code> if the session should work offline, <code>false</code> otherwise.
+   * @return Returns the session.
+   */
+  static RepositorySystemSession newSession(RepositorySystem system, File localRepository, boolean offline) {
+    DefaultRepositorySystemSession session = MavenRepositorySystemUtils.newSession();
+    // A local repository manager must be set on the session
+    session.setLocalRepositoryManager(system.newLocalRepositoryManager(session, new LocalRepository(localRepository)));
+    // Artifact descriptors are shared between the resolutions
+    session.setCache(new DefaultRepositoryCache());
+    session.setOffline(offline);
+    session.setReadOnly();
+    return session;
+  }
+
+  /**
+   * Resolves a Maven artifact and all of its transitive dependencies. See
+   * {@link MavenArtifactService#resolveArtifactAndTransitiveDependencies(String, String, String, String)}.
+   *
+   * @param coordinates
+   *        The coordinates of the artifact.
+   * @return Returns the unmodifiable list of the requested artifact and all of its transitive dependencies.
+   * @throws Exception
+   *         Thrown if the artifact or a dependency cannot be resolved.
+   */
+  public List<ArtifactResult> resolveArtifactAndTransitiveDependencies(MavenCoordinates coordinates) throws Exception {
+    Lang.denyNull("coordinates", coordinates);
+    MavenCoordinates key = normalize(coordinates);
+    long now = System.currentTimeMillis();
+    Resolution resolution = resolutions.compute(key, (k, cached) -> {
+      if (cached == null || cached.isExpired(now)) {
+        return new Resolution(k, getExpiration(k, now));
+      } else {
+        return cached;
+      }
+    });
+    // Only the first caller performs the resolution, all others wait for the result.
+    resolution.run();
+    try {
+      return resolution.get();
+    } catch (ExecutionException e) {
+      // Failed resolutions are not cached.
+      resolutions.remove(key, resolution);
+      Throwable cause = e.getCause();
+      if (cause instanceof Exception) {
+        throw (Exception) cause;
+      } else {
+        throw e;
+      }
+    }
+  }
+
+  /**
+   * Removes all cached resolutions.
+   */
+  public void clear() {
+    resolutions.clear();
+  }
+
+  /**
+   * @return Returns <code>true</code> if this resolver works offline, <code>false</code> otherwise.
+   */
+  public boolean isOffline() {
+    return session.isOffline();
+  }
+
+  /**
+   * Resolves the dependency graph of the specified coordinates without using the cache.
+   *
+   * @param coordinates
+   *        The normalized coordinates of the artifact.
+   * @return Returns the unmodifiable list of the requested artifact and all of its transitive dependencies.
+   * @throws Exception
+   *         Thrown if the artifact or a dependency cannot be resolved.
+   */
+  List<ArtifactResult> resolve(MavenCoordinates coordinates) throws Exception {
+    log.info("Resolving {} - for more information enable debug log.", coordinates);
+    Artifact artifact = new DefaultArtifact(coordinates.getGroupId(), coordinates.getArtifactId(),
+        coordinates.getClassifier(), coordinates.getExtension(), coordinates.getVersion());
+    ArtifactRequest artifactRequest = new ArtifactRequest();
+    artifactRequest.setArtifact(artifact);
+    artifactRequest.setRepositories(remotes);
+    RepositorySystemSession resolutionSession = isSnapshot(coordinates) ? newSnapshotSession() : session;
+    ArtifactResult resolveArtifact = system.resolveArtifact(resolutionSession, artifactRequest);
+    List<ArtifactResult> artifactResults = getTransitiveCompileDependencies(resolveArtifact.getArtifact(), remotes,
+        system, resolutionSession);
+    return Collections.unmodifiableList(artifactResults);
+  }
+
+  /**
+   * The version resolver stores the resolved snapshot versions in the repository cache and the update checks are
+   * remembered in the session data. Both would keep a snapshot at the same timestamped version for the lifetime of the
+   * shared session, so snapshots are resolved with a copy of the session that starts with an empty cache.
+   */
+  private RepositorySystemSession newSnapshotSession() {
+    DefaultRepositorySystemSession snapshotSession = new DefaultRepositorySystemSession(session);
+    snapshotSession.setCache(new DefaultRepositoryCache());
+    snapshotSession.setData(new DefaultSessionData());
+    snapshotSession.setReadOnly();
+    return snapshotSession;
+  }
+
+  private long getExpiration(MavenCoordinates coordinates, long now) {
+    if (isSnapshot(coordinates)) {
+      return now + snapshotTimeToLive;
+    } else {
+      return Long.MAX_VALUE;
+    }
+  }
+
+  private static boolean isSnapshot(MavenCoordinates coordinates) {
+    String version = coordinates.getVersion();
+    return version != null && version.endsWith(SNAPSHOT);
+  }
+
+  private static MavenCoordinates normalize(MavenCoordinates coordinates) {
+    // The coordinates are copied because the bean is mutable.
+    return new MavenCoordinates(coordinates.getGroupId(), coordinates.getArtifactId(), coordinates.getVersion(),
+        Lang.defaultIfNull(coordinates.getClassifier(), ""),
+        MavenArtifactService.defaultExtensionIfNull(coordinates.getExtension()));
+  }
+
+  /**
+   * A cached resolution of a dependency graph.
+   */
+  private class Resolution extends FutureTask<List<ArtifactResult>> {
+
+    private final long expiration;
+
+    private Resolution(MavenCoordinates coordinates, long expiration) {
+      super(() -> resolve(coordinates));
+      this.expiration = expiration;
+    }
+
+    private boolean isExpired(long now) {
+      return now >= expiration;
+    }
+  }
+}
@@ -180,7 +180,7 @@ public class AetherUtil {
     }
   }
 
-  private static void logRepositories(List<RemoteRepository> resolveFrom) {
+  static void logRepositories(List<RemoteRepository> resolveFrom) {
     StringBuilder logOverview = new StringBuilder(
         "Using effective settings (incl. active profiles) the following remote repositories were calculated to resolve artifacts.\n");
 
@@ -193,8 +193,8 @@ public class AetherUtil {
     log.debug(logOverview.toString());
   }
 
-  private static List<ArtifactResult> getTransitiveCompileDependencies(Artifact pArtifact,
-      List<RemoteRepository> resolveFrom, RepositorySystem system, RepositorySystemSession session) throws Exception {
+  static List<ArtifactResult> getTransitiveCompileDependencies(Artifact pArtifact, List<RemoteRepository> resolveFrom,
+      RepositorySystem system, RepositorySystemSession session) throws Exception {
 
     List<String> included = Arrays.asList(new String[] {
         "compile", "runtime"
@@ -211,17 +211,16 @@ public class AetherUtil {
       DependencyRequest dependencyRequest = new DependencyRequest(collectRequest, filter);
       DependencyResult resolveDependencies = system.resolveDependencies(session, dependencyRequest);
 
-      // Note: The dependency graph is not filtered! So if a visitor walks through the
-      // graph it must apply the filters
-      // again!
-      ByteArrayOutputStream dependencyDumpStream = new ByteArrayOutputStream();
-      PrintStream dumpStream = new PrintStream(dependencyDumpStream);
-      resolveDependencies.getRoot()
-          .accept(new FilteringDependencyVisitor(new ConsoleDependencyGraphDumper(dumpStream), filter));
-
       List<ArtifactResult> artifactResults = resolveDependencies.getArtifactResults();
 
       if (log.isDebugEnabled()) {
+        // Note: The dependency graph is not filtered! So if a visitor walks through the
+        // graph it must apply the filters
+        // again!
+        ByteArrayOutputStream dependencyDumpStream = new ByteArrayOutputStream();
+        PrintStream dumpStream = new PrintStream(dependencyDumpStream);
+        resolveDependencies.getRoot()
+            .accept(new FilteringDependencyVisitor(new ConsoleDependencyGraphDumper(dumpStream), filter));
         log.debug("Artifact resolved - printing dependency tree:\n" + new String(dependencyDumpStream.toByteArray()));
       }
 
@@ -245,7 +244,7 @@ public class AetherUtil {
    * @param effectiveSettings The effective settings.
    * @return
    */
-  private static List<RemoteRepository> getConfiguredRemoteRepositories(Settings effectiveSettings) {
+  static List<RemoteRepository> getConfiguredRemoteRepositories(Settings effectiveSettings) {
     Map<String, Profile> profilesMap = effectiveSettings.getProfilesAsMap();
 
     List<RemoteRepository> remotes = new ArrayList<>(20);
@@ -290,7 +289,7 @@ public class AetherUtil {
   // return local;
   // }
 
-  private static Settings getEffectiveSettings() throws Exception {
+  static Settings getEffectiveSettings() throws Exception {
     try {
       SettingsBuildingRequest settingsBuildingRequest = new DefaultSettingsBuildingRequest();
       settingsBuildingRequest.setSystemProperties(System.getProperties());
@@ -320,7 +319,7 @@ public class AetherUtil {
   // return result;
   // }
 
-  private static RepositorySystem newRepositorySystem() {
+  static RepositorySystem newRepositorySystem() {
     DefaultServiceLocator locator = MavenRepositorySystemUtils.newServiceLocator();
     locator.addService(RepositoryConnectorFactory.class, BasicRepositoryConnectorFactory.class);
     locator.addService(TransporterFactory.class, FileTransporterFactory.class);
@@ -7,8 +7,16 @@ import java.io.FileInputStream;
 import java.io.FileNotFoundException;
 import java.io.FileOutputStream;
 import java.io.IOException;
+import java.util.LinkedList;
 import java.util.List;
 import java.util.Set;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.FutureTask;
+import java.util.concurrent.atomic.AtomicInteger;
 
 import org.eclipse.aether.resolution.ArtifactResult;
 import org.slf4j.Logger;
@@ -20,16 +28,60 @@ import com.remondis.limbus.engine.api.maven.MavenArtifactService;
 import com.remondis.limbus.engine.api.maven.MavenCoordinates;
 import com.remondis.limbus.utils.Lang;
 
+/**
+ * This {@link MavenArtifactService} resolves Maven artifacts using an {@link AetherResolver}. The resolver and its
+ * cache of resolved dependency graphs is kept for the lifetime of this service. Independent artifacts are resolved
+ * concurrently.
+ */
 public class MavenArtifactOverAetherServiceImpl implements MavenArtifactService {
 
   private static final Logger log = LoggerFactory.getLogger(DeployService.class);
 
+  private static final String RESOLVER_THREAD_NAME = "Limbus Maven Resolver";
+
+  /**
+   * The maximum number of artifacts resolved concurrently.
+   */
+  private static final int MAX_RESOLVER_THREADS = 4;
+
+  private AetherResolver resolver;
+
+  private ExecutorService executor;
+
   @Override
   public void initialize() throws Exception {
+    AtomicInteger threadNumber = new AtomicInteger();
+    this.executor = Executors.newFixedThreadPool(MAX_RESOLVER_THREADS, runnable -> {
+      Thread thread = new Thread(runnable, RESOLVER_THREAD_NAME + "-" + threadNumber.incrementAndGet());
+      thread.setDaemon(true);
+      thread.setContextClassLoader(MavenArtifactOverAetherServiceImpl.class.getClassLoader());
+      return thread;
+    });
   }
 
   @Override
   public void finish() {
+    if (executor != null) {
+      executor.shutdownNow();
+      this.executor = null;
+    }
+    synchronized (this) {
+      if (resolver != null) {
+        resolver.clear();
+        this.resolver = null;
+      }
+    }
+  }
+
+  /**
+   * @return Returns the resolver. The resolver is created on demand, so that this service can be initialized even if
+   *         the Maven configuration is not available.
+   */
+  private synchronized AetherResolver getResolver() throws Exception {
+    if (resolver == null) {
+      this.resolver = AetherResolver.create();
+    }
+    return resolver;
   }
 
   public File getUserSettingsFile() throws Exception {
@@ -51,8 +103,12 @@ public class MavenArtifactOverAetherServiceImpl implements MavenArtifactService
   @Override
   public List<MavenArtifact> resolveArtifactAndTransitiveDependencies(String groupId, String artifactId,
       String extension, String version) throws Exception {
-    List<ArtifactResult> artifactResult = AetherUtil.resolveArtifactAndTransitiveDependencies(groupId, artifactId,
-        extension, version);
+    MavenCoordinates coordinates = new MavenCoordinates(groupId, artifactId, version, null, extension);
+    return resolve(coordinates);
+  }
+
+  private List<MavenArtifact> resolve(MavenCoordinates coordinates) throws Exception {
+    List<ArtifactResult> artifactResult = getResolver().resolveArtifactAndTransitiveDependencies(coordinates);
     return artifactResult.stream()
         .map(ar -> new ArtifactResultAdapter(ar))
         .collect(toList());
@@ -60,19 +116,18 @@ public class MavenArtifactOverAetherServiceImpl implements MavenArtifactService
 
   public void downloadAndCopyMavenArtifacts(Set<MavenCoordinates> artifacts, File targetDirectory)
       throws Exception, IOException, FileNotFoundException {
+    // Resolve the artifacts concurrently and copy them in the order of the set.
+    List<Future<List<MavenArtifact>>> resolutions = new LinkedList<>();
     for (MavenCoordinates coordinates : artifacts) {
-      String groupId = coordinates.getGroupId();
-      String artifactId = coordinates.getArtifactId();
-      String version = coordinates.getVersion();
-
       log.info("Downloading Maven artifact: " + coordinates);
-
       // Normalize extension
-      String extension = MavenArtifactService.defaultExtensionIfNull(null);
-
-      List<MavenArtifact> mavenArtifacts = resolveArtifactAndTransitiveDependencies(groupId, artifactId, extension,
-          version);
+      MavenCoordinates normalized = new MavenCoordinates(coordinates.getGroupId(), coordinates.getArtifactId(),
+          coordinates.getVersion(), null, MavenArtifactService.defaultExtensionIfNull(null));
+      resolutions.add(submit(() -> resolve(normalized)));
+    }
 
+    for (Future<List<MavenArtifact>> resolution : resolutions) {
+      List<MavenArtifact> mavenArtifacts = await(resolution);
       for (MavenArtifact artifact : mavenArtifacts) {
         File artifactFile = artifact.getFile();
         File pluginArtifact = new File(targetDirectory, artifactFile.getName());
@@ -85,4 +140,29 @@ public class MavenArtifactOverAetherServiceImpl implements MavenArtifactService
     }
   }
 
+  private <T> Future<T> submit(Callable<T> task) {
+    ExecutorService executor = this.executor;
+    if (executor == null) {
+      // This service was not initialized - resolve in the caller thread.
+      FutureTask<T> future = new FutureTask<>(task);
+      future.run();
+      return future;
+    } else {
+      return executor.submit(task);
+    }
+  }
+
+  private static <T> T await(Future<T> future) throws Exception {
+    try {
+      return future.get();
+    } catch (ExecutionException e) {
+      Throwable cause = e.getCause();
+      if (cause instanceof Exception) {
+        throw (Exception) cause;
+      } else {
+        throw e;
+      }
+    }
+  }
+
 }
@@ -0,0 +1,201 @@
+package com.remondis.limbus.maven;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertSame;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.mockito.Mockito.mock;
+
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import org.eclipse.aether.DefaultRepositorySystemSession;
+import org.eclipse.aether.RepositorySystem;
+import org.eclipse.aether.RepositorySystemSession;
+import org.eclipse.aether.repository.RemoteRepository;
+import org.eclipse.aether.repository.RepositoryPolicy;
+import org.eclipse.aether.resolution.ArtifactResult;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import com.remondis.limbus.engine.api.maven.MavenCoordinates;
+
+public class AetherResolverTest {
+
+  private static final MavenCoordinates RELEASE = new MavenCoordinates("com.example", "plugin", "1.0.0");
+
+  private static final MavenCoordinates SNAPSHOT = new MavenCoordinates("com.example", "plugin", "1.1.0-SNAPSHOT");
+
+  @TempDir
+  Path temp;
+
+  @Test
+  public void shouldCacheReleases() throws Exception {
+    StubResolver resolver = new StubResolver(0);
+    List<ArtifactResult> results = resolver.resolveArtifactAndTransitiveDependencies(RELEASE);
+    // The coordinates are normalized, so the default extension hits the same cache entry.
+    assertSame(results, resolver
+        .resolveArtifactAndTransitiveDependencies(new MavenCoordinates("com.example", "plugin", "1.0.0", null, "jar")));
+    assertEquals(1, resolver.resolutions.get());
+
+    resolver.clear();
+    resolver.resolveArtifactAndTransitiveDependencies(RELEASE);
+    assertEquals(2, resolver.resolutions.get());
+  }
+
+  @Test
+  public void shouldResolveSnapshotsAfterTimeToLive() throws Exception {
+    StubResolver expiring = new StubResolver(0);
+    expiring.resolveArtifactAndTransitiveDependencies(SNAPSHOT);
+    expiring.resolveArtifactAndTransitiveDependencies(SNAPSHOT);
+    assertEquals(2, expiring.resolutions.get());
+
+    StubResolver caching = new StubResolver(TimeUnit.HOURS.toMillis(1));
+    caching.resolveArtifactAndTransitiveDependencies(SNAPSHOT);
+    caching.resolveArtifactAndTransitiveDependencies(SNAPSHOT);
+    assertEquals(1, caching.resolutions.get());
+  }
+
+  @Test
+  public void shouldResolveConcurrentRequestsOnce() throws Exception {
+    CountDownLatch resolving = new CountDownLatch(1);
+    CountDownLatch proceed = new CountDownLatch(1);
+    StubResolver resolver = new StubResolver(0) {
+      @Override
+      List<ArtifactResult> resolve(MavenCoordinates coordinates) throws Exception {
+        resolving.countDown();
+        proceed.await();
+        return super.resolve(coordinates);
+      }
+    };
+    ExecutorService executor = Executors.newFixedThreadPool(4);
+    try {
+      List<Future<List<ArtifactResult>>> futures = new ArrayList<>();
+      futures.add(executor.submit(() -> resolver.resolveArtifactAndTransitiveDependencies(RELEASE)));
+      resolving.await();
+      for (int i = 0; i < 3; i++) {
+        futures.add(executor.submit(() -> resolver.resolveArtifactAndTransitiveDependencies(RELEASE)));
+      }
+      proceed.countDown();
+      List<ArtifactResult> first = futures.get(0)
+          .get(10, TimeUnit.SECONDS);
+      for (Future<List<ArtifactResult>> future : futures) {
+        assertSame(first, future.get(10, TimeUnit.SECONDS));
+      }
+      assertEquals(1, resolver.resolutions.get());
+    } finally {
+      executor.shutdownNow();
+    }
+  }
+
+  @Test
+  public void shouldNotCacheFailures() throws Exception {
+    AtomicInteger failures = new AtomicInteger(1);
+    StubResolver resolver = new StubResolver(0) {
+      @Override
+      List<ArtifactResult> resolve(MavenCoordinates coordinates) throws Exception {
+        if (failures.getAndDecrement() > 0) {
+          throw new IOException("Repository not available.");
+        }
+        return super.resolve(coordinates);
+      }
+    };
+    assertThrows(IOException.class, () -> resolver.resolveArtifactAndTransitiveDependencies(RELEASE));
+    List<ArtifactResult> results = resolver.resolveArtifactAndTransitiveDependencies(RELEASE);
+    assertSame(results, resolver.resolveArtifactAndTransitiveDependencies(RELEASE));
+    assertEquals(1, resolver.resolutions.get());
+  }
+
+  @Test
+  public void shouldResolveNewerSnapshotsThroughVersionResolver() throws Exception {
+    Path remote = temp.resolve("remote");
+    RemoteRepository remoteRepository = new RemoteRepository.Builder("remote", "default", remote.toUri()
+        .toString()).setPolicy(
+            new RepositoryPolicy(true, RepositoryPolicy.UPDATE_POLICY_ALWAYS, RepositoryPolicy.CHECKSUM_POLICY_IGNORE))
+            .build();
+    RepositorySystem system = AetherUtil.newRepositorySystem();
+    RepositorySystemSession session = AetherResolver.newSession(system, Files.createDirectories(temp.resolve("local"))
+        .toFile(), false);
+    AetherResolver resolver = new AetherResolver(system, session, Collections.singletonList(remoteRepository), 0);
+
+    deploySnapshot(remote, "20200101.120000", 1);
+    assertEquals("1.1.0-20200101.120000-1", resolveVersion(resolver, SNAPSHOT));
+    // The shared session must not keep the snapshot at the version resolved first.
+    deploySnapshot(remote, "20200102.120000", 2);
+    assertEquals("1.1.0-20200102.120000-2", resolveVersion(resolver, SNAPSHOT));
+  }
+
+  private static String resolveVersion(AetherResolver resolver, MavenCoordinates coordinates) throws Exception {
+    return resolver.resolveArtifactAndTransitiveDependencies(coordinates)
+        .get(0)
+        .getArtifact()
+        .getVersion();
+  }
+
+  /**
+   * Deploys a snapshot of <tt>com.example:plugin:1.1.0-SNAPSHOT</tt> to the specified repository using the layout of
+   * a remote repository.
+   */
+  private static void deploySnapshot(Path repository, String timestamp, int buildNumber) throws IOException {
+    Path folder = Files.createDirectories(repository.resolve("com/example/plugin/1.1.0-SNAPSHOT"));
+    String version = "1.1.0-" + timestamp + "-" + buildNumber;
+    String updated = timestamp.replace(".", "");
+    Files.write(folder.resolve("plugin-" + version + ".jar"), new byte[0]);
+    Files.write(folder.resolve("plugin-" + version + ".pom"),
+        ("<project><modelVersion>4.0.0</modelVersion><groupId>com.example</groupId><artifactId>plugin</artifactId>"
+            + "<version>1.1.0-SNAPSHOT</version></project>").getBytes(StandardCharsets.UTF_8));
+    StringBuilder metadata = new StringBuilder();
+    metadata.append("<metadata><groupId>com.example</groupId><artifactId>plugin</artifactId>")
+        .append("<version>1.1.0-SNAPSHOT</version><versioning><snapshot><timestamp>")
+        .append(timestamp)
+        .append("</timestamp><buildNumber>")
+        .append(buildNumber)
+        .append("</buildNumber></snapshot><lastUpdated>")
+        .append(updated)
+        .append("</lastUpdated><snapshotVersions>");
+    for (String extension : new String[] {
+        "jar", "pom"
+    }) {
+      metadata.append("<snapshotVersion><extension>")
+          .append(extension)
+          .append("</extension><value>")
+          .append(version)
+          .append("</value><updated>")
+          .append(updated)
+          .append("</updated></snapshotVersion>");
+    }
+    metadata.append("</snapshotVersions></versioning></metadata>");
+    Files.write(folder.resolve("maven-metadata.xml"), metadata.toString()
+        .getBytes(StandardCharsets.UTF_8));
+  }
+
+  /**
+   * Replaces the resolution against the repository system by an empty result.
+   */
+  private static class StubResolver extends AetherResolver {
+
+    private final AtomicInteger resolutions = new AtomicInteger();
+
+    private StubResolver(long snapshotTimeToLive) {
+      super(mock(RepositorySystem.class), new DefaultRepositorySystemSession(), Collections.emptyList(),
+          snapshotTimeToLive);
+    }
+
+    @Override
+    List<ArtifactResult> resolve(MavenCoordinates coordinates) throws Exception {
+      resolutions.incrementAndGet();
+      return Collections.unmodifiableList(new ArrayList<>());
+    }
+  }
+
+}
@@ -9,9 +9,20 @@ import java.io.PrintWriter;
 import java.lang.ref.WeakReference;
 import java.net.URL;
 import java.net.URLConnection;
+import java.util.ArrayList;
+import java.util.Arrays;
 import java.util.Iterator;
+import java.util.List;
+import java.util.Map;
 import java.util.Map.Entry;
 import java.util.Properties;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.ScheduledFuture;
+import java.util.function.Function;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
 
 import com.remondis.limbus.files.LimbusFileService;
 import com.remondis.limbus.utils.Lang;
@@ -45,6 +56,18 @@ import com.remondis.limbus.utils.Lang;
  *
  * </p>
  *
+ * <h2>Typed access and reloading</h2>
+ * <p>
+ * The properties are held in an immutable snapshot that is swapped atomically on changes. Values requested by the
+ * typed getters are parsed once per snapshot and cached. For values read on hot paths use a {@link PropertyBinding}
+ * that is created by one of the <tt>bind</tt> methods: Reading a binding is a single volatile field read.
+ * </p>
+ * <p>
+ * The properties can be reloaded from the configuration file using {@link #reload()}. Use {@link #watch()} to reload
+ * the properties automatically when the configuration file changes. {@link PropertiesListener}s are notified after a
+ * reload.
+ * </p>
+ *
  * @author schuettec
  *
  */
@@ -53,10 +76,34 @@ public class LimbusProperties {
   private static final String FILE_PROPERIES_FORMAT = "%s.properties";
   private static final String DEFAULT_CP_FORMAT = "/%s_default.properties";
 
+  /**
+   * The default interval in milliseconds the configuration file is checked for changes when watched.
+   */
+  public static final long DEFAULT_WATCH_INTERVAL = 2000;
+
+  private static final Logger log = LoggerFactory.getLogger(LimbusProperties.class);
+
   private LimbusFileService filesystem;
 
-  private Properties properties = null;
+  private volatile Snapshot snapshot;
   private WeakReference<Class<?>> forClass;
+  private boolean failOnNoDefault;
+  private boolean failOnNoFile;
+
+  private final List<PropertyBinding<?>> bindings = new CopyOnWriteArrayList<>();
+  private final List<PropertiesListener> listeners = new CopyOnWriteArrayList<>();
+
+  private ScheduledFuture<?> watchFuture;
+
+  /**
+   * The content of the configuration file when it was loaded successfully the last time.
+   */
+  private byte[] fileContent;
+
+  /**
+   * The content of the configuration file that failed to load the last time or <code>null</code>.
+   */
+  private byte[] failedContent;
 
   /**
    * Shorthand for {@link #LimbusProperties(Class, true, false)}
@@ -93,7 +140,12 @@ public class LimbusProperties {
     // Try to access conf directory
     this.forClass = new WeakReference<Class<?>>(forClass);
     this.filesystem = filesystem;
+    this.failOnNoDefault = failOnNoDefault;
+    this.failOnNoFile = failOnNoFile;
+    this.snapshot = new Snapshot(load(forClass));
+  }
 
+  private Properties load(Class<?> forClass) throws Exception {
     // Load default.
     Properties defaultProperties = getConfigurationDefault(failOnNoDefault, forClass);
 
@@ -111,8 +163,194 @@ public class LimbusProperties {
 
     // Merge properties by overriding all items from default with the file properties.
     defaultProperties.putAll(fileProperties);
+    return defaultProperties;
+  }
+
+  /**
+   * Reloads the properties from the default and the configuration file. The {@link PropertyBinding}s are updated and
+   * the {@link PropertiesListener}s are notified. If a bound value cannot be parsed, the current properties are kept.
+   * Properties put programmatically are discarded.
+   *
+   * @throws Exception
+   *         Thrown if the properties cannot be loaded or a bound value cannot be parsed.
+   */
+  public void reload() throws Exception {
+    Class<?> forClass = this.forClass.get();
+    if (forClass == null) {
+      throw new Exception("Cannot reload properties of an unloaded class.");
+    }
+    synchronized (this) {
+      apply(load(forClass));
+    }
+    for (PropertiesListener listener : listeners) {
+      try {
+        listener.propertiesChanged(this);
+      } catch (Exception e) {
+        log.warn("A properties listener failed with an exception.", e);
+      }
+    }
+  }
+
+  /**
+   * Reloads the properties if the configuration file changed since the last check. Called by the
+   * {@link PropertiesWatcher}.
+   */
+  void reloadOnChange() throws Exception {
+    byte[] content = readFileContent();
+    boolean reported;
+    synchronized (this) {
+      if (Arrays.equals(content, fileContent)) {
+        return;
+      }
+      reported = Arrays.equals(content, failedContent);
+    }
+    try {
+      reload();
+    } catch (Exception e) {
+      // The content is not remembered as loaded, so the reload is retried. A broken file is reported only once.
+      synchronized (this) {
+        this.failedContent = content;
+      }
+      if (reported) {
+        log.debug("Cannot reload the changed configuration - keeping the current configuration.", e);
+        return;
+      }
+      throw e;
+    }
+    synchronized (this) {
+      this.fileContent = content;
+      this.failedContent = null;
+    }
+  }
 
-    this.properties = defaultProperties;
+  /**
+   * Starts watching the configuration file using the {@link #DEFAULT_WATCH_INTERVAL}.
+   *
+   * @see #watch(long)
+   */
+  public void watch() {
+    watch(DEFAULT_WATCH_INTERVAL);
+  }
+
+  /**
+   * Starts watching the configuration file. The properties are reloaded if the configuration file changes. Errors
+   * while reloading are logged and the current properties are kept.
+   *
+   * @param interval
+   *        The interval in milliseconds the configuration file is checked for changes.
+   */
+  public synchronized void watch(long interval) {
+    if (interval < 1) {
+      throw new IllegalArgumentException("The watch interval must be at least 1ms.");
+    }
+    if (watchFuture == null) {
+      this.fileContent = readFileContent();
+      this.watchFuture = PropertiesWatcher.watch(this, interval);
+    }
+  }
+
+  /**
+   * Stops watching the configuration file.
+   */
+  public synchronized void unwatch() {
+    if (watchFuture != null) {
+      watchFuture.cancel(false);
+      watchFuture = null;
+    }
+  }
+
+  /**
+   * @param listener
+   *        The listener to notify after the properties were reloaded.
+   */
+  public void addListener(PropertiesListener listener) {
+    Lang.denyNull("listener", listener);
+    listeners.add(listener);
+  }
+
+  /**
+   * @param listener
+   *        The listener to remove.
+   */
+  public void removeListener(PropertiesListener listener) {
+    listeners.remove(listener);
+  }
+
+  private byte[] readFileContent() {
+    Class<?> forClass = this.forClass.get();
+    if (forClass == null) {
+      return null;
+    }
+    String filePath = getFilePath(forClass);
+    try {
+      if (filesystem.hasFile(filePath)) {
+        return filesystem.getFileContent(filePath);
+      }
+    } catch (Exception e) {
+      log.debug("Cannot read configuration file {}.", filePath, e);
+    }
+    return null;
+  }
+
+  /**
+   * Replaces the current snapshot. The bound values are parsed before anything is changed, so either all or none of the
+   * values are updated.
+   */
+  private synchronized void apply(Properties properties) {
+    List<Object> values = new ArrayList<>(bindings.size());
+    for (PropertyBinding<?> binding : bindings) {
+      values.add(binding.parse(properties));
+    }
+    this.snapshot = new Snapshot(properties);
+    for (int i = 0; i < values.size(); i++) {
+      set(bindings.get(i), values.get(i));
+    }
+  }
+
+  @SuppressWarnings("unchecked")
+  private static <T> void set(PropertyBinding<T> binding, Object value) {
+    binding.set((T) value);
+  }
+
+  /**
+   * Binds a key to a parsed value.
+   *
+   * @param key
+   *        The property key.
+   * @param parser
+   *        The function to parse the string value.
+   * @return Returns the {@link PropertyBinding} that holds the parsed value and is updated on reload.
+   * @throws RuntimeException
+   *         Thrown if the key is not available or the value cannot be parsed.
+   */
+  public synchronized <T> PropertyBinding<T> bind(String key, Function<String, T> parser) {
+    Lang.denyNull("key", key);
+    Lang.denyNull("parser", parser);
+    PropertyBinding<T> binding = new PropertyBinding<>(key, parser);
+    binding.set(binding.parse(snapshot.properties));
+    bindings.add(binding);
+    return binding;
+  }
+
+  public PropertyBinding<String> bindString(String key) {
+    return bind(key, Function.identity());
+  }
+
+  public PropertyBinding<Boolean> bindBoolean(String key) {
+    return bind(key, Boolean::parseBoolean);
+  }
+
+  public PropertyBinding<Integer> bindInt(String key) {
+    return bind(key, Integer::parseInt);
+  }
+
+  public PropertyBinding<Long> bindLong(String key) {
+    return bind(key, Long::parseLong);
+  }
+
+  public <T extends Enum<T>> PropertyBinding<T> bindEnum(String key, Class<T> enumType) {
+    Lang.denyNull("enumType", enumType);
+    return bind(key, value -> Enum.valueOf(enumType, value));
   }
 
   /**
@@ -126,7 +364,7 @@ public class LimbusProperties {
     Class<?> forClass = this.forClass.get();
     Properties defaults = getConfigurationDefault(false, forClass);
 
-    Properties effectiveDifferences = getEffectiveDifferences(defaults, properties);
+    Properties effectiveDifferences = getEffectiveDifferences(defaults, snapshot.properties);
     if (!effectiveDifferences.isEmpty()) {
       // Only write the effective differences between the default and the effective properties
       String filePath = getFilePath(forClass);
@@ -200,8 +438,11 @@ public class LimbusProperties {
    * @param value
    *        The string value of the property.
    */
-  public void put(String key, String value) {
+  public synchronized void put(String key, String value) {
+    Properties properties = new Properties();
+    properties.putAll(snapshot.properties);
     properties.put(key, value);
+    apply(properties);
   }
 
   private Properties getConfigurationDefault(boolean failOnNoDefault, Class<?> forClass) throws Exception {
@@ -211,93 +452,71 @@ public class LimbusProperties {
     return defaultProperties;
   }
 
-  private void _checkKey(String key) {
-    if (!containsKey(key)) {
-      throw new RuntimeException(String.format("Configuration key '%s' not available.", key));
-    }
-  }
-
   public <T extends Enum<T>> T getEnum(String key, Class<T> enumType) {
     Lang.denyNull("key", key);
     Lang.denyNull("enumType", enumType);
-    _checkKey(key);
-    try {
-      return Enum.valueOf(enumType, getProperty(key));
-    } catch (Exception e) {
-      throw new RuntimeException(String.format("Configuration key '%s' cannot be parsed.", key));
-    }
+    return getParsed(key, enumType, value -> Enum.valueOf(enumType, value));
   }
 
   public long getLong(String key) {
     Lang.denyNull("key", key);
-    _checkKey(key);
-    try {
-      return Long.parseLong(getProperty(key));
-    } catch (Exception e) {
-      throw new RuntimeException(String.format("Configuration key '%s' cannot be parsed.", key));
-    }
+    return getParsed(key, Long.class, Long::parseLong);
   }
 
   public boolean getBoolean(String key) {
     Lang.denyNull("key", key);
-    _checkKey(key);
-    try {
-      return Boolean.parseBoolean(getProperty(key));
-    } catch (Exception e) {
-      throw new RuntimeException(String.format("Configuration key '%s' cannot be parsed.", key));
-    }
+    return getParsed(key, Boolean.class, Boolean::parseBoolean);
   }
 
   public double getDouble(String key) {
     Lang.denyNull("key", key);
-    _checkKey(key);
-    try {
-      return Double.parseDouble(getProperty(key));
-    } catch (Exception e) {
-      throw new RuntimeException(String.format("Configuration key '%s' cannot be parsed.", key));
-    }
+    return getParsed(key, Double.class, Double::parseDouble);
   }
 
   public float getFloat(String key) {
     Lang.denyNull("key", key);
-    _checkKey(key);
-    try {
-      return Float.parseFloat(getProperty(key));
-    } catch (Exception e) {
-      throw new RuntimeException(String.format("Configuration key '%s' cannot be parsed.", key));
-    }
+    return getParsed(key, Float.class, Float::parseFloat);
   }
 
   public int getInt(String key) {
     Lang.denyNull("key", key);
-    _checkKey(key);
-    try {
-      return Integer.parseInt(getProperty(key));
-    } catch (Exception e) {
-      throw new RuntimeException(String.format("Configuration key '%s' cannot be parsed.", key));
+    return getParsed(key, Integer.class, Integer::parseInt);
+  }
+
+  /**
+   * Returns the parsed value of a key. The value is parsed once per snapshot.
+   */
+  @SuppressWarnings("unchecked")
+  private <T> T getParsed(String key, Class<?> type, Function<String, T> parser) {
+    Map<String, Object> values = snapshot.getValues(type);
+    Object value = values.get(key);
+    if (value == null) {
+      value = new PropertyBinding<T>(key, parser).parse(snapshot.properties);
+      values.put(key, value);
     }
+    return (T) value;
   }
 
   public Properties getProperties() {
-    return new Properties(properties);
+    return new Properties(snapshot.properties);
   }
 
   public boolean containsKey(Object key) {
     Lang.denyNull("key", key);
-    return properties.containsKey(key);
+    return snapshot.properties.containsKey(key);
   }
 
   public String getProperty(String key) {
     Lang.denyNull("key", key);
-    return properties.getProperty(key);
+    return snapshot.properties.getProperty(key);
   }
 
   public void list(PrintStream out) {
-    properties.list(out);
+    snapshot.properties.list(out);
   }
 
   public void list(PrintWriter out) {
-    properties.list(out);
+    snapshot.properties.list(out);
   }
 
   /**
@@ -344,7 +563,29 @@ public class LimbusProperties {
    * @see java.util.Hashtable#isEmpty()
    */
   public boolean isEmpty() {
-    return properties.isEmpty();
+    return snapshot.properties.isEmpty();
+  }
+
+  /**
+   * An immutable snapshot of the properties together with the values parsed from it.
+   */
+  private static final class Snapshot {
+
+    private final Properties properties;
+
+    private final Map<Class<?>, Map<String, Object>> values = new ConcurrentHashMap<>();
+
+    private Snapshot(Properties properties) {
+      this.properties = properties;
+    }
+
+    private Map<String, Object> getValues(Class<?> type) {
+      Map<String, Object> typedValues = values.get(type);
+      if (typedValues == null) {
+        typedValues = values.computeIfAbsent(type, t -> new ConcurrentHashMap<>());
+      }
+      return typedValues;
+    }
   }
 
 }
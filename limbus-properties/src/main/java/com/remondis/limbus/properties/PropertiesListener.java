@@ -0,0 +1,17 @@
+package com.remondis.limbus.properties;
+
+/**
+ * A listener that is notified when {@link LimbusProperties} were reloaded.
+ */
+public interface PropertiesListener {
+
+  /**
+   * Called after the properties were reloaded. The {@link PropertyBinding}s of the properties already hold the new
+   * values.
+   *
+   * @param properties
+   *        The reloaded properties.
+   */
+  public void propertiesChanged(LimbusProperties properties);
+
+}
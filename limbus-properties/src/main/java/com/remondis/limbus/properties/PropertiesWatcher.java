@@ -0,0 +1,80 @@
+package com.remondis.limbus.properties;
+
+import java.lang.ref.WeakReference;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.ScheduledFuture;
+import java.util.concurrent.TimeUnit;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+/**
+ * Polls the configuration files of watched {@link LimbusProperties} and reloads the properties if a file changed.
+ * Polling is used, because the {@link com.remondis.limbus.files.LimbusFileService} does not provide change
+ * notifications. All watched properties share a single daemon thread. The watcher only holds weak references to the
+ * properties, so properties that are no longer used stop being watched.
+ */
+final class PropertiesWatcher {
+
+  private static final Logger log = LoggerFactory.getLogger(PropertiesWatcher.class);
+
+  private static final String THREAD_NAME = "Limbus Properties Watcher";
+
+  private static ScheduledExecutorService executor;
+
+  private PropertiesWatcher() {
+  }
+
+  /**
+   * Starts watching the configuration file of the specified properties.
+   *
+   * @param properties
+   *        The properties to watch.
+   * @param interval
+   *        The poll interval in milliseconds.
+   * @return Returns the future to cancel to stop watching.
+   */
+  static synchronized ScheduledFuture<?> watch(LimbusProperties properties, long interval) {
+    if (executor == null) {
+      executor = Executors.newSingleThreadScheduledExecutor(runnable -> {
+        Thread thread = new Thread(runnable, THREAD_NAME);
+        thread.setDaemon(true);
+        return thread;
+      });
+    }
+    PollTask task = new PollTask(properties);
+    ScheduledFuture<?> future = executor.scheduleWithFixedDelay(task, interval, interval, TimeUnit.MILLISECONDS);
+    task.future = future;
+    return future;
+  }
+
+  private static final class PollTask implements Runnable {
+
+    private final WeakReference<LimbusProperties> properties;
+
+    private volatile ScheduledFuture<?> future;
+
+    private PollTask(LimbusProperties properties) {
+      this.properties = new WeakReference<LimbusProperties>(properties);
+    }
+
+    @Override
+    public void run() {
+      LimbusProperties properties = this.properties.get();
+      if (properties == null) {
+        ScheduledFuture<?> future = this.future;
+        if (future != null) {
+          future.cancel(false);
+        }
+        return;
+      }
+      try {
+        properties.reloadOnChange();
+      } catch (Exception e) {
+        log.warn("Cannot reload the changed configuration - keeping the current configuration.", e);
+      }
+    }
+  }
+
+}
@@ -0,0 +1,68 @@
+package com.remondis.limbus.properties;
+
+import java.util.Properties;
+import java.util.function.Function;
+
+/**
+ * A property binding holds the parsed value of a single key of {@link LimbusProperties}. The value is parsed once when
+ * the binding is created and every time the {@link LimbusProperties} are reloaded, so reading the value is a single
+ * volatile field read. Use bindings for configuration values read on hot paths.
+ *
+ * @param <T>
+ *        The type of the value.
+ */
+public final class PropertyBinding<T> {
+
+  private final String key;
+
+  private final Function<String, T> parser;
+
+  private volatile T value;
+
+  PropertyBinding(String key, Function<String, T> parser) {
+    this.key = key;
+    this.parser = parser;
+  }
+
+  /**
+   * @return Returns the key of this binding.
+   */
+  public String getKey() {
+    return key;
+  }
+
+  /**
+   * @return Returns the current value of this binding.
+   */
+  public T get() {
+    return value;
+  }
+
+  /**
+   * Parses the value of this binding from the specified properties without applying it.
+   *
+   * @throws RuntimeException
+   *         Thrown if the key is not available or the value cannot be parsed.
+   */
+  T parse(Properties properties) {
+    String string = properties.getProperty(key);
+    if (string == null) {
+      throw new RuntimeException(String.format("Configuration key '%s' not available.", key));
+    }
+    try {
+      return parser.apply(string);
+    } catch (Exception e) {
+      throw new RuntimeException(String.format("Configuration key '%s' cannot be parsed.", key), e);
+    }
+  }
+
+  void set(T value) {
+    this.value = value;
+  }
+
+  @Override
+  public String toString() {
+    return key + "=" + value;
+  }
+
+}
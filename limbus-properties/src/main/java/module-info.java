@@ -5,4 +5,6 @@ open module com.remondis.limbus.properties {
   requires com.remondis.limbus.utils;
   requires com.remondis.limbus.vfs;
 
+  requires org.slf4j;
+
 }
\ No newline at end of file
@@ -2,10 +2,15 @@ package com.remondis.limbus.properties;
 
 import static org.junit.jupiter.api.Assertions.assertEquals;
 import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertNull;
 import static org.junit.jupiter.api.Assertions.assertThrows;
 import static org.junit.jupiter.api.Assertions.assertTrue;
 
+import java.nio.charset.StandardCharsets;
 import java.util.Properties;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.TimeUnit;
 
 import org.junit.jupiter.api.AfterEach;
 import org.junit.jupiter.api.BeforeEach;
@@ -155,4 +160,66 @@ public class LimbusPropertiesTest {
     });
   }
 
+  @Test
+  public void test_reload_on_change() throws Exception {
+    filesystem.addClasspathContent(getClass(), LimbusFileService.CONFIG_DIRECTORY,
+        "/com.remondis.limbus.properties.LimbusPropertiesTest_default.properties");
+    String filePath = filesystem.toPath(LimbusFileService.CONFIG_DIRECTORY,
+        "com.remondis.limbus.properties.LimbusPropertiesTest.properties");
+    filesystem.addContent(filePath, "testKey=first\nnumber=1".getBytes(StandardCharsets.ISO_8859_1));
+
+    LimbusProperties conf = new LimbusProperties(filesystem, LimbusPropertiesTest.class, true, true);
+    PropertyBinding<String> testKey = conf.bindString("testKey");
+    PropertyBinding<Integer> number = conf.bindInt("number");
+    assertEquals("first", testKey.get());
+    assertEquals(1, (int) number.get());
+    assertEquals(1, conf.getInt("number"));
+
+    BlockingQueue<LimbusProperties> changes = new LinkedBlockingQueue<>();
+    conf.addListener(changes::add);
+    conf.watch(10);
+    try {
+      filesystem.addContent(filePath, "testKey=second\nnumber=2".getBytes(StandardCharsets.ISO_8859_1));
+      assertEquals(conf, changes.poll(10, TimeUnit.SECONDS));
+      assertEquals("second", testKey.get());
+      assertEquals(2, (int) number.get());
+      assertEquals(2, conf.getInt("number"));
+
+      // A value that cannot be parsed keeps the current configuration.
+      filesystem.addContent(filePath, "testKey=third\nnumber=invalid".getBytes(StandardCharsets.ISO_8859_1));
+      assertNull(changes.poll(200, TimeUnit.MILLISECONDS));
+      assertEquals("second", testKey.get());
+      assertEquals(2, (int) number.get());
+    } finally {
+      conf.unwatch();
+    }
+  }
+
+  @Test
+  public void test_reload_failure() throws Exception {
+    filesystem.addClasspathContent(getClass(), LimbusFileService.CONFIG_DIRECTORY,
+        "/com.remondis.limbus.properties.LimbusPropertiesTest_default.properties");
+    String filePath = filesystem.toPath(LimbusFileService.CONFIG_DIRECTORY,
+        "com.remondis.limbus.properties.LimbusPropertiesTest.properties");
+    filesystem.addContent(filePath, "testKey=first\nnumber=1".getBytes(StandardCharsets.ISO_8859_1));
+
+    LimbusProperties conf = new LimbusProperties(filesystem, LimbusPropertiesTest.class, true, true);
+    PropertyBinding<Integer> number = conf.bindInt("number");
+    conf.watch(60000);
+    try {
+      filesystem.addContent(filePath, "testKey=second\nnumber=invalid".getBytes(StandardCharsets.ISO_8859_1));
+      Exception e = assertThrows(Exception.class, conf::reloadOnChange);
+      assertTrue(e.getCause() instanceof NumberFormatException);
+      // The broken file is reported once, but the reload is retried.
+      conf.reloadOnChange();
+      assertEquals(1, (int) number.get());
+
+      filesystem.addContent(filePath, "testKey=second\nnumber=2".getBytes(StandardCharsets.ISO_8859_1));
+      conf.reloadOnChange();
+      assertEquals(2, (int) number.get());
+    } finally {
+      conf.unwatch();
+    }
+  }
+
 }
@@ -0,0 +1,258 @@
+package com.remondis.limbus.system;
+
+import java.lang.reflect.Field;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.LinkedHashSet;
+import java.util.LinkedList;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+/**
+ * This class holds the dependency graph of the components of a {@link LimbusSystem}. The graph is built once from the
+ * injection points of the components and provides the initialization order in two forms:
+ * <ul>
+ * <li>The sequential order keeps the order of the component list, but initializes the dependencies of a component
+ * before the component itself.</li>
+ * <li>The topological levels: All dependencies of a component are located in lower levels, so the components of the
+ * same level do not depend on each other and can be initialized in parallel.</li>
+ * </ul>
+ */
+final class ComponentGraph {
+
+  private final Map<Component, Node> nodes;
+
+  ComponentGraph(List<Component> components) {
+    this.nodes = new LinkedHashMap<>();
+    for (Component component : components) {
+      nodes.put(component, new Node(component, nodes.size()));
+    }
+  }
+
+  /**
+   * Adds an injection point of the {@link LimbusSystem} itself.
+   *
+   * @param component
+   *        The component requesting the injection.
+   * @param field
+   *        The field to inject.
+   */
+  void addContainerInjection(Component component, Field field) {
+    getNode(component).injections.add(new Injection(field, null));
+  }
+
+  /**
+   * Adds an injection point of a component dependency.
+   *
+   * @param component
+   *        The component requesting the injection.
+   * @param field
+   *        The field to inject.
+   * @param dependency
+   *        The component to inject.
+   */
+  void addDependency(Component component, Field field, Component dependency) {
+    Node node = getNode(component);
+    node.injections.add(new Injection(field, dependency));
+    node.dependencies.add(getNode(dependency));
+  }
+
+  /**
+   * @param component
+   *        The component.
+   * @return Returns the injection points of the specified component.
+   */
+  List<Injection> getInjections(Component component) {
+    return Collections.unmodifiableList(getNode(component).injections);
+  }
+
+  /**
+   * Computes the sequential initialization order of this graph. The components are visited in the order of the
+   * component list this graph was created with. The dependencies of a component are visited in the order of their
+   * injection points before the component itself.
+   *
+   * @return Returns the components in initialization order.
+   * @throws LimbusCyclicException
+   *         Thrown if the components have a cyclic dependency.
+   */
+  List<Component> getSequentialOrder() throws LimbusCyclicException {
+    // Detects cyclic dependencies.
+    getLevels();
+    Set<Node> visited = new LinkedHashSet<>();
+    for (Node node : nodes.values()) {
+      visit(node, visited);
+    }
+    List<Component> order = new ArrayList<>(visited.size());
+    for (Node node : visited) {
+      order.add(node.component);
+    }
+    return order;
+  }
+
+  private static void visit(Node node, Set<Node> visited) {
+    if (visited.contains(node)) {
+      return;
+    }
+    for (Node dependency : node.dependencies) {
+      visit(dependency, visited);
+    }
+    visited.add(node);
+  }
+
+  /**
+   * Computes the topological levels of this graph. The components of a level keep the order of the component list
+   * this graph was created with.
+   *
+   * @return Returns the components grouped by topological levels.
+   * @throws LimbusCyclicException
+   *         Thrown if the components have a cyclic dependency.
+   */
+  List<List<Component>> getLevels() throws LimbusCyclicException {
+    List<List<Component>> levels = new LinkedList<>();
+    Map<Node, Integer> pendingDependencies = new HashMap<>();
+    Map<Node, List<Node>> dependents = new HashMap<>();
+    List<Node> level = new ArrayList<>();
+    for (Node node : nodes.values()) {
+      pendingDependencies.put(node, node.dependencies.size());
+      for (Node dependency : node.dependencies) {
+        dependents.computeIfAbsent(dependency, key -> new ArrayList<>())
+            .add(node);
+      }
+      if (node.dependencies.isEmpty()) {
+        level.add(node);
+      }
+    }
+
+    int resolved = 0;
+    while (!level.isEmpty()) {
+      List<Component> components = new ArrayList<>(level.size());
+      List<Node> nextLevel = new ArrayList<>();
+      for (Node node : level) {
+        components.add(node.component);
+        for (Node dependent : dependents.getOrDefault(node, Collections.emptyList())) {
+          if (pendingDependencies.merge(dependent, -1, Integer::sum) == 0) {
+            nextLevel.add(dependent);
+          }
+        }
+      }
+      levels.add(components);
+      resolved += level.size();
+      nextLevel.sort(Comparator.comparingInt(node -> node.index));
+      level = nextLevel;
+    }
+
+    if (resolved < nodes.size()) {
+      Set<Node> unresolvable = new LinkedHashSet<>();
+      for (Node node : nodes.values()) {
+        if (pendingDependencies.get(node) > 0) {
+          unresolvable.add(node);
+        }
+      }
+      throw new LimbusCyclicException(
+          String.format("Cyclic component dependency detected: %s.", describeCycle(unresolvable)));
+    }
+    return levels;
+  }
+
+  private Node getNode(Component component) {
+    Node node = nodes.get(component);
+    if (node == null) {
+      throw new IllegalArgumentException(String.format("The component %s is not part of the component graph.",
+          component.getConfiguration()
+              .getComponentType()
+              .getName()));
+    }
+    return node;
+  }
+
+  /**
+   * Follows the dependencies of the unresolvable nodes until a node is visited twice.
+   */
+  private static String describeCycle(Set<Node> unresolvable) {
+    List<Node> path = new ArrayList<>();
+    Node current = unresolvable.iterator()
+        .next();
+    while (!path.contains(current)) {
+      path.add(current);
+      for (Node dependency : current.dependencies) {
+        // Every unresolvable node depends on at least one unresolvable node.
+        if (unresolvable.contains(dependency)) {
+          current = dependency;
+          break;
+        }
+      }
+    }
+    StringBuilder circle = new StringBuilder();
+    for (Node node : path.subList(path.indexOf(current), path.size())) {
+      circle.append(getName(node.component))
+          .append(" ~> ");
+    }
+    circle.append(getName(current.component));
+    return circle.toString();
+  }
+
+  private static String getName(Component component) {
+    ComponentConfiguration configuration = component.getConfiguration();
+    if (configuration.isPublicComponent()) {
+      return configuration.getRequestType()
+          .getName();
+    } else {
+      return configuration.getComponentType()
+          .getName();
+    }
+  }
+
+  /**
+   * An injection point of a component.
+   */
+  static final class Injection {
+
+    private final Field field;
+
+    private final Component dependency;
+
+    private Injection(Field field, Component dependency) {
+      this.field = field;
+      this.dependency = dependency;
+    }
+
+    Field getField() {
+      return field;
+    }
+
+    /**
+     * @return Returns the component to inject or <code>null</code> if the {@link LimbusSystem} itself is to be
+     *         injected.
+     */
+    Component getDependency() {
+      return dependency;
+    }
+
+    boolean isContainer() {
+      return dependency == null;
+    }
+  }
+
+  private static final class Node {
+
+    private final Component component;
+
+    /**
+     * The position of the component in the component list.
+     */
+    private final int index;
+
+    private final List<Injection> injections = new ArrayList<>();
+
+    private final Set<Node> dependencies = new LinkedHashSet<>();
+
+    private Node(Component component, int index) {
+      this.component = component;
+      this.index = index;
+    }
+  }
+}
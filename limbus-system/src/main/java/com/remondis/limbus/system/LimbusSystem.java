@@ -7,6 +7,7 @@ import static java.util.Objects.nonNull;
 import static java.util.stream.Collectors.toList;
 
 import java.lang.reflect.Field;
+import java.util.ArrayList;
 import java.util.Collection;
 import java.util.Collections;
 import java.util.LinkedList;
@@ -15,7 +16,12 @@ import java.util.Map;
 import java.util.Set;
 import java.util.Stack;
 import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
 import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
 import java.util.function.Supplier;
 import java.util.stream.Collectors;
 
@@ -26,6 +32,7 @@ import com.remondis.limbus.api.IInitializable;
 import com.remondis.limbus.api.Initializable;
 import com.remondis.limbus.events.EventMulticaster;
 import com.remondis.limbus.events.EventMulticasterFactory;
+import com.remondis.limbus.system.ComponentGraph.Injection;
 import com.remondis.limbus.system.api.LimbusComponent;
 import com.remondis.limbus.system.api.LimbusContainer;
 import com.remondis.limbus.system.api.LimbusSystemListener;
@@ -63,6 +70,10 @@ import com.remondis.limbus.utils.ReflectionUtil;
  * fully initialized.</b>
  * </p>
  * <p>
+ * The dependencies between the components are resolved once into a dependency graph. Optionally, components that do
+ * not depend on each other can be initialized in parallel, see {@link #setInitializationParallelism(int)}.
+ * </p>
+ * <p>
  * The de-initialization will be performed in the reverse initialization order.
  * </p>
  *
@@ -101,6 +112,16 @@ public class LimbusSystem extends Initializable<LimbusSystemException> {
 
   protected List<Component> initializeOrder;
 
+  /**
+   * The components initialized successfully.
+   */
+  protected Set<Component> initializedComponents;
+
+  /**
+   * The maximum number of components initialized in parallel.
+   */
+  protected int initializationParallelism = 1;
+
   protected EventMulticaster<LimbusSystemListener> listeners;
 
   public LimbusSystem() {
@@ -123,6 +144,28 @@ public class LimbusSystem extends Initializable<LimbusSystemException> {
     this.objectFactory = objectFactory;
   }
 
+  /**
+   * Sets the maximum number of components that are initialized in parallel. The default is 1, so all components are
+   * initialized in the caller thread in the order of the configuration.
+   *
+   * <p>
+   * <b>If the parallelism is greater than 1, components that do not depend on each other are initialized in parallel
+   * and no longer in the order of the configuration. Only components that are injected into each other keep their
+   * order.</b> Only enable this if no component relies on the initialization of another component it does not inject,
+   * for example a component installing a security manager.
+   * </p>
+   *
+   * @param initializationParallelism
+   *        The maximum number of components initialized in parallel. A value of 1 initializes all components in the
+   *        caller thread.
+   */
+  public void setInitializationParallelism(int initializationParallelism) {
+    if (initializationParallelism < 1) {
+      throw new IllegalArgumentException("The initialization parallelism must be at least 1.");
+    }
+    this.initializationParallelism = initializationParallelism;
+  }
+
   protected void addAllFromSystemConfiguration(SystemConfiguration configuration) {
     List<ComponentConfiguration> components = configuration.getComponents();
     for (ComponentConfiguration c : components) {
@@ -139,7 +182,8 @@ public class LimbusSystem extends Initializable<LimbusSystemException> {
 
   protected List<InfoRecord> lazyInfoRecord() {
     if (infoRecords == null) {
-      this.infoRecords = new LinkedList<InfoRecord>();
+      // Components of the same topological level record their state concurrently.
+      this.infoRecords = Collections.synchronizedList(new LinkedList<InfoRecord>());
     }
     return infoRecords;
   }
@@ -157,7 +201,9 @@ public class LimbusSystem extends Initializable<LimbusSystemException> {
    * @return Returns the current state of the Limbus System with the recorded info objects in the order they occurred.
    */
   public List<InfoRecord> getInfoRecords() {
-    return new LinkedList<InfoRecord>(infoRecords);
+    synchronized (infoRecords) {
+      return new LinkedList<InfoRecord>(infoRecords);
+    }
   }
 
   /**
@@ -356,28 +402,13 @@ public class LimbusSystem extends Initializable<LimbusSystemException> {
     try {
       this.publicComponents = new ConcurrentHashMap<>();
       this.allComponents = new LinkedList<>();
-      this.initializeOrder = new LinkedList<Component>();
+      this.initializeOrder = Collections.synchronizedList(new LinkedList<Component>());
+      this.initializedComponents = ConcurrentHashMap.newKeySet();
 
       List<ComponentConfiguration> components = configuration.getComponents();
       createAllComponents(components);
-      forAllComponents(allComponents, (component) -> {
-        /*
-         * A component can already be initialized, because another dependency
-         * path triggered initialization before.
-         */
-        if (!isInitializedComponent(component)) {
-          injectDependencies(component);
-        }
-      });
-      forAllComponents(allComponents, (component) -> {
-        /*
-         * A component can already be initialized, because another dependency
-         * path triggered initialization before.
-         */
-        if (!isInitializedComponent(component)) {
-          initializeComponentOnDemand(component);
-        }
-      });
+      ComponentGraph graph = createComponentGraph(allComponents);
+      initializeComponents(graph);
       denyRequests.set(false);
       logInfoRecordsOnDemand();
       firePostInitializeEvent();
@@ -387,6 +418,111 @@ public class LimbusSystem extends Initializable<LimbusSystemException> {
     }
   }
 
+  /**
+   * Builds the dependency graph of the specified components from their injection points.
+   *
+   * @param components
+   *        The components of this system.
+   * @return Returns the dependency graph.
+   * @throws LimbusSystemException
+   *         Thrown if a dependency of a required component cannot be satisfied.
+   */
+  ComponentGraph createComponentGraph(List<Component> components) throws LimbusSystemException {
+    ComponentGraph graph = new ComponentGraph(components);
+    forAllComponents(components, (component) -> resolveDependencies(graph, component));
+    return graph;
+  }
+
+  /**
+   * Initializes the components of the dependency graph. Without parallelism the components are initialized in the
+   * sequential order of the graph. Otherwise the components are initialized level by level of the dependency graph.
+   * The components of a level do not depend on each other and are initialized in parallel using a bounded thread pool.
+   *
+   * @param graph
+   *        The dependency graph.
+   * @throws LimbusSystemException
+   *         Thrown if a required component fails to initialize.
+   */
+  void initializeComponents(ComponentGraph graph) throws LimbusSystemException {
+    List<List<Component>> levels = graph.getLevels();
+    int maxLevelSize = levels.stream()
+        .mapToInt(List::size)
+        .max()
+        .orElse(0);
+    int threads = Math.min(initializationParallelism, maxLevelSize);
+    if (threads <= 1) {
+      forAllComponents(graph.getSequentialOrder(), (component) -> initializeComponentOnDemand(graph, component));
+    } else {
+      ExecutorService executor = createInitializationExecutor(threads);
+      try {
+        for (List<Component> level : levels) {
+          if (level.size() == 1) {
+            forAllComponents(level, (component) -> initializeComponentOnDemand(graph, component));
+          } else {
+            initializeInParallel(executor, graph, level);
+          }
+        }
+      } finally {
+        executor.shutdownNow();
+      }
+    }
+  }
+
+  private void initializeInParallel(ExecutorService executor, ComponentGraph graph, List<Component> level)
+      throws LimbusSystemException {
+    List<Future<LimbusComponentException>> results = new ArrayList<>(level.size());
+    for (Component component : level) {
+      results.add(executor.submit(() -> {
+        try {
+          initializeComponentOnDemand(graph, component);
+          return null;
+        } catch (LimbusComponentException e) {
+          return e;
+        }
+      }));
+    }
+    // Wait for the whole level and report failures in the order of the configuration.
+    for (int i = 0; i < level.size(); i++) {
+      LimbusComponentException exception = awaitInitialization(results.get(i));
+      if (exception != null) {
+        handleComponentException(level.get(i)
+            .getConfiguration(), exception);
+      }
+    }
+  }
+
+  private LimbusComponentException awaitInitialization(Future<LimbusComponentException> result) {
+    try {
+      return result.get();
+    } catch (InterruptedException e) {
+      Thread.currentThread()
+          .interrupt();
+      throw new IllegalStateException("Interrupted while waiting for the initialization of a component.", e);
+    } catch (ExecutionException e) {
+      Throwable cause = e.getCause();
+      if (cause instanceof RuntimeException) {
+        throw (RuntimeException) cause;
+      } else if (cause instanceof Error) {
+        throw (Error) cause;
+      } else {
+        throw new IllegalStateException("Unexpected error while initializing a component.", cause);
+      }
+    }
+  }
+
+  private ExecutorService createInitializationExecutor(int threads) {
+    // Components may rely on the context classloader of the thread initializing the system.
+    ClassLoader contextClassLoader = Thread.currentThread()
+        .getContextClassLoader();
+    AtomicInteger threadNumber = new AtomicInteger();
+    return Executors.newFixedThreadPool(threads, runnable -> {
+      Thread thread = new Thread(runnable, "Limbus System Initializer-" + threadNumber.incrementAndGet());
+      thread.setDaemon(true);
+      thread.setContextClassLoader(contextClassLoader);
+      return thread;
+    });
+  }
+
   protected void firePostInitializeEvent() {
     listeners.multicastSilently()
         .postInitialize();
@@ -429,6 +565,7 @@ public class LimbusSystem extends Initializable<LimbusSystemException> {
       log.debug("Initializing component instance {}.", instance.getClass()
           .getName());
       instance.initialize();
+      initializedComponents.add(component);
       initializeOrder.add(component);
       infoRecord(initializedRecord(component));
     } catch (Exception e) {
@@ -521,11 +658,80 @@ public class LimbusSystem extends Initializable<LimbusSystemException> {
     }
   }
 
+  /**
+   * Resolves the injection points of the specified component and adds them to the dependency graph.
+   *
+   * @param graph
+   *        The dependency graph.
+   * @param component
+   *        The component to resolve the dependencies for.
+   * @throws LimbusComponentException
+   *         Thrown if a dependency cannot be satisfied.
+   */
+  void resolveDependencies(ComponentGraph graph, Component component) throws LimbusComponentException {
+    Class<? extends IInitializable<?>> componentType = component.configuration.getComponentType();
+    List<Field> fields = ReflectionUtil.getAllAnnotatedFields(componentType, LimbusContainer.class,
+        LimbusComponent.class);
+    for (Field f : fields) {
+      // schuettec - 20.02.2017 : Inject LimbusSystem dependencies
+      if (f.isAnnotationPresent(LimbusContainer.class)) {
+        graph.addContainerInjection(component, f);
+      }
+
+      if (f.isAnnotationPresent(LimbusComponent.class)) {
+        // schuettec - 20.02.2017 : Inject component dependencies
+        LimbusComponent componentAnnotation = f.getAnnotation(LimbusComponent.class);
+        Class<?> requestType = getRequestTypeFromAnnotationOrField(f, componentAnnotation);
+        if (_hasComponent(requestType)) {
+          Component dependency = _getComponent(requestType);
+          graph.addDependency(component, f, dependency);
+        } else {
+          throw new LimbusComponentException(
+              String.format("Dependency injection cannot be satisfied: Component %s requires unavailable component %s.",
+                  componentType.getName(), requestType.getName()));
+        }
+      }
+    }
+  }
+
+  /**
+   * Injects the dependencies of the specified component. The dependencies are expected to be initialized.
+   *
+   * @param graph
+   *        The dependency graph.
+   * @param component
+   *        The component to inject the dependencies into.
+   * @throws LimbusComponentException
+   *         Thrown if a dependency cannot be injected.
+   */
+  void injectDependencies(ComponentGraph graph, Component component) throws LimbusComponentException {
+    IInitializable<?> instance = component.getInstance();
+    for (Injection injection : graph.getInjections(component)) {
+      if (injection.isContainer()) {
+        injectValue(injection.getField(), instance, this);
+      } else {
+        IInitializable<?> dependencyInstance = injection.getDependency()
+            .getPublicReference();
+        injectValue(injection.getField(), instance, dependencyInstance);
+      }
+    }
+  }
+
+  /**
+   * @deprecated The dependencies are resolved once into a dependency graph before the components are initialized. This
+   *             method is no longer called by the {@link LimbusSystem}.
+   */
+  @Deprecated
   protected void injectDependencies(Component component) throws LimbusComponentException {
     Stack<Component> dependencyPath = new Stack<>();
     _injectDependenciesRecursive(component, dependencyPath);
   }
 
+  /**
+   * @deprecated The dependencies are resolved once into a dependency graph before the components are initialized. This
+   *             method is no longer called by the {@link LimbusSystem}.
+   */
+  @Deprecated
   protected boolean _injectDependenciesRecursive(Component component, Stack<Component> dependencyPath)
       throws LimbusComponentException {
     // Track path of dependencies
@@ -590,6 +796,11 @@ public class LimbusSystem extends Initializable<LimbusSystemException> {
     }
   }
 
+  /**
+   * @deprecated Cyclic dependencies are detected by the dependency graph. This method is no longer called by the
+   *             {@link LimbusSystem}.
+   */
+  @Deprecated
   protected void denyCyclicDependencies(Stack<Component> dependencyPath, Component requestor, Component dependency) {
     if (dependencyPath.contains(dependency)) {
       int iReq = dependencyPath.indexOf(requestor);
@@ -611,12 +822,22 @@ public class LimbusSystem extends Initializable<LimbusSystemException> {
     }
   }
 
+  /**
+   * @deprecated Cyclic dependencies are detected by the dependency graph. This method is no longer called by the
+   *             {@link LimbusSystem}.
+   */
+  @Deprecated
   protected Stack<Component> forkDependencyPath(Stack<Component> dependencyPath) {
     Stack<Component> newPath = new Stack<>();
     newPath.addAll(dependencyPath);
     return newPath;
   }
 
+  /**
+   * @deprecated The components are initialized in the order of the dependency graph. This method is no longer called
+   *             by the {@link LimbusSystem}.
+   */
+  @Deprecated
   protected boolean initializeComponentOnDemand(final Component dependency) throws LimbusComponentException {
     // schuettec - 09.05.2017 : Do not rely on isInitialized() because this relies to heavy on implementations and
     // mocking is more difficult because we always have to specify the correct answer on invocation of isInitialized().
@@ -628,14 +849,15 @@ public class LimbusSystem extends Initializable<LimbusSystemException> {
     }
   }
 
+  void initializeComponentOnDemand(ComponentGraph graph, Component component) throws LimbusComponentException {
+    if (!isInitializedComponent(component)) {
+      injectDependencies(graph, component);
+      initializeComponent(component);
+    }
+  }
+
   protected boolean isInitializedComponent(final Component component) {
-    return initializeOrder.stream()
-        .filter(c -> c.getConfiguration()
-            .getComponentType()
-            .equals(component.getConfiguration()
-                .getComponentType()))
-        .findAny()
-        .isPresent();
+    return initializedComponents.contains(component);
   }
 
   protected Supplier<InfoRecord> exceptionRecord(final Component dependency) {
@@ -710,7 +932,12 @@ public class LimbusSystem extends Initializable<LimbusSystemException> {
 
     denyRequests.set(true);
     try {
-      List<Component> finishOrder = new LinkedList<>(this.initializeOrder);
+      // The initialize order is a topological order, because components are initialized
+      // after their dependencies. The reverse order finishes components before their dependencies.
+      List<Component> finishOrder;
+      synchronized (initializeOrder) {
+        finishOrder = new LinkedList<>(this.initializeOrder);
+      }
       Collections.reverse(finishOrder);
 
       forAllComponents(finishOrder, (component) -> {
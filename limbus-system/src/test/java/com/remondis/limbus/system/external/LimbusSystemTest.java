@@ -209,4 +209,39 @@ public class LimbusSystemTest {
 
   }
 
+  @Test
+  public void test_independent_components_keep_configuration_order() throws LimbusSystemException {
+    LimbusSystem system = new LimbusSystem();
+    system.addComponentConfiguration(Aggregator.class, AggregatorImpl.class);
+    system.addComponentConfiguration(Consumer.class, ConsumerImpl.class);
+    system.addComponentConfiguration(Filter.class, FilterImpl.class);
+    system.addComponentConfiguration(Producer.class, ProducerImpl.class);
+    // Nobody depends on this component, but it must be initialized after all components configured before.
+    system.addComponentConfiguration(A.class, true);
+    system.initialize();
+    system.finish();
+
+    List<InfoRecord> infoRecords = system.getInfoRecords();
+    Class<?>[] initOrder = new Class<?>[] {
+        ProducerImpl.class, FilterImpl.class, ConsumerImpl.class, AggregatorImpl.class, A.class
+    };
+    for (int i = 0; i < initOrder.length; i++) {
+      assertEquals(initOrder[i], infoRecords.get(i)
+          .getComponent()
+          .getConfiguration()
+          .getComponentType());
+    }
+  }
+
+  @Test
+  public void test_independent_components_initialize_in_parallel() throws LimbusSystemException {
+    LimbusSystem system = new LimbusSystem();
+    system.setInitializationParallelism(2);
+    system.addComponentConfiguration(ParallelA.class, true);
+    system.addComponentConfiguration(ParallelB.class, true);
+    // Both components wait for each other while initializing.
+    system.initialize();
+    system.finish();
+  }
+
 }
@@ -0,0 +1,25 @@
+package com.remondis.limbus.system.external;
+
+import java.util.concurrent.CyclicBarrier;
+import java.util.concurrent.TimeUnit;
+
+import com.remondis.limbus.api.Initializable;
+
+/**
+ * A component that can only initialize while {@link ParallelB} is initializing.
+ */
+public class ParallelA extends Initializable<Exception> {
+
+  static final CyclicBarrier barrier = new CyclicBarrier(2);
+
+  @Override
+  protected void performInitialize() throws Exception {
+    barrier.await(5, TimeUnit.SECONDS);
+  }
+
+  @Override
+  protected void performFinish() {
+
+  }
+
+}
@@ -0,0 +1,22 @@
+package com.remondis.limbus.system.external;
+
+import java.util.concurrent.TimeUnit;
+
+import com.remondis.limbus.api.Initializable;
+
+/**
+ * A component that can only initialize while {@link ParallelA} is initializing.
+ */
+public class ParallelB extends Initializable<Exception> {
+
+  @Override
+  protected void performInitialize() throws Exception {
+    ParallelA.barrier.await(5, TimeUnit.SECONDS);
+  }
+
+  @Override
+  protected void performFinish() {
+
+  }
+
+}
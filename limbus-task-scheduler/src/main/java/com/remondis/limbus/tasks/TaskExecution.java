@@ -1,37 +1,90 @@
 package com.remondis.limbus.tasks;
 
-import static com.remondis.limbus.tasks.TaskSchedulerImpl.normalizeRate;
-
-import java.util.concurrent.ScheduledFuture;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicReference;
 import java.util.function.Function;
 
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
+import com.remondis.limbus.api.metrics.Counter;
+import com.remondis.limbus.api.metrics.Histogram;
+import com.remondis.limbus.tasks.TimingWheel.Timeout;
 import com.remondis.limbus.utils.StopWatch;
 
+/**
+ * The periodic execution of a {@link Task}. An execution reschedules itself on the {@link TimingWheel} after every
+ * run, so a change of the rate does not require to cancel a scheduled future. The next execution is planned at a fixed
+ * rate relative to the last planned execution. Whenever the schedule starts or the rate changes, a random jitter is
+ * added, so that tasks with the same rate do not run in lockstep.
+ *
+ * <p>
+ * The statistics of the execution are added to the metrics named <tt>limbus.tasks.&lt;task class&gt;</tt> while the
+ * task is scheduled, see {@link TaskMetrics}.
+ * </p>
+ */
 class TaskExecution implements Runnable {
 
   private static final Logger log = LoggerFactory.getLogger(TaskExecution.class);
 
-  private TaskSchedulerImpl scheduler;
-  private Task task;
-  private Function<Boolean, Long> scheduleRateFunction;
-  private long currentRate;
-  private boolean lastSuccess;
-  private ScheduledFuture<?> future;
-
-  private boolean rejected;
-
-  TaskExecution(TaskSchedulerImpl scheduler, Task task, Function<Boolean, Long> scheduleRateFunction) {
+  private final TaskSchedulerImpl scheduler;
+  private final Task task;
+  private final Function<Boolean, Long> scheduleRateFunction;
+  private final long minimumRate;
+  private volatile long currentRate;
+  private volatile boolean lastSuccess;
+  private volatile boolean rejected;
+  private volatile boolean cancelled;
+  private volatile Timeout timeout;
+
+  private final Histogram runtimes = new Histogram();
+  private final Histogram lags = new Histogram();
+  private final Counter executions = new Counter();
+  private final Counter failures = new Counter();
+  private final Counter backoffs = new Counter();
+
+  /**
+   * The metrics of the task class. Set while the task is scheduled.
+   */
+  private final AtomicReference<TaskMetrics> metrics = new AtomicReference<>();
+
+  /**
+   * The time of the next planned execution in nanoseconds. Accessed by the execution only.
+   */
+  private long nextExecution;
+
+  TaskExecution(TaskSchedulerImpl scheduler, Task task, Function<Boolean, Long> scheduleRateFunction,
+      long minimumRate) {
     super();
     this.task = task;
     this.scheduleRateFunction = scheduleRateFunction;
     this.scheduler = scheduler;
+    this.minimumRate = minimumRate;
+  }
+
+  /**
+   * Plans the first execution of the task.
+   */
+  void start() {
+    metrics.set(TaskMetrics.acquire(task.getClass()));
+    this.currentRate = normalizeRate(scheduleRateFunction.apply(true));
+    // The first execution is only delayed by the jitter, so tasks scheduled at the same time are spread.
+    this.nextExecution = System.nanoTime() + jitter(currentRate);
+    scheduleNext();
   }
 
   @Override
   public void run() {
+    if (cancelled) {
+      return;
+    }
+    TaskMetrics metrics = this.metrics.get();
+    long lag = TimeUnit.NANOSECONDS.toMicros(System.nanoTime() - nextExecution);
+    lags.record(lag);
+    if (metrics != null) {
+      metrics.recordLag(lag);
+    }
     StopWatch s = new StopWatch();
     this.rejected = false;
     boolean success = false;
@@ -41,11 +94,22 @@ class TaskExecution implements Runnable {
       success = true;
     } catch (Exception e) {
       success = false;
+      failures.increment();
+      if (metrics != null) {
+        metrics.recordFailure();
+      }
       log.warn(String.format("The periodic task %s failed with an exception.", task.getClass()
           .getName()), e);
     } finally {
       s.stop();
     }
+    // The runtime is recorded first, so a task info never reports more executions than runtimes.
+    long runtime = TimeUnit.NANOSECONDS.toMicros(s.getNanoRuntime());
+    runtimes.record(runtime);
+    executions.increment();
+    if (metrics != null) {
+      metrics.recordRun(runtime);
+    }
     lastSuccess = success;
     rescheduleOnDemand(success, s.getMillisecondsRuntime());
   }
@@ -66,8 +130,8 @@ class TaskExecution implements Runnable {
 
   private void rescheduleOnDemand(boolean success, long lastRuntime) {
     if (lastRuntime >= currentRate) {
-      // buschmann - 23.05.2017 : The scheduled executor service automatically prevents overlapping of task executions.
-      // So subsequent executions will be delayed until after the previous one has finished. We only need to warn here.
+      // The next execution is planned after the previous one has finished, so executions never overlap. Subsequent
+      // executions will be delayed - we only need to warn here.
       log.warn(String.format("Runtime of task %s was bigger then reschedule delay.", this.getTaskInfo()
           .getTaskName()));
     }
@@ -75,45 +139,67 @@ class TaskExecution implements Runnable {
     long newRate = normalizeRate(scheduleRateFunction.apply(success));
     if (currentRate != newRate) {
       logException(newRate, success);
-      // Cancel this execution
-      cancel();
+      if (newRate > currentRate) {
+        backoffs.increment();
+        TaskMetrics metrics = this.metrics.get();
+        if (metrics != null) {
+          metrics.recordBackoff();
+        }
+      }
       currentRate = newRate;
-      scheduler.reschedule(this, newRate);
+      nextExecution = System.nanoTime() + TimeUnit.MILLISECONDS.toNanos(newRate) + jitter(newRate);
+    } else {
+      nextExecution = Math.max(nextExecution + TimeUnit.MILLISECONDS.toNanos(currentRate), System.nanoTime());
     }
+    scheduleNext();
+  }
 
+  private void scheduleNext() {
+    if (cancelled) {
+      return;
+    }
+    long delay = TimeUnit.NANOSECONDS.toMillis(nextExecution - System.nanoTime());
+    this.timeout = scheduler.schedule(this, delay);
+    if (cancelled) {
+      // The execution was cancelled concurrently.
+      cancel();
+    }
   }
 
-  public void setCurrentRate(Long currentRate) {
-    this.currentRate = currentRate;
+  private long normalizeRate(long rate) {
+    return Math.max(minimumRate, rate);
   }
 
-  public void setFuture(ScheduledFuture<?> future) {
-    this.future = future;
+  private long jitter(long rate) {
+    long maxJitter = Math.round(TimeUnit.MILLISECONDS.toNanos(rate) * scheduler.getJitter());
+    if (maxJitter <= 0) {
+      return 0;
+    }
+    return ThreadLocalRandom.current()
+        .nextLong(maxJitter);
   }
 
+  /**
+   * Cancels the periodic execution of the task. A running execution is not interrupted but will not be scheduled
+   * again. This method does not block.
+   */
   public void cancel() {
-    if (future != null) {
-      future.cancel(false);
-      try {
-        future.get();
-      } catch (Exception e) {
-        /*
-         * Ignore any exception because:
-         * CancellationException: Is a result of cancelling the job, but this is our intention here.
-         *
-         * ExecutionException: if the computation threw an exception. This exception cannot be handled here. Exceptions
-         * are handled inside the run method.
-         *
-         * InterruptedException - if the current thread was interrupted while waiting, we cannot do anything.
-         *
-         */
-      }
+    this.cancelled = true;
+    Timeout timeout = this.timeout;
+    if (timeout != null) {
+      timeout.cancel();
+    }
+    // Cancel may be called more than once, but the metrics are released only once.
+    TaskMetrics metrics = this.metrics.getAndSet(null);
+    if (metrics != null) {
+      metrics.release();
     }
   }
 
   public TaskInfo getTaskInfo() {
     return new TaskInfo(task.getClass()
-        .getName(), lastSuccess, currentRate, rejected);
+        .getName(), lastSuccess, currentRate, rejected, executions.getCount(), failures.getCount(), backoffs.getCount(),
+        runtimes.copy(), lags.copy());
   }
 
   public void wasRejected() {
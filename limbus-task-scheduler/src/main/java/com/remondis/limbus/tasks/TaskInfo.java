@@ -1,5 +1,7 @@
 package com.remondis.limbus.tasks;
 
+import com.remondis.limbus.api.metrics.Histogram;
+
 /**
  * Represents the information snapshot of a scheduled task, managed by {@link TaskScheduler}.
  *
@@ -12,12 +14,27 @@ public class TaskInfo {
   private boolean lastSuccess;
   private long currentWaitTime;
   private boolean rejected;
+  private long executions;
+  private long failures;
+  private long backoffs;
+  private Histogram runtimes;
+  private Histogram lags;
 
   public TaskInfo(String taskName, boolean lastSuccess, long currentWaitTime, boolean rejected) {
+    this(taskName, lastSuccess, currentWaitTime, rejected, 0, 0, 0, new Histogram(), new Histogram());
+  }
+
+  public TaskInfo(String taskName, boolean lastSuccess, long currentWaitTime, boolean rejected, long executions,
+      long failures, long backoffs, Histogram runtimes, Histogram lags) {
     this.taskName = taskName;
     this.lastSuccess = lastSuccess;
     this.currentWaitTime = currentWaitTime;
     this.rejected = rejected;
+    this.executions = executions;
+    this.failures = failures;
+    this.backoffs = backoffs;
+    this.runtimes = runtimes;
+    this.lags = lags;
   }
 
   public String getTaskName() {
@@ -36,4 +53,41 @@ public class TaskInfo {
     return rejected;
   }
 
+  /**
+   * @return Returns the number of executions of the task.
+   */
+  public long getExecutions() {
+    return executions;
+  }
+
+  /**
+   * @return Returns the number of executions that failed with an exception.
+   */
+  public long getFailures() {
+    return failures;
+  }
+
+  /**
+   * @return Returns the number of times the schedule rate function increased the wait time of the task, for example
+   *         when {@link GentleRegeneration} backs off after failures.
+   */
+  public long getBackoffs() {
+    return backoffs;
+  }
+
+  /**
+   * @return Returns the histogram of the runtimes of the task executions in microseconds.
+   */
+  public Histogram getRuntimes() {
+    return runtimes;
+  }
+
+  /**
+   * @return Returns the histogram of the scheduling lag in microseconds. The lag is the time between the planned and
+   *         the actual start of an execution. A high lag indicates that the worker threads of the scheduler are busy.
+   */
+  public Histogram getLags() {
+    return lags;
+  }
+
 }
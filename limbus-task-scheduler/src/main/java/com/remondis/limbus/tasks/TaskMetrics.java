@@ -0,0 +1,111 @@
+package com.remondis.limbus.tasks;
+
+import java.util.HashMap;
+import java.util.Map;
+
+import com.remondis.limbus.api.metrics.Counter;
+import com.remondis.limbus.api.metrics.Histogram;
+import com.remondis.limbus.api.metrics.MetricRegistry;
+import com.remondis.limbus.api.metrics.Metrics;
+
+/**
+ * The metrics <tt>limbus.tasks.&lt;task class&gt;.*</tt> sum up the executions of all scheduled tasks of the same
+ * class. The metrics are registered with the first scheduled task of a class and removed when the last task of the
+ * class is unscheduled.
+ */
+final class TaskMetrics {
+
+  /**
+   * Maps the task class names to the registered metrics. Guards the references of all metrics.
+   */
+  private static final Map<String, TaskMetrics> METRICS = new HashMap<>();
+
+  private final String taskClassName;
+
+  private final Counter runs = new Counter();
+  private final Counter failures = new Counter();
+  private final Counter backoffs = new Counter();
+  private final Histogram runtimes = new Histogram();
+  private final Histogram lags = new Histogram();
+
+  private int references;
+
+  private TaskMetrics(String taskClassName) {
+    this.taskClassName = taskClassName;
+  }
+
+  /**
+   * Returns the metrics of the specified task class. The metrics are registered if no other task of this class is
+   * scheduled. Every call must be followed by a call to {@link #release()}.
+   *
+   * @param taskClass
+   *        The class of the scheduled task.
+   * @return Returns the metrics of the task class.
+   */
+  static TaskMetrics acquire(Class<?> taskClass) {
+    String taskClassName = taskClass.getName();
+    synchronized (METRICS) {
+      TaskMetrics metrics = METRICS.get(taskClassName);
+      if (metrics == null) {
+        metrics = new TaskMetrics(taskClassName);
+        METRICS.put(taskClassName, metrics);
+        metrics.register();
+      }
+      metrics.references++;
+      return metrics;
+    }
+  }
+
+  /**
+   * Releases the metrics acquired by {@link #acquire(Class)}. The metrics are removed from the {@link MetricRegistry}
+   * if no other task of this class is scheduled.
+   */
+  void release() {
+    synchronized (METRICS) {
+      references--;
+      if (references == 0) {
+        METRICS.remove(taskClassName, this);
+        unregister();
+      }
+    }
+  }
+
+  void recordRun(long runtimeMicros) {
+    runtimes.record(runtimeMicros);
+    runs.increment();
+  }
+
+  void recordFailure() {
+    failures.increment();
+  }
+
+  void recordBackoff() {
+    backoffs.increment();
+  }
+
+  void recordLag(long lagMicros) {
+    lags.record(lagMicros);
+  }
+
+  private String getMetricName(String metric) {
+    return MetricRegistry.name("limbus.tasks", taskClassName, metric);
+  }
+
+  private void register() {
+    MetricRegistry registry = Metrics.getRegistry();
+    registry.register(getMetricName("runs"), runs);
+    registry.register(getMetricName("failures"), failures);
+    registry.register(getMetricName("backoffs"), backoffs);
+    registry.register(getMetricName("runtime.micros"), runtimes);
+    registry.register(getMetricName("lag.micros"), lags);
+  }
+
+  private void unregister() {
+    MetricRegistry registry = Metrics.getRegistry();
+    registry.remove(getMetricName("runs"), runs);
+    registry.remove(getMetricName("failures"), failures);
+    registry.remove(getMetricName("backoffs"), backoffs);
+    registry.remove(getMetricName("runtime.micros"), runtimes);
+    registry.remove(getMetricName("lag.micros"), lags);
+  }
+}
@@ -1,6 +1,7 @@
 package com.remondis.limbus.tasks;
 
 import java.util.List;
+import java.util.NoSuchElementException;
 import java.util.function.Function;
 
 import com.remondis.limbus.api.IInitializable;
@@ -13,6 +14,11 @@ import com.remondis.limbus.api.IInitializable;
  */
 public interface TaskScheduler extends IInitializable<Exception> {
 
+  /**
+   * The minimum rate in milliseconds of tasks that do not specify a minimum rate.
+   */
+  public static final long DEFAULT_MINIMUM_RATE = 500;
+
   /**
    * Removes a scheduled {@link Task} from the periodic task scheduler..
    *
@@ -28,12 +34,44 @@ public interface TaskScheduler extends IInitializable<Exception> {
    *        The task to schedule
    * @param scheduleRateFunction
    *        The function that calculates the task execution frequency in milliseconds based on the last
-   *        success status. <b>Note: The minimum frequency is 500ms!</b>
+   *        success status. <b>Note: The minimum frequency is {@value #DEFAULT_MINIMUM_RATE}ms!</b>
    */
   public void schedulePeriodicTask(Task task, Function<Boolean, Long> scheduleRateFunction);
 
+  /**
+   * Schedules a {@link Task} for periodic execution using an adaptive frequency. Use this method for tasks that need
+   * to run more frequently than every {@value #DEFAULT_MINIMUM_RATE}ms.
+   *
+   * @param task
+   *        The task to schedule
+   * @param scheduleRateFunction
+   *        The function that calculates the task execution frequency in milliseconds based on the last
+   *        success status.
+   * @param minimumRate
+   *        The minimum frequency in milliseconds. <b>Note: The scheduler may enforce a higher minimum frequency due to
+   *        its precision.</b> The default implementation ignores the minimum rate and enforces
+   *        {@value #DEFAULT_MINIMUM_RATE}ms.
+   */
+  public default void schedulePeriodicTask(Task task, Function<Boolean, Long> scheduleRateFunction, long minimumRate) {
+    schedulePeriodicTask(task, scheduleRateFunction);
+  }
+
   /**
    * @return Returns the current snapshot of the tasks scheduled.
    */
   public List<TaskInfo> getSchedulerInfo();
+
+  /**
+   * @param task
+   *        The scheduled task.
+   * @return Returns the current snapshot of the specified task including its runtime and scheduling lag histograms.
+   * @throws NoSuchElementException
+   *         Thrown if the task is not scheduled.
+   * @throws UnsupportedOperationException
+   *         Thrown by the default implementation, because the task infos of {@link #getSchedulerInfo()} cannot be
+   *         mapped to the scheduled task instances.
+   */
+  public default TaskInfo getTaskInfo(Task task) throws NoSuchElementException {
+    throw new UnsupportedOperationException("This task scheduler does not provide the info of a single task.");
+  }
 }
@@ -1,14 +1,15 @@
 package com.remondis.limbus.tasks;
 
+import java.security.AccessController;
+import java.security.PrivilegedAction;
 import java.util.Iterator;
 import java.util.LinkedList;
 import java.util.List;
 import java.util.NoSuchElementException;
 import java.util.concurrent.ConcurrentHashMap;
-import java.util.concurrent.Executors;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.ForkJoinWorkerThread;
 import java.util.concurrent.RejectedExecutionException;
-import java.util.concurrent.ScheduledExecutorService;
-import java.util.concurrent.ScheduledFuture;
 import java.util.concurrent.ThreadFactory;
 import java.util.concurrent.TimeUnit;
 import java.util.concurrent.atomic.AtomicInteger;
@@ -21,13 +22,21 @@ import com.remondis.limbus.api.Initializable;
 import com.remondis.limbus.files.LimbusFileService;
 import com.remondis.limbus.properties.LimbusProperties;
 import com.remondis.limbus.system.api.LimbusComponent;
+import com.remondis.limbus.tasks.TimingWheel.Timeout;
 import com.remondis.limbus.utils.Lang;
 
+/**
+ * Implementation of the {@link TaskScheduler} that plans the task executions on a hashed {@link TimingWheel}. The due
+ * tasks are executed by a work-stealing pool of worker threads, so the timer thread is never blocked by a task.
+ */
 public class TaskSchedulerImpl extends Initializable<Exception> implements TaskScheduler, ThreadFactory {
 
   private static final String PERIODIC_TASKS_THREAD_POOL_SIZE = "periodic-tasks.thread-pool.size";
   private static final String SHUTDOWN_TIMEOUT = "periodic-tasks.shutdown-timeout.value";
   private static final String SHUTDOWN_TIMEOUT_UNIT = "periodic-tasks.shutdown-timeout.timeUnit";
+  private static final String TICK_DURATION = "periodic-tasks.timing-wheel.tick-duration";
+  private static final String WHEEL_SIZE = "periodic-tasks.timing-wheel.size";
+  private static final String JITTER = "periodic-tasks.jitter";
 
   private static final Logger log = LoggerFactory.getLogger(TaskSchedulerImpl.class);
 
@@ -40,10 +49,22 @@ public class TaskSchedulerImpl extends Initializable<Exception> implements TaskS
 
   protected TimeUnit shutdownTimeoutUnit;
 
-  protected ScheduledExecutorService scheduler;
+  protected long tickDuration;
+
+  protected double jitter;
+
+  protected TimingWheel timingWheel;
+
+  protected ForkJoinPool workers;
 
   protected ConcurrentHashMap<Task, TaskExecution> tasks;
 
+  /**
+   * The context classloader of the thread initializing the scheduler. Used as context classloader of the scheduler
+   * threads.
+   */
+  protected ClassLoader contextClassLoader;
+
   @Override
   protected void performInitialize() throws Exception {
     LimbusProperties properties = new LimbusProperties(filesystem, TaskSchedulerImpl.class, true, false);
@@ -51,11 +72,22 @@ public class TaskSchedulerImpl extends Initializable<Exception> implements TaskS
     int threadCount = properties.getInt(PERIODIC_TASKS_THREAD_POOL_SIZE);
     this.shutdownTimeout = properties.getLong(SHUTDOWN_TIMEOUT);
     this.shutdownTimeoutUnit = properties.getEnum(SHUTDOWN_TIMEOUT_UNIT, TimeUnit.class);
-
-    // extra scheduler for cyclical call of commands so that the scheduler can be stopped separately
-    scheduler = Executors.newScheduledThreadPool(threadCount, this);
+    this.tickDuration = properties.getLong(TICK_DURATION);
+    int wheelSize = properties.getInt(WHEEL_SIZE);
+    this.jitter = properties.getDouble(JITTER);
+    if (jitter < 0 || jitter > 1) {
+      throw new IllegalArgumentException("The jitter must be between 0 and 1.");
+    }
 
     this.tasks = new ConcurrentHashMap<Task, TaskExecution>();
+    // Tasks may rely on the context classloader of the thread initializing the scheduler. The threads are created on
+    // demand, so they must not inherit the context classloader of the thread that happens to create them.
+    this.contextClassLoader = Thread.currentThread()
+        .getContextClassLoader();
+    // The worker pool uses async mode, because tasks are never joined.
+    this.workers = new ForkJoinPool(threadCount, this::newWorkerThread, null, true);
+    this.timingWheel = new TimingWheel(tickDuration, wheelSize, this);
+    timingWheel.start();
   }
 
   @Override
@@ -71,12 +103,16 @@ public class TaskSchedulerImpl extends Initializable<Exception> implements TaskS
       tasks.clear();
     }
 
-    if (scheduler != null) {
+    if (timingWheel != null) {
+      timingWheel.stop();
+    }
+
+    if (workers != null) {
       log.info("Shutting down task scheduler.");
-      scheduler.shutdown();
+      workers.shutdown();
       try {
-        scheduler.awaitTermination(shutdownTimeout, shutdownTimeoutUnit);
-        scheduler.shutdownNow();
+        workers.awaitTermination(shutdownTimeout, shutdownTimeoutUnit);
+        workers.shutdownNow();
       } catch (InterruptedException e) {
         log.info("Shutting down task scheduler failed.", e);
       }
@@ -86,47 +122,67 @@ public class TaskSchedulerImpl extends Initializable<Exception> implements TaskS
 
   @Override
   public void schedulePeriodicTask(Task task, Function<Boolean, Long> scheduleRateFunction) {
+    schedulePeriodicTask(task, scheduleRateFunction, DEFAULT_MINIMUM_RATE);
+  }
+
+  @Override
+  public void schedulePeriodicTask(Task task, Function<Boolean, Long> scheduleRateFunction, long minimumRate) {
     Lang.denyNull("task", task);
     Lang.denyNull("scheduleRateFunction", scheduleRateFunction);
+    if (minimumRate < 1) {
+      throw new IllegalArgumentException("The minimum rate must be at least 1ms.");
+    }
 
     checkState();
-    TaskExecution execution = new TaskExecution(this, task, scheduleRateFunction);
-    Long initialRate = getInitialRate(scheduleRateFunction);
-    execution.setCurrentRate(initialRate);
-    ScheduledFuture<?> future = scheduler.scheduleAtFixedRate(execution, 0, initialRate, TimeUnit.MILLISECONDS);
-    execution.setFuture(future);
+    // The precision of the timing wheel limits the minimum rate.
+    TaskExecution execution = new TaskExecution(this, task, scheduleRateFunction, Math.max(tickDuration, minimumRate));
     tasks.put(task, execution);
+    execution.start();
   }
 
   @Override
   public void unschedulePeriodicTask(Task task) {
     Lang.denyNull("task", task);
 
-    if (tasks.containsKey(task)) {
-      TaskExecution taskExecution = tasks.get(task);
-      tasks.remove(task);
+    TaskExecution taskExecution = tasks.remove(task);
+    if (taskExecution != null) {
       taskExecution.cancel();
     } else {
       throw new NoSuchElementException("Attempt to unschedule an unknown task.");
     }
   }
 
-  public void reschedule(TaskExecution execution, Long newRate) {
+  /**
+   * Plans the next execution of a task.
+   *
+   * @param execution
+   *        The task execution.
+   * @param delay
+   *        The delay in milliseconds.
+   * @return Returns the {@link Timeout} of the planned execution or <code>null</code> if the execution was rejected.
+   */
+  Timeout schedule(TaskExecution execution, long delay) {
     try {
-      ScheduledFuture<?> future = scheduler.scheduleAtFixedRate(execution, newRate, normalizeRate(newRate),
-          TimeUnit.MILLISECONDS);
-      execution.setFuture(future);
+      return timingWheel.schedule(() -> execute(execution), delay);
     } catch (RejectedExecutionException e) {
       execution.wasRejected();
+      return null;
     }
   }
 
-  protected static long normalizeRate(long rate) {
-    return Math.max(500l, rate);
+  private void execute(TaskExecution execution) {
+    try {
+      workers.execute(execution);
+    } catch (RejectedExecutionException e) {
+      execution.wasRejected();
+    }
   }
 
-  private Long getInitialRate(Function<Boolean, Long> scheduleRateFunction) {
-    return normalizeRate(scheduleRateFunction.apply(true));
+  /**
+   * @return Returns the maximum jitter added to the delay of a task as fraction of its rate.
+   */
+  double getJitter() {
+    return jitter;
   }
 
   @Override
@@ -142,10 +198,41 @@ public class TaskSchedulerImpl extends Initializable<Exception> implements TaskS
     return info;
   }
 
+  @Override
+  public TaskInfo getTaskInfo(Task task) throws NoSuchElementException {
+    Lang.denyNull("task", task);
+    checkState();
+    TaskExecution execution = tasks.get(task);
+    if (execution == null) {
+      throw new NoSuchElementException("The task is not scheduled.");
+    }
+    return execution.getTaskInfo();
+  }
+
   @Override
   public Thread newThread(Runnable r) {
-    Thread newThread = new Thread(r, "Limbus Task Scheduler - Thread " + threadCount.incrementAndGet());
+    Thread newThread = new Thread(r, "Limbus Task Scheduler - Timer " + threadCount.incrementAndGet());
+    setContextClassLoader(newThread);
+    return newThread;
+  }
+
+  private ForkJoinWorkerThread newWorkerThread(ForkJoinPool pool) {
+    // The default factory sets the system classloader as context classloader.
+    ForkJoinWorkerThread newThread = ForkJoinPool.defaultForkJoinWorkerThreadFactory.newThread(pool);
+    newThread.setName("Limbus Task Scheduler - Thread " + threadCount.incrementAndGet());
+    setContextClassLoader(newThread);
     return newThread;
   }
 
+  private void setContextClassLoader(Thread thread) {
+    // Worker threads may be created while a task is running, so the task code must not need the permission.
+    AccessController.doPrivileged(new PrivilegedAction<Void>() {
+      @Override
+      public Void run() {
+        thread.setContextClassLoader(contextClassLoader);
+        return null;
+      }
+    });
+  }
+
 }
@@ -0,0 +1,315 @@
+package com.remondis.limbus.tasks;
+
+import java.util.Queue;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.ThreadFactory;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import com.remondis.limbus.utils.Lang;
+
+/**
+ * A hashed timing wheel that runs callbacks after a delay. The wheel consists of a fixed number of buckets. A timer
+ * thread advances the wheel by one bucket per tick and expires the timeouts of the current bucket. Timeouts with a
+ * delay longer than one revolution of the wheel are kept in their bucket for the remaining number of rounds.
+ *
+ * <p>
+ * Scheduling and cancelling a timeout are O(1) and never block: New timeouts are handed over to the timer thread
+ * through a queue, cancelled timeouts are only marked and removed from their bucket by the timer thread. The precision
+ * of the timing wheel is the duration of a tick.
+ * </p>
+ *
+ * <p>
+ * <b>The callbacks are executed by the timer thread, so they must not block. Long running work must be handed over to
+ * an executor.</b>
+ * </p>
+ */
+final class TimingWheel {
+
+  private static final Logger log = LoggerFactory.getLogger(TimingWheel.class);
+
+  private static final int INIT = 0;
+  private static final int CANCELLED = 1;
+  private static final int EXPIRED = 2;
+
+  private final long tickNanos;
+
+  private final Bucket[] wheel;
+
+  private final int mask;
+
+  private final ThreadFactory threadFactory;
+
+  /**
+   * Holds the timeouts scheduled since the last tick.
+   */
+  private final Queue<Timeout> pending = new ConcurrentLinkedQueue<>();
+
+  /**
+   * Holds the timeouts cancelled since the last tick.
+   */
+  private final Queue<Timeout> cancelled = new ConcurrentLinkedQueue<>();
+
+  private volatile boolean running;
+
+  private volatile long startTime;
+
+  private Thread thread;
+
+  /**
+   * Accessed by the timer thread only.
+   */
+  private long tick;
+
+  /**
+   * @param tickDuration
+   *        The duration of a tick in milliseconds.
+   * @param wheelSize
+   *        The number of buckets of the wheel. Rounded up to the next power of two.
+   * @param threadFactory
+   *        The factory to create the timer thread.
+   */
+  TimingWheel(long tickDuration, int wheelSize, ThreadFactory threadFactory) {
+    Lang.denyNull("threadFactory", threadFactory);
+    if (tickDuration < 1) {
+      throw new IllegalArgumentException("The tick duration must be at least 1ms.");
+    }
+    if (wheelSize < 1 || wheelSize > 1 << 30) {
+      throw new IllegalArgumentException("The wheel size must be between 1 and 2^30.");
+    }
+    int size = wheelSize == 1 ? 1 : Integer.highestOneBit(wheelSize - 1) << 1;
+    this.tickNanos = TimeUnit.MILLISECONDS.toNanos(tickDuration);
+    this.wheel = new Bucket[size];
+    for (int i = 0; i < size; i++) {
+      wheel[i] = new Bucket();
+    }
+    this.mask = size - 1;
+    this.threadFactory = threadFactory;
+  }
+
+  /**
+   * Starts the timer thread.
+   */
+  synchronized void start() {
+    if (thread != null) {
+      throw new IllegalStateException("The timing wheel was already started.");
+    }
+    this.startTime = System.nanoTime();
+    this.running = true;
+    this.thread = threadFactory.newThread(this::run);
+    thread.setDaemon(true);
+    thread.start();
+  }
+
+  /**
+   * Stops the timer thread. This method does not wait for the timer thread to terminate. Timeouts that did not expire
+   * are discarded.
+   */
+  synchronized void stop() {
+    this.running = false;
+    if (thread != null) {
+      thread.interrupt();
+      thread = null;
+    }
+    pending.clear();
+    cancelled.clear();
+  }
+
+  /**
+   * Schedules a callback to run once after the specified delay.
+   *
+   * @param callback
+   *        The callback to run on the timer thread. Must not block.
+   * @param delay
+   *        The delay in milliseconds.
+   * @return Returns the {@link Timeout} that can be used to cancel the callback.
+   * @throws RejectedExecutionException
+   *         Thrown if the timing wheel is not running.
+   */
+  Timeout schedule(Runnable callback, long delay) {
+    Lang.denyNull("callback", callback);
+    if (!running) {
+      throw new RejectedExecutionException("The timing wheel is not running.");
+    }
+    long deadline = System.nanoTime() + TimeUnit.MILLISECONDS.toNanos(Math.max(0, delay)) - startTime;
+    Timeout timeout = new Timeout(callback, deadline);
+    pending.add(timeout);
+    return timeout;
+  }
+
+  private void run() {
+    while (running) {
+      if (!waitForNextTick()) {
+        return;
+      }
+      removeCancelled();
+      transferPending();
+      wheel[(int) (tick & mask)].expire();
+      tick++;
+    }
+  }
+
+  /**
+   * Waits until the end of the current tick.
+   *
+   * @return Returns <code>true</code> if the tick ended, <code>false</code> if the timer thread was interrupted.
+   */
+  private boolean waitForNextTick() {
+    long deadline = tickNanos * (tick + 1);
+    while (true) {
+      long sleepNanos = deadline - (System.nanoTime() - startTime);
+      if (sleepNanos <= 0) {
+        return true;
+      }
+      try {
+        TimeUnit.NANOSECONDS.sleep(sleepNanos);
+      } catch (InterruptedException e) {
+        return false;
+      }
+    }
+  }
+
+  private void removeCancelled() {
+    Timeout timeout;
+    while ((timeout = cancelled.poll()) != null) {
+      if (timeout.bucket != null) {
+        timeout.bucket.remove(timeout);
+      }
+    }
+  }
+
+  private void transferPending() {
+    Timeout timeout;
+    while ((timeout = pending.poll()) != null) {
+      if (timeout.state.get() != INIT) {
+        continue;
+      }
+      long calculated = timeout.deadline / tickNanos;
+      timeout.remainingRounds = (calculated - tick) / wheel.length;
+      // Timeouts whose deadline already passed are expired with the current tick.
+      long ticks = Math.max(calculated, tick);
+      wheel[(int) (ticks & mask)].add(timeout);
+    }
+  }
+
+  /**
+   * A callback scheduled on the {@link TimingWheel}.
+   */
+  final class Timeout {
+
+    private final Runnable callback;
+
+    private final long deadline;
+
+    private final AtomicInteger state = new AtomicInteger(INIT);
+
+    /**
+     * The fields below are accessed by the timer thread only.
+     */
+    private long remainingRounds;
+
+    private Bucket bucket;
+
+    private Timeout next;
+
+    private Timeout prev;
+
+    private Timeout(Runnable callback, long deadline) {
+      this.callback = callback;
+      this.deadline = deadline;
+    }
+
+    /**
+     * Cancels the callback if it was not run already. This method does not block.
+     *
+     * @return Returns <code>true</code> if the callback was cancelled, <code>false</code> if it already ran or was
+     *         cancelled before.
+     */
+    boolean cancel() {
+      if (state.compareAndSet(INIT, CANCELLED)) {
+        // The timer thread removes the timeout from its bucket on the next tick.
+        cancelled.add(this);
+        return true;
+      }
+      return false;
+    }
+
+    /**
+     * @return Returns <code>true</code> if this timeout was cancelled, otherwise <code>false</code> is returned.
+     */
+    boolean isCancelled() {
+      return state.get() == CANCELLED;
+    }
+
+    private void expire() {
+      if (state.compareAndSet(INIT, EXPIRED)) {
+        try {
+          callback.run();
+        } catch (Throwable e) {
+          log.warn("A callback of the timing wheel failed with an exception.", e);
+        }
+      }
+    }
+  }
+
+  /**
+   * A bucket of the wheel holding a doubly linked list of timeouts. Accessed by the timer thread only.
+   */
+  private static final class Bucket {
+
+    private Timeout head;
+
+    private Timeout tail;
+
+    private void add(Timeout timeout) {
+      timeout.bucket = this;
+      if (head == null) {
+        head = tail = timeout;
+      } else {
+        tail.next = timeout;
+        timeout.prev = tail;
+        tail = timeout;
+      }
+    }
+
+    private void expire() {
+      Timeout timeout = head;
+      while (timeout != null) {
+        Timeout next = timeout.next;
+        if (timeout.remainingRounds <= 0) {
+          // The timeout was placed into this bucket by its deadline, so the deadline is within the current tick.
+          remove(timeout);
+          timeout.expire();
+        } else if (timeout.isCancelled()) {
+          remove(timeout);
+        } else {
+          timeout.remainingRounds--;
+        }
+        timeout = next;
+      }
+    }
+
+    private void remove(Timeout timeout) {
+      if (timeout.bucket != this) {
+        return;
+      }
+      if (timeout.prev != null) {
+        timeout.prev.next = timeout.next;
+      } else {
+        head = timeout.next;
+      }
+      if (timeout.next != null) {
+        timeout.next.prev = timeout.prev;
+      } else {
+        tail = timeout.prev;
+      }
+      timeout.prev = null;
+      timeout.next = null;
+      timeout.bucket = null;
+    }
+  }
+}
@@ -1,14 +1,26 @@
 package com.remondis.limbus.tasks;
 
 import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNotNull;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertSame;
+import static org.junit.jupiter.api.Assertions.assertTrue;
 
+import java.net.URL;
+import java.net.URLClassLoader;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CountDownLatch;
 import java.util.concurrent.Semaphore;
+import java.util.concurrent.TimeUnit;
 import java.util.concurrent.atomic.AtomicInteger;
 
 import org.junit.jupiter.api.Test;
 import org.junit.jupiter.api.extension.ExtendWith;
 import org.mockito.junit.jupiter.MockitoExtension;
 
+import com.remondis.limbus.api.metrics.Counter;
+import com.remondis.limbus.api.metrics.MetricRegistry;
+import com.remondis.limbus.api.metrics.Metrics;
 import com.remondis.limbus.files.InMemoryFilesystemImpl;
 
 @ExtendWith(MockitoExtension.class)
@@ -39,6 +51,133 @@ public class TaskSchedulerImplTest implements Task {
     assertEquals(1, calls.get());
   }
 
+  @Test
+  public void shouldScheduleFastTasks() throws Exception {
+    scheduler = new TaskSchedulerImpl();
+    scheduler.filesystem = new InMemoryFilesystemImpl();
+    scheduler.initialize();
+    try {
+      // Wait for one more execution, because the statistics of the last execution are updated after the task ran.
+      CountDownLatch executions = new CountDownLatch(11);
+      AtomicInteger fastCalls = new AtomicInteger();
+      Task fastTask = () -> {
+        fastCalls.incrementAndGet();
+        executions.countDown();
+      };
+      // The rate changes on every execution to reschedule the task each time.
+      AtomicInteger rateChanges = new AtomicInteger();
+      scheduler.schedulePeriodicTask(fastTask, (b) -> {
+        return 20L + rateChanges.incrementAndGet() % 2;
+      }, 20);
+
+      assertTrue(executions.await(5, TimeUnit.SECONDS));
+      TaskInfo info = scheduler.getSchedulerInfo()
+          .get(0);
+      assertTrue(info.getCurrentWaitTime() < TaskScheduler.DEFAULT_MINIMUM_RATE);
+      assertTrue(info.getExecutions() >= 10);
+      // An execution may finish while the task info is created, so the runtimes may be ahead.
+      assertTrue(info.getRuntimes()
+          .getCount() >= info.getExecutions());
+      assertTrue(info.getLags()
+          .getCount() >= 10);
+      assertTrue(info.getBackoffs() >= 4);
+
+      String runs = MetricRegistry.name("limbus.tasks", fastTask.getClass()
+          .getName(), "runs");
+      assertNotNull(Metrics.getRegistry()
+          .getMetric(runs));
+
+      scheduler.unschedulePeriodicTask(fastTask);
+      assertNull(Metrics.getRegistry()
+          .getMetric(runs));
+      // An execution may still be running while unscheduling.
+      Thread.sleep(100);
+      int callsAfterUnschedule = fastCalls.get();
+      Thread.sleep(200);
+      assertEquals(callsAfterUnschedule, fastCalls.get());
+    } finally {
+      scheduler.finish();
+    }
+  }
+
+  @Test
+  public void shouldShareMetricsOfTasksOfTheSameClass() throws Exception {
+    scheduler = new TaskSchedulerImpl();
+    scheduler.filesystem = new InMemoryFilesystemImpl();
+    scheduler.initialize();
+    try {
+      CountDownLatch firstExecutions = new CountDownLatch(3);
+      CountDownLatch secondExecutions = new CountDownLatch(3);
+      CountingTask first = new CountingTask(firstExecutions);
+      CountingTask second = new CountingTask(secondExecutions);
+      scheduler.schedulePeriodicTask(first, (b) -> 20L, 20);
+      scheduler.schedulePeriodicTask(second, (b) -> 20L, 20);
+      assertTrue(firstExecutions.await(5, TimeUnit.SECONDS));
+      assertTrue(secondExecutions.await(5, TimeUnit.SECONDS));
+
+      String runs = MetricRegistry.name("limbus.tasks", CountingTask.class.getName(), "runs");
+      Counter counter = (Counter) Metrics.getRegistry()
+          .getMetric(runs);
+      // The statistics of the last executions may not be recorded yet.
+      assertTrue(counter.getCount() >= 4);
+
+      // The metrics are kept while another task of the same class is scheduled.
+      scheduler.unschedulePeriodicTask(second);
+      assertSame(counter, Metrics.getRegistry()
+          .getMetric(runs));
+      long runsBefore = counter.getCount();
+      CountDownLatch moreExecutions = new CountDownLatch(2);
+      first.executions = moreExecutions;
+      assertTrue(moreExecutions.await(5, TimeUnit.SECONDS));
+      assertTrue(counter.getCount() > runsBefore);
+
+      scheduler.unschedulePeriodicTask(first);
+      assertNull(Metrics.getRegistry()
+          .getMetric(runs));
+    } finally {
+      scheduler.finish();
+    }
+  }
+
+  @Test
+  public void shouldRunTasksWithContextClassLoaderOfInitializingThread() throws Exception {
+    ClassLoader before = Thread.currentThread()
+        .getContextClassLoader();
+    ClassLoader contextClassLoader = new URLClassLoader(new URL[0], before);
+    scheduler = new TaskSchedulerImpl();
+    scheduler.filesystem = new InMemoryFilesystemImpl();
+    Thread.currentThread()
+        .setContextClassLoader(contextClassLoader);
+    try {
+      scheduler.initialize();
+    } finally {
+      Thread.currentThread()
+          .setContextClassLoader(before);
+    }
+    try {
+      CompletableFuture<ClassLoader> taskContextClassLoader = new CompletableFuture<>();
+      scheduler.schedulePeriodicTask(() -> taskContextClassLoader.complete(Thread.currentThread()
+          .getContextClassLoader()), (b) -> 20L, 20);
+      assertSame(contextClassLoader, taskContextClassLoader.get(5, TimeUnit.SECONDS));
+    } finally {
+      scheduler.finish();
+    }
+  }
+
+  private static class CountingTask implements Task {
+
+    private volatile CountDownLatch executions;
+
+    private CountingTask(CountDownLatch executions) {
+      this.executions = executions;
+    }
+
+    @Override
+    public void execute() throws Exception {
+      executions.countDown();
+    }
+  }
+
   @Override
   public void execute() throws Exception {
     calls.incrementAndGet();
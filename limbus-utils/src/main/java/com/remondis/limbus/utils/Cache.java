@@ -1,32 +1,53 @@
 package com.remondis.limbus.utils;
 
+import java.util.AbstractMap;
+import java.util.AbstractSet;
+import java.util.ArrayList;
 import java.util.Arrays;
+import java.util.Collections;
 import java.util.Iterator;
 import java.util.List;
 import java.util.Map;
 import java.util.Set;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
 import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.Executor;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicReferenceArray;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.concurrent.locks.ReentrantLock;
+import java.util.function.Function;
+import java.util.function.LongSupplier;
 
 /**
  * <p>
- * The RebindCache is a cache for any datastructure. For every item there
- * will be a key that identifies the datastructure at runtime. The item can be accessed multiple times using the
- * key. A resource stored in the cache can be disposed if it is not needed any longer. <br>
+ * The Cache is a cache for any datastructure. For every item there will be a key that identifies the datastructure at
+ * runtime. The item can be accessed multiple times using the key. A resource stored in the cache can be disposed if it
+ * is not needed any longer. <br>
  * </p>
  * <p>
  * There are multiple strategies to dispose resources automatically. A timeout strategy for example is used to free
  * resources after a specific time. Multiple strategies can be added to the cache. <br>
  * </p>
- * <h2>Memory-sensitive Cache</h2>
+ * <h2>Bounded Cache</h2>
  * <p>
- * This cache holds its items with {@link SoftReference}. The characteristics of this reference type is, that objects
- * are hold in memory as long as memory is in plentiful supply. If there is too little heap space available in the JVM
- * the garbage collector may decide to drop the referenced objects to free memory.
+ * Caches created with the constructors are unbounded. Use the {@link CacheBuilder} to create a cache that is bounded by
+ * a maximum number of items or a maximum weight, and to let items expire after write or after access. If the cache
+ * exceeds its maximum, items are evicted according to the {@link EvictionPolicy}. The {@link DisposeStrategy}s are
+ * notified with {@link DisposeStrategy#eventRemoved(Cache, Object, Object)} for evicted and expired items, so resources
+ * held by the items can be released deterministically.
  * </p>
  * <p>
- * <b>As a consequence it is not guaranteed that resources that were added to the
- * cache are available at any time. On the other side this cache will not cause {@link OutOfMemoryError} because of
- * holding to heavy objects.</b>
+ * Eviction and expiration are performed by the threads using the cache, no timer thread is involved. Reads are recorded
+ * in a lossy buffer that is applied to the eviction policy in batches, so reads never wait for the eviction lock.
+ * Expired items are never returned but are removed lazily. Use {@link #cleanUp()} to remove expired items explicitly.
+ * </p>
+ * <h2>Loading</h2>
+ * <p>
+ * Missing items can be loaded using {@link #get(Object, Function)} or {@link #getAsync(Object, Function)}. Concurrent
+ * requests for the same missing key are coalesced, so the item is loaded only once.
  * </p>
  * <p>
  * <b>Note: This implementation is thread safe and optimized for high frequented concurrent access.</b>
@@ -40,13 +61,97 @@ import java.util.concurrent.ConcurrentHashMap;
  */
 public class Cache<K, V> {
 
-  protected Map<K, V> cache;
+  /**
+   * The number of slots of the read buffer. Must be a power of two.
+   */
+  private static final int READ_BUFFER_SIZE = 128;
+
+  private static final int READ_BUFFER_MASK = READ_BUFFER_SIZE - 1;
+
+  /**
+   * The read buffer is drained every time this number of reads was recorded. Must be a power of two minus one.
+   */
+  private static final int READ_BUFFER_DRAIN_MASK = (READ_BUFFER_SIZE / 2) - 1;
+
+  /**
+   * The share of the maximum for the admission window of the {@link EvictionPolicy#TINY_LFU}.
+   */
+  private static final double WINDOW_SHARE = 0.01;
+
+  /**
+   * The share of the main area for the protected segment of the {@link EvictionPolicy#TINY_LFU}.
+   */
+  private static final double PROTECTED_SHARE = 0.8;
+
+  private final ConcurrentHashMap<K, CacheNode<K, V>> data = new ConcurrentHashMap<>();
+
+  /**
+   * A read-only view of the cached items.
+   *
+   * @deprecated The items are held in nodes to support eviction and expiration. This view only exists for subclasses
+   *             reading the items and does not support modifications. Use {@link #get(Object)},
+   *             {@link #add(Object, Object)} and {@link #remove(Object)} instead.
+   */
+  @Deprecated
+  protected Map<K, V> cache = new ItemView();
+
+  /**
+   * Holds the pending loads to coalesce concurrent loads of the same key.
+   */
+  private final ConcurrentHashMap<K, Load<V>> loads = new ConcurrentHashMap<>();
 
   /**
    * This strategy applies to every item in the cache.
    */
   protected List<DisposeStrategy<K, V>> disposeStrategies;
 
+  private final long maximum;
+
+  private final Weigher<? super K, ? super V> weigher;
+
+  private final EvictionPolicy evictionPolicy;
+
+  private final long expireAfterWriteNanos;
+
+  private final long expireAfterAccessNanos;
+
+  private final Executor executor;
+
+  private final LongSupplier ticker;
+
+  /**
+   * True if items are bounded or expire. Otherwise the nodes are not tracked by the eviction policy.
+   */
+  private final boolean tracked;
+
+  private final AtomicReferenceArray<CacheNode<K, V>> readBuffer = new AtomicReferenceArray<>(READ_BUFFER_SIZE);
+
+  private final AtomicLong reads = new AtomicLong();
+
+  private final LongAdder hits = new LongAdder();
+  private final LongAdder misses = new LongAdder();
+  private final LongAdder loadSuccesses = new LongAdder();
+  private final LongAdder loadFailures = new LongAdder();
+  private final LongAdder evictions = new LongAdder();
+  private final LongAdder expirations = new LongAdder();
+
+  /**
+   * Guards the eviction policy.
+   */
+  private final ReentrantLock evictionLock = new ReentrantLock();
+
+  // The following fields are guarded by the eviction lock.
+  private final CacheNode.Deque<K, V> window = new CacheNode.Deque<>(false);
+  private final CacheNode.Deque<K, V> probation = new CacheNode.Deque<>(false);
+  private final CacheNode.Deque<K, V> protectedSegment = new CacheNode.Deque<>(false);
+  private final CacheNode.Deque<K, V> writeOrder = new CacheNode.Deque<>(true);
+  private final FrequencySketch sketch;
+  private final long windowMaximum;
+  private final long protectedMaximum;
+  private long weight;
+  private long windowWeight;
+  private long protectedWeight;
+
   /**
    * This constuctor is used to create a cache.
    *
@@ -83,9 +188,7 @@ public class Cache<K, V> {
    *         on any error;
    */
   public Cache(DisposeStrategy<K, V>[] disposeStrategies) throws Exception {
-    this.cache = new ConcurrentHashMap<K, V>();
-    this.disposeStrategies = Arrays.asList(disposeStrategies);
-    _fireEvent(null, CacheEvent.INIT);
+    this(Arrays.asList(disposeStrategies));
   }
 
   /**
@@ -98,11 +201,44 @@ public class Cache<K, V> {
    *         Thrown on any error
    */
   public Cache(List<DisposeStrategy<K, V>> disposeStrategies) throws Exception {
-    this.cache = new ConcurrentHashMap<K, V>();
+    this(CacheBuilder.<K, V> create(), disposeStrategies);
+  }
+
+  Cache(CacheBuilder<K, V> builder) {
+    this(builder, new ArrayList<>(builder.disposeStrategies));
+  }
+
+  private Cache(CacheBuilder<K, V> builder, List<DisposeStrategy<K, V>> disposeStrategies) {
     this.disposeStrategies = disposeStrategies;
+    this.maximum = builder.maximum;
+    this.weigher = builder.weigher;
+    this.evictionPolicy = builder.evictionPolicy;
+    this.expireAfterWriteNanos = builder.expireAfterWriteNanos;
+    this.expireAfterAccessNanos = builder.expireAfterAccessNanos;
+    this.executor = builder.executor;
+    this.ticker = builder.ticker;
+    this.tracked = isBounded() || expires();
+    if (isBounded() && evictionPolicy == EvictionPolicy.TINY_LFU) {
+      this.windowMaximum = Math.max(1, (long) (maximum * WINDOW_SHARE));
+      this.protectedMaximum = (long) ((maximum - windowMaximum) * PROTECTED_SHARE);
+      this.sketch = new FrequencySketch();
+    } else {
+      // The window is the only segment.
+      this.windowMaximum = maximum;
+      this.protectedMaximum = 0;
+      this.sketch = null;
+    }
     _fireEvent(null, CacheEvent.INIT);
   }
 
+  private boolean isBounded() {
+    return maximum != CacheBuilder.UNBOUNDED;
+  }
+
+  private boolean expires() {
+    return expireAfterWriteNanos > 0 || expireAfterAccessNanos > 0;
+  }
+
   /**
    * @param d
    *        Adds the specified dispose strategy to this cache.
@@ -135,13 +271,13 @@ public class Cache<K, V> {
           s.initialize();
           break;
         case GET:
-          s.eventItemRequested(this, token, cache.get(token));
+          s.eventItemRequested(this, token, getValue(token));
           break;
         case ADD:
-          s.eventItemAdded(this, token, cache.get(token));
+          s.eventItemAdded(this, token, getValue(token));
           break;
         case REMOVE:
-          s.eventRemoved(this, token, cache.get(token));
+          s.eventRemoved(this, token, getValue(token));
           break;
         case DISPOSE:
           s.finish();
@@ -150,13 +286,35 @@ public class Cache<K, V> {
     }
   }
 
+  /**
+   * Notifies the dispose strategies about evicted or expired items.
+   */
+  private void fireRemoved(List<CacheNode<K, V>> removed) {
+    if (removed == null) {
+      return;
+    }
+    for (CacheNode<K, V> node : removed) {
+      for (DisposeStrategy<K, V> s : disposeStrategies) {
+        s.eventRemoved(this, node.key, node.value);
+      }
+    }
+  }
+
+  private V getValue(K token) {
+    if (token == null) {
+      return null;
+    }
+    CacheNode<K, V> node = data.get(token);
+    return node == null ? null : node.value;
+  }
+
   /**
    * Returns the set of all cache tokens.
    *
    * @return The key set containing all cache tokens.
    */
   public Set<K> keySet() {
-    return this.cache.keySet();
+    return this.data.keySet();
   }
 
   /**
@@ -171,7 +329,7 @@ public class Cache<K, V> {
   protected boolean _fireGetEvent(K token) {
     boolean dispose = true;
     for (DisposeStrategy<K, V> s : disposeStrategies) {
-      if (!s.eventItemRequested(this, token, cache.get(token))) {
+      if (!s.eventItemRequested(this, token, getValue(token))) {
         dispose = false;
       }
     }
@@ -183,12 +341,44 @@ public class Cache<K, V> {
   }
 
   public void add(K cacheToken, V item) {
-    // Put the item to the cach
-    cache.put(cacheToken, item);
+    Lang.denyNull("item", item);
+    // Put the item to the cache
+    long now = expires() ? ticker.getAsLong() : 0;
+    CacheNode<K, V> node = new CacheNode<>(cacheToken, item, weigh(cacheToken, item), now);
+    CacheNode<K, V> replaced = data.put(cacheToken, node);
+    if (replaced != null) {
+      replaced.retired = true;
+    }
+    if (tracked) {
+      List<CacheNode<K, V>> removed;
+      evictionLock.lock();
+      try {
+        drainReadBuffer();
+        if (replaced != null) {
+          unlink(replaced);
+        }
+        link(node);
+        removed = evict(now);
+      } finally {
+        evictionLock.unlock();
+      }
+      fireRemoved(removed);
+    }
     // Fire add event
     _fireEvent(cacheToken, CacheEvent.ADD);
   }
 
+  private int weigh(K key, V value) {
+    if (weigher == null) {
+      return 1;
+    }
+    int weight = weigher.weigh(key, value);
+    if (weight < 0) {
+      throw new IllegalArgumentException("The weight of a cache item must not be negative.");
+    }
+    return weight;
+  }
+
   /**
    * Removes an element from the cache.
    *
@@ -200,9 +390,25 @@ public class Cache<K, V> {
     _fireEvent(cacheToken, CacheEvent.REMOVE);
 
     // Remove the cached item
-    if (cache.containsKey(cacheToken))
-      cache.remove(cacheToken);
+    CacheNode<K, V> node = data.remove(cacheToken);
+    if (node != null) {
+      retire(node);
+    }
+  }
 
+  /**
+   * Removes the node from the eviction policy after it was removed from the cache map.
+   */
+  private void retire(CacheNode<K, V> node) {
+    node.retired = true;
+    if (tracked) {
+      evictionLock.lock();
+      try {
+        unlink(node);
+      } finally {
+        evictionLock.unlock();
+      }
+    }
   }
 
   /**
@@ -216,21 +422,417 @@ public class Cache<K, V> {
     V value = null;
 
     // If item is or was known by cache
-    if (cache.containsKey(cacheToken)) {
-      value = cache.get(cacheToken);
+    CacheNode<K, V> node = data.get(cacheToken);
+    if (node != null) {
+      if (tracked) {
+        long now = expires() ? ticker.getAsLong() : 0;
+        if (isExpired(node, now)) {
+          expire(node);
+        } else {
+          value = node.value;
+          recordRead(node, now);
+        }
+      } else {
+        value = node.value;
+      }
     }
 
     // Fire get event
     boolean available = _fireGetEvent(cacheToken);
-    if (available) {
+    if (available && value != null) {
+      hits.increment();
       return value;
     } else {
-      // dudzik: remove from cache
-      cache.remove(cacheToken);
+      misses.increment();
+      if (!available) {
+        // dudzik: remove from cache
+        node = data.remove(cacheToken);
+        if (node != null) {
+          retire(node);
+        }
+      }
       return null;
     }
   }
 
+  /**
+   * Returns the element identified by the cache token. If the element is not available, it is loaded using the
+   * specified loader in the calling thread and added to the cache. Concurrent requests for the same cache token wait
+   * for the pending load instead of loading the element again.
+   *
+   * @param cacheToken
+   *        The token identifying the item in the cache.
+   * @param loader
+   *        The function loading the element. If the loader returns <code>null</code>, nothing is cached.
+   * @return Returns the cached or loaded element.
+   * @throws RuntimeException
+   *         Thrown if the loader failed. The exception of the loader is rethrown.
+   * @throws IllegalStateException
+   *         Thrown if the loader requests the same cache token it is loading.
+   */
+  public V get(K cacheToken, Function<? super K, ? extends V> loader) {
+    V value = get(cacheToken);
+    if (value != null) {
+      return value;
+    }
+    try {
+      return load(cacheToken, loader, null).join();
+    } catch (CompletionException e) {
+      Throwable cause = e.getCause();
+      if (cause instanceof RuntimeException) {
+        throw (RuntimeException) cause;
+      } else if (cause instanceof Error) {
+        throw (Error) cause;
+      } else {
+        throw e;
+      }
+    }
+  }
+
+  /**
+   * Returns the element identified by the cache token. If the element is not available, it is loaded asynchronously
+   * using the executor of this cache. Concurrent requests for the same cache token share the pending load.
+   *
+   * @param cacheToken
+   *        The token identifying the item in the cache.
+   * @param loader
+   *        The function loading the element. If the loader returns <code>null</code>, nothing is cached.
+   * @return Returns the future completed with the cached or loaded element.
+   */
+  public CompletableFuture<V> getAsync(K cacheToken, Function<? super K, ? extends V> loader) {
+    V value = get(cacheToken);
+    if (value != null) {
+      return CompletableFuture.completedFuture(value);
+    }
+    return load(cacheToken, loader, executor);
+  }
+
+  /**
+   * Loads the element or joins a pending load of the same cache token.
+   *
+   * @param executor
+   *        The executor to perform the load or <code>null</code> to load in the calling thread.
+   */
+  private CompletableFuture<V> load(K cacheToken, Function<? super K, ? extends V> loader, Executor executor) {
+    Lang.denyNull("loader", loader);
+    Load<V> future = new Load<>();
+    Load<V> pending = loads.putIfAbsent(cacheToken, future);
+    if (pending != null) {
+      if (pending.thread == Thread.currentThread()) {
+        // Joining the pending load would wait for the current thread forever.
+        throw new IllegalStateException(String.format("Recursive load of cache token %s.", cacheToken));
+      }
+      return pending;
+    }
+    Runnable load = () -> {
+      future.thread = Thread.currentThread();
+      try {
+        V value = loader.apply(cacheToken);
+        if (value != null) {
+          add(cacheToken, value);
+        }
+        loadSuccesses.increment();
+        loads.remove(cacheToken, future);
+        future.complete(value);
+      } catch (Throwable t) {
+        loadFailures.increment();
+        loads.remove(cacheToken, future);
+        future.completeExceptionally(t);
+      } finally {
+        future.thread = null;
+      }
+    };
+    if (executor == null) {
+      load.run();
+    } else {
+      try {
+        executor.execute(load);
+      } catch (RuntimeException e) {
+        loads.remove(cacheToken, future);
+        future.completeExceptionally(e);
+      }
+    }
+    return future;
+  }
+
+  private boolean isExpired(CacheNode<K, V> node, long now) {
+    return (expireAfterWriteNanos > 0 && now - node.writeTime >= expireAfterWriteNanos)
+        || (expireAfterAccessNanos > 0 && now - node.accessTime >= expireAfterAccessNanos);
+  }
+
+  /**
+   * Removes an expired node found by a read.
+   */
+  private void expire(CacheNode<K, V> node) {
+    if (data.remove(node.key, node)) {
+      expirations.increment();
+      retire(node);
+      fireRemoved(Collections.singletonList(node));
+    }
+  }
+
+  /**
+   * Records a read in the lossy read buffer. The buffer is applied to the eviction policy if it is half full and the
+   * eviction lock is available.
+   */
+  private void recordRead(CacheNode<K, V> node, long now) {
+    if (expireAfterAccessNanos > 0) {
+      node.accessTime = now;
+    }
+    long read = reads.getAndIncrement();
+    readBuffer.lazySet((int) (read & READ_BUFFER_MASK), node);
+    if ((read & READ_BUFFER_DRAIN_MASK) == READ_BUFFER_DRAIN_MASK && evictionLock.tryLock()) {
+      List<CacheNode<K, V>> removed;
+      try {
+        drainReadBuffer();
+        removed = evict(now);
+      } finally {
+        evictionLock.unlock();
+      }
+      fireRemoved(removed);
+    }
+  }
+
+  /**
+   * Applies the evictions and expirations that are due. Eviction is otherwise performed while the cache is used.
+   */
+  public void cleanUp() {
+    if (!tracked) {
+      return;
+    }
+    long now = expires() ? ticker.getAsLong() : 0;
+    List<CacheNode<K, V>> removed;
+    evictionLock.lock();
+    try {
+      drainReadBuffer();
+      removed = evict(now);
+    } finally {
+      evictionLock.unlock();
+    }
+    fireRemoved(removed);
+  }
+
+  // The following methods must be called while holding the eviction lock.
+
+  private void drainReadBuffer() {
+    for (int i = 0; i < READ_BUFFER_SIZE; i++) {
+      CacheNode<K, V> node = readBuffer.get(i);
+      if (node != null) {
+        readBuffer.lazySet(i, null);
+        onRead(node);
+      }
+    }
+  }
+
+  private void onRead(CacheNode<K, V> node) {
+    if (!node.linked) {
+      return;
+    }
+    if (sketch != null) {
+      sketch.increment(node.key);
+    }
+    switch (node.queue) {
+      case CacheNode.WINDOW:
+        window.moveToLast(node);
+        break;
+      case CacheNode.PROBATION:
+        // Promote the node to the protected segment.
+        probation.remove(node);
+        protectedSegment.addLast(node);
+        node.queue = CacheNode.PROTECTED;
+        protectedWeight += node.weight;
+        demoteProtected();
+        break;
+      case CacheNode.PROTECTED:
+        protectedSegment.moveToLast(node);
+        break;
+    }
+  }
+
+  private void demoteProtected() {
+    while (protectedWeight > protectedMaximum) {
+      CacheNode<K, V> node = protectedSegment.peekFirst();
+      if (node == null) {
+        return;
+      }
+      protectedSegment.remove(node);
+      protectedWeight -= node.weight;
+      probation.addLast(node);
+      node.queue = CacheNode.PROBATION;
+    }
+  }
+
+  private void link(CacheNode<K, V> node) {
+    if (node.retired) {
+      // The node was removed before it was linked.
+      return;
+    }
+    node.linked = true;
+    node.queue = CacheNode.WINDOW;
+    window.addLast(node);
+    windowWeight += node.weight;
+    weight += node.weight;
+    if (expireAfterWriteNanos > 0) {
+      writeOrder.addLast(node);
+    }
+    if (sketch != null) {
+      sketch.ensureCapacity(data.size());
+      sketch.increment(node.key);
+    }
+  }
+
+  private void unlink(CacheNode<K, V> node) {
+    if (!node.linked) {
+      return;
+    }
+    node.linked = false;
+    switch (node.queue) {
+      case CacheNode.WINDOW:
+        window.remove(node);
+        windowWeight -= node.weight;
+        break;
+      case CacheNode.PROBATION:
+        probation.remove(node);
+        break;
+      case CacheNode.PROTECTED:
+        protectedSegment.remove(node);
+        protectedWeight -= node.weight;
+        break;
+    }
+    weight -= node.weight;
+    if (expireAfterWriteNanos > 0) {
+      writeOrder.remove(node);
+    }
+  }
+
+  /**
+   * Removes the expired nodes and evicts nodes while the maximum is exceeded.
+   *
+   * @return Returns the removed nodes to notify the dispose strategies about, or <code>null</code> if no node was
+   *         removed.
+   */
+  private List<CacheNode<K, V>> evict(long now) {
+    List<CacheNode<K, V>> removed = null;
+    removed = expireNodes(now, removed);
+    if (!isBounded()) {
+      return removed;
+    }
+    // Nodes leaving the window are candidates for the main area.
+    CacheNode<K, V> candidate = null;
+    if (sketch != null) {
+      while (windowWeight > windowMaximum) {
+        CacheNode<K, V> node = window.peekFirst();
+        window.remove(node);
+        windowWeight -= node.weight;
+        probation.addLast(node);
+        node.queue = CacheNode.PROBATION;
+        if (candidate == null) {
+          candidate = node;
+        }
+      }
+    }
+    while (weight > maximum) {
+      CacheNode<K, V> victim = firstOf(probation, protectedSegment, window);
+      if (victim == null) {
+        break;
+      }
+      if (candidate == null || candidate == victim) {
+        if (candidate == victim) {
+          candidate = probation.getNext(victim);
+        }
+        removed = evictNode(victim, removed);
+      } else if (admit(candidate, victim)) {
+        removed = evictNode(victim, removed);
+      } else {
+        CacheNode<K, V> next = probation.getNext(candidate);
+        removed = evictNode(candidate, removed);
+        candidate = next;
+      }
+    }
+    return removed;
+  }
+
+  @SafeVarargs
+  private static <K, V> CacheNode<K, V> firstOf(CacheNode.Deque<K, V>... deques) {
+    for (CacheNode.Deque<K, V> deque : deques) {
+      CacheNode<K, V> node = deque.peekFirst();
+      if (node != null) {
+        return node;
+      }
+    }
+    return null;
+  }
+
+  /**
+   * @return Returns <code>true</code> if the candidate should be admitted by evicting the victim.
+   */
+  private boolean admit(CacheNode<K, V> candidate, CacheNode<K, V> victim) {
+    int candidateFrequency = sketch.frequency(candidate.key);
+    int victimFrequency = sketch.frequency(victim.key);
+    if (candidateFrequency > victimFrequency) {
+      return true;
+    } else if (candidateFrequency >= 6) {
+      // Admit a warm candidate randomly, so that a hot victim cannot be used to keep new items out permanently.
+      return ThreadLocalRandom.current()
+          .nextInt(128) == 0;
+    }
+    return false;
+  }
+
+  private List<CacheNode<K, V>> expireNodes(long now, List<CacheNode<K, V>> removed) {
+    if (expireAfterWriteNanos > 0) {
+      CacheNode<K, V> node = writeOrder.peekFirst();
+      while (node != null && now - node.writeTime >= expireAfterWriteNanos) {
+        removed = expireNode(node, removed);
+        node = writeOrder.peekFirst();
+      }
+    }
+    if (expireAfterAccessNanos > 0) {
+      // The access order is approximate, so the first node that did not expire ends the scan.
+      removed = expireByAccess(window, now, removed);
+      removed = expireByAccess(probation, now, removed);
+      removed = expireByAccess(protectedSegment, now, removed);
+    }
+    return removed;
+  }
+
+  private List<CacheNode<K, V>> expireByAccess(CacheNode.Deque<K, V> deque, long now, List<CacheNode<K, V>> removed) {
+    CacheNode<K, V> node = deque.peekFirst();
+    while (node != null && now - node.accessTime >= expireAfterAccessNanos) {
+      removed = expireNode(node, removed);
+      node = deque.peekFirst();
+    }
+    return removed;
+  }
+
+  private List<CacheNode<K, V>> expireNode(CacheNode<K, V> node, List<CacheNode<K, V>> removed) {
+    unlink(node);
+    if (data.remove(node.key, node)) {
+      node.retired = true;
+      expirations.increment();
+      return addRemoved(node, removed);
+    }
+    return removed;
+  }
+
+  private List<CacheNode<K, V>> evictNode(CacheNode<K, V> node, List<CacheNode<K, V>> removed) {
+    unlink(node);
+    if (data.remove(node.key, node)) {
+      node.retired = true;
+      evictions.increment();
+      return addRemoved(node, removed);
+    }
+    return removed;
+  }
+
+  private static <K, V> List<CacheNode<K, V>> addRemoved(CacheNode<K, V> node, List<CacheNode<K, V>> removed) {
+    if (removed == null) {
+      removed = new ArrayList<>();
+    }
+    removed.add(node);
+    return removed;
+  }
+
   /**
    * See {@link Cache#get(Object)} and see {@link Cache#remove(Object)}
    *
@@ -250,25 +852,28 @@ public class Cache<K, V> {
    * Clears the cache and removes all items.
    */
   public void clear() {
-    Iterator<K> it = cache.keySet()
+    Iterator<K> it = data.keySet()
         .iterator();
     while (it.hasNext()) {
       K cacheToken = it.next();
       remove(cacheToken);
     }
-    this.cache.clear();
   }
 
   public int size() {
-    return cache.size();
+    return data.size();
+  }
+
+  /**
+   * @return Returns the statistics of this cache.
+   */
+  public CacheStats getStats() {
+    return new CacheStats(hits.sum(), misses.sum(), loadSuccesses.sum(), loadFailures.sum(), evictions.sum(),
+        expirations.sum());
   }
 
   public boolean containsValueForKey(K cacheToken) {
-    if (cache.containsKey(cacheToken)) {
-      return cache.get(cacheToken) != null;
-    } else {
-      return false;
-    }
+    return getValue(cacheToken) != null;
   }
 
   /**
@@ -279,21 +884,110 @@ public class Cache<K, V> {
     _fireDisposeAll(CacheEvent.DISPOSE);
 
     // Clear all members
-    this.cache.clear();
+    for (CacheNode<K, V> node : data.values()) {
+      node.retired = true;
+    }
+    this.data.clear();
+    evictionLock.lock();
+    try {
+      unlinkAll(window);
+      unlinkAll(probation);
+      unlinkAll(protectedSegment);
+      writeOrder.clear();
+      weight = 0;
+      windowWeight = 0;
+      protectedWeight = 0;
+    } finally {
+      evictionLock.unlock();
+    }
     // Clear on dispose strategies is unsupported due to Arrays.asList...
     this.disposeStrategies = null;
   }
 
+  private static <K, V> void unlinkAll(CacheNode.Deque<K, V> deque) {
+    CacheNode<K, V> node = deque.peekFirst();
+    while (node != null) {
+      node.linked = false;
+      node = deque.getNext(node);
+    }
+    deque.clear();
+  }
+
   public boolean isEmpty() {
-    return cache.isEmpty();
+    return data.isEmpty();
   }
 
   public boolean containsKey(Object key) {
-    return cache.containsKey(key);
+    return data.containsKey(key);
   }
 
   public boolean containsValue(Object value) {
-    return cache.containsValue(value);
+    for (CacheNode<K, V> node : data.values()) {
+      if (node.value.equals(value)) {
+        return true;
+      }
+    }
+    return false;
+  }
+
+  /**
+   * A pending load. The thread performing the load is known to detect recursive loads of the same cache token.
+   */
+  private static final class Load<V> extends CompletableFuture<V> {
+
+    private volatile Thread thread;
+
   }
 
+  /**
+   * The read-only view of the cached items backing the deprecated {@link Cache#cache} field.
+   */
+  private final class ItemView extends AbstractMap<K, V> {
+
+    @Override
+    public V get(Object key) {
+      CacheNode<K, V> node = data.get(key);
+      return node == null ? null : node.value;
+    }
+
+    @Override
+    public boolean containsKey(Object key) {
+      return data.containsKey(key);
+    }
+
+    @Override
+    public int size() {
+      return data.size();
+    }
+
+    @Override
+    public Set<Map.Entry<K, V>> entrySet() {
+      return new AbstractSet<Map.Entry<K, V>>() {
+
+        @Override
+        public Iterator<Map.Entry<K, V>> iterator() {
+          Iterator<CacheNode<K, V>> nodes = data.values()
+              .iterator();
+          return new Iterator<Map.Entry<K, V>>() {
+
+            @Override
+            public boolean hasNext() {
+              return nodes.hasNext();
+            }
+
+            @Override
+            public Map.Entry<K, V> next() {
+              CacheNode<K, V> node = nodes.next();
+              return new AbstractMap.SimpleImmutableEntry<>(node.key, node.value);
+            }
+          };
+        }
+
+        @Override
+        public int size() {
+          return data.size();
+        }
+      };
+    }
+  }
 }
@@ -0,0 +1,190 @@
+package com.remondis.limbus.utils;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.Executor;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.TimeUnit;
+import java.util.function.LongSupplier;
+
+/**
+ * Builder to create a {@link Cache}. Caches are unbounded and items never expire unless configured otherwise.
+ *
+ * <pre>
+ * Cache&lt;String, Resource&gt; cache = CacheBuilder.&lt;String, Resource&gt; create()
+ *     .maximumSize(1000)
+ *     .expireAfterAccess(10, TimeUnit.MINUTES)
+ *     .disposeStrategy(strategy)
+ *     .build();
+ * </pre>
+ *
+ * @param <K>
+ *        The type of the key used for the mapping
+ * @param <V>
+ *        The type of cached values.
+ */
+public final class CacheBuilder<K, V> {
+
+  static final long UNBOUNDED = -1;
+
+  long maximum = UNBOUNDED;
+
+  Weigher<? super K, ? super V> weigher;
+
+  EvictionPolicy evictionPolicy = EvictionPolicy.TINY_LFU;
+
+  long expireAfterWriteNanos;
+
+  long expireAfterAccessNanos;
+
+  Executor executor = ForkJoinPool.commonPool();
+
+  LongSupplier ticker = System::nanoTime;
+
+  List<DisposeStrategy<K, V>> disposeStrategies = new ArrayList<>();
+
+  private CacheBuilder() {
+  }
+
+  /**
+   * @return Returns a new {@link CacheBuilder}.
+   */
+  public static <K, V> CacheBuilder<K, V> create() {
+    return new CacheBuilder<>();
+  }
+
+  /**
+   * Bounds the cache by the number of items.
+   *
+   * @param maximumSize
+   *        The maximum number of items.
+   * @return Returns this builder for method chaining.
+   */
+  public CacheBuilder<K, V> maximumSize(long maximumSize) {
+    denyBounded();
+    if (maximumSize < 0) {
+      throw new IllegalArgumentException("The maximum size must not be negative.");
+    }
+    this.maximum = maximumSize;
+    return this;
+  }
+
+  /**
+   * Bounds the cache by the total weight of the items.
+   *
+   * @param maximumWeight
+   *        The maximum weight.
+   * @param weigher
+   *        The weigher calculating the weight of an item.
+   * @return Returns this builder for method chaining.
+   */
+  public CacheBuilder<K, V> maximumWeight(long maximumWeight, Weigher<? super K, ? super V> weigher) {
+    denyBounded();
+    Lang.denyNull("weigher", weigher);
+    if (maximumWeight < 0) {
+      throw new IllegalArgumentException("The maximum weight must not be negative.");
+    }
+    this.maximum = maximumWeight;
+    this.weigher = weigher;
+    return this;
+  }
+
+  private void denyBounded() {
+    if (maximum != UNBOUNDED) {
+      throw new IllegalStateException("The maximum size or weight was already set.");
+    }
+  }
+
+  /**
+   * Sets the policy selecting the items to evict if the cache is bounded. The default is
+   * {@link EvictionPolicy#TINY_LFU}.
+   *
+   * @param evictionPolicy
+   *        The eviction policy.
+   * @return Returns this builder for method chaining.
+   */
+  public CacheBuilder<K, V> evictionPolicy(EvictionPolicy evictionPolicy) {
+    Lang.denyNull("evictionPolicy", evictionPolicy);
+    this.evictionPolicy = evictionPolicy;
+    return this;
+  }
+
+  /**
+   * Items expire after the specified duration has passed since they were added.
+   *
+   * @param duration
+   *        The duration.
+   * @param unit
+   *        The time unit of the duration.
+   * @return Returns this builder for method chaining.
+   */
+  public CacheBuilder<K, V> expireAfterWrite(long duration, TimeUnit unit) {
+    this.expireAfterWriteNanos = toNanos(duration, unit);
+    return this;
+  }
+
+  /**
+   * Items expire after the specified duration has passed since they were added or requested the last time.
+   *
+   * @param duration
+   *        The duration.
+   * @param unit
+   *        The time unit of the duration.
+   * @return Returns this builder for method chaining.
+   */
+  public CacheBuilder<K, V> expireAfterAccess(long duration, TimeUnit unit) {
+    this.expireAfterAccessNanos = toNanos(duration, unit);
+    return this;
+  }
+
+  private static long toNanos(long duration, TimeUnit unit) {
+    Lang.denyNull("unit", unit);
+    if (duration <= 0) {
+      throw new IllegalArgumentException("The duration must be greater than 0.");
+    }
+    return unit.toNanos(duration);
+  }
+
+  /**
+   * Sets the executor performing asynchronous loads. The default is the common {@link ForkJoinPool}.
+   *
+   * @param executor
+   *        The executor.
+   * @return Returns this builder for method chaining.
+   */
+  public CacheBuilder<K, V> executor(Executor executor) {
+    Lang.denyNull("executor", executor);
+    this.executor = executor;
+    return this;
+  }
+
+  /**
+   * Adds a {@link DisposeStrategy}. The strategies are notified when items are added, requested, removed, evicted or
+   * expired.
+   *
+   * @param disposeStrategy
+   *        The dispose strategy.
+   * @return Returns this builder for method chaining.
+   */
+  public CacheBuilder<K, V> disposeStrategy(DisposeStrategy<K, V> disposeStrategy) {
+    Lang.denyNull("disposeStrategy", disposeStrategy);
+    this.disposeStrategies.add(disposeStrategy);
+    return this;
+  }
+
+  /**
+   * Sets the time source in nanoseconds. Used by tests.
+   */
+  CacheBuilder<K, V> ticker(LongSupplier ticker) {
+    this.ticker = ticker;
+    return this;
+  }
+
+  /**
+   * @return Returns the new {@link Cache}.
+   */
+  public Cache<K, V> build() {
+    return new Cache<>(this);
+  }
+
+}
@@ -0,0 +1,142 @@
+package com.remondis.limbus.utils;
+
+/**
+ * An item of a {@link Cache}. A new node is created every time an item is added, so key, value and weight never change.
+ * The links and the queue of a node are guarded by the eviction lock of the cache.
+ *
+ * @param <K>
+ *        The type of the key used for the mapping
+ * @param <V>
+ *        The type of cached values.
+ */
+final class CacheNode<K, V> {
+
+  static final int WINDOW = 0;
+  static final int PROBATION = 1;
+  static final int PROTECTED = 2;
+
+  final K key;
+
+  final V value;
+
+  final int weight;
+
+  final long writeTime;
+
+  volatile long accessTime;
+
+  /**
+   * Set if the node was removed from the cache map. A retired node is never linked again.
+   */
+  volatile boolean retired;
+
+  boolean linked;
+
+  int queue;
+
+  CacheNode<K, V> previous;
+  CacheNode<K, V> next;
+
+  CacheNode<K, V> previousInWriteOrder;
+  CacheNode<K, V> nextInWriteOrder;
+
+  CacheNode(K key, V value, int weight, long now) {
+    this.key = key;
+    this.value = value;
+    this.weight = weight;
+    this.writeTime = now;
+    this.accessTime = now;
+  }
+
+  /**
+   * A doubly linked deque of {@link CacheNode}s in access or write order.
+   */
+  static final class Deque<K, V> {
+
+    private final boolean writeOrder;
+
+    private CacheNode<K, V> first;
+
+    private CacheNode<K, V> last;
+
+    Deque(boolean writeOrder) {
+      this.writeOrder = writeOrder;
+    }
+
+    CacheNode<K, V> peekFirst() {
+      return first;
+    }
+
+    void addLast(CacheNode<K, V> node) {
+      setPrevious(node, last);
+      setNext(node, null);
+      if (last == null) {
+        first = node;
+      } else {
+        setNext(last, node);
+      }
+      last = node;
+    }
+
+    void remove(CacheNode<K, V> node) {
+      CacheNode<K, V> previous = getPrevious(node);
+      CacheNode<K, V> next = getNext(node);
+      if (previous == null) {
+        first = next;
+      } else {
+        setNext(previous, next);
+      }
+      if (next == null) {
+        last = previous;
+      } else {
+        setPrevious(next, previous);
+      }
+      setPrevious(node, null);
+      setNext(node, null);
+    }
+
+    void moveToLast(CacheNode<K, V> node) {
+      if (node != last) {
+        remove(node);
+        addLast(node);
+      }
+    }
+
+    CacheNode<K, V> getNext(CacheNode<K, V> node) {
+      return writeOrder ? node.nextInWriteOrder : node.next;
+    }
+
+    void clear() {
+      CacheNode<K, V> node = first;
+      while (node != null) {
+        CacheNode<K, V> next = getNext(node);
+        setPrevious(node, null);
+        setNext(node, null);
+        node = next;
+      }
+      first = null;
+      last = null;
+    }
+
+    private CacheNode<K, V> getPrevious(CacheNode<K, V> node) {
+      return writeOrder ? node.previousInWriteOrder : node.previous;
+    }
+
+    private void setNext(CacheNode<K, V> node, CacheNode<K, V> next) {
+      if (writeOrder) {
+        node.nextInWriteOrder = next;
+      } else {
+        node.next = next;
+      }
+    }
+
+    private void setPrevious(CacheNode<K, V> node, CacheNode<K, V> previous) {
+      if (writeOrder) {
+        node.previousInWriteOrder = previous;
+      } else {
+        node.previous = previous;
+      }
+    }
+  }
+
+}
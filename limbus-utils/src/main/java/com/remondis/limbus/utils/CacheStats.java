@@ -0,0 +1,94 @@
+package com.remondis.limbus.utils;
+
+/**
+ * A snapshot of the statistics of a {@link Cache}.
+ */
+public final class CacheStats {
+
+  private final long hitCount;
+
+  private final long missCount;
+
+  private final long loadSuccessCount;
+
+  private final long loadFailureCount;
+
+  private final long evictionCount;
+
+  private final long expirationCount;
+
+  CacheStats(long hitCount, long missCount, long loadSuccessCount, long loadFailureCount, long evictionCount,
+      long expirationCount) {
+    this.hitCount = hitCount;
+    this.missCount = missCount;
+    this.loadSuccessCount = loadSuccessCount;
+    this.loadFailureCount = loadFailureCount;
+    this.evictionCount = evictionCount;
+    this.expirationCount = expirationCount;
+  }
+
+  /**
+   * @return Returns the number of requests that returned a cached item.
+   */
+  public long getHitCount() {
+    return hitCount;
+  }
+
+  /**
+   * @return Returns the number of requests that did not find a cached item.
+   */
+  public long getMissCount() {
+    return missCount;
+  }
+
+  /**
+   * @return Returns the number of requests.
+   */
+  public long getRequestCount() {
+    return hitCount + missCount;
+  }
+
+  /**
+   * @return Returns the ratio of requests that returned a cached item. Returns 1 if there were no requests.
+   */
+  public double getHitRate() {
+    long requestCount = getRequestCount();
+    return requestCount == 0 ? 1.0 : (double) hitCount / requestCount;
+  }
+
+  /**
+   * @return Returns the number of items that were loaded successfully.
+   */
+  public long getLoadSuccessCount() {
+    return loadSuccessCount;
+  }
+
+  /**
+   * @return Returns the number of loads that failed.
+   */
+  public long getLoadFailureCount() {
+    return loadFailureCount;
+  }
+
+  /**
+   * @return Returns the number of items evicted because the maximum size or weight was exceeded.
+   */
+  public long getEvictionCount() {
+    return evictionCount;
+  }
+
+  /**
+   * @return Returns the number of items removed because they expired.
+   */
+  public long getExpirationCount() {
+    return expirationCount;
+  }
+
+  @Override
+  public String toString() {
+    return "CacheStats [hitCount=" + hitCount + ", missCount=" + missCount + ", loadSuccessCount=" + loadSuccessCount
+        + ", loadFailureCount=" + loadFailureCount + ", evictionCount=" + evictionCount + ", expirationCount="
+        + expirationCount + "]";
+  }
+
+}
@@ -0,0 +1,18 @@
+package com.remondis.limbus.utils;
+
+/**
+ * Defines how a bounded {@link Cache} selects the items to evict if the maximum size or weight is exceeded.
+ */
+public enum EvictionPolicy {
+  /**
+   * The least recently used item is evicted.
+   */
+  LRU,
+  /**
+   * Window TinyLFU: New items enter a small LRU window. Items leaving the window are only admitted to the main
+   * segmented LRU area if they were requested more frequently than the item that would be evicted for them. The
+   * frequencies are estimated by a compact count-min sketch that ages over time. This policy keeps frequently used
+   * items even if a scan of rarely used items passes through the cache.
+   */
+  TINY_LFU;
+}
@@ -0,0 +1,117 @@
+package com.remondis.limbus.utils;
+
+/**
+ * A count-min sketch estimating the access frequency of cache items for the {@link EvictionPolicy#TINY_LFU}. Every
+ * long of the table holds sixteen 4-bit counters and every item is mapped to four counters. The estimated frequency is
+ * the minimum of these counters. All counters are halved after a number of increments proportional to the table size,
+ * so the frequencies age over time.
+ *
+ * <p>
+ * <b>This class is not thread safe. It is guarded by the eviction lock of the cache.</b>
+ * </p>
+ */
+final class FrequencySketch {
+
+  private static final long[] SEEDS = new long[] {
+      0xc3a5c85c97cb3127L, 0xb492b66fbe98f273L, 0x9ae16a3b2f90404fL, 0xcbf29ce484222325L
+  };
+
+  private static final long RESET_MASK = 0x7777777777777777L;
+
+  private static final long ONE_MASK = 0x1111111111111111L;
+
+  private static final int MINIMUM_TABLE_SIZE = 16;
+
+  private static final int MAXIMUM_TABLE_SIZE = 1 << 24;
+
+  private long[] table;
+
+  private int tableMask;
+
+  private int sampleSize;
+
+  private int size;
+
+  FrequencySketch() {
+    ensureCapacity(MINIMUM_TABLE_SIZE);
+  }
+
+  /**
+   * Grows the table if it is smaller than the specified number of items. The frequencies are lost when growing.
+   */
+  void ensureCapacity(long items) {
+    int capacity = (int) Math.min(Math.max(items, MINIMUM_TABLE_SIZE), MAXIMUM_TABLE_SIZE);
+    if (table != null && table.length >= capacity) {
+      return;
+    }
+    table = new long[Integer.highestOneBit(capacity - 1) << 1];
+    tableMask = table.length - 1;
+    sampleSize = 10 * table.length;
+    size = 0;
+  }
+
+  /**
+   * @return Returns the estimated frequency of the item in the range of 0 to 15.
+   */
+  int frequency(Object item) {
+    int hash = spread(item.hashCode());
+    int start = (hash & 3) << 2;
+    int frequency = Integer.MAX_VALUE;
+    for (int i = 0; i < 4; i++) {
+      int index = indexOf(hash, i);
+      int count = (int) ((table[index] >>> ((start + i) << 2)) & 0xfL);
+      frequency = Math.min(frequency, count);
+    }
+    return frequency;
+  }
+
+  /**
+   * Increments the frequency of the item if it is not already at the maximum.
+   */
+  void increment(Object item) {
+    int hash = spread(item.hashCode());
+    int start = (hash & 3) << 2;
+    boolean added = false;
+    for (int i = 0; i < 4; i++) {
+      added |= incrementAt(indexOf(hash, i), start + i);
+    }
+    if (added && ++size == sampleSize) {
+      reset();
+    }
+  }
+
+  private boolean incrementAt(int index, int counter) {
+    int offset = counter << 2;
+    long mask = 0xfL << offset;
+    if ((table[index] & mask) != mask) {
+      table[index] += 1L << offset;
+      return true;
+    }
+    return false;
+  }
+
+  /**
+   * Halves all counters.
+   */
+  private void reset() {
+    int odd = 0;
+    for (int i = 0; i < table.length; i++) {
+      odd += Long.bitCount(table[i] & ONE_MASK);
+      table[i] = (table[i] >>> 1) & RESET_MASK;
+    }
+    size = (size >>> 1) - (odd >>> 2);
+  }
+
+  private int indexOf(int hash, int i) {
+    long h = (hash + SEEDS[i]) * SEEDS[i];
+    h += h >>> 32;
+    return ((int) h) & tableMask;
+  }
+
+  private static int spread(int x) {
+    x = ((x >>> 16) ^ x) * 0x45d9f3b;
+    x = ((x >>> 16) ^ x) * 0x45d9f3b;
+    return (x >>> 16) ^ x;
+  }
+
+}
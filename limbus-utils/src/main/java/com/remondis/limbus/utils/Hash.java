@@ -3,6 +3,8 @@
  */
 package com.remondis.limbus.utils;
 
+import java.io.IOException;
+import java.io.InputStream;
 import java.security.MessageDigest;
 import java.security.NoSuchAlgorithmException;
 
@@ -28,4 +30,43 @@ public class Hash {
     MessageDigest md = MessageDigest.getInstance("SHA-1");
     return md.digest(data);
   }
+
+  /**
+   * Converts the data of a stream to SHA-1 hash. The stream is read until the end but not closed.
+   *
+   * @param input
+   *        The input stream.
+   * @return Returns the SHA-1 hash in as byte array.
+   *
+   * @throws NoSuchAlgorithmException
+   *         Thrown if the algorithm is not available.
+   * @throws IOException
+   *         Thrown if the stream cannot be read.
+   */
+  public static byte[] toSHA(InputStream input) throws NoSuchAlgorithmException, IOException {
+    MessageDigest md = MessageDigest.getInstance("SHA-1");
+    byte[] buffer = new byte[8192];
+    int read;
+    while ((read = input.read(buffer)) != -1) {
+      md.update(buffer, 0, read);
+    }
+    return md.digest();
+  }
+
+  /**
+   * Converts a hash to its lower case hexadecimal representation.
+   *
+   * @param hash
+   *        The hash.
+   * @return Returns the hexadecimal string.
+   */
+  public static String toHexString(byte[] hash) {
+    Lang.denyNull("hash", hash);
+    StringBuilder b = new StringBuilder(hash.length * 2);
+    for (byte value : hash) {
+      b.append(Character.forDigit((value >> 4) & 0xF, 16))
+          .append(Character.forDigit(value & 0xF, 16));
+    }
+    return b.toString();
+  }
 }
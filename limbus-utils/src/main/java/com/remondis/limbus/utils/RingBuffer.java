@@ -0,0 +1,212 @@
+package com.remondis.limbus.utils;
+
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.Supplier;
+
+/**
+ * This is a bounded lock-free ring buffer for any number of producer threads and a single consumer thread.
+ *
+ * <p>
+ * The elements of the ring buffer are preallocated and reused, so publishing does not allocate. A producer claims a
+ * sequence using {@link #claim()}, fills the element returned by {@link #get(long)} and makes it visible to the
+ * consumer using {@link #publish(long)}. The consumer reads the next published element using {@link #peek()} and
+ * hands it back to the producers using {@link #release()}.
+ * </p>
+ *
+ * <p>
+ * After {@link #close()} producers cannot claim sequences anymore. The consumer can still read the elements published
+ * before, {@link #isDrained()} reports when all of them were consumed. This way a consumer thread can be stopped
+ * without losing elements published by producers that raced the shutdown.
+ * </p>
+ *
+ * @param <E>
+ *        The type of the elements.
+ */
+public final class RingBuffer<E> {
+
+  /**
+   * Returned by {@link #claim()} if the ring buffer is full or closed.
+   */
+  public static final long NO_SEQUENCE = -1;
+
+  /**
+   * Marks the tail sequence if the ring buffer was closed.
+   */
+  private static final long CLOSED = 1L << 62;
+
+  private final Slot<E>[] slots;
+
+  private final int mask;
+
+  /**
+   * The next sequence to be claimed by a producer. The {@link #CLOSED} bit is set if the ring buffer was closed.
+   */
+  private final AtomicLong tail = new AtomicLong();
+
+  /**
+   * The next sequence to be consumed. This sequence is only written by the consumer thread.
+   */
+  private volatile long head;
+
+  /**
+   * Creates a ring buffer.
+   *
+   * @param capacity
+   *        The minimum capacity of the ring buffer. The capacity is rounded up to the next power of two.
+   * @param elementFactory
+   *        Creates the elements of the ring buffer.
+   */
+  @SuppressWarnings("unchecked")
+  public RingBuffer(int capacity, Supplier<E> elementFactory) {
+    Lang.denyNull("elementFactory", elementFactory);
+    if (capacity < 2) {
+      throw new IllegalArgumentException("The capacity of the ring buffer must be at least 2.");
+    }
+    int size = Integer.highestOneBit(capacity - 1) << 1;
+    this.slots = new Slot[size];
+    this.mask = size - 1;
+    for (int i = 0; i < size; i++) {
+      slots[i] = new Slot<>(i, elementFactory.get());
+    }
+  }
+
+  /**
+   * Claims the next sequence for a producer. The claimed sequence must be published using {@link #publish(long)},
+   * otherwise the consumer waits for it forever.
+   *
+   * @return Returns the claimed sequence or {@link #NO_SEQUENCE} if the ring buffer is full or closed.
+   */
+  public long claim() {
+    long sequence = tail.get();
+    while (true) {
+      if ((sequence & CLOSED) != 0) {
+        return NO_SEQUENCE;
+      }
+      long difference = slots[(int) (sequence & mask)].sequence - sequence;
+      if (difference == 0) {
+        if (tail.compareAndSet(sequence, sequence + 1)) {
+          return sequence;
+        }
+        sequence = tail.get();
+      } else if (difference < 0) {
+        // The slot was not released by the consumer - the ring buffer is full.
+        return NO_SEQUENCE;
+      } else {
+        sequence = tail.get();
+      }
+    }
+  }
+
+  /**
+   * @param sequence
+   *        A sequence claimed by the current thread.
+   * @return Returns the element of the claimed sequence.
+   */
+  public E get(long sequence) {
+    return slots[(int) (sequence & mask)].element;
+  }
+
+  /**
+   * Publishes the element of a claimed sequence to the consumer.
+   *
+   * @param sequence
+   *        A sequence claimed by the current thread.
+   */
+  public void publish(long sequence) {
+    slots[(int) (sequence & mask)].sequence = sequence + 1;
+  }
+
+  /**
+   * Returns the next published element without removing it. Must only be called by the consumer thread.
+   *
+   * @return Returns the next element or <code>null</code> if no element was published.
+   */
+  public E peek() {
+    long sequence = head;
+    Slot<E> slot = slots[(int) (sequence & mask)];
+    if (slot.sequence == sequence + 1) {
+      return slot.element;
+    } else {
+      return null;
+    }
+  }
+
+  /**
+   * Releases the element returned by {@link #peek()}, so it can be reused by the producers. Must only be called by the
+   * consumer thread.
+   */
+  public void release() {
+    long sequence = head;
+    // Make the slot available for the next round of producers.
+    slots[(int) (sequence & mask)].sequence = sequence + slots.length;
+    head = sequence + 1;
+  }
+
+  /**
+   * Closes the ring buffer. Sequences cannot be claimed after this method returns, but the elements published before
+   * can still be consumed.
+   */
+  public void close() {
+    long sequence = tail.get();
+    while ((sequence & CLOSED) == 0 && !tail.compareAndSet(sequence, sequence | CLOSED)) {
+      sequence = tail.get();
+    }
+  }
+
+  /**
+   * @return Returns <code>true</code> if the ring buffer was closed, otherwise <code>false</code>.
+   */
+  public boolean isClosed() {
+    return (tail.get() & CLOSED) != 0;
+  }
+
+  /**
+   * @return Returns <code>true</code> if the ring buffer was closed and all claimed sequences were consumed, otherwise
+   *         <code>false</code>.
+   */
+  public boolean isDrained() {
+    long sequence = tail.get();
+    return (sequence & CLOSED) != 0 && head == (sequence & ~CLOSED);
+  }
+
+  /**
+   * @return Returns the number of sequences claimed by producers so far.
+   */
+  public long getPublishedSequence() {
+    return tail.get() & ~CLOSED;
+  }
+
+  /**
+   * @return Returns the number of elements consumed so far.
+   */
+  public long getConsumedSequence() {
+    return head;
+  }
+
+  /**
+   * @return Returns the approximate number of elements waiting to be consumed.
+   */
+  public int size() {
+    return (int) Math.max(0, getPublishedSequence() - head);
+  }
+
+  /**
+   * @return Returns the capacity of the ring buffer.
+   */
+  public int capacity() {
+    return slots.length;
+  }
+
+  private static final class Slot<E> {
+
+    private volatile long sequence;
+
+    private final E element;
+
+    private Slot(long sequence, E element) {
+      this.sequence = sequence;
+      this.element = element;
+    }
+  }
+
+}
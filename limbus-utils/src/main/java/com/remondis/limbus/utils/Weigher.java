@@ -0,0 +1,25 @@
+package com.remondis.limbus.utils;
+
+/**
+ * Calculates the weight of items in a {@link Cache} that is bounded by a maximum weight.
+ *
+ * @param <K>
+ *        The type of the key used for the mapping
+ * @param <V>
+ *        The type of cached values.
+ */
+@FunctionalInterface
+public interface Weigher<K, V> {
+
+  /**
+   * Returns the weight of an item. The weight is calculated once when the item is added to the cache.
+   *
+   * @param key
+   *        The cache token.
+   * @param value
+   *        The cache value.
+   * @return Returns the weight of the item. Must not be negative.
+   */
+  public int weigh(K key, V value);
+
+}
@@ -6,8 +6,6 @@ package com.remondis.limbus.utils;
 import java.io.ByteArrayInputStream;
 import java.io.ByteArrayOutputStream;
 import java.io.File;
-import java.io.FileInputStream;
-import java.io.FileOutputStream;
 import java.io.IOException;
 import java.util.Arrays;
 import java.util.Hashtable;
@@ -16,6 +14,8 @@ import java.util.zip.ZipEntry;
 import java.util.zip.ZipInputStream;
 import java.util.zip.ZipOutputStream;
 
+import com.remondis.limbus.utils.archive.Archive;
+
 /**
  * This class contains useful methods for processing zip files.
  *
@@ -30,7 +30,9 @@ public class Zip {
   protected static final String HASH_FILENAME_PATTERN = "%s.sha1";
 
   /**
-   * Unpacks a ZIP file to the specified folder. Check the specified file objects before calling this method.
+   * Unpacks a ZIP file to the specified folder. Check the specified file objects before calling this method. The
+   * entries are extracted in parallel, see {@link Archive#extract(File)}. Entries that would be extracted outside of
+   * the output folder are rejected.
    *
    * <p>
    * If an exception occurs while unpacking, created files within the output folder are not deleted by this method.
@@ -44,9 +46,6 @@ public class Zip {
    *         Thrown on any error.
    */
   public static void unpack(File zipFile, File outputFolder) throws Exception {
-
-    byte[] buffer = new byte[1024];
-
     if (!outputFolder.isDirectory()) {
       throw new Exception("The output folder is not a directory.");
     }
@@ -54,45 +53,10 @@ public class Zip {
       throw new Exception("The input file is not a regular file.");
     }
 
-    // get the zip file content
-    ZipInputStream zis = null;
-    try {
-      zis = new ZipInputStream(new FileInputStream(zipFile));
-
-      // get the zipped file list entry
-      ZipEntry ze = zis.getNextEntry();
-
-      while (ze != null) {
-
-        String fileName = ze.getName();
-        File newFile = new File(outputFolder, fileName);
-
-        // create all non exists folders
-        // else you will hit FileNotFoundException for compressed folder
-        new File(newFile.getParent()).mkdirs();
-
-        if (!ze.isDirectory()) {
-          FileOutputStream fos = null;
-          try {
-            fos = new FileOutputStream(newFile);
-            int len;
-            while ((len = zis.read(buffer)) > 0) {
-              fos.write(buffer, 0, len);
-            }
-          } catch (Exception e) {
-            throw e;
-          } finally {
-            Lang.closeQuietly(fos);
-            zis.closeEntry();
-          }
-        }
-        ze = zis.getNextEntry();
-      }
-
+    try (Archive archive = Archive.open(zipFile)) {
+      archive.extract(outputFolder);
     } catch (Exception e) {
       throw new Exception(String.format("Cannot unpack file %s ", zipFile.getAbsolutePath()), e);
-    } finally {
-      Lang.closeQuietly(zis);
     }
   }
 
@@ -134,9 +98,8 @@ public class Zip {
     try {
       ZipEntry entry = null;
       while ((entry = zin.getNextEntry()) != null) {
-        // Get the file data
-        byte[] data = Lang.toByteArray(zin);
-        byte[] hash = Hash.toSHA(data);
+        // Hash the file data without buffering the entry
+        byte[] hash = Hash.toSHA(zin);
 
         // Put the hash entry
         String hashEntryName = toHashEntryName(entry.getName());
@@ -225,6 +188,29 @@ public class Zip {
     }
   }
 
+  /**
+   * Compares the file items of two ZIP files. The items are hashed while streaming the archives, so the files are not
+   * loaded into memory. Only if the two zip files contain the same file items and their content equals,
+   * <code>true</code> is returned. Otherwise this method returns <code>false</code>.
+   *
+   * @param zipFile1
+   *        The first zip file.
+   * @param zipFile2
+   *        The second zip file.
+   * @return Returns <code>true</code> if and only if both files contain the same file items with equal content.
+   *         Otherwise <code>false</code> is returned.
+   * @throws Exception
+   *         On any error.
+   */
+  public static boolean isZipItemsEqual(File zipFile1, File zipFile2) throws Exception {
+    try (Archive archive1 = Archive.open(zipFile1); Archive archive2 = Archive.open(zipFile2)) {
+      return archive1.hash()
+          .equals(archive2.hash());
+    } catch (Exception e) {
+      throw new Exception("Cannot compare the items of the specified ZIP files.", e);
+    }
+  }
+
   /**
    * Returns the entry name for a hashed file.
    *
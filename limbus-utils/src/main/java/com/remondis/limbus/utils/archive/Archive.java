@@ -0,0 +1,637 @@
+package com.remondis.limbus.utils.archive;
+
+import static java.nio.file.StandardCopyOption.ATOMIC_MOVE;
+import static java.nio.file.StandardCopyOption.REPLACE_EXISTING;
+
+import java.io.File;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.security.AccessController;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.security.PrivilegedAction;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.Enumeration;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.LinkedHashSet;
+import java.util.LinkedList;
+import java.util.List;
+import java.util.Map;
+import java.util.Map.Entry;
+import java.util.Queue;
+import java.util.Set;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Future;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.ThreadFactory;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.BiPredicate;
+import java.util.zip.CRC32;
+import java.util.zip.CheckedInputStream;
+import java.util.zip.ZipEntry;
+import java.util.zip.ZipFile;
+
+import com.remondis.limbus.utils.Hash;
+import com.remondis.limbus.utils.Lang;
+
+/**
+ * This class provides random access to the entries of a ZIP archive. The entries are read from the central directory
+ * of the archive, so single entries can be read without inflating the entries before.
+ *
+ * <p>
+ * The extraction writes the file entries in parallel using large buffers. The threads are shared by all archives and
+ * are limited to the number of available processors, so concurrent extractions do not multiply the number of threads.
+ * Before anything is written, all entry names are checked to resolve to a location within the output folder, so
+ * archives containing entries like <code>../../file</code> or absolute paths are rejected. Archives containing
+ * different entry names for the same file, like <code>a/./b</code> and <code>a/b</code>, are rejected as well. The
+ * CRC-32 checksum of every extracted entry is verified.
+ * </p>
+ *
+ * <p>
+ * The incremental mode {@link #update(File, Archive)} compares the entries of this archive with the entries of a
+ * previous version of the archive that was extracted to the same folder before. Only the entries that were added or
+ * changed are written and the files of removed entries are deleted. If the previous archive is no longer available,
+ * {@link #update(File, Map)} compares against the entry hashes of the previous version instead.
+ * </p>
+ *
+ * <p>
+ * An archive must be closed after use. The methods of this class may be called concurrently.
+ * </p>
+ */
+public final class Archive implements AutoCloseable {
+
+  /**
+   * The buffer size used to copy and hash entries.
+   */
+  static final int BUFFER_SIZE = 64 * 1024;
+
+  private static final String THREAD_NAME = "Limbus Archive";
+
+  private static final String SHA_1 = "SHA-1";
+
+  private static final String TEMP_SUFFIX = ".tmp";
+
+  /**
+   * The time in milliseconds an idle thread of the executor is kept.
+   */
+  private static final long KEEP_ALIVE = TimeUnit.SECONDS.toMillis(30);
+
+  /**
+   * The threads writing the entries of all archives.
+   */
+  private static final ExecutorService EXECUTOR = createExecutor();
+
+  private final File file;
+
+  private final ZipFile zipFile;
+
+  private final Map<String, ArchiveEntry> entries;
+
+  /**
+   * Holds the hexadecimal SHA-1 hashes of the entries read so far.
+   */
+  private final Map<String, String> digests = new ConcurrentHashMap<>();
+
+  private Archive(File file, ZipFile zipFile, Map<String, ArchiveEntry> entries) {
+    this.file = file;
+    this.zipFile = zipFile;
+    this.entries = entries;
+  }
+
+  /**
+   * Opens a ZIP archive.
+   *
+   * @param file
+   *        The ZIP file.
+   * @return Returns the opened archive.
+   * @throws ArchiveException
+   *         Thrown if the file is not a readable ZIP file.
+   */
+  public static Archive open(File file) throws ArchiveException {
+    Lang.denyNull("file", file);
+    ZipFile zipFile = null;
+    try {
+      zipFile = new ZipFile(file);
+      Map<String, ArchiveEntry> entries = new LinkedHashMap<>();
+      Enumeration<? extends ZipEntry> zipEntries = zipFile.entries();
+      while (zipEntries.hasMoreElements()) {
+        ZipEntry zipEntry = zipEntries.nextElement();
+        entries.put(zipEntry.getName(), new ArchiveEntry(zipEntry));
+      }
+      return new Archive(file, zipFile, Collections.unmodifiableMap(entries));
+    } catch (Exception e) {
+      Lang.closeQuietly(zipFile);
+      throw new ArchiveException(String.format("Cannot open archive %s", file.getAbsolutePath()), e);
+    }
+  }
+
+  /**
+   * @return Returns the archive file.
+   */
+  public File getFile() {
+    return file;
+  }
+
+  /**
+   * @return Returns the unmodifiable entries of this archive in the order of the central directory.
+   */
+  public Collection<ArchiveEntry> getEntries() {
+    return entries.values();
+  }
+
+  /**
+   * @param name
+   *        The entry name.
+   * @return Returns the entry with the specified name or <code>null</code> if this archive does not contain such an
+   *         entry.
+   */
+  public ArchiveEntry getEntry(String name) {
+    return entries.get(name);
+  }
+
+  /**
+   * Computes the SHA-1 hashes of all file entries. The entries are streamed, so the archive is never loaded into memory
+   * as a whole. The hashes of entries already extracted by this archive are computed while extracting, so those entries
+   * are not read again.
+   *
+   * @return Returns a map of entry names to the hexadecimal SHA-1 hash of the entry content in the order of the central
+   *         directory.
+   * @throws ArchiveException
+   *         Thrown if an entry cannot be read or is corrupted.
+   */
+  public Map<String, String> hash() throws ArchiveException {
+    Map<String, String> hashes = new LinkedHashMap<>();
+    byte[] buffer = null;
+    for (ArchiveEntry entry : entries.values()) {
+      if (entry.isDirectory()) {
+        continue;
+      }
+      String digest = digests.get(entry.getName());
+      if (digest == null) {
+        if (buffer == null) {
+          buffer = new byte[BUFFER_SIZE];
+        }
+        digest = copyEntry(entry, null, buffer, "hash");
+      }
+      hashes.put(entry.getName(), digest);
+    }
+    return hashes;
+  }
+
+  /**
+   * Extracts all entries of this archive to the specified folder. Existing files are overwritten. The number of
+   * threads used is at most the number of available processors.
+   *
+   * <p>
+   * If an exception occurs while extracting, files already written to the output folder are not deleted by this
+   * method.
+   * </p>
+   *
+   * @param outputFolder
+   *        The output folder. Must be an existing directory.
+   * @return Returns the result of the extraction.
+   * @throws ArchiveException
+   *         Thrown if an entry is unsafe to extract, corrupted or cannot be written.
+   */
+  public ExtractionResult extract(File outputFolder) throws ArchiveException {
+    return extract(outputFolder, getDefaultParallelism());
+  }
+
+  /**
+   * Extracts all entries of this archive to the specified folder. Existing files are overwritten.
+   *
+   * @param outputFolder
+   *        The output folder. Must be an existing directory.
+   * @param parallelism
+   *        The maximum number of threads used to write the entries. The calling thread is one of them. The threads are
+   *        limited to the number of available processors in any case.
+   * @return Returns the result of the extraction.
+   * @throws ArchiveException
+   *         Thrown if an entry is unsafe to extract, corrupted or cannot be written.
+   * @see #extract(File)
+   */
+  public ExtractionResult extract(File outputFolder, int parallelism) throws ArchiveException {
+    return extract(outputFolder, null, parallelism);
+  }
+
+  /**
+   * Updates a folder that contains the extracted entries of a previous version of this archive. Only the file entries
+   * that are new or changed since the previous version are written. An entry is considered unchanged if its size and
+   * CRC-32 checksum did not change and the extracted file still has the expected size. Files of entries that are no
+   * longer part of this archive are deleted. The number of threads used is at most the number of available processors.
+   *
+   * @param outputFolder
+   *        The output folder containing the extracted previous version. Must be an existing directory.
+   * @param previous
+   *        The previous version of this archive. If <code>null</code> this method performs a full extraction.
+   * @return Returns the result of the extraction.
+   * @throws ArchiveException
+   *         Thrown if an entry is unsafe to extract, corrupted or cannot be written.
+   */
+  public ExtractionResult update(File outputFolder, Archive previous) throws ArchiveException {
+    return update(outputFolder, previous, getDefaultParallelism());
+  }
+
+  /**
+   * Updates a folder that contains the extracted entries of a previous version of this archive.
+   *
+   * @param outputFolder
+   *        The output folder containing the extracted previous version. Must be an existing directory.
+   * @param previous
+   *        The previous version of this archive. If <code>null</code> this method performs a full extraction.
+   * @param parallelism
+   *        The maximum number of threads used to write the entries.
+   * @return Returns the result of the extraction.
+   * @throws ArchiveException
+   *         Thrown if an entry is unsafe to extract, corrupted or cannot be written.
+   * @see #update(File, Archive)
+   */
+  public ExtractionResult update(File outputFolder, Archive previous, int parallelism) throws ArchiveException {
+    return extract(outputFolder, previous, parallelism);
+  }
+
+  /**
+   * Updates a folder that contains the extracted entries of a previous version of this archive. In contrast to
+   * {@link #update(File, Archive)} the previous version is described by the SHA-1 hashes of its file entries as
+   * returned by {@link #hash()}, so the previous archive file is not required. Only the file entries whose hash
+   * changed are written. Files of entries that are no longer part of this archive are deleted. The number of threads
+   * used is at most the number of available processors.
+   *
+   * @param outputFolder
+   *        The output folder containing the extracted previous version. Must be an existing directory.
+   * @param previousHashes
+   *        The hashes of the file entries of the previous version.
+   * @return Returns the result of the extraction.
+   * @throws ArchiveException
+   *         Thrown if an entry is unsafe to extract, corrupted or cannot be written.
+   */
+  public ExtractionResult update(File outputFolder, Map<String, String> previousHashes) throws ArchiveException {
+    return update(outputFolder, previousHashes, getDefaultParallelism());
+  }
+
+  /**
+   * Updates a folder that contains the extracted entries of a previous version of this archive.
+   *
+   * @param outputFolder
+   *        The output folder containing the extracted previous version. Must be an existing directory.
+   * @param previousHashes
+   *        The hashes of the file entries of the previous version.
+   * @param parallelism
+   *        The maximum number of threads used to write the entries.
+   * @return Returns the result of the extraction.
+   * @throws ArchiveException
+   *         Thrown if an entry is unsafe to extract, corrupted or cannot be written.
+   * @see #update(File, Map)
+   */
+  public ExtractionResult update(File outputFolder, Map<String, String> previousHashes, int parallelism)
+      throws ArchiveException {
+    Lang.denyNull("previousHashes", previousHashes);
+    Map<String, String> hashes = hash();
+    return extract(outputFolder, previousHashes.keySet(), (entry, target) -> {
+      String hash = hashes.get(entry.getName());
+      return hash != null && hash.equals(previousHashes.get(entry.getName())) && hasSize(target, entry.getSize());
+    }, parallelism);
+  }
+
+  private ExtractionResult extract(File outputFolder, Archive previous, int parallelism) throws ArchiveException {
+    if (previous == null) {
+      return extract(outputFolder, Collections.emptySet(), (entry, target) -> false, parallelism);
+    }
+    Set<String> previousNames = new LinkedHashSet<>();
+    for (ArchiveEntry entry : previous.getEntries()) {
+      if (!entry.isDirectory()) {
+        previousNames.add(entry.getName());
+      }
+    }
+    return extract(outputFolder, previousNames,
+        (entry, target) -> entry.isUnchanged(previous.getEntry(entry.getName())) && hasSize(target, entry.getSize()),
+        parallelism);
+  }
+
+  /**
+   * @param outputFolder
+   *        The output folder.
+   * @param previousNames
+   *        The names of the file entries of the previous version extracted to the output folder.
+   * @param upToDate
+   *        Decides whether the target of an entry is already up to date.
+   * @param parallelism
+   *        The maximum number of threads.
+   */
+  private ExtractionResult extract(File outputFolder, Collection<String> previousNames,
+      BiPredicate<ArchiveEntry, Path> upToDate, int parallelism) throws ArchiveException {
+    Lang.denyNull("outputFolder", outputFolder);
+    if (parallelism < 1) {
+      throw new IllegalArgumentException("The parallelism must be at least 1.");
+    }
+    if (!outputFolder.isDirectory()) {
+      throw new ArchiveException(
+          String.format("The output folder %s is not a directory.", outputFolder.getAbsolutePath()));
+    }
+    Path root = outputFolder.toPath()
+        .toAbsolutePath()
+        .normalize();
+
+    // Resolve all targets first, so an unsafe archive is rejected before anything is written.
+    Set<Path> directories = new LinkedHashSet<>();
+    Map<ArchiveEntry, Path> writes = new LinkedHashMap<>();
+    List<String> unchanged = new LinkedList<>();
+    Map<Path, String> files = new HashMap<>();
+    for (ArchiveEntry entry : entries.values()) {
+      Path target = resolve(root, entry.getName());
+      if (!entry.isDirectory()) {
+        String other = files.putIfAbsent(target, entry.getName());
+        if (other != null) {
+          throw new ArchiveException(String.format(
+              "The archive entries '%s' and '%s' would be extracted to the same file.", other, entry.getName()));
+        }
+      }
+      if (entry.isDirectory()) {
+        directories.add(target);
+      } else if (upToDate.test(entry, target)) {
+        unchanged.add(entry.getName());
+      } else {
+        directories.add(target.getParent());
+        writes.put(entry, target);
+      }
+    }
+    List<Path> deletions = new LinkedList<>();
+    List<String> deleted = new LinkedList<>();
+    for (String name : previousNames) {
+      ArchiveEntry entry = entries.get(name);
+      if (entry == null || entry.isDirectory()) {
+        deletions.add(resolve(root, name));
+        deleted.add(name);
+      }
+    }
+
+    try {
+      for (Path target : deletions) {
+        Files.deleteIfExists(target);
+      }
+      for (Path directory : directories) {
+        Files.createDirectories(directory);
+      }
+    } catch (IOException e) {
+      throw new ArchiveException(String.format("Cannot prepare output folder %s for archive %s",
+          outputFolder.getAbsolutePath(), file.getAbsolutePath()), e);
+    }
+
+    writeEntries(writes, parallelism);
+
+    List<String> written = new ArrayList<>(writes.size());
+    for (ArchiveEntry entry : writes.keySet()) {
+      written.add(entry.getName());
+    }
+    return new ExtractionResult(written, unchanged, deleted);
+  }
+
+  private void writeEntries(Map<ArchiveEntry, Path> writes, int parallelism) throws ArchiveException {
+    int threads = Math.min(Math.min(parallelism, getDefaultParallelism()), writes.size());
+    if (threads <= 1) {
+      byte[] buffer = new byte[BUFFER_SIZE];
+      for (Entry<ArchiveEntry, Path> write : writes.entrySet()) {
+        writeEntry(write.getKey(), write.getValue(), buffer);
+      }
+      return;
+    }
+
+    // Start with the largest entries, so the threads finish at roughly the same time.
+    List<Entry<ArchiveEntry, Path>> tasks = new ArrayList<>(writes.entrySet());
+    tasks.sort(Comparator.comparingLong((Entry<ArchiveEntry, Path> write) -> write.getKey()
+        .getSize())
+        .reversed());
+
+    // The writers take the entries from the queue. The calling thread is a writer, too, so the extraction makes
+    // progress even if the shared threads are busy with other archives.
+    Queue<Entry<ArchiveEntry, Path>> queue = new ConcurrentLinkedQueue<>(tasks);
+    Callable<Void> writer = () -> {
+      byte[] buffer = new byte[BUFFER_SIZE];
+      Entry<ArchiveEntry, Path> write;
+      while ((write = queue.poll()) != null) {
+        try {
+          writeEntry(write.getKey(), write.getValue(), buffer);
+        } catch (ArchiveException | RuntimeException e) {
+          // Let the other writers stop early.
+          queue.clear();
+          throw e;
+        }
+      }
+      return null;
+    };
+    List<Future<Void>> results = new ArrayList<>(threads - 1);
+    ArchiveException failure = null;
+    try {
+      for (int i = 1; i < threads; i++) {
+        results.add(EXECUTOR.submit(writer));
+      }
+      writer.call();
+    } catch (ArchiveException e) {
+      failure = e;
+    } catch (Exception e) {
+      failure = new ArchiveException(e);
+    }
+    // Wait for all writers, so no file is written after this method returned. The first exception is reported.
+    for (Future<Void> result : results) {
+      try {
+        await(result);
+      } catch (ArchiveException e) {
+        if (failure == null) {
+          failure = e;
+        }
+      }
+    }
+    if (failure != null) {
+      throw failure;
+    }
+  }
+
+  /**
+   * Writes an entry to a temporary file in the target folder and moves it to the target atomically, so the target
+   * file is either the previous or the new version, but never a partially written file.
+   */
+  private void writeEntry(ArchiveEntry entry, Path target, byte[] buffer) throws ArchiveException {
+    Path temp;
+    try {
+      temp = Files.createTempFile(target.getParent(), "." + target.getFileName(), TEMP_SUFFIX);
+    } catch (IOException e) {
+      throw new ArchiveException(
+          String.format("Cannot extract entry %s of archive %s", entry.getName(), file.getAbsolutePath()), e);
+    }
+    try {
+      copyEntry(entry, temp, buffer, "extract");
+      Files.move(temp, target, REPLACE_EXISTING, ATOMIC_MOVE);
+    } catch (IOException e) {
+      throw new ArchiveException(
+          String.format("Cannot extract entry %s of archive %s", entry.getName(), file.getAbsolutePath()), e);
+    } finally {
+      try {
+        Files.deleteIfExists(temp);
+      } catch (IOException e) {
+        // The temporary file is left in the output folder.
+      }
+    }
+  }
+
+  /**
+   * Reads an entry, verifies its checksum and computes its hash.
+   *
+   * @param entry
+   *        The entry to read.
+   * @param target
+   *        The file to write the entry to or <code>null</code> if the entry is only hashed.
+   * @param buffer
+   *        The copy buffer.
+   * @param operation
+   *        The operation for error messages.
+   * @return Returns the hexadecimal SHA-1 hash of the entry.
+   */
+  private String copyEntry(ArchiveEntry entry, Path target, byte[] buffer, String operation) throws ArchiveException {
+    CRC32 crc = new CRC32();
+    MessageDigest digest;
+    try {
+      digest = MessageDigest.getInstance(SHA_1);
+    } catch (NoSuchAlgorithmException e) {
+      throw new ArchiveException("Cannot hash archive entries - SHA-1 is not available.", e);
+    }
+    try (InputStream input = new CheckedInputStream(getInputStream(entry), crc);
+        OutputStream output = target == null ? null : Files.newOutputStream(target)) {
+      int read;
+      while ((read = input.read(buffer)) != -1) {
+        digest.update(buffer, 0, read);
+        if (output != null) {
+          output.write(buffer, 0, read);
+        }
+      }
+    } catch (IOException e) {
+      throw new ArchiveException(
+          String.format("Cannot %s entry %s of archive %s", operation, entry.getName(), file.getAbsolutePath()), e);
+    }
+    verifyChecksum(entry, crc);
+    String hash = Hash.toHexString(digest.digest());
+    digests.put(entry.getName(), hash);
+    return hash;
+  }
+
+  private InputStream getInputStream(ArchiveEntry entry) throws IOException {
+    ZipEntry zipEntry = zipFile.getEntry(entry.getName());
+    if (zipEntry == null) {
+      throw new IOException(String.format("The entry %s is not available.", entry.getName()));
+    }
+    return zipFile.getInputStream(zipEntry);
+  }
+
+  private void verifyChecksum(ArchiveEntry entry, CRC32 crc) throws ArchiveException {
+    if (entry.getCrc() >= 0 && entry.getCrc() != crc.getValue()) {
+      throw new ArchiveException(String.format("The entry %s of archive %s is corrupted - CRC-32 checksum mismatch.",
+          entry.getName(), file.getAbsolutePath()));
+    }
+  }
+
+  private static boolean hasSize(Path target, long size) {
+    if (!Files.isRegularFile(target)) {
+      return false;
+    }
+    try {
+      return Files.size(target) == size;
+    } catch (IOException e) {
+      return false;
+    }
+  }
+
+  /**
+   * Resolves the target of an entry and denies entries that would be extracted outside of the output folder.
+   *
+   * @param root
+   *        The absolute and normalized output folder.
+   * @param name
+   *        The entry name.
+   * @return Returns the target path of the entry.
+   * @throws ArchiveException
+   *         Thrown if the entry is not located within the output folder.
+   */
+  static Path resolve(Path root, String name) throws ArchiveException {
+    Path target;
+    try {
+      target = root.resolve(name)
+          .normalize();
+    } catch (RuntimeException e) {
+      throw new ArchiveException(String.format("The archive entry '%s' has an invalid name.", name), e);
+    }
+    if (!target.startsWith(root) || target.equals(root)) {
+      throw new ArchiveException(
+          String.format("The archive entry '%s' would be extracted outside of the output folder.", name));
+    }
+    return target;
+  }
+
+  private static ThreadPoolExecutor createExecutor() {
+    int threads = getDefaultParallelism();
+    AtomicInteger threadNumber = new AtomicInteger();
+    ThreadFactory threadFactory = runnable -> AccessController.doPrivileged(new PrivilegedAction<Thread>() {
+
+      @Override
+      public Thread run() {
+        // The threads are created on demand, so they must not inherit the context classloader of a caller.
+        Thread thread = new Thread(runnable, THREAD_NAME + "-" + threadNumber.incrementAndGet());
+        thread.setDaemon(true);
+        thread.setContextClassLoader(Archive.class.getClassLoader());
+        return thread;
+      }
+    });
+    ThreadPoolExecutor executor = new ThreadPoolExecutor(threads, threads, KEEP_ALIVE, TimeUnit.MILLISECONDS,
+        new LinkedBlockingQueue<>(), threadFactory);
+    executor.allowCoreThreadTimeOut(true);
+    return executor;
+  }
+
+  private static void await(Future<Void> result) throws ArchiveException {
+    try {
+      result.get();
+    } catch (InterruptedException e) {
+      Thread.currentThread()
+          .interrupt();
+      throw new ArchiveException("Interrupted while extracting the archive.", e);
+    } catch (ExecutionException e) {
+      Throwable cause = e.getCause();
+      if (cause instanceof ArchiveException) {
+        throw (ArchiveException) cause;
+      } else {
+        throw new ArchiveException(cause);
+      }
+    }
+  }
+
+  private static int getDefaultParallelism() {
+    return Runtime.getRuntime()
+        .availableProcessors();
+  }
+
+  @Override
+  public void close() throws ArchiveException {
+    try {
+      zipFile.close();
+    } catch (IOException e) {
+      throw new ArchiveException(String.format("Cannot close archive %s", file.getAbsolutePath()), e);
+    }
+  }
+
+  @Override
+  public String toString() {
+    return "Archive [file=" + file + ", entries=" + entries.size() + "]";
+  }
+
+}
@@ -0,0 +1,91 @@
+package com.remondis.limbus.utils.archive;
+
+import java.util.Objects;
+import java.util.zip.ZipEntry;
+
+/**
+ * Immutable description of an entry of an {@link Archive} as read from the central directory of the archive.
+ */
+public final class ArchiveEntry {
+
+  private final String name;
+
+  private final boolean directory;
+
+  private final long size;
+
+  private final long crc;
+
+  ArchiveEntry(ZipEntry entry) {
+    this.name = entry.getName();
+    this.directory = entry.isDirectory();
+    this.size = entry.getSize();
+    this.crc = entry.getCrc();
+  }
+
+  /**
+   * @return Returns the name of the entry. Directory names end with a '/'.
+   */
+  public String getName() {
+    return name;
+  }
+
+  /**
+   * @return Returns <code>true</code> if this entry is a directory, <code>false</code> otherwise.
+   */
+  public boolean isDirectory() {
+    return directory;
+  }
+
+  /**
+   * @return Returns the uncompressed size of the entry or -1 if unknown.
+   */
+  public long getSize() {
+    return size;
+  }
+
+  /**
+   * @return Returns the CRC-32 checksum of the uncompressed data or -1 if unknown.
+   */
+  public long getCrc() {
+    return crc;
+  }
+
+  /**
+   * Checks if the specified entry most likely has the same content as this entry. The entries are compared by their
+   * name, size and CRC-32 checksum as recorded in the central directory, so the content is not read.
+   *
+   * @param other
+   *        The entry to compare to. May be <code>null</code>.
+   * @return Returns <code>true</code> if the entries are considered unchanged, <code>false</code> otherwise.
+   */
+  public boolean isUnchanged(ArchiveEntry other) {
+    if (other == null || size < 0 || crc < 0) {
+      return false;
+    }
+    return name.equals(other.name) && directory == other.directory && size == other.size && crc == other.crc;
+  }
+
+  @Override
+  public int hashCode() {
+    return Objects.hash(name, directory, size, crc);
+  }
+
+  @Override
+  public boolean equals(Object obj) {
+    if (this == obj) {
+      return true;
+    }
+    if (obj == null || getClass() != obj.getClass()) {
+      return false;
+    }
+    ArchiveEntry other = (ArchiveEntry) obj;
+    return name.equals(other.name) && directory == other.directory && size == other.size && crc == other.crc;
+  }
+
+  @Override
+  public String toString() {
+    return "ArchiveEntry [name=" + name + ", directory=" + directory + ", size=" + size + ", crc=" + crc + "]";
+  }
+
+}
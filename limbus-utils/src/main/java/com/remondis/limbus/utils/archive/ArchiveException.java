@@ -0,0 +1,29 @@
+package com.remondis.limbus.utils.archive;
+
+/**
+ * Thrown if an archive cannot be read or extracted, or if an archive entry is corrupted or unsafe to extract.
+ */
+public class ArchiveException extends Exception {
+
+  /**
+   *
+   */
+  private static final long serialVersionUID = 1L;
+
+  public ArchiveException() {
+    super();
+  }
+
+  public ArchiveException(String message, Throwable cause) {
+    super(message, cause);
+  }
+
+  public ArchiveException(String message) {
+    super(message);
+  }
+
+  public ArchiveException(Throwable cause) {
+    super(cause);
+  }
+
+}
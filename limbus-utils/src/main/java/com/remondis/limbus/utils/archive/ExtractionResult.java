@@ -0,0 +1,59 @@
+package com.remondis.limbus.utils.archive;
+
+import java.util.Collections;
+import java.util.List;
+
+/**
+ * The result of an extraction performed by an {@link Archive}. Lists the names of the entries that were written, kept
+ * unchanged or deleted from the output folder.
+ */
+public final class ExtractionResult {
+
+  private final List<String> written;
+
+  private final List<String> unchanged;
+
+  private final List<String> deleted;
+
+  ExtractionResult(List<String> written, List<String> unchanged, List<String> deleted) {
+    this.written = Collections.unmodifiableList(written);
+    this.unchanged = Collections.unmodifiableList(unchanged);
+    this.deleted = Collections.unmodifiableList(deleted);
+  }
+
+  /**
+   * @return Returns the names of the file entries written to the output folder.
+   */
+  public List<String> getWritten() {
+    return written;
+  }
+
+  /**
+   * @return Returns the names of the file entries that were already up to date in the output folder.
+   */
+  public List<String> getUnchanged() {
+    return unchanged;
+  }
+
+  /**
+   * @return Returns the names of the file entries of the previous archive version that were deleted from the output
+   *         folder.
+   */
+  public List<String> getDeleted() {
+    return deleted;
+  }
+
+  /**
+   * @return Returns <code>true</code> if the output folder was modified, <code>false</code> otherwise.
+   */
+  public boolean hasChanges() {
+    return !written.isEmpty() || !deleted.isEmpty();
+  }
+
+  @Override
+  public String toString() {
+    return "ExtractionResult [written=" + written.size() + ", unchanged=" + unchanged.size() + ", deleted="
+        + deleted.size() + "]";
+  }
+
+}
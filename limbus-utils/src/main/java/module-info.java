@@ -1,5 +1,6 @@
 module com.remondis.limbus.utils {
   exports com.remondis.limbus.utils;
+  exports com.remondis.limbus.utils.archive;
 
   requires java.logging;
 }
\ No newline at end of file
@@ -1,9 +1,23 @@
 package com.remondis.limbus.utils;
 
 import static org.junit.jupiter.api.Assertions.assertArrayEquals;
+import static org.junit.jupiter.api.Assertions.assertEquals;
 import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertThrows;
 import static org.junit.jupiter.api.Assertions.assertTrue;
 
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+
 import org.junit.jupiter.api.Test;
 
 /**
@@ -49,4 +63,196 @@ public class CacheTest {
     }
   }
 
+  @Test
+  public void shouldEvictLeastRecentlyUsed() {
+    List<String> removed = new ArrayList<>();
+    Cache<String, Long> cache = CacheBuilder.<String, Long> create()
+        .maximumSize(2)
+        .evictionPolicy(EvictionPolicy.LRU)
+        .disposeStrategy(new RemovalRecorder(removed))
+        .build();
+    cache.add("a", 1L);
+    cache.add("b", 2L);
+    cache.get("a");
+    cache.cleanUp();
+    cache.add("c", 3L);
+
+    assertEquals(2, cache.size());
+    assertTrue(cache.containsKey("a"));
+    assertFalse(cache.containsKey("b"));
+    assertEquals(1, removed.size());
+    assertEquals("b", removed.get(0));
+    assertEquals(1, cache.getStats()
+        .getEvictionCount());
+  }
+
+  @Test
+  public void shouldKeepFrequentlyUsedItemsOnScan() {
+    Cache<Integer, Integer> cache = CacheBuilder.<Integer, Integer> create()
+        .maximumSize(100)
+        .build();
+    for (int i = 0; i < 100; i++) {
+      cache.add(i, i);
+    }
+    for (int round = 0; round < 5; round++) {
+      for (int i = 0; i < 50; i++) {
+        cache.get(i);
+      }
+      cache.cleanUp();
+    }
+    // A scan of items requested only once
+    for (int i = 1000; i < 2000; i++) {
+      cache.add(i, i);
+    }
+    assertEquals(100, cache.size());
+    int retained = 0;
+    for (int i = 0; i < 50; i++) {
+      if (cache.containsKey(i)) {
+        retained++;
+      }
+    }
+    assertTrue(retained >= 45, "Frequently used items were evicted by a scan: " + retained);
+  }
+
+  @Test
+  public void shouldBoundByWeight() {
+    Cache<String, String> cache = CacheBuilder.<String, String> create()
+        .maximumWeight(10, (key, value) -> value.length())
+        .build();
+    cache.add("a", "12345");
+    cache.add("b", "12345");
+    assertEquals(2, cache.size());
+    cache.add("c", "1");
+    assertEquals(2, cache.size());
+    // An item heavier than the maximum is not retained.
+    cache.add("d", "12345678901");
+    assertFalse(cache.containsKey("d"));
+  }
+
+  @Test
+  public void shouldExpire() {
+    AtomicLong time = new AtomicLong();
+    List<String> removed = new ArrayList<>();
+    Cache<String, Long> cache = CacheBuilder.<String, Long> create()
+        .expireAfterWrite(10, TimeUnit.NANOSECONDS)
+        .expireAfterAccess(5, TimeUnit.NANOSECONDS)
+        .disposeStrategy(new RemovalRecorder(removed))
+        .ticker(time::get)
+        .build();
+    cache.add("write", 1L);
+    cache.add("access", 2L);
+    time.set(4);
+    assertEquals(1L, cache.get("write"));
+    time.set(8);
+    // Not requested for 8ns
+    assertNull(cache.get("access"));
+    assertEquals(1L, cache.get("write"));
+    time.set(10);
+    cache.cleanUp();
+    assertTrue(cache.isEmpty());
+    assertEquals(2, removed.size());
+    assertEquals(2, cache.getStats()
+        .getExpirationCount());
+  }
+
+  @Test
+  public void shouldCoalesceLoads() throws Exception {
+    ExecutorService executor = Executors.newFixedThreadPool(4);
+    try {
+      Cache<String, Long> cache = CacheBuilder.<String, Long> create()
+          .maximumSize(10)
+          .executor(executor)
+          .build();
+      AtomicInteger loads = new AtomicInteger();
+      CountDownLatch release = new CountDownLatch(1);
+      List<CompletableFuture<Long>> futures = new ArrayList<>();
+      for (int i = 0; i < 10; i++) {
+        futures.add(cache.getAsync("key", key -> {
+          loads.incrementAndGet();
+          try {
+            release.await();
+          } catch (InterruptedException e) {
+            throw new IllegalStateException(e);
+          }
+          return 42L;
+        }));
+      }
+      release.countDown();
+      for (CompletableFuture<Long> future : futures) {
+        assertEquals(42L, future.get(5, TimeUnit.SECONDS));
+      }
+      assertEquals(1, loads.get());
+      assertEquals(42L, cache.get("key", key -> 0L));
+      CacheStats stats = cache.getStats();
+      assertEquals(1, stats.getLoadSuccessCount());
+      assertEquals(1, stats.getHitCount());
+      assertEquals(10, stats.getMissCount());
+    } finally {
+      executor.shutdownNow();
+    }
+  }
+
+  @Test
+  public void shouldRejectRecursiveLoads() throws Exception {
+    Cache<String, Long> cache = CacheBuilder.<String, Long> create()
+        .build();
+    assertThrows(IllegalStateException.class, () -> cache.get("key", key -> cache.get(key, other -> 1L)));
+    // The failed load is not pending anymore.
+    assertEquals(2L, cache.get("key", key -> cache.get("other", other -> 1L) + 1));
+    assertEquals(1L, cache.get("other"));
+  }
+
+  @Test
+  public void shouldProvideReadOnlyItemView() throws Exception {
+    ItemViewCache cache = new ItemViewCache();
+    cache.add("key", 1L);
+    Map<String, Long> items = cache.getItems();
+    assertEquals(1L, items.get("key"));
+    assertEquals(1, items.size());
+    assertThrows(UnsupportedOperationException.class, () -> items.put("other", 2L));
+  }
+
+  private static class ItemViewCache extends Cache<String, Long> {
+
+    private ItemViewCache() throws Exception {
+      super();
+    }
+
+    @SuppressWarnings("deprecation")
+    private Map<String, Long> getItems() {
+      return cache;
+    }
+  }
+
+  private static class RemovalRecorder implements DisposeStrategy<String, Long> {
+
+    private final List<String> removed;
+
+    RemovalRecorder(List<String> removed) {
+      this.removed = removed;
+    }
+
+    @Override
+    public void eventItemAdded(Cache<String, Long> cache, String cacheToken, Long cacheValue) {
+    }
+
+    @Override
+    public boolean eventItemRequested(Cache<String, Long> cache, String cacheToken, Long cacheValue) {
+      return true;
+    }
+
+    @Override
+    public void eventRemoved(Cache<String, Long> cache, String cacheToken, Long cacheValue) {
+      removed.add(cacheToken);
+    }
+
+    @Override
+    public void initialize() {
+    }
+
+    @Override
+    public void finish() {
+    }
+  }
+
 }
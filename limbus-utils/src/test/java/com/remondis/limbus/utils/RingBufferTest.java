@@ -0,0 +1,64 @@
+package com.remondis.limbus.utils;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.util.concurrent.atomic.AtomicInteger;
+
+import org.junit.jupiter.api.Test;
+
+public class RingBufferTest {
+
+  @Test
+  public void shouldConsumeInOrder() {
+    RingBuffer<AtomicInteger> ringBuffer = new RingBuffer<>(3, AtomicInteger::new);
+    assertEquals(4, ringBuffer.capacity());
+    for (int round = 0; round < 3; round++) {
+      for (int i = 0; i < 4; i++) {
+        publish(ringBuffer, i);
+      }
+      assertEquals(RingBuffer.NO_SEQUENCE, ringBuffer.claim());
+      for (int i = 0; i < 4; i++) {
+        assertEquals(i, ringBuffer.peek()
+            .get());
+        ringBuffer.release();
+      }
+      assertNull(ringBuffer.peek());
+    }
+    assertEquals(12, ringBuffer.getConsumedSequence());
+  }
+
+  @Test
+  public void shouldNotPublishAfterClose() {
+    RingBuffer<AtomicInteger> ringBuffer = new RingBuffer<>(4, AtomicInteger::new);
+    publish(ringBuffer, 1);
+    long claimed = ringBuffer.claim();
+    ringBuffer.close();
+    assertTrue(ringBuffer.isClosed());
+    assertEquals(RingBuffer.NO_SEQUENCE, ringBuffer.claim());
+
+    // The elements claimed before close are consumed.
+    assertEquals(1, ringBuffer.peek()
+        .get());
+    ringBuffer.release();
+    assertFalse(ringBuffer.isDrained());
+    assertNull(ringBuffer.peek());
+    ringBuffer.get(claimed)
+        .set(2);
+    ringBuffer.publish(claimed);
+    assertEquals(2, ringBuffer.peek()
+        .get());
+    ringBuffer.release();
+    assertTrue(ringBuffer.isDrained());
+  }
+
+  private static void publish(RingBuffer<AtomicInteger> ringBuffer, int value) {
+    long sequence = ringBuffer.claim();
+    ringBuffer.get(sequence)
+        .set(value);
+    ringBuffer.publish(sequence);
+  }
+
+}
@@ -0,0 +1,188 @@
+package com.remondis.limbus.utils.archive;
+
+import static java.util.Arrays.asList;
+import static org.junit.jupiter.api.Assertions.assertArrayEquals;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.io.File;
+import java.io.FileOutputStream;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.Map.Entry;
+import java.util.zip.ZipEntry;
+import java.util.zip.ZipOutputStream;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+public class ArchiveTest {
+
+  @Test
+  public void test_extract_and_update(@TempDir Path folder) throws Exception {
+    Map<String, String> version1 = new LinkedHashMap<>();
+    version1.put("lib/a.jar", "a");
+    version1.put("lib/b.jar", "b");
+    version1.put("config/c.properties", "c");
+    File zip1 = createZip(folder, "v1.zip", version1);
+
+    Map<String, String> version2 = new LinkedHashMap<>();
+    version2.put("lib/a.jar", "a");
+    version2.put("lib/b.jar", "b changed");
+    version2.put("lib/d.jar", "d");
+    File zip2 = createZip(folder, "v2.zip", version2);
+
+    File output = Files.createDirectory(folder.resolve("output"))
+        .toFile();
+    try (Archive archive1 = Archive.open(zip1); Archive archive2 = Archive.open(zip2)) {
+      ExtractionResult extracted = archive1.extract(output, 2);
+      assertEquals(asList("lib/a.jar", "lib/b.jar", "config/c.properties"), extracted.getWritten());
+      assertContent(output, version1);
+
+      ExtractionResult updated = archive2.update(output, archive1);
+      assertEquals(asList("lib/b.jar", "lib/d.jar"), updated.getWritten());
+      assertEquals(asList("lib/a.jar"), updated.getUnchanged());
+      assertEquals(asList("config/c.properties"), updated.getDeleted());
+      assertContent(output, version2);
+      assertFalse(new File(output, "config/c.properties").exists());
+
+      ExtractionResult unchanged = archive2.update(output, archive2);
+      assertFalse(unchanged.hasChanges());
+    }
+  }
+
+  @Test
+  public void test_update_replaces_files(@TempDir Path folder) throws Exception {
+    File zip1 = createZip(folder, "v1.zip", Map.of("a.jar", "a"));
+    File zip2 = createZip(folder, "v2.zip", Map.of("a.jar", "a changed"));
+    File output = Files.createDirectory(folder.resolve("output"))
+        .toFile();
+    Path link = folder.resolve("link.jar");
+    try (Archive archive1 = Archive.open(zip1); Archive archive2 = Archive.open(zip2)) {
+      archive1.extract(output);
+      Files.createLink(link, output.toPath()
+          .resolve("a.jar"));
+
+      archive2.update(output, archive1);
+      assertContent(output, Map.of("a.jar", "a changed"));
+      // The file is replaced by a new file, not overwritten.
+      assertArrayEquals("a".getBytes(StandardCharsets.UTF_8), Files.readAllBytes(link));
+      assertArrayEquals(new String[] {
+          "a.jar"
+      }, output.list());
+    }
+  }
+
+  @Test
+  public void test_update_using_hashes(@TempDir Path folder) throws Exception {
+    Map<String, String> version1 = new LinkedHashMap<>();
+    version1.put("a.jar", "a");
+    version1.put("b.jar", "b");
+    File zip1 = createZip(folder, "v1.zip", version1);
+
+    Map<String, String> version2 = new LinkedHashMap<>();
+    version2.put("a.jar", "a");
+    version2.put("c.jar", "c");
+    File zip2 = createZip(folder, "v2.zip", version2);
+
+    File output = Files.createDirectory(folder.resolve("output"))
+        .toFile();
+    Map<String, String> previousHashes;
+    try (Archive archive1 = Archive.open(zip1)) {
+      archive1.extract(output);
+      previousHashes = archive1.hash();
+    }
+    try (Archive archive2 = Archive.open(zip2)) {
+      ExtractionResult updated = archive2.update(output, previousHashes);
+      assertEquals(asList("c.jar"), updated.getWritten());
+      assertEquals(asList("a.jar"), updated.getUnchanged());
+      assertEquals(asList("b.jar"), updated.getDeleted());
+      assertContent(output, version2);
+    }
+  }
+
+  @Test
+  public void test_hash(@TempDir Path folder) throws Exception {
+    Map<String, String> content = new LinkedHashMap<>();
+    content.put("a.txt", "a");
+    content.put("b.txt", "b");
+    File zip1 = createZip(folder, "1.zip", content);
+    File zip2 = createZip(folder, "2.zip", content);
+    try (Archive archive1 = Archive.open(zip1); Archive archive2 = Archive.open(zip2)) {
+      Map<String, String> hashes = archive1.hash();
+      // SHA-1 of "a"
+      assertEquals("86f7e437faa5a7fce15d1ddcb9eaeaea377667b8", hashes.get("a.txt"));
+      assertEquals(hashes, archive2.hash());
+    }
+  }
+
+  @Test
+  public void test_deny_entries_outside_output_folder(@TempDir Path folder) throws Exception {
+    Map<String, String> content = new LinkedHashMap<>();
+    content.put("safe.txt", "safe");
+    content.put("../evil.txt", "evil");
+    File zip = createZip(folder, "evil.zip", content);
+    File output = Files.createDirectory(folder.resolve("output"))
+        .toFile();
+    try (Archive archive = Archive.open(zip)) {
+      assertThrows(ArchiveException.class, () -> archive.extract(output));
+    }
+    // Nothing is written if the archive is unsafe.
+    assertFalse(new File(output, "safe.txt").exists());
+    assertFalse(folder.resolve("evil.txt")
+        .toFile()
+        .exists());
+  }
+
+  @Test
+  public void test_deny_entries_with_same_target(@TempDir Path folder) throws Exception {
+    Map<String, String> content = new LinkedHashMap<>();
+    content.put("lib/a.jar", "a");
+    content.put("lib/./a.jar", "other a");
+    File zip = createZip(folder, "duplicate.zip", content);
+    File output = Files.createDirectory(folder.resolve("output"))
+        .toFile();
+    try (Archive archive = Archive.open(zip)) {
+      assertThrows(ArchiveException.class, () -> archive.extract(output, 2));
+    }
+    assertFalse(new File(output, "lib/a.jar").exists());
+  }
+
+  @Test
+  public void test_resolve(@TempDir Path folder) throws Exception {
+    Path root = folder.toAbsolutePath()
+        .normalize();
+    assertTrue(Archive.resolve(root, "lib/a.jar")
+        .startsWith(root));
+    assertThrows(ArchiveException.class, () -> Archive.resolve(root, "lib/../../a.jar"));
+    assertThrows(ArchiveException.class, () -> Archive.resolve(root, "/a.jar"));
+    assertThrows(ArchiveException.class, () -> Archive.resolve(root, "."));
+  }
+
+  private void assertContent(File output, Map<String, String> expected) throws Exception {
+    for (Entry<String, String> entry : expected.entrySet()) {
+      byte[] content = Files.readAllBytes(new File(output, entry.getKey()).toPath());
+      assertArrayEquals(entry.getValue()
+          .getBytes(StandardCharsets.UTF_8), content);
+    }
+  }
+
+  private File createZip(Path folder, String name, Map<String, String> entries) throws Exception {
+    File zip = folder.resolve(name)
+        .toFile();
+    try (ZipOutputStream zout = new ZipOutputStream(new FileOutputStream(zip))) {
+      for (Entry<String, String> entry : entries.entrySet()) {
+        zout.putNextEntry(new ZipEntry(entry.getKey()));
+        zout.write(entry.getValue()
+            .getBytes(StandardCharsets.UTF_8));
+        zout.closeEntry();
+      }
+    }
+    return zip;
+  }
+}
@@ -0,0 +1,77 @@
+package com.remondis.limbus.files;
+
+import java.util.Arrays;
+
+/**
+ * The immutable content of a file in the {@link InMemoryFilesystemImpl}. The content is a sequence of chunks. Appending
+ * creates a new content that references the chunks of the existing content, so the existing bytes are not copied.
+ * The chunks are joined once when the content is read.
+ */
+final class FileContent {
+
+  private final byte[][] chunks;
+
+  private final int length;
+
+  /**
+   * Holds the joined chunks. The content is immutable, so the joined array is computed at most once.
+   */
+  private volatile byte[] joined;
+
+  private FileContent(byte[][] chunks, int length, byte[] joined) {
+    this.chunks = chunks;
+    this.length = length;
+    this.joined = joined;
+  }
+
+  /**
+   * @param content
+   *        The file content. The array is referenced, not copied.
+   * @return Returns the file content.
+   */
+  static FileContent of(byte[] content) {
+    return new FileContent(new byte[][] {
+        content
+    }, content.length, content);
+  }
+
+  /**
+   * @param content
+   *        The content to append. The array is referenced, not copied.
+   * @return Returns a new file content holding this content followed by the specified content.
+   */
+  FileContent append(byte[] content) {
+    if (content.length == 0) {
+      return this;
+    }
+    byte[] current = joined;
+    // Referencing the joined array keeps the number of chunks small for frequent appends.
+    byte[][] base = (current == null) ? chunks : new byte[][] {
+        current
+    };
+    byte[][] newChunks = Arrays.copyOf(base, base.length + 1);
+    newChunks[base.length] = content;
+    return new FileContent(newChunks, Math.addExact(length, content.length), null);
+  }
+
+  int length() {
+    return length;
+  }
+
+  /**
+   * @return Returns the content as byte array.
+   */
+  byte[] toByteArray() {
+    byte[] result = joined;
+    if (result == null) {
+      result = new byte[length];
+      int offset = 0;
+      for (byte[] chunk : chunks) {
+        System.arraycopy(chunk, 0, result, offset, chunk.length);
+        offset += chunk.length;
+      }
+      joined = result;
+    }
+    return result;
+  }
+}
@@ -10,13 +10,10 @@ import java.io.InputStream;
 import java.io.OutputStream;
 import java.net.MalformedURLException;
 import java.net.URL;
-import java.util.Collections;
-import java.util.HashMap;
-import java.util.HashSet;
-import java.util.Iterator;
 import java.util.LinkedList;
 import java.util.List;
-import java.util.Map;
+import java.util.Map.Entry;
+import java.util.concurrent.ConcurrentHashMap;
 import java.util.regex.Pattern;
 
 import com.remondis.limbus.api.Initializable;
@@ -24,8 +21,10 @@ import com.remondis.limbus.files.vfs.Handler;
 import com.remondis.limbus.utils.Lang;
 
 /**
- * This is an in-memory implementation of a file system. <b>Do not use the in memory representation for huge amount of
- * files.</b>
+ * This is an in-memory implementation of a file system. The files are stored in a tree of folders, so that paths are
+ * resolved by walking the path segments and folder listings only visit the entries of the folder. The folders are safe
+ * for concurrent access. The content of a file is never modified but replaced, so that appending to a file does not
+ * copy the existing content.
  *
  * @author schuettec
  *
@@ -34,10 +33,10 @@ public class InMemoryFilesystemImpl extends Initializable<Exception> implements
 
   public static final String LIMBUS_MEMORY_PROTOCOL = "vfs";
 
-  private Map<String, byte[]> filesystem;
+  private final FolderNode root;
 
   public InMemoryFilesystemImpl() {
-    filesystem = Collections.synchronizedMap(new HashMap<String, byte[]>());
+    root = new FolderNode();
   }
 
   @Override
@@ -90,55 +89,132 @@ public class InMemoryFilesystemImpl extends Initializable<Exception> implements
   }
 
   protected boolean hasPath(String path) {
-    return filesystem.containsKey(path);
+    return resolve(path) != null;
   }
 
   protected boolean isFile(String path) {
-    if (hasPath(path)) {
-      byte[] content = filesystem.get(path);
-      if (content == null) {
-        return false;
-      } else {
-        return true;
-      }
-    } else {
+    Node node = resolve(path);
+    if (node == null) {
       throw notFound(path);
+    } else {
+      return node instanceof FileNode;
     }
   }
 
   protected boolean isFolder(String path) {
-    if (hasPath(path)) {
-      byte[] content = filesystem.get(path);
-      if (content == null) {
-        return true;
-      } else {
-        return false;
-      }
-    } else {
+    Node node = resolve(path);
+    if (node == null) {
       throw notFound(path);
+    } else {
+      return node instanceof FolderNode;
     }
   }
 
   protected void denyNotAFile(String filePath) {
     filePath = normalizeAndValidate(filePath);
-    if (hasPath(filePath)) {
-      if (!isFile(filePath)) {
-        throw notAFile(filePath);
-      }
-    } else {
-      throw notFound(filePath);
-    }
+    getFileNode(filePath);
   }
 
   protected void denyNotAFolder(String folderPath) {
     folderPath = normalizeAndValidate(folderPath);
-    if (hasPath(folderPath)) {
-      if (!isFolder(folderPath)) {
-        throw notAFolder(folderPath);
+    getFolderNode(folderPath);
+  }
+
+  /**
+   * Resolves the node of the specified path by walking the folder tree.
+   *
+   * @return Returns the node or <code>null</code> if the path does not exist.
+   */
+  private Node resolve(String path) {
+    Node node = root;
+    for (String segment : segments(path)) {
+      if (node instanceof FolderNode) {
+        node = ((FolderNode) node).children.get(segment);
+      } else {
+        return null;
       }
+    }
+    return node;
+  }
+
+  private FileNode getFileNode(String filePath) {
+    Node node = resolve(filePath);
+    if (node == null) {
+      throw notFound(filePath);
+    } else if (node instanceof FileNode) {
+      return (FileNode) node;
     } else {
+      throw notAFile(filePath);
+    }
+  }
+
+  private FolderNode getFolderNode(String folderPath) {
+    Node node = resolve(folderPath);
+    if (node == null) {
       throw notFound(folderPath);
+    } else if (node instanceof FolderNode) {
+      return (FolderNode) node;
+    } else {
+      throw notAFolder(folderPath);
+    }
+  }
+
+  /**
+   * Returns the parent folder of the specified path. Missing parent folders are created.
+   */
+  private FolderNode getOrCreateParent(String[] segments, String path) {
+    FolderNode folder = root;
+    for (int i = 0; i < segments.length - 1; i++) {
+      Node node = folder.children.computeIfAbsent(segments[i], name -> new FolderNode());
+      if (node instanceof FolderNode) {
+        folder = (FolderNode) node;
+      } else {
+        throw notAFolder(path);
+      }
+    }
+    return folder;
+  }
+
+  /**
+   * Stores the specified content in the file of the specified path. The file and missing parent folders are created.
+   */
+  private void putContent(String filePath, FileContent content) {
+    String[] segments = segments(filePath);
+    if (segments.length == 0) {
+      throw notAFile(filePath);
+    }
+    FolderNode parent = getOrCreateParent(segments, filePath);
+    Node node = parent.children.compute(segments[segments.length - 1], (name, existing) -> {
+      if (existing instanceof FolderNode) {
+        return existing;
+      } else {
+        return new FileNode(content);
+      }
+    });
+    if (node instanceof FolderNode) {
+      throw notAFile(filePath);
+    }
+  }
+
+  private static String[] segments(String path) {
+    String[] split = path.split(Pattern.quote(File.separator));
+    int count = 0;
+    for (String segment : split) {
+      if (!segment.isEmpty()) {
+        count++;
+      }
     }
+    if (count == split.length) {
+      return split;
+    }
+    String[] segments = new String[count];
+    int i = 0;
+    for (String segment : split) {
+      if (!segment.isEmpty()) {
+        segments[i++] = segment;
+      }
+    }
+    return segments;
   }
 
   private FileNotFoundException notAFolder(String folderPath) {
@@ -177,16 +253,14 @@ public class InMemoryFilesystemImpl extends Initializable<Exception> implements
   @Override
   public InputStream getFileAsStream(String filePath) throws FileNotFoundException, FileAccessException {
     filePath = normalizeAndValidate(filePath);
-    denyNotAFile(filePath);
-    byte[] fileContent = filesystem.get(filePath);
+    byte[] fileContent = getFileNode(filePath).content.toByteArray();
     return new ByteArrayInputStream(fileContent);
   }
 
   @Override
   public byte[] getFileContent(String filePath) throws FileNotFoundException, FileAccessException {
     filePath = normalizeAndValidate(filePath);
-    denyNotAFile(filePath);
-    return filesystem.get(filePath);
+    return getFileNode(filePath).content.toByteArray();
   }
 
   @Override
@@ -197,8 +271,10 @@ public class InMemoryFilesystemImpl extends Initializable<Exception> implements
   @Override
   public void deleteFile(String filePath) throws FileNotFoundException, FileAccessException {
     filePath = normalizeAndValidate(filePath);
-    denyNotAFile(filePath);
-    filesystem.remove(filePath);
+    String[] segments = segments(filePath);
+    FileNode file = getFileNode(filePath);
+    FolderNode parent = (FolderNode) resolve(toAbsolutePath(segments, segments.length - 1));
+    parent.children.remove(segments[segments.length - 1], file);
   }
 
   @Override
@@ -210,48 +286,23 @@ public class InMemoryFilesystemImpl extends Initializable<Exception> implements
   @Override
   public List<URL> getFolderFiles(String folderPath) throws FileNotFoundException, FileAccessException {
     folderPath = normalizeAndValidate(folderPath);
-    denyNotAFolder(folderPath);
-    Iterator<String> it = filesystem.keySet()
-        .iterator();
+    FolderNode folder = getFolderNode(folderPath);
     List<URL> urls = new LinkedList<>();
-    while (it.hasNext()) {
-      String filePath = it.next();
-      if (isFileIn(folderPath, filePath)) {
-        URL url = getFile(filePath);
-        urls.add(url);
+    for (Entry<String, Node> entry : folder.children.entrySet()) {
+      if (entry.getValue() instanceof FileNode) {
+        String filePath = folderPath.endsWith(File.separator) ? folderPath + entry.getKey()
+            : folderPath + File.separator + entry.getKey();
+        urls.add(getFile(filePath));
       }
     }
     return urls;
   }
 
-  private boolean isFileIn(String folderPath, String filePath) {
-    if (filePath.startsWith(folderPath)) {
-      String leftover = filePath.replace(folderPath + File.separator, "");
-      if (leftover.contains(File.separator)) {
-        return false;
-      } else {
-        return hasFile(filePath) || hasFolder(filePath);
-      }
-    } else {
-      return false;
-    }
-  }
-
   @Override
   public List<String> getFolderEntries(String folderPath) throws FileNotFoundException {
     folderPath = normalizeAndValidate(folderPath);
-    denyNotAFolder(folderPath);
-    Iterator<String> it = filesystem.keySet()
-        .iterator();
-    List<String> names = new LinkedList<>();
-    while (it.hasNext()) {
-      String filePath = it.next();
-      if (isFileIn(folderPath, filePath)) {
-        String name = filePath.replace(folderPath + File.separator, "");
-        names.add(name);
-      }
-    }
-    return names;
+    FolderNode folder = getFolderNode(folderPath);
+    return new LinkedList<>(folder.children.keySet());
   }
 
   private String normalizeAndValidate(String path) {
@@ -291,8 +342,7 @@ public class InMemoryFilesystemImpl extends Initializable<Exception> implements
   @Override
   public boolean isFolderEmpty(String folderPath) throws FileNotFoundException {
     folderPath = normalizeAndValidate(folderPath);
-    denyNotAFolder(folderPath);
-    return getFolderEntries(folderPath).isEmpty();
+    return getFolderNode(folderPath).children.isEmpty();
   }
 
   @Override
@@ -303,55 +353,62 @@ public class InMemoryFilesystemImpl extends Initializable<Exception> implements
       throw new FileAccessException("The specified folder path is a file!");
     }
 
-    String[] folders = folderPath.substring(1)
-        .split(Pattern.quote(File.separator));
+    String[] folders = segments(folderPath);
+    FolderNode parent;
     if (createSubsequent) {
-      String path = null;
-      for (String subFolder : folders) {
-        if (path == null) {
-          path = subFolder;
-        } else {
-          path = path + File.separator + subFolder;
-        }
-        filesystem.put(normalize(path), null);
-      }
+      parent = getOrCreateParent(folders, folderPath);
     } else {
-      denyHasNotAllParentPaths(folders);
-      filesystem.put(normalize(folderPath), null);
+      parent = getExistingParent(folders);
+    }
+    if (folders.length > 0) {
+      Node node = parent.children.computeIfAbsent(folders[folders.length - 1], name -> new FolderNode());
+      if (node instanceof FileNode) {
+        throw new FileAccessException("The specified folder path is a file!");
+      }
     }
   }
 
-  private void denyHasNotAllParentPaths(String[] folders) {
-    String path = null;
+  private FolderNode getExistingParent(String[] folders) {
+    FolderNode folder = root;
     for (int i = 0; i < folders.length - 1; i++) {
-      String subFolder = folders[i];
-      if (path == null) {
-        path = subFolder;
+      Node node = folder.children.get(folders[i]);
+      if (node instanceof FolderNode) {
+        folder = (FolderNode) node;
       } else {
-        path = path + File.separator + subFolder;
-      }
-      if (!hasFolder(path)) {
-        throw new FileNotFoundException(String.format("Folder not found: %s", path));
+        throw new FileNotFoundException(String.format("Folder not found: %s", toAbsolutePath(folders, i + 1)));
       }
     }
+    return folder;
   }
 
   @Override
   public void deleteFolder(String folderPath) throws FileNotFoundException, FileAccessException {
     folderPath = normalizeAndValidate(folderPath);
     if (hasFolder(folderPath)) {
-      Iterator<String> it = new HashSet<>(filesystem.keySet()).iterator();
-      while (it.hasNext()) {
-        String filePath = it.next();
-        if (filePath.startsWith(folderPath)) {
-          filesystem.remove(filePath);
-        }
+      String[] segments = segments(folderPath);
+      if (segments.length == 0) {
+        // The root folder cannot be removed, so only its contents are deleted.
+        root.children.clear();
+      } else {
+        FolderNode parent = (FolderNode) resolve(toAbsolutePath(segments, segments.length - 1));
+        parent.children.remove(segments[segments.length - 1]);
       }
     } else {
       throw notAFile(folderPath);
     }
   }
 
+  private static String toAbsolutePath(String[] segments, int length) {
+    StringBuilder path = new StringBuilder(File.separator);
+    for (int i = 0; i < length; i++) {
+      if (i > 0) {
+        path.append(File.separator);
+      }
+      path.append(segments[i]);
+    }
+    return path.toString();
+  }
+
   /**
    * Adds new content to this in-memory file system. If the content already exists it will be replaced.
    *
@@ -364,10 +421,28 @@ public class InMemoryFilesystemImpl extends Initializable<Exception> implements
     Lang.denyNull("filePath", filePath);
     Lang.denyNull("fileContent", fileContent);
     filePath = normalizeAndValidate(filePath);
-    if (hasFolder(filePath)) {
-      throw notAFile(filePath);
+    putContent(filePath, FileContent.of(fileContent));
+  }
+
+  /**
+   * Appends content to a file of this in-memory file system. The existing content is not copied, the new content
+   * references the existing content.
+   *
+   * @param filePath
+   *        The file path.
+   * @param base
+   *        The content to append to. If <code>null</code> the appended content replaces the file content.
+   * @param appendContent
+   *        The content to append.
+   */
+  void appendContent(String filePath, FileContent base, byte[] appendContent) {
+    Lang.denyNull("filePath", filePath);
+    Lang.denyNull("appendContent", appendContent);
+    filePath = normalizeAndValidate(filePath);
+    if (base == null) {
+      putContent(filePath, FileContent.of(appendContent));
     } else {
-      filesystem.put(filePath, fileContent);
+      putContent(filePath, base.append(appendContent));
     }
   }
 
@@ -398,34 +473,36 @@ public class InMemoryFilesystemImpl extends Initializable<Exception> implements
   @Override
   public String toString() {
     StringBuilder b = new StringBuilder("Filesystem @ memory - Contents:\n");
-    Iterator<String> it = filesystem.keySet()
-        .iterator();
-    while (it.hasNext()) {
-      String bytes = "";
-      String next = it.next();
-      if (isFile(next)) {
-        int length = filesystem.get(next).length;
-        bytes = length + " bytes";
+    appendTree(b, "", root);
+    return b.toString();
+  }
+
+  private void appendTree(StringBuilder b, String folderPath, FolderNode folder) {
+    for (Entry<String, Node> entry : folder.children.entrySet()) {
+      String path = folderPath + File.separator + entry.getKey();
+      Node node = entry.getValue();
+      if (node instanceof FileNode) {
+        String bytes = ((FileNode) node).content.length() + " bytes";
+        b.append(String.format("%-15s (%s) %s\n", bytes, "(File)", path));
+      } else {
+        b.append(String.format("%-15s (%s) %s\n", "", "(Folder)", path));
+        appendTree(b, path, (FolderNode) node);
       }
-      b.append(String.format("%-15s (%s) %s\n", bytes, isFile(next) ? "(File)" : "(Folder)", next));
     }
-    return b.toString();
   }
 
   @Override
   public OutputStream createFile(String filePath, boolean append) throws FileAccessException {
     filePath = normalizeAndValidate(filePath);
-    TransactionalOutputStream outputStream = new TransactionalOutputStream(filePath, this);
-    if (append && hasFile(filePath)) {
-      // Fill the output stream with the existent data
-      byte[] fileContent = getFileContent(filePath);
-      try {
-        outputStream.write(fileContent);
-      } catch (IOException e) {
-        throw new FileAccessException(String.format("Could not append to the existing file %s.", filePath));
+    FileContent base = null;
+    if (append) {
+      // The existing content is not copied, it is referenced by the appended content.
+      Node node = resolve(filePath);
+      if (node instanceof FileNode) {
+        base = ((FileNode) node).content;
       }
     }
-    return outputStream;
+    return new TransactionalOutputStream(filePath, this, base);
   }
 
   @Override
@@ -442,9 +519,9 @@ public class InMemoryFilesystemImpl extends Initializable<Exception> implements
     parts[parts.length - 1] = newFilename;
     String newFilePath = toPath(parts);
     // schuettec - 31.03.2017 : Perform the "move"
-    byte[] file = getFileContent(filePath);
+    FileContent content = getFileNode(filePath).content;
     deleteFile(filePath);
-    addContent(newFilePath, file);
+    putContent(normalizeAndValidate(newFilePath), content);
   }
 
   @Override
@@ -455,4 +532,21 @@ public class InMemoryFilesystemImpl extends Initializable<Exception> implements
       throw new FileAccessException("Could not create file: " + filePath, e);
     }
   }
+
+  private abstract static class Node {
+  }
+
+  private static final class FolderNode extends Node {
+
+    private final ConcurrentHashMap<String, Node> children = new ConcurrentHashMap<>();
+  }
+
+  private static final class FileNode extends Node {
+
+    private final FileContent content;
+
+    private FileNode(FileContent content) {
+      this.content = content;
+    }
+  }
 }
@@ -6,7 +6,8 @@ import java.io.OutputStream;
 
 /**
  * This {@link OutputStream} implementation adds new content to a {@link InMemoryFilesystemImpl}-filesystem on
- * {@link #close()}.
+ * {@link #close()}. If the stream appends to an existing file, only the written bytes are buffered and appended to the
+ * content the file had when the stream was created.
  *
  * @author schuettec
  *
@@ -16,10 +17,16 @@ public class TransactionalOutputStream extends OutputStream {
   private InMemoryFilesystemImpl memoryFS;
   private ByteArrayOutputStream stream;
   private String path;
+  private FileContent base;
 
   public TransactionalOutputStream(String path, InMemoryFilesystemImpl memoryFS) {
+    this(path, memoryFS, null);
+  }
+
+  TransactionalOutputStream(String path, InMemoryFilesystemImpl memoryFS, FileContent base) {
     this.memoryFS = memoryFS;
     this.path = path;
+    this.base = base;
     this.stream = new ByteArrayOutputStream();
   }
 
@@ -40,13 +47,17 @@ public class TransactionalOutputStream extends OutputStream {
 
   @Override
   public void close() throws IOException {
+    if (memoryFS == null) {
+      return;
+    }
     try {
       stream.close();
       byte[] fileContent = stream.toByteArray();
-      memoryFS.addContent(path, fileContent);
+      memoryFS.appendContent(path, base, fileContent);
     } finally {
       stream = null;
       memoryFS = null;
+      base = null;
     }
   }
 }
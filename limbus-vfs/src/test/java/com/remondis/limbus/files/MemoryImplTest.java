@@ -148,6 +148,34 @@ public class MemoryImplTest {
     assertFalse(fs.hasFile(testFilePath));
   }
 
+  @Test
+  public void test_folder_tree() throws FileAccessException, IOException {
+    fs.createFolder(fs.toPath(SOME_FOLDER, "A"), true);
+    fs.createFolder(SOME_FOLDER + "_SIBLING", false);
+    try (OutputStream output = fs.createFile(fs.toPath(SOME_FOLDER, "file"))) {
+      output.write(1);
+    }
+    for (int i = 0; i < 3; i++) {
+      try (OutputStream output = fs.createFile(fs.toPath(SOME_FOLDER, "file"), true)) {
+        output.write(i + 2);
+      }
+    }
+    assertArrayEquals(new byte[] {
+        1, 2, 3, 4
+    }, fs.getFileContent(fs.toPath(SOME_FOLDER, "file")));
+
+    List<String> entries = fs.getFolderEntries(SOME_FOLDER);
+    assertEquals(2, entries.size());
+    assertTrue(entries.contains("A"));
+    assertTrue(entries.contains("file"));
+    assertEquals(1, fs.getFolderFiles(SOME_FOLDER)
+        .size());
+
+    fs.deleteFolder(SOME_FOLDER);
+    assertFalse(fs.hasFolder(SOME_FOLDER));
+    assertTrue(fs.hasFolder(SOME_FOLDER + "_SIBLING"));
+  }
+
   private void assertEmptyFolder(String someFolder) {
     assertTrue(fs.hasFolder(someFolder));
     List<String> entries = fs.getFolderEntries(someFolder);